@@ -38,6 +38,26 @@ public @interface CacheNamespace {
 
   long flushInterval() default 0;
 
+  /**
+   * Whether {@link #flushInterval()} applies to each entry from the time it was cached
+   * instead of clearing the whole cache at once.
+   * @since 3.5.2
+   */
+  boolean flushPerEntry() default false;
+
+  /**
+   * Maximum random time in milliseconds added to each entry's lifetime when {@link #flushPerEntry()} is set.
+   * @since 3.5.2
+   */
+  long flushJitter() default 0;
+
+  /**
+   * Time in milliseconds before an entry expires during which the first reader reloads it
+   * when {@link #flushPerEntry()} is set.
+   * @since 3.5.2
+   */
+  long refreshAhead() default 0;
+
   int size() default 1024;
 
   boolean readWrite() default true;
@@ -63,4 +63,11 @@ public @interface Options {
   String keyColumn() default "";
 
   String resultSets() default "";
+
+  /**
+   * Comma separated tables read or written by the statement, optionally qualified
+   * with a key property (e.g. <code>user:id</code>). When set, a flushing statement
+   * only evicts the second level cache entries sharing one of its tags.
+   */
+  String cacheTags() default "";
 }
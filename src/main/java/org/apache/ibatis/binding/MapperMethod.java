@@ -23,10 +23,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
@@ -37,6 +40,7 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 
 /**
  * @author Clinton Begin
@@ -55,6 +59,13 @@ public class MapperMethod {
   }
 
   public Object execute(SqlSession sqlSession, Object[] args) {
+    if (method.returnsFuture()) {
+      return executeAsync(sqlSession.getConfiguration(), args);
+    }
+    return executeSync(sqlSession, args);
+  }
+
+  private Object executeSync(SqlSession sqlSession, Object[] args) {
     Object result;
     switch (command.getType()) {
       case INSERT: {
@@ -82,6 +93,8 @@ public class MapperMethod {
           result = executeForMap(sqlSession, args);
         } else if (method.returnsCursor()) {
           result = executeForCursor(sqlSession, args);
+        } else if (method.returnsPublisher()) {
+          result = executeForPublisher(sqlSession, args);
         } else {
           Object param = method.convertArgsToSqlCommandParam(args);
           result = sqlSession.selectOne(command.getName(), param);
@@ -104,6 +117,17 @@ public class MapperMethod {
     return result;
   }
 
+  private CompletableFuture<Object> executeAsync(Configuration configuration, Object[] args) {
+    SqlSessionFactory sqlSessionFactory = configuration.getAsyncSqlSessionFactory();
+    return CompletableFuture.supplyAsync(() -> {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        Object result = executeSync(sqlSession, args);
+        sqlSession.commit();
+        return result;
+      }
+    }, configuration.getAsyncMapperExecutor());
+  }
+
   private Object rowCountResult(int rowCount) {
     final Object result;
     if (method.returnsVoid()) {
@@ -169,6 +193,18 @@ public class MapperMethod {
     return result;
   }
 
+  private <T> CursorPublisher<T> executeForPublisher(SqlSession sqlSession, Object[] args) {
+    CursorPublisher<T> result;
+    Object param = method.convertArgsToSqlCommandParam(args);
+    if (method.hasRowBounds()) {
+      RowBounds rowBounds = method.extractRowBounds(args);
+      result = sqlSession.selectPublisher(command.getName(), param, rowBounds);
+    } else {
+      result = sqlSession.selectPublisher(command.getName(), param);
+    }
+    return result;
+  }
+
   private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
     Object collection = config.getObjectFactory().create(method.getReturnType());
     MetaObject metaObject = config.newMetaObject(collection);
@@ -206,6 +242,14 @@ public class MapperMethod {
 
     private static final long serialVersionUID = -2212268410512043556L;
 
+    public ParamMap() {
+      super();
+    }
+
+    public ParamMap(int initialCapacity) {
+      super(initialCapacity);
+    }
+
     @Override
     public V get(Object key) {
       if (!super.containsKey(key)) {
@@ -278,6 +322,8 @@ public class MapperMethod {
     private final boolean returnsMap;
     private final boolean returnsVoid;
     private final boolean returnsCursor;
+    private final boolean returnsPublisher;
+    private final boolean returnsFuture;
     private final boolean returnsOptional;
     private final Class<?> returnType;
     private final String mapKey;
@@ -287,22 +333,33 @@ public class MapperMethod {
 
     public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
       Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
+      this.returnsFuture = isFuture(resolvedReturnType);
+      if (returnsFuture) {
+        // the statement is mapped to the type the future completes with
+        resolvedReturnType = resolvedReturnType instanceof ParameterizedType
+            ? ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0] : Object.class;
+      }
       if (resolvedReturnType instanceof Class<?>) {
         this.returnType = (Class<?>) resolvedReturnType;
       } else if (resolvedReturnType instanceof ParameterizedType) {
         this.returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
       } else {
-        this.returnType = method.getReturnType();
+        this.returnType = returnsFuture ? Object.class : method.getReturnType();
       }
-      this.returnsVoid = void.class.equals(this.returnType);
+      this.returnsVoid = void.class.equals(this.returnType) || (returnsFuture && Void.class.equals(this.returnType));
       this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
       this.returnsCursor = Cursor.class.equals(this.returnType);
+      this.returnsPublisher = CursorPublisher.class.equals(this.returnType);
       this.returnsOptional = Optional.class.equals(this.returnType);
       this.mapKey = getMapKey(method);
       this.returnsMap = this.mapKey != null;
       this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
       this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
       this.paramNameResolver = new ParamNameResolver(configuration, method);
+      if (returnsFuture && (returnsCursor || returnsPublisher || resultHandlerIndex != null)) {
+        throw new BindingException("Mapper method '" + method.getName()
+            + "' cannot stream its results through a Cursor, a CursorPublisher or a ResultHandler in a CompletableFuture.");
+      }
     }
 
     public Object convertArgsToSqlCommandParam(Object[] args) {
@@ -349,6 +406,23 @@ public class MapperMethod {
       return returnsCursor;
     }
 
+    /**
+     * return whether return type is {@code org.apache.ibatis.cursor.CursorPublisher}.
+     * @return return {@code true}, if return type is {@code org.apache.ibatis.cursor.CursorPublisher}
+     */
+    public boolean returnsPublisher() {
+      return returnsPublisher;
+    }
+
+    /**
+     * return whether return type is {@code java.util.concurrent.CompletableFuture} or {@code java.util.concurrent.CompletionStage}.
+     * The other methods describe the type the future completes with.
+     * @return return {@code true}, if the method runs on the async mapper executor
+     */
+    public boolean returnsFuture() {
+      return returnsFuture;
+    }
+
     /**
      * return whether return type is {@code java.util.Optional}.
      * @return return {@code true}, if return type is {@code java.util.Optional}
@@ -358,6 +432,11 @@ public class MapperMethod {
       return returnsOptional;
     }
 
+    private static boolean isFuture(Type type) {
+      Type rawType = type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type;
+      return CompletableFuture.class.equals(rawType) || CompletionStage.class.equals(rawType);
+    }
+
     private Integer getUniqueParamIndex(Method method, Class<?> paramType) {
       Integer index = null;
       final Class<?>[] argTypes = method.getParameterTypes();
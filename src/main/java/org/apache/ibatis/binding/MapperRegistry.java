@@ -15,14 +15,28 @@
  */
 package org.apache.ibatis.binding;
 
+import java.lang.reflect.Constructor;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.builder.annotation.MapperAnnotationBuilder;
+import org.apache.ibatis.builder.annotation.MapperImplementationProcessor;
+import org.apache.ibatis.executor.BackgroundExecutors;
 import org.apache.ibatis.io.ResolverUtil;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
@@ -35,6 +49,7 @@ public class MapperRegistry {
 
   private final Configuration config;
   private final Map<Class<?>, MapperProxyFactory<?>> knownMappers = new HashMap<>();
+  private final Map<Class<?>, Function<SqlSession, ?>> mapperImplementations = new HashMap<>();
 
   public MapperRegistry(Configuration config) {
     this.config = config;
@@ -42,6 +57,10 @@ public class MapperRegistry {
 
   @SuppressWarnings("unchecked")
   public <T> T getMapper(Class<T> type, SqlSession sqlSession) {
+    final Function<SqlSession, ?> mapperImplementation = mapperImplementations.get(type);
+    if (mapperImplementation != null) {
+      return (T) mapperImplementation.apply(sqlSession);
+    }
     final MapperProxyFactory<T> mapperProxyFactory = (MapperProxyFactory<T>) knownMappers.get(type);
     if (mapperProxyFactory == null) {
       throw new BindingException("Type " + type + " is not known to the MapperRegistry.");
@@ -57,7 +76,29 @@ public class MapperRegistry {
     return knownMappers.containsKey(type);
   }
 
+  /**
+   * Makes {@link #getMapper(Class, SqlSession)} return the instances created by the given factory instead of proxies,
+   * e.g. implementations written by hand that call the session directly. The mapper must have been added
+   * first, as its statements are still read from the interface. With
+   * {@link Configuration#isGeneratedMapperImplementationsEnabled()}, the implementations generated by
+   * {@link MapperImplementationProcessor} are found when the mapper is added and need not be added here.
+   *
+   * @param type the mapper interface
+   * @param mapperImplementation creates an implementation bound to a session
+   * @since 3.5.2
+   */
+  public <T> void addMapperImplementation(Class<T> type, Function<SqlSession, ? extends T> mapperImplementation) {
+    if (!hasMapper(type)) {
+      throw new BindingException("Type " + type + " is not known to the MapperRegistry.");
+    }
+    mapperImplementations.put(type, mapperImplementation);
+  }
+
   public <T> void addMapper(Class<T> type) {
+    addMapper(type, () -> MapperAnnotationBuilder.parseXmlResource(config, type));
+  }
+
+  private <T> void addMapper(Class<T> type, Supplier<XPathParser> xmlResource) {
     if (type.isInterface()) {
       if (hasMapper(type)) {
         throw new BindingException("Type " + type + " is already known to the MapperRegistry.");
@@ -68,8 +109,11 @@ public class MapperRegistry {
         // It's important that the type is added before the parser is run
         // otherwise the binding may automatically be attempted by the
         // mapper parser. If the type is already known, it won't try.
-        MapperAnnotationBuilder parser = new MapperAnnotationBuilder(config, type);
+        MapperAnnotationBuilder parser = new MapperAnnotationBuilder(config, type, xmlResource);
         parser.parse();
+        if (config.isGeneratedMapperImplementationsEnabled()) {
+          addGeneratedImplementation(type);
+        }
         loadCompleted = true;
       } finally {
         if (!loadCompleted) {
@@ -79,6 +123,49 @@ public class MapperRegistry {
     }
   }
 
+  /**
+   * Uses the implementation generated by {@link MapperImplementationProcessor} for a {@link Mapper} interface, if it
+   * was generated and can be loaded along with the interface or by {@link Resources}.
+   */
+  private <T> void addGeneratedImplementation(Class<T> type) {
+    if (!type.isAnnotationPresent(Mapper.class)) {
+      return;
+    }
+    String typeName = type.getName();
+    int packageEnd = typeName.lastIndexOf('.') + 1;
+    String implementationName = typeName.substring(0, packageEnd) + typeName.substring(packageEnd).replace('$', '_')
+        + MapperImplementationProcessor.IMPLEMENTATION_SUFFIX;
+    Class<?> implementation;
+    try {
+      implementation = Class.forName(implementationName, true, type.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      try {
+        implementation = Resources.classForName(implementationName);
+      } catch (ClassNotFoundException e2) {
+        return;
+      }
+    }
+    if (!type.isAssignableFrom(implementation)) {
+      return;
+    }
+    Constructor<? extends T> constructor;
+    try {
+      constructor = implementation.asSubclass(type).getConstructor(SqlSession.class);
+      implementation.getMethod(MapperImplementationProcessor.ADD_OBJECT_WRAPPERS, Configuration.class).invoke(null, config);
+    } catch (NoSuchMethodException e) {
+      return;
+    } catch (ReflectiveOperationException e) {
+      throw new BindingException("Error adding the object wrappers of " + implementation + ". Cause: " + e, e);
+    }
+    mapperImplementations.put(type, sqlSession -> {
+      try {
+        return constructor.newInstance(sqlSession);
+      } catch (ReflectiveOperationException e) {
+        throw new BindingException("Error getting mapper instance. Cause: " + e, e);
+      }
+    });
+  }
+
   /**
    * @since 3.2.2
    */
@@ -93,8 +180,51 @@ public class MapperRegistry {
     ResolverUtil<Class<?>> resolverUtil = new ResolverUtil<>();
     resolverUtil.find(new ResolverUtil.IsA(superType), packageName);
     Set<Class<? extends Class<?>>> mapperSet = resolverUtil.getClasses();
-    for (Class<?> mapperClass : mapperSet) {
-      addMapper(mapperClass);
+    if (config.isParallelMapperParsingEnabled()) {
+      addMappersInParallel(mapperSet);
+    } else {
+      for (Class<?> mapperClass : mapperSet) {
+        addMapper(mapperClass);
+      }
+    }
+  }
+
+  /**
+   * Parses the XML mappers of the given interfaces on the build executor, or on a temporary pool if there is none.
+   * The interfaces are still registered one by one on the calling thread, in the order of the given collection.
+   */
+  private void addMappersInParallel(Collection<? extends Class<?>> mapperClasses) {
+    List<Class<?>> types = mapperClasses.stream().filter(Class::isInterface).collect(Collectors.toList());
+    ExecutorService parserExecutor = null;
+    Executor executor;
+    if (config.getBuildExecutor() != null) {
+      executor = BackgroundExecutors.withContextClassLoader(config.getBuildExecutor());
+    } else {
+      parserExecutor = BackgroundExecutors.newBoundedExecutor("mybatis-mapper-parser", BackgroundExecutors.defaultParallelism());
+      executor = parserExecutor;
+    }
+    try {
+      List<CompletableFuture<XPathParser>> xmlResources = types.stream()
+          .map(type -> CompletableFuture.supplyAsync(() -> MapperAnnotationBuilder.parseXmlResource(config, type), executor))
+          .collect(Collectors.toList());
+      for (int i = 0; i < types.size(); i++) {
+        CompletableFuture<XPathParser> xmlResource = xmlResources.get(i);
+        addMapper(types.get(i), () -> {
+          try {
+            return xmlResource.join();
+          } catch (CompletionException e) {
+            // rethrow what the sequential parsing would have thrown
+            if (e.getCause() instanceof RuntimeException) {
+              throw (RuntimeException) e.getCause();
+            }
+            throw e;
+          }
+        });
+      }
+    } finally {
+      if (parserExecutor != null) {
+        parserExecutor.shutdown();
+      }
     }
   }
 
@@ -64,6 +64,10 @@ public class MapperBuilderAssistant extends BaseBuilder {
     this.resource = resource;
   }
 
+  public String getResource() {
+    return resource;
+  }
+
   public String getCurrentNamespace() {
     return currentNamespace;
   }
@@ -127,13 +131,49 @@ public class MapperBuilderAssistant extends BaseBuilder {
       boolean readWrite,
       boolean blocking,
       Properties props) {
+    return useNewCache(typeClass, evictionClass, flushInterval, false, null, null, size, readWrite, blocking, props);
+  }
+
+  public Cache useNewCache(Class<? extends Cache> typeClass,
+      Class<? extends Cache> evictionClass,
+      Long flushInterval,
+      boolean flushPerEntry,
+      Long flushJitter,
+      Long refreshAhead,
+      Integer size,
+      boolean readWrite,
+      boolean blocking,
+      Properties props) {
+    return useNewCache(typeClass, evictionClass, flushInterval, flushPerEntry, flushJitter, refreshAhead, size, readWrite,
+        blocking, false, props);
+  }
+
+  /**
+   * @param tagged whether statements of the namespace declare cache tags, which the cache then keeps track of
+   * @since 3.5.2
+   */
+  public Cache useNewCache(Class<? extends Cache> typeClass,
+      Class<? extends Cache> evictionClass,
+      Long flushInterval,
+      boolean flushPerEntry,
+      Long flushJitter,
+      Long refreshAhead,
+      Integer size,
+      boolean readWrite,
+      boolean blocking,
+      boolean tagged,
+      Properties props) {
     Cache cache = new CacheBuilder(currentNamespace)
         .implementation(valueOrDefault(typeClass, PerpetualCache.class))
         .addDecorator(valueOrDefault(evictionClass, LruCache.class))
         .clearInterval(flushInterval)
+        .flushPerEntry(flushPerEntry)
+        .flushJitter(flushJitter)
+        .refreshAhead(refreshAhead)
         .size(size)
         .readWrite(readWrite)
         .blocking(blocking)
+        .tagged(tagged)
         .properties(props)
         .build();
     configuration.addCache(cache);
@@ -260,7 +300,8 @@ public class MapperBuilderAssistant extends BaseBuilder {
       String keyColumn,
       String databaseId,
       LanguageDriver lang,
-      String resultSets) {
+      String resultSets,
+      String cacheTags) {
 
     if (unresolvedCacheRef) {
       throw new IncompleteElementException("Cache-ref not yet resolved");
@@ -285,6 +326,7 @@ public class MapperBuilderAssistant extends BaseBuilder {
         .resultSetType(resultSetType)
         .flushCacheRequired(valueOrDefault(flushCache, !isSelect))
         .useCache(valueOrDefault(useCache, isSelect))
+        .cacheTags(cacheTags)
         .cache(currentCache);
 
     ParameterMap statementParameterMap = getStatementParameterMap(parameterMap, parameterType, id);
@@ -466,6 +508,18 @@ public class MapperBuilderAssistant extends BaseBuilder {
   }
 
   /** Backward compatibility signature. */
+  public MappedStatement addMappedStatement(String id, SqlSource sqlSource, StatementType statementType,
+      SqlCommandType sqlCommandType, Integer fetchSize, Integer timeout, String parameterMap, Class<?> parameterType,
+      String resultMap, Class<?> resultType, ResultSetType resultSetType, boolean flushCache, boolean useCache,
+      boolean resultOrdered, KeyGenerator keyGenerator, String keyProperty, String keyColumn, String databaseId,
+      LanguageDriver lang, String resultSets) {
+    return addMappedStatement(
+      id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+      parameterMap, parameterType, resultMap, resultType, resultSetType,
+      flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+      keyColumn, databaseId, lang, resultSets, null);
+  }
+
   public MappedStatement addMappedStatement(String id, SqlSource sqlSource, StatementType statementType,
       SqlCommandType sqlCommandType, Integer fetchSize, Integer timeout, String parameterMap, Class<?> parameterType,
       String resultMap, Class<?> resultType, ResultSetType resultSetType, boolean flushCache, boolean useCache,
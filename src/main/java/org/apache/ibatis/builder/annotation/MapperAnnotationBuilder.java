@@ -34,6 +34,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.CacheNamespace;
@@ -66,7 +69,9 @@ import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -82,6 +87,7 @@ import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.parsing.PropertyParser;
+import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.reflection.TypeParameterResolver;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
@@ -103,6 +109,7 @@ public class MapperAnnotationBuilder {
   private final Configuration configuration;
   private final MapperBuilderAssistant assistant;
   private final Class<?> type;
+  private final Supplier<XPathParser> xmlResource;
 
   static {
     SQL_ANNOTATION_TYPES.add(Select.class);
@@ -117,10 +124,42 @@ public class MapperAnnotationBuilder {
   }
 
   public MapperAnnotationBuilder(Configuration configuration, Class<?> type) {
+    this(configuration, type, () -> parseXmlResource(configuration, type));
+  }
+
+  /**
+   * @param xmlResource supplies the parsed XML mapper of <code>type</code>, or null if it has none.
+   *        It is only called if the XML mapper was not loaded yet.
+   */
+  public MapperAnnotationBuilder(Configuration configuration, Class<?> type, Supplier<XPathParser> xmlResource) {
     String resource = type.getName().replace('.', '/') + ".java (best guess)";
     this.assistant = new MapperBuilderAssistant(configuration, resource);
     this.configuration = configuration;
     this.type = type;
+    this.xmlResource = xmlResource;
+  }
+
+  /**
+   * Reads and parses the XML mapper that has the same name as a mapper interface.
+   *
+   * @return the parser of the XML mapper, or null if there is none
+   */
+  public static XPathParser parseXmlResource(Configuration configuration, Class<?> type) {
+    String xmlResource = type.getName().replace('.', '/') + ".xml";
+    // #1347
+    InputStream inputStream = type.getResourceAsStream("/" + xmlResource);
+    if (inputStream == null) {
+      // Search XML mapper that is not in the module but in the classpath.
+      try {
+        inputStream = Resources.getResourceAsStream(type.getClassLoader(), xmlResource);
+      } catch (IOException e2) {
+        // ignore, resource is not required
+      }
+    }
+    if (inputStream == null) {
+      return null;
+    }
+    return new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver());
   }
 
   public void parse() {
@@ -166,19 +205,10 @@ public class MapperAnnotationBuilder {
     // to prevent loading again a resource twice
     // this flag is set at XMLMapperBuilder#bindMapperForNamespace
     if (!configuration.isResourceLoaded("namespace:" + type.getName())) {
-      String xmlResource = type.getName().replace('.', '/') + ".xml";
-      // #1347
-      InputStream inputStream = type.getResourceAsStream("/" + xmlResource);
-      if (inputStream == null) {
-        // Search XML mapper that is not in the module but in the classpath.
-        try {
-          inputStream = Resources.getResourceAsStream(type.getClassLoader(), xmlResource);
-        } catch (IOException e2) {
-          // ignore, resource is not required
-        }
-      }
-      if (inputStream != null) {
-        XMLMapperBuilder xmlParser = new XMLMapperBuilder(inputStream, assistant.getConfiguration(), xmlResource, configuration.getSqlFragments(), type.getName());
+      XPathParser parser = xmlResource.get();
+      if (parser != null) {
+        String xmlResource = type.getName().replace('.', '/') + ".xml";
+        XMLMapperBuilder xmlParser = new XMLMapperBuilder(parser, assistant.getConfiguration(), xmlResource, configuration.getSqlFragments(), type.getName());
         xmlParser.parse();
       }
     }
@@ -189,11 +219,31 @@ public class MapperAnnotationBuilder {
     if (cacheDomain != null) {
       Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
       Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
+      Long flushJitter = cacheDomain.flushJitter() == 0 ? null : cacheDomain.flushJitter();
+      Long refreshAhead = cacheDomain.refreshAhead() == 0 ? null : cacheDomain.refreshAhead();
       Properties props = convertToProperties(cacheDomain.properties());
-      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
+      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, cacheDomain.flushPerEntry(),
+          flushJitter, refreshAhead, size, cacheDomain.readWrite(), cacheDomain.blocking(), usesCacheTags(type), props);
     }
   }
 
+  /**
+   * Returns whether the methods of a mapper interface declare cache tags.
+   *
+   * @param type the mapper interface
+   * @return true if the cache of its namespace has to keep track of tags
+   * @since 3.5.2
+   */
+  public static boolean usesCacheTags(Class<?> type) {
+    for (Method method : type.getMethods()) {
+      Options options = method.getAnnotation(Options.class);
+      if (options != null && options.cacheTags().trim().length() > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private Properties convertToProperties(Property[] properties) {
     if (properties.length == 0) {
       return null;
@@ -377,7 +427,8 @@ public class MapperAnnotationBuilder {
           null,
           languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null);
+          options != null ? nullOrEmpty(options.resultSets()) : null,
+          options != null ? nullOrEmpty(options.cacheTags()) : null);
     }
   }
 
@@ -406,9 +457,20 @@ public class MapperAnnotationBuilder {
     return parameterType;
   }
 
+  private static boolean isFuture(Type rawType) {
+    // the same types as MapperMethod.MethodSignature runs asynchronously
+    return CompletableFuture.class.equals(rawType) || CompletionStage.class.equals(rawType);
+  }
+
   private Class<?> getReturnType(Method method) {
     Class<?> returnType = method.getReturnType();
     Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
+    if (resolvedReturnType instanceof ParameterizedType
+        && isFuture(((ParameterizedType) resolvedReturnType).getRawType())) {
+      // the statement is mapped to the type the future completes with
+      resolvedReturnType = ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0];
+      returnType = Object.class;
+    }
     if (resolvedReturnType instanceof Class) {
       returnType = (Class<?>) resolvedReturnType;
       if (returnType.isArray()) {
@@ -424,7 +486,8 @@ public class MapperAnnotationBuilder {
     } else if (resolvedReturnType instanceof ParameterizedType) {
       ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
       Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)
+          || CursorPublisher.class.isAssignableFrom(rawType)) {
         Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 1) {
           Type returnTypeParameter = actualTypeArguments[0];
@@ -0,0 +1,563 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.annotation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.DeleteProvider;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.InsertProvider;
+import org.apache.ibatis.annotations.MapKey;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.annotations.UpdateProvider;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+
+/**
+ * Generates an implementation of each {@link Mapper} interface whose methods are all mapped with statement
+ * annotations. The implementation calls the session directly with the parameter object built as
+ * {@link ParamNameResolver} would build it, so the mapper needs neither a proxy nor any reflection per call.
+ * <p>
+ * It also contains an {@link org.apache.ibatis.reflection.wrapper.ObjectWrapper} for each bean class its methods take
+ * or return, which reads and writes the public properties of the bean with its getters and setters instead of
+ * reflection when the parameters are bound and the rows are mapped. The type handlers and result maps are still
+ * resolved at runtime, and the other properties are read and written as by a
+ * {@link org.apache.ibatis.reflection.wrapper.BeanWrapper}.
+ * <p>
+ * The implementation of <code>com.example.BlogMapper</code> is <code>com.example.BlogMapperImpl</code>, it takes the
+ * session in its constructor and replaces the proxy when the mapper is added, along with its object wrappers, if
+ * the <code>generatedMapperImplementationsEnabled</code> setting is on.
+ * Interfaces that cannot be implemented this way (e.g. with generic methods, with several parameters that are not
+ * annotated with {@link Param} or with statements mapped in XML) are skipped with a note and keep using the proxy.
+ * <p>
+ * The processor is not registered as a service: it only runs when named explicitly, e.g. with
+ * <code>-processor org.apache.ibatis.builder.annotation.MapperImplementationProcessor</code>.
+ *
+ * @since 3.5.2
+ */
+@SupportedAnnotationTypes("org.apache.ibatis.annotations.Mapper")
+public class MapperImplementationProcessor extends AbstractProcessor {
+
+  public static final String IMPLEMENTATION_SUFFIX = "Impl";
+
+  /**
+   * The static method of the implementation adding its object wrappers to a configuration.
+   */
+  public static final String ADD_OBJECT_WRAPPERS = "addObjectWrappers";
+
+  private static final String PARAM_MAP = "org.apache.ibatis.binding.MapperMethod.ParamMap";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(Mapper.class)) {
+      if (element.getKind() == ElementKind.INTERFACE) {
+        TypeElement mapper = (TypeElement) element;
+        try {
+          generate(mapper);
+        } catch (UnsupportedMapperException e) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+              "No implementation generated for " + mapper.getQualifiedName() + " as " + e.getMessage(), mapper);
+        } catch (IOException e) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+              "Could not write the implementation of " + mapper.getQualifiedName() + ". Cause: " + e, mapper);
+        }
+      }
+    }
+    return false;
+  }
+
+  private void generate(TypeElement mapper) throws UnsupportedMapperException, IOException {
+    if (!mapper.getTypeParameters().isEmpty()) {
+      throw new UnsupportedMapperException("it has type parameters");
+    }
+    for (Element enclosing = mapper; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+      if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+        throw new UnsupportedMapperException("it is not visible in its package");
+      }
+    }
+    Elements elements = processingEnv.getElementUtils();
+    String statementPrefix = elements.getBinaryName(mapper) + ".";
+    List<String> methods = new ArrayList<>();
+    Map<String, TypeElement> beans = new LinkedHashMap<>();
+    for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(mapper))) {
+      if (method.getModifiers().contains(Modifier.ABSTRACT)) {
+        methods.add(implement(method, statementPrefix + method.getSimpleName(), beans));
+      }
+    }
+
+    PackageElement packageElement = elements.getPackageOf(mapper);
+    String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    String binaryName = elements.getBinaryName(mapper).toString();
+    String simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1).replace('$', '_')
+        + IMPLEMENTATION_SUFFIX;
+    StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    source.append("/**\n * Generated by ").append(getClass().getName()).append(".\n */\n");
+    source.append("@SuppressWarnings(\"unchecked\")\n");
+    source.append("public class ").append(simpleName).append(" implements ").append(mapper.getQualifiedName())
+        .append(" {\n\n");
+    source.append("  private final org.apache.ibatis.session.SqlSession sqlSession;\n\n");
+    source.append("  public ").append(simpleName).append("(org.apache.ibatis.session.SqlSession sqlSession) {\n");
+    source.append("    this.sqlSession = sqlSession;\n");
+    source.append("  }\n");
+    List<String> wrappers = new ArrayList<>();
+    StringBuilder addObjectWrappers = new StringBuilder();
+    Map<String, Integer> wrapperNames = new HashMap<>();
+    for (TypeElement bean : beans.values()) {
+      String wrapperName = bean.getSimpleName() + "Wrapper";
+      int count = wrapperNames.merge(wrapperName, 1, Integer::sum);
+      if (count > 1) {
+        wrapperName += count;
+      }
+      String wrapper = wrap(bean, wrapperName);
+      if (wrapper != null) {
+        wrappers.add(wrapper);
+        addObjectWrappers.append("    configuration.addObjectWrapper(").append(bean.getQualifiedName())
+            .append(".class, ").append(wrapperName).append("::new);\n");
+      }
+    }
+    source.append("\n  public static void ").append(ADD_OBJECT_WRAPPERS)
+        .append("(org.apache.ibatis.session.Configuration configuration) {\n");
+    source.append(addObjectWrappers);
+    source.append("  }\n");
+    for (String method : methods) {
+      source.append('\n').append(method);
+    }
+    for (String wrapper : wrappers) {
+      source.append('\n').append(wrapper);
+    }
+    source.append("\n}\n");
+
+    String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, mapper).openWriter()) {
+      writer.write(source.toString());
+    }
+  }
+
+  private String implement(ExecutableElement method, String statement, Map<String, TypeElement> beans)
+      throws UnsupportedMapperException {
+    if (!method.getTypeParameters().isEmpty()) {
+      throw new UnsupportedMapperException(method.getSimpleName() + "() has type parameters");
+    }
+    SqlCommandType commandType = getSqlCommandType(method);
+
+    // as in ParamNameResolver: skip RowBounds and ResultHandler, name the others in order
+    StringBuilder signature = new StringBuilder();
+    List<String> names = new ArrayList<>();
+    List<String> paramArguments = new ArrayList<>();
+    String rowBounds = null;
+    String resultHandler = null;
+    boolean hasParamAnnotation = false;
+    List<? extends VariableElement> parameters = method.getParameters();
+    for (int i = 0; i < parameters.size(); i++) {
+      VariableElement parameter = parameters.get(i);
+      TypeMirror type = parameter.asType();
+      String argument = "arg" + i;
+      if (i > 0) {
+        signature.append(", ");
+      }
+      if (method.isVarArgs() && i == parameters.size() - 1) {
+        signature.append(((ArrayType) type).getComponentType()).append("...");
+      } else {
+        signature.append(type);
+      }
+      signature.append(' ').append(argument);
+      if (isAssignable(type, "org.apache.ibatis.session.RowBounds")) {
+        if (rowBounds != null) {
+          throw new UnsupportedMapperException(method.getSimpleName() + "() has several RowBounds parameters");
+        }
+        rowBounds = argument;
+        continue;
+      }
+      if (isAssignable(type, "org.apache.ibatis.session.ResultHandler")) {
+        if (resultHandler != null) {
+          throw new UnsupportedMapperException(method.getSimpleName() + "() has several ResultHandler parameters");
+        }
+        resultHandler = argument;
+        continue;
+      }
+      Param param = parameter.getAnnotation(Param.class);
+      if (param != null) {
+        hasParamAnnotation = true;
+      }
+      names.add(param == null ? null : param.value());
+      paramArguments.add(argument);
+      addBean(type, beans);
+    }
+
+    StringBuilder body = new StringBuilder();
+    String parameterObject;
+    if (paramArguments.isEmpty()) {
+      parameterObject = "null";
+    } else if (!hasParamAnnotation && paramArguments.size() == 1) {
+      parameterObject = paramArguments.get(0);
+    } else {
+      if (names.contains(null)) {
+        // unannotated names depend on useActualParamName and -parameters at runtime, unknown at compile time
+        throw new UnsupportedMapperException(method.getSimpleName() + "() has parameters without @Param");
+      }
+      List<String> keys = new ArrayList<>();
+      List<String> values = new ArrayList<>();
+      for (int i = 0; i < names.size(); i++) {
+        keys.add(names.get(i));
+        values.add(paramArguments.get(i));
+        // the generic names added by ParamNameResolver
+        String genericName = "param" + (i + 1);
+        if (!names.contains(genericName)) {
+          keys.add(genericName);
+          values.add(paramArguments.get(i));
+        }
+      }
+      body.append("    ").append(PARAM_MAP).append("<Object> param = new ").append(PARAM_MAP).append("<>(")
+          .append((int) (keys.size() / 0.75f) + 1).append(");\n");
+      for (int i = 0; i < keys.size(); i++) {
+        body.append("    param.put(").append(literal(keys.get(i))).append(", ").append(values.get(i)).append(");\n");
+      }
+      parameterObject = "param";
+    }
+
+    TypeMirror returnType = method.getReturnType();
+    String sessionArguments = literal(statement) + ", " + parameterObject;
+    if (commandType == SqlCommandType.SELECT) {
+      implementSelect(method, statement, sessionArguments, rowBounds, resultHandler, body);
+      addBean(resultType(method), beans);
+    } else {
+      String rowCount = "sqlSession." + commandType.name().toLowerCase(Locale.ENGLISH) + "(" + sessionArguments + ")";
+      String returned = rowCountResult(returnType, rowCount);
+      if (returned == null) {
+        throw new UnsupportedMapperException(method.getSimpleName() + "() has an unsupported return type: " + returnType);
+      }
+      body.append("    ").append(returned).append(";\n");
+    }
+
+    return "  @Override\n  public " + returnType + " " + method.getSimpleName() + "(" + signature + ") {\n"
+        + body + "  }\n";
+  }
+
+  private void implementSelect(ExecutableElement method, String statement, String arguments, String rowBounds,
+      String resultHandler, StringBuilder body) throws UnsupportedMapperException {
+    Types types = processingEnv.getTypeUtils();
+    TypeMirror returnType = method.getReturnType();
+    String withRowBounds = rowBounds == null ? arguments : arguments + ", " + rowBounds;
+    String erasure = types.erasure(returnType).toString();
+    MapKey mapKey = method.getAnnotation(MapKey.class);
+    if (returnType.getKind() == TypeKind.VOID && resultHandler != null) {
+      body.append("    sqlSession.select(").append(withRowBounds).append(", ").append(resultHandler).append(");\n");
+    } else if (returnType.getKind() == TypeKind.ARRAY) {
+      TypeMirror componentType = ((ArrayType) returnType).getComponentType();
+      if (componentType.getKind().isPrimitive()) {
+        throw new UnsupportedMapperException(method.getSimpleName() + "() returns an array of primitives");
+      }
+      body.append("    java.util.List<").append(componentType).append("> list = sqlSession.selectList(")
+          .append(withRowBounds).append(");\n");
+      body.append("    return list.toArray(new ").append(types.erasure(componentType)).append("[0]);\n");
+    } else if (isAssignable(returnType, "java.util.Collection")) {
+      if ("java.util.List".equals(erasure) || "java.util.Collection".equals(erasure)) {
+        body.append("    return sqlSession.selectList(").append(withRowBounds).append(");\n");
+      } else {
+        body.append("    ").append(returnType).append(" result = sqlSession.getConfiguration().getObjectFactory().create(")
+            .append(erasure).append(".class);\n");
+        body.append("    result.addAll(sqlSession.selectList(").append(withRowBounds).append("));\n");
+        body.append("    return result;\n");
+      }
+    } else if (mapKey != null && isAssignable(returnType, "java.util.Map")) {
+      if (!"java.util.Map".equals(erasure)) {
+        throw new UnsupportedMapperException(method.getSimpleName() + "() returns a Map implementation");
+      }
+      body.append("    return sqlSession.selectMap(").append(arguments).append(", ").append(literal(mapKey.value()))
+          .append(rowBounds == null ? "" : ", " + rowBounds).append(");\n");
+    } else if ("org.apache.ibatis.cursor.Cursor".equals(erasure)) {
+      body.append("    return sqlSession.selectCursor(").append(withRowBounds).append(");\n");
+    } else if ("org.apache.ibatis.cursor.CursorPublisher".equals(erasure)) {
+      body.append("    return sqlSession.selectPublisher(").append(withRowBounds).append(");\n");
+    } else if ("java.util.concurrent.CompletableFuture".equals(erasure)
+        || "java.util.concurrent.CompletionStage".equals(erasure)) {
+      throw new UnsupportedMapperException(method.getSimpleName() + "() is asynchronous");
+    } else if ("java.util.Optional".equals(erasure)) {
+      body.append("    return java.util.Optional.ofNullable(sqlSession.selectOne(").append(arguments).append("));\n");
+    } else if (returnType.getKind() == TypeKind.VOID) {
+      body.append("    sqlSession.selectOne(").append(arguments).append(");\n");
+    } else if (returnType.getKind().isPrimitive()) {
+      String boxed = types.boxedClass((PrimitiveType) returnType).getQualifiedName().toString();
+      body.append("    ").append(boxed).append(" result = sqlSession.selectOne(").append(arguments).append(");\n");
+      body.append("    if (result == null) {\n");
+      body.append("      throw new org.apache.ibatis.binding.BindingException(\"Mapper method '")
+          .append(statement)
+          .append(" attempted to return null from a method with a primitive return type (").append(returnType)
+          .append(").\");\n");
+      body.append("    }\n");
+      body.append("    return result;\n");
+    } else {
+      body.append("    return sqlSession.selectOne(").append(arguments).append(");\n");
+    }
+  }
+
+  /**
+   * Returns the type of the objects a select returns, or null if it is not known.
+   */
+  private TypeMirror resultType(ExecutableElement method) {
+    TypeMirror returnType = method.getReturnType();
+    if (returnType.getKind() == TypeKind.ARRAY) {
+      return ((ArrayType) returnType).getComponentType();
+    }
+    if (returnType.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    List<? extends TypeMirror> typeArguments = ((DeclaredType) returnType).getTypeArguments();
+    String erasure = processingEnv.getTypeUtils().erasure(returnType).toString();
+    if (isAssignable(returnType, "java.util.Collection") || "java.util.Optional".equals(erasure)
+        || "org.apache.ibatis.cursor.Cursor".equals(erasure)
+        || "org.apache.ibatis.cursor.CursorPublisher".equals(erasure)) {
+      return typeArguments.size() == 1 ? typeArguments.get(0) : null;
+    }
+    if (method.getAnnotation(MapKey.class) != null && isAssignable(returnType, "java.util.Map")) {
+      return typeArguments.size() == 2 ? typeArguments.get(1) : null;
+    }
+    return returnType;
+  }
+
+  /**
+   * Keeps the public concrete classes whose properties can be read and written by a generated wrapper.
+   */
+  private void addBean(TypeMirror type, Map<String, TypeElement> beans) {
+    if (type == null || type.getKind() != TypeKind.DECLARED) {
+      return;
+    }
+    TypeElement bean = (TypeElement) ((DeclaredType) type).asElement();
+    String qualifiedName = bean.getQualifiedName().toString();
+    if (bean.getKind() != ElementKind.CLASS || bean.getModifiers().contains(Modifier.ABSTRACT)
+        || !bean.getTypeParameters().isEmpty() || qualifiedName.startsWith("java.") || qualifiedName.startsWith("javax.")
+        || isAssignable(type, "java.util.Map") || isAssignable(type, "java.util.Collection")) {
+      return;
+    }
+    for (Element enclosing = bean; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+      if (!enclosing.getModifiers().contains(Modifier.PUBLIC)) {
+        return;
+      }
+    }
+    beans.putIfAbsent(qualifiedName, bean);
+  }
+
+  /**
+   * Returns a wrapper calling the getters and setters of a bean for the properties the reflector would find them for,
+   * or null if it has none.
+   */
+  private String wrap(TypeElement bean, String wrapperName) {
+    Types types = processingEnv.getTypeUtils();
+    DeclaredType beanType = (DeclaredType) bean.asType();
+    Map<String, List<ExecutableElement>> getters = new LinkedHashMap<>();
+    Map<String, List<ExecutableElement>> setters = new LinkedHashMap<>();
+    for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(bean))) {
+      String name = method.getSimpleName().toString();
+      int parameters = method.getParameters().size();
+      if (parameters == 0 && (name.startsWith("get") && name.length() > 3 || name.startsWith("is") && name.length() > 2)) {
+        getters.computeIfAbsent(PropertyNamer.methodToProperty(name), k -> new ArrayList<>()).add(method);
+      } else if (parameters == 1 && name.startsWith("set") && name.length() > 3) {
+        setters.computeIfAbsent(PropertyNamer.methodToProperty(name), k -> new ArrayList<>()).add(method);
+      }
+    }
+
+    // the properties whose accessor is ambiguous are left to the reflector, which resolves the conflicts
+    StringBuilder getCases = new StringBuilder();
+    for (Map.Entry<String, List<ExecutableElement>> getter : getters.entrySet()) {
+      ExecutableElement method = getter.getValue().get(0);
+      if (getter.getValue().size() == 1 && isAccessible(getter.getKey(), method)
+          && method.getReturnType().getKind() != TypeKind.VOID) {
+        getCases.append("          case ").append(literal(getter.getKey())).append(":\n");
+        getCases.append("            return object.").append(method.getSimpleName()).append("();\n");
+      }
+    }
+    StringBuilder setCases = new StringBuilder();
+    for (Map.Entry<String, List<ExecutableElement>> setter : setters.entrySet()) {
+      ExecutableElement method = setter.getValue().get(0);
+      if (setter.getValue().size() == 1 && isAccessible(setter.getKey(), method)) {
+        TypeMirror type = ((ExecutableType) types.asMemberOf(beanType, method)).getParameterTypes().get(0);
+        if (type.getKind() == TypeKind.TYPEVAR || type.getKind() == TypeKind.WILDCARD) {
+          continue;
+        }
+        // a value of another type or a null primitive fails on the reflective path with its usual exception
+        TypeMirror boxed = type.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) type).asType() : type;
+        setCases.append("            case ").append(literal(setter.getKey())).append(":\n");
+        setCases.append("              if (").append(type.getKind().isPrimitive() ? "" : "value == null || ")
+            .append("value instanceof ").append(types.erasure(boxed)).append(") {\n");
+        setCases.append("                object.").append(method.getSimpleName()).append("((").append(boxed)
+            .append(") value);\n");
+        setCases.append("                return;\n");
+        setCases.append("              }\n");
+        setCases.append("              break;\n");
+      }
+    }
+    if (getCases.length() == 0 && setCases.length() == 0) {
+      return null;
+    }
+
+    String beanName = bean.getQualifiedName().toString();
+    StringBuilder source = new StringBuilder();
+    source.append("  static class ").append(wrapperName).append(" extends org.apache.ibatis.reflection.wrapper.BeanWrapper {\n\n");
+    source.append("    private final ").append(beanName).append(" object;\n\n");
+    source.append("    ").append(wrapperName).append("(org.apache.ibatis.reflection.MetaObject metaObject, ").append(beanName)
+        .append(" object) {\n");
+    source.append("      super(metaObject, object);\n");
+    source.append("      this.object = object;\n");
+    source.append("    }\n");
+    if (getCases.length() > 0) {
+      source.append("\n    @Override\n");
+      source.append("    public Object get(org.apache.ibatis.reflection.property.PropertyTokenizer prop) {\n");
+      source.append("      if (prop.getIndex() == null) {\n");
+      source.append("        switch (prop.getName()) {\n");
+      source.append(getCases);
+      source.append("          default:\n");
+      source.append("            break;\n");
+      source.append("        }\n");
+      source.append("      }\n");
+      source.append("      return super.get(prop);\n");
+      source.append("    }\n");
+    }
+    if (setCases.length() > 0) {
+      source.append("\n    @Override\n");
+      source.append("    public void set(org.apache.ibatis.reflection.property.PropertyTokenizer prop, Object value) {\n");
+      source.append("      if (prop.getIndex() == null) {\n");
+      source.append("        try {\n");
+      source.append("          switch (prop.getName()) {\n");
+      source.append(setCases);
+      source.append("            default:\n");
+      source.append("              break;\n");
+      source.append("          }\n");
+      source.append("        } catch (RuntimeException e) {\n");
+      source.append("          throw new org.apache.ibatis.reflection.ReflectionException(\"Could not set property '\" + prop.getName()\n");
+      source.append("              + \"' of '\" + object.getClass() + \"' with value '\" + value + \"' Cause: \" + e.toString(), e);\n");
+      source.append("        }\n");
+      source.append("      }\n");
+      source.append("      super.set(prop, value);\n");
+      source.append("    }\n");
+    }
+    source.append("  }\n");
+    return source.toString();
+  }
+
+  private static boolean isAccessible(String property, ExecutableElement method) {
+    Set<Modifier> modifiers = method.getModifiers();
+    return modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.STATIC) && method.getThrownTypes().isEmpty()
+        && !property.startsWith("$") && !"serialVersionUID".equals(property) && !"class".equals(property);
+  }
+
+  private String rowCountResult(TypeMirror returnType, String rowCount) {
+    String type = returnType.getKind().isPrimitive() || returnType.getKind() == TypeKind.VOID
+        ? returnType.getKind().name() : returnType.toString();
+    switch (type) {
+      case "VOID":
+        return rowCount;
+      case "INT":
+      case "java.lang.Integer":
+        return "return " + rowCount;
+      case "LONG":
+      case "java.lang.Long":
+        return "return (long) " + rowCount;
+      case "BOOLEAN":
+      case "java.lang.Boolean":
+        return "return " + rowCount + " > 0";
+      default:
+        return null;
+    }
+  }
+
+  private SqlCommandType getSqlCommandType(ExecutableElement method) throws UnsupportedMapperException {
+    SqlCommandType commandType = null;
+    int annotations = 0;
+    if (method.getAnnotation(Select.class) != null || method.getAnnotation(SelectProvider.class) != null) {
+      commandType = SqlCommandType.SELECT;
+      annotations++;
+    }
+    if (method.getAnnotation(Insert.class) != null || method.getAnnotation(InsertProvider.class) != null) {
+      commandType = SqlCommandType.INSERT;
+      annotations++;
+    }
+    if (method.getAnnotation(Update.class) != null || method.getAnnotation(UpdateProvider.class) != null) {
+      commandType = SqlCommandType.UPDATE;
+      annotations++;
+    }
+    if (method.getAnnotation(Delete.class) != null || method.getAnnotation(DeleteProvider.class) != null) {
+      commandType = SqlCommandType.DELETE;
+      annotations++;
+    }
+    if (annotations != 1) {
+      throw new UnsupportedMapperException(method.getSimpleName() + "() is not mapped with a single statement annotation");
+    }
+    return commandType;
+  }
+
+  private static String literal(String value) {
+    return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+  }
+
+  private boolean isAssignable(TypeMirror type, String className) {
+    TypeElement element = processingEnv.getElementUtils().getTypeElement(className);
+    Types types = processingEnv.getTypeUtils();
+    return element != null && types.isAssignable(types.erasure(type), types.erasure(element.asType()));
+  }
+
+  private static class UnsupportedMapperException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedMapperException(String message) {
+      super(message);
+    }
+  }
+
+}
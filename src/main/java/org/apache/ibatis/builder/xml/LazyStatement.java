@@ -0,0 +1,141 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.IncompleteElementException;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A statement of a mapper XML file that is registered while parsing and built the first time it is used.
+ * It keeps the statement element encoded in a byte array instead of the DOM of the whole mapper file.
+ */
+public class LazyStatement {
+
+  private final Configuration configuration;
+  private final MapperBuilderAssistant builderAssistant;
+  private final String id;
+  private final String databaseId;
+  private final String requiredDatabaseId;
+  private final byte[] source;
+  private final List<String> resultMaps = new ArrayList<>();
+  private final String parameterMap;
+  private final List<String> includes = new ArrayList<>();
+  private volatile boolean built;
+  private RuntimeException buildFailure;
+  private XNode incompleteContext;
+
+  public LazyStatement(Configuration configuration, MapperBuilderAssistant builderAssistant, XNode context, String requiredDatabaseId) {
+    this.configuration = configuration;
+    this.builderAssistant = builderAssistant;
+    this.id = builderAssistant.applyCurrentNamespace(context.getStringAttribute("id"), false);
+    this.databaseId = context.getStringAttribute("databaseId");
+    this.requiredDatabaseId = requiredDatabaseId;
+    this.source = MapperSnapshot.encodeNode(context.getNode());
+    String resultMap = context.getStringAttribute("resultMap");
+    if (resultMap != null) {
+      for (String resultMapId : resultMap.split(",")) {
+        resultMaps.add(builderAssistant.applyCurrentNamespace(resultMapId.trim(), true));
+      }
+    }
+    String parameterMapId = context.getStringAttribute("parameterMap");
+    this.parameterMap = parameterMapId == null ? null : builderAssistant.applyCurrentNamespace(parameterMapId, true);
+    for (XNode include : context.evalNodes(".//include")) {
+      String refid = include.getStringAttribute("refid");
+      // the properties of the include may still change it
+      if (refid != null && !refid.contains("${")) {
+        includes.add(builderAssistant.applyCurrentNamespace(refid, true));
+      }
+    }
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getDatabaseId() {
+    return databaseId;
+  }
+
+  public String getResource() {
+    return builderAssistant.getResource();
+  }
+
+  public boolean isBuilt() {
+    return built;
+  }
+
+  /**
+   * Returns whether a result map, parameter map or SQL fragment used by the statement is not known yet,
+   * in which case building it would throw an {@link IncompleteElementException}.
+   */
+  public boolean hasMissingReferences() {
+    for (String resultMap : resultMaps) {
+      if (!configuration.hasResultMap(resultMap)) {
+        return true;
+      }
+    }
+    if (parameterMap != null && !configuration.hasParameterMap(parameterMap)) {
+      return true;
+    }
+    for (String include : includes) {
+      if (!configuration.getSqlFragments().containsKey(include)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Builds the statement unless it is built already. The caller must not build other statements of the
+   * same configuration at the same time.
+   */
+  public void build() {
+    if (built) {
+      return;
+    }
+    if (buildFailure != null) {
+      throw buildFailure;
+    }
+    XNode context = incompleteContext;
+    if (context == null) {
+      context = new XPathParser(MapperSnapshot.decodeNode(source), false, configuration.getVariables(),
+          new XMLMapperEntityResolver()).evalNode("/*");
+    }
+    try {
+      new XMLStatementBuilder(configuration, builderAssistant, context, requiredDatabaseId)
+          .buildStatement(context.getStringAttribute("id"), databaseId);
+      built = true;
+      incompleteContext = null;
+    } catch (IncompleteElementException e) {
+      // the missing elements may be added later. Like the eager builder, the next attempt goes on
+      // with the element whose includes and select keys are applied already
+      incompleteContext = context;
+      throw e;
+    } catch (RuntimeException e) {
+      buildFailure = new BuilderException("Error building statement '" + id + "' of mapper XML '" + getResource()
+          + "'. Cause: " + e, e);
+      throw buildFailure;
+    }
+  }
+
+}
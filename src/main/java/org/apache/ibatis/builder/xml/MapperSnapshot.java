@@ -0,0 +1,377 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * A compact binary form of the validated mapper XML documents listed by a configuration file.
+ * <p>
+ * The snapshot is written at build time with {@link #main(String[])} and handed to
+ * {@link XMLConfigBuilder} (or <code>SqlSessionFactoryBuilder</code>) at startup. A mapper whose
+ * source still has the size and modification time it was written with is rebuilt from the snapshot
+ * without being read, parsed and validated again. A mapper that changed, or is not in the snapshot,
+ * is parsed as usual. The snapshot must therefore be written from the files the application runs
+ * with, e.g. the packaged JAR.
+ * <p>
+ * The documents are kept as they are in the files: <code>${}</code> placeholders are resolved with
+ * the configuration variables when the mappers are built, as when they are parsed.
+ */
+public class MapperSnapshot {
+
+  private static final int MAGIC = 0x4D425353;
+  private static final int VERSION = 2;
+
+  private static final byte ELEMENT = 1;
+  private static final byte TEXT = 2;
+  private static final byte CDATA = 3;
+
+  private final Map<String, Entry> entries;
+
+  private MapperSnapshot(Map<String, Entry> entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * Writes a snapshot of the mapper XML files declared with <code>resource</code> or <code>url</code>
+   * in a configuration file.
+   * <p>
+   * Usage: <code>MapperSnapshot &lt;configuration resource&gt; &lt;output file&gt; [&lt;properties resource&gt;]</code>
+   *
+   * @param args the configuration resource, the output file and optionally the properties resolving the mapper locations
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2 && args.length != 3) {
+      throw new IllegalArgumentException("Usage: MapperSnapshot <configuration resource> <output file> [<properties resource>]");
+    }
+    Properties variables = args.length == 3 ? Resources.getResourceAsProperties(args[2]) : null;
+    try (OutputStream outputStream = new FileOutputStream(args[1])) {
+      write(Resources.getResourceAsStream(args[0]), variables, outputStream);
+    }
+  }
+
+  /**
+   * Writes a snapshot of the mapper XML files declared with <code>resource</code> or <code>url</code>
+   * in the given configuration. Mapper classes and packages are not part of the snapshot.
+   *
+   * @param configuration the configuration XML
+   * @param outputStream where to write the snapshot
+   * @throws IOException if a mapper cannot be read or the snapshot cannot be written
+   */
+  public static void write(InputStream configuration, OutputStream outputStream) throws IOException {
+    write(configuration, null, outputStream);
+  }
+
+  /**
+   * Writes a snapshot of the mapper XML files declared with <code>resource</code> or <code>url</code>
+   * in the given configuration. Mapper classes and packages are not part of the snapshot, nor are the
+   * mappers whose location keeps a placeholder the given variables do not resolve, or whose size and
+   * modification time cannot be read.
+   *
+   * @param configuration the configuration XML
+   * @param variables the variables resolving the placeholders of the mapper locations, can be null
+   * @param outputStream where to write the snapshot
+   * @throws IOException if a mapper cannot be read or the snapshot cannot be written
+   */
+  public static void write(InputStream configuration, Properties variables, OutputStream outputStream) throws IOException {
+    XPathParser parser = new XPathParser(configuration, true, variables, new XMLMapperEntityResolver());
+    Map<String, Entry> entries = new LinkedHashMap<>();
+    for (XNode mapper : parser.evalNodes("/configuration/mappers/mapper")) {
+      String resource = mapper.getStringAttribute("resource");
+      String url = mapper.getStringAttribute("url");
+      if ((resource == null) == (url == null)) {
+        continue;
+      }
+      String location = resource != null ? resource : url;
+      if (location.contains("${")) {
+        continue;
+      }
+      URL source = resource != null ? Resources.getResourceURL(resource) : new URL(url);
+      long[] stamp = stamp(source);
+      if (stamp != null) {
+        entries.put(location, new Entry(stamp[0], stamp[1], encode(readFully(source.openStream()))));
+      }
+    }
+    DataOutputStream output = new DataOutputStream(outputStream);
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(entries.size());
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      output.writeUTF(entry.getKey());
+      output.writeLong(entry.getValue().size);
+      output.writeLong(entry.getValue().lastModified);
+      output.writeInt(entry.getValue().document.length);
+      output.write(entry.getValue().document);
+    }
+    output.flush();
+  }
+
+  /**
+   * Reads a snapshot written by {@link #write(InputStream, Properties, OutputStream)}.
+   *
+   * @param inputStream the snapshot
+   * @return the snapshot
+   * @throws IOException if the stream cannot be read or is not a snapshot of this version
+   */
+  public static MapperSnapshot read(InputStream inputStream) throws IOException {
+    DataInputStream input = new DataInputStream(inputStream);
+    if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+      throw new IOException("Not a mapper snapshot or written by a different version of MyBatis.");
+    }
+    int size = input.readInt();
+    Map<String, Entry> entries = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      String location = input.readUTF();
+      long length = input.readLong();
+      long lastModified = input.readLong();
+      byte[] document = new byte[input.readInt()];
+      input.readFully(document);
+      entries.put(location, new Entry(length, lastModified, document));
+    }
+    return new MapperSnapshot(Collections.unmodifiableMap(entries));
+  }
+
+  /**
+   * Returns whether the snapshot holds the current content of a mapper, i.e. whether its source still has
+   * the size and modification time the snapshot was written with. The source itself is not read.
+   *
+   * @param location the resource or url of the mapper
+   * @param source the url of the mapper
+   * @return true if {@link #newParser(String, Properties)} can restore the mapper
+   * @throws IOException if the size or modification time of the source cannot be read
+   */
+  public boolean isCurrent(String location, URL source) throws IOException {
+    Entry entry = entries.get(location);
+    if (entry == null) {
+      return false;
+    }
+    long[] stamp = stamp(source);
+    return stamp != null && stamp[0] == entry.size && stamp[1] == entry.lastModified;
+  }
+
+  /**
+   * Creates the parser of a mapper restored from the snapshot.
+   *
+   * @param location the resource or url of the mapper
+   * @param variables the configuration variables
+   * @return the parser of the mapper
+   * @throws IOException if the snapshot is corrupted
+   * @see #isCurrent(String, URL)
+   */
+  public XPathParser newParser(String location, Properties variables) throws IOException {
+    Entry entry = entries.get(location);
+    if (entry == null) {
+      throw new BuilderException("The mapper snapshot does not contain " + location);
+    }
+    return new XPathParser(decode(entry.document), true, variables, new XMLMapperEntityResolver());
+  }
+
+  /**
+   * Returns the size and modification time of a file or JAR entry, or null for other sources.
+   */
+  private static long[] stamp(URL source) throws IOException {
+    if ("file".equals(source.getProtocol())) {
+      try {
+        Path path = Paths.get(source.toURI());
+        return new long[] { Files.size(path), Files.getLastModifiedTime(path).toMillis() };
+      } catch (URISyntaxException | IllegalArgumentException e) {
+        return null;
+      }
+    }
+    URLConnection connection = source.openConnection();
+    if (connection instanceof JarURLConnection) {
+      JarEntry entry = ((JarURLConnection) connection).getJarEntry();
+      if (entry != null && entry.getSize() >= 0 && entry.getTime() >= 0) {
+        return new long[] { entry.getSize(), entry.getTime() };
+      }
+    }
+    return null;
+  }
+
+  private static byte[] encode(byte[] content) throws IOException {
+    Node root = new XPathParser(new ByteArrayInputStream(content), true, null, new XMLMapperEntityResolver())
+        .evalNode("/*").getNode();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length);
+    DataOutputStream output = new DataOutputStream(bytes);
+    writeNode(output, root);
+    output.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Encodes an element with its content in the format of the snapshot, so that it can be kept without its document.
+   */
+  static byte[] encodeNode(Node node) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(bytes);
+      writeNode(output, node);
+      output.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new BuilderException("Error encoding node.  Cause: " + e, e);
+    }
+  }
+
+  /**
+   * Decodes an element encoded by {@link #encodeNode(Node)} into a new document.
+   */
+  static Document decodeNode(byte[] bytes) {
+    try {
+      return decode(bytes);
+    } catch (IOException e) {
+      throw new BuilderException("Error decoding node.  Cause: " + e, e);
+    }
+  }
+
+  private static void writeNode(DataOutputStream output, Node node) throws IOException {
+    if (node.getNodeType() == Node.ELEMENT_NODE) {
+      output.writeByte(ELEMENT);
+      writeString(output, node.getNodeName());
+      NamedNodeMap attributes = node.getAttributes();
+      output.writeInt(attributes.getLength());
+      for (int i = 0; i < attributes.getLength(); i++) {
+        writeString(output, attributes.item(i).getNodeName());
+        writeString(output, attributes.item(i).getNodeValue());
+      }
+      NodeList children = node.getChildNodes();
+      int count = 0;
+      for (int i = 0; i < children.getLength(); i++) {
+        if (isWritten(children.item(i))) {
+          count++;
+        }
+      }
+      output.writeInt(count);
+      for (int i = 0; i < children.getLength(); i++) {
+        if (isWritten(children.item(i))) {
+          writeNode(output, children.item(i));
+        }
+      }
+    } else {
+      output.writeByte(node.getNodeType() == Node.CDATA_SECTION_NODE ? CDATA : TEXT);
+      writeString(output, node.getNodeValue());
+    }
+  }
+
+  private static boolean isWritten(Node node) {
+    short type = node.getNodeType();
+    return type == Node.ELEMENT_NODE || type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE;
+  }
+
+  private static Document decode(byte[] bytes) throws IOException {
+    Document document;
+    try {
+      document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+    } catch (ParserConfigurationException e) {
+      throw new BuilderException("Error creating document instance.  Cause: " + e, e);
+    }
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+    document.appendChild(readNode(input, document));
+    return document;
+  }
+
+  private static Node readNode(DataInputStream input, Document document) throws IOException {
+    byte type = input.readByte();
+    if (type == ELEMENT) {
+      Element element = document.createElement(readString(input));
+      int attributes = input.readInt();
+      for (int i = 0; i < attributes; i++) {
+        element.setAttribute(readString(input), readString(input));
+      }
+      int children = input.readInt();
+      for (int i = 0; i < children; i++) {
+        element.appendChild(readNode(input, document));
+      }
+      return element;
+    } else if (type == CDATA) {
+      return document.createCDATASection(readString(input));
+    } else {
+      return document.createTextNode(readString(input));
+    }
+  }
+
+  private static void writeString(DataOutputStream output, String value) throws IOException {
+    // writeUTF() is limited to 64K and SQL texts can be longer
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(DataInputStream input) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws IOException {
+    try (InputStream in = inputStream) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+      }
+      return bytes.toByteArray();
+    }
+  }
+
+  private static class Entry {
+    private final long size;
+    private final long lastModified;
+    private final byte[] document;
+
+    private Entry(long size, long lastModified, byte[] document) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.document = document;
+    }
+  }
+
+}
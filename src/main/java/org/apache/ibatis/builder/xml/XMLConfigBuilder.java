@@ -15,14 +15,29 @@
  */
 package org.apache.ibatis.builder.xml;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.CacheInvalidationTransport;
 import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.executor.BackgroundExecutors;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.io.Resources;
@@ -30,6 +45,7 @@ import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.plugin.Interceptor;
@@ -43,6 +59,8 @@ import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.tracing.QueryPlanExplainer;
+import org.apache.ibatis.tracing.TraceListener;
 import org.apache.ibatis.transaction.TransactionFactory;
 import org.apache.ibatis.type.JdbcType;
 
@@ -55,6 +73,7 @@ public class XMLConfigBuilder extends BaseBuilder {
   private boolean parsed;
   private final XPathParser parser;
   private String environment;
+  private final MapperSnapshot mapperSnapshot;
   private final ReflectorFactory localReflectorFactory = new DefaultReflectorFactory();
 
   public XMLConfigBuilder(Reader reader) {
@@ -66,7 +85,11 @@ public class XMLConfigBuilder extends BaseBuilder {
   }
 
   public XMLConfigBuilder(Reader reader, String environment, Properties props) {
-    this(new XPathParser(reader, true, props, new XMLMapperEntityResolver()), environment, props);
+    this(reader, environment, props, null);
+  }
+
+  public XMLConfigBuilder(Reader reader, String environment, Properties props, MapperSnapshot mapperSnapshot) {
+    this(new XPathParser(reader, true, props, new XMLMapperEntityResolver()), environment, props, mapperSnapshot);
   }
 
   public XMLConfigBuilder(InputStream inputStream) {
@@ -78,16 +101,21 @@ public class XMLConfigBuilder extends BaseBuilder {
   }
 
   public XMLConfigBuilder(InputStream inputStream, String environment, Properties props) {
-    this(new XPathParser(inputStream, true, props, new XMLMapperEntityResolver()), environment, props);
+    this(inputStream, environment, props, null);
+  }
+
+  public XMLConfigBuilder(InputStream inputStream, String environment, Properties props, MapperSnapshot mapperSnapshot) {
+    this(new XPathParser(inputStream, true, props, new XMLMapperEntityResolver()), environment, props, mapperSnapshot);
   }
 
-  private XMLConfigBuilder(XPathParser parser, String environment, Properties props) {
+  private XMLConfigBuilder(XPathParser parser, String environment, Properties props, MapperSnapshot mapperSnapshot) {
     super(new Configuration());
     ErrorContext.instance().resource("SQL Mapper Configuration");
     this.configuration.setVariables(props);
     this.parsed = false;
     this.environment = environment;
     this.parser = parser;
+    this.mapperSnapshot = mapperSnapshot;
   }
 
   public Configuration parse() {
@@ -117,6 +145,9 @@ public class XMLConfigBuilder extends BaseBuilder {
       databaseIdProviderElement(root.evalNode("databaseIdProvider"));
       typeHandlerElement(root.evalNode("typeHandlers"));
       mapperElement(root.evalNode("mappers"));
+      if (configuration.isLazyStatementWarmUpEnabled()) {
+        configuration.warmUpLazyStatements();
+      }
     } catch (Exception e) {
       throw new BuilderException("Error parsing SQL Mapper Configuration. Cause: " + e, e);
     }
@@ -244,6 +275,10 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setAutoMappingBehavior(AutoMappingBehavior.valueOf(props.getProperty("autoMappingBehavior", "PARTIAL")));
     configuration.setAutoMappingUnknownColumnBehavior(AutoMappingUnknownColumnBehavior.valueOf(props.getProperty("autoMappingUnknownColumnBehavior", "NONE")));
     configuration.setCacheEnabled(booleanValueOf(props.getProperty("cacheEnabled"), true));
+    configuration.setEagerCachePublishEnabled(booleanValueOf(props.getProperty("eagerCachePublishEnabled"), false));
+    configuration.setParallelMapperParsingEnabled(booleanValueOf(props.getProperty("parallelMapperParsingEnabled"), false));
+    configuration.setLazyStatementBuildingEnabled(booleanValueOf(props.getProperty("lazyStatementBuildingEnabled"), false));
+    configuration.setLazyStatementWarmUpEnabled(booleanValueOf(props.getProperty("lazyStatementWarmUpEnabled"), false));
     configuration.setProxyFactory((ProxyFactory) createInstance(props.getProperty("proxyFactory")));
     configuration.setLazyLoadingEnabled(booleanValueOf(props.getProperty("lazyLoadingEnabled"), false));
     configuration.setAggressiveLazyLoading(booleanValueOf(props.getProperty("aggressiveLazyLoading"), false));
@@ -253,6 +288,11 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
+    configuration.setCursorPrefetchSize(integerValueOf(props.getProperty("cursorPrefetchSize"), null));
+    configuration.setParallelResultMappingEnabled(booleanValueOf(props.getProperty("parallelResultMappingEnabled"), false));
+    configuration.setCompactMapRowsEnabled(booleanValueOf(props.getProperty("compactMapRowsEnabled"), false));
+    configuration.setGeneratedMapperImplementationsEnabled(booleanValueOf(props.getProperty("generatedMapperImplementationsEnabled"), false));
+    configuration.setCompiledInterceptorChainEnabled(booleanValueOf(props.getProperty("compiledInterceptorChainEnabled"), false));
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
@@ -265,7 +305,14 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setUseActualParamName(booleanValueOf(props.getProperty("useActualParamName"), true));
     configuration.setReturnInstanceForEmptyRow(booleanValueOf(props.getProperty("returnInstanceForEmptyRow"), false));
     configuration.setLogPrefix(props.getProperty("logPrefix"));
+    configuration.setStatementLogSamplingRate(integerValueOf(props.getProperty("statementLogSamplingRate"), null));
+    configuration.setStatementLogThreshold(integerValueOf(props.getProperty("statementLogThreshold"), null));
     configuration.setConfigurationFactory(resolveClass(props.getProperty("configurationFactory")));
+    configuration.setCacheInvalidationTransport((CacheInvalidationTransport) createInstance(props.getProperty("cacheInvalidationTransport")));
+    configuration.setMetricsCollector((MetricsCollector) createInstance(props.getProperty("metricsCollector")));
+    configuration.setTraceListener((TraceListener) createInstance(props.getProperty("traceListener")));
+    configuration.setSlowQueryThreshold(integerValueOf(props.getProperty("slowQueryThreshold"), null));
+    configuration.setSlowQueryExplainer((QueryPlanExplainer) createInstance(props.getProperty("slowQueryExplainer")));
   }
 
   private void environmentsElement(XNode context) throws Exception {
@@ -358,32 +405,133 @@ public class XMLConfigBuilder extends BaseBuilder {
 
   private void mapperElement(XNode parent) throws Exception {
     if (parent != null) {
-      for (XNode child : parent.getChildren()) {
-        if ("package".equals(child.getName())) {
-          String mapperPackage = child.getStringAttribute("name");
-          configuration.addMappers(mapperPackage);
+      List<XNode> children = parent.getChildren();
+      ExecutorService parserExecutor = null;
+      List<Future<XPathParser>> documents = Collections.emptyList();
+      if (configuration.isParallelMapperParsingEnabled()) {
+        Executor executor = configuration.getBuildExecutor();
+        if (executor == null) {
+          parserExecutor = BackgroundExecutors.newBoundedExecutor("mybatis-mapper-parser", BackgroundExecutors.defaultParallelism());
+          executor = parserExecutor;
         } else {
-          String resource = child.getStringAttribute("resource");
-          String url = child.getStringAttribute("url");
-          String mapperClass = child.getStringAttribute("class");
-          if (resource != null && url == null && mapperClass == null) {
-            ErrorContext.instance().resource(resource);
-            InputStream inputStream = Resources.getResourceAsStream(resource);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
-            mapperParser.parse();
-          } else if (resource == null && url != null && mapperClass == null) {
-            ErrorContext.instance().resource(url);
-            InputStream inputStream = Resources.getUrlAsStream(url);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
-            mapperParser.parse();
-          } else if (resource == null && url == null && mapperClass != null) {
-            Class<?> mapperInterface = Resources.classForName(mapperClass);
-            configuration.addMapper(mapperInterface);
+          executor = BackgroundExecutors.withContextClassLoader(executor);
+        }
+        documents = parseMapperDocuments(children, executor);
+      }
+      try {
+        for (int i = 0; i < children.size(); i++) {
+          XNode child = children.get(i);
+          Future<XPathParser> document = documents.isEmpty() ? null : documents.get(i);
+          if ("package".equals(child.getName())) {
+            String mapperPackage = child.getStringAttribute("name");
+            configuration.addMappers(mapperPackage);
           } else {
-            throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
+            String resource = child.getStringAttribute("resource");
+            String url = child.getStringAttribute("url");
+            String mapperClass = child.getStringAttribute("class");
+            if (resource != null && url == null && mapperClass == null) {
+              ErrorContext.instance().resource(resource);
+              XMLMapperBuilder mapperParser = document != null
+                  ? new XMLMapperBuilder(awaitDocument(document), configuration, resource, configuration.getSqlFragments())
+                  : new XMLMapperBuilder(prepareMapperParser(resource, null).call(), configuration, resource, configuration.getSqlFragments());
+              mapperParser.parse();
+            } else if (resource == null && url != null && mapperClass == null) {
+              ErrorContext.instance().resource(url);
+              XMLMapperBuilder mapperParser = document != null
+                  ? new XMLMapperBuilder(awaitDocument(document), configuration, url, configuration.getSqlFragments())
+                  : new XMLMapperBuilder(prepareMapperParser(null, url).call(), configuration, url, configuration.getSqlFragments());
+              mapperParser.parse();
+            } else if (resource == null && url == null && mapperClass != null) {
+              Class<?> mapperInterface = Resources.classForName(mapperClass);
+              configuration.addMapper(mapperInterface);
+            } else {
+              throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
+            }
+          }
+        }
+      } finally {
+        for (Future<XPathParser> document : documents) {
+          if (document != null) {
+            document.cancel(false);
           }
         }
+        if (parserExecutor != null) {
+          parserExecutor.shutdown();
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the resource and url mappers on the calling thread, whose context class loader may be the only one
+   * that can see them, and parses them on the given executor. Registration stays sequential, so the returned
+   * list holds a document (or null) for each child in order.
+   */
+  private List<Future<XPathParser>> parseMapperDocuments(List<XNode> children, Executor executor) {
+    List<Future<XPathParser>> documents = new ArrayList<>(children.size());
+    for (XNode child : children) {
+      String resource = child.getStringAttribute("resource");
+      String url = child.getStringAttribute("url");
+      String mapperClass = child.getStringAttribute("class");
+      if ("package".equals(child.getName()) || mapperClass != null || (resource == null) == (url == null)) {
+        documents.add(null);
+      } else {
+        CompletableFuture<XPathParser> document = new CompletableFuture<>();
+        try {
+          Callable<XPathParser> parser = prepareMapperParser(resource, url);
+          executor.execute(() -> {
+            try {
+              document.complete(parser.call());
+            } catch (Throwable t) {
+              document.completeExceptionally(t);
+            }
+          });
+        } catch (Exception e) {
+          document.completeExceptionally(e);
+        }
+        documents.add(document);
+      }
+    }
+    return documents;
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws IOException {
+    try (InputStream in = inputStream) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+      }
+      return bytes.toByteArray();
+    }
+  }
+
+  /**
+   * Does the I/O needed by a resource or url mapper on the calling thread and returns the parsing, which can run on
+   * another thread. Mappers that did not change since the snapshot was written are restored from it without being read.
+   */
+  private Callable<XPathParser> prepareMapperParser(String resource, String url) throws IOException {
+    String location = resource != null ? resource : url;
+    URL source = resource != null ? Resources.getResourceURL(resource) : new URL(url);
+    Properties variables = configuration.getVariables();
+    if (mapperSnapshot != null && mapperSnapshot.isCurrent(location, source)) {
+      return () -> mapperSnapshot.newParser(location, variables);
+    }
+    byte[] content = readFully(source.openStream());
+    return () -> new XPathParser(new ByteArrayInputStream(content), true, variables, new XMLMapperEntityResolver());
+  }
+
+  private XPathParser awaitDocument(Future<XPathParser> document) throws Exception {
+    try {
+      return document.get();
+    } catch (ExecutionException e) {
+      // rethrow what the sequential parsing would have thrown
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
       }
+      throw (Error) cause;
     }
   }
 
@@ -32,6 +32,7 @@ import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.ResultMapResolver;
+import org.apache.ibatis.builder.annotation.MapperAnnotationBuilder;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.io.Resources;
@@ -81,7 +82,12 @@ public class XMLMapperBuilder extends BaseBuilder {
         configuration, resource, sqlFragments);
   }
 
-  private XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
+  public XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments, String namespace) {
+    this(parser, configuration, resource, sqlFragments);
+    this.builderAssistant.setCurrentNamespace(namespace);
+  }
+
+  public XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
     super(configuration);
     this.builderAssistant = new MapperBuilderAssistant(configuration, resource);
     this.parser = parser;
@@ -113,7 +119,7 @@ public class XMLMapperBuilder extends BaseBuilder {
       }
       builderAssistant.setCurrentNamespace(namespace);
       cacheRefElement(context.evalNode("cache-ref"));
-      cacheElement(context.evalNode("cache"));
+      cacheElement(context.evalNode("cache"), usesCacheTags(context, namespace));
       parameterMapElement(context.evalNodes("/mapper/parameterMap"));
       resultMapElements(context.evalNodes("/mapper/resultMap"));
       sqlElement(context.evalNodes("/mapper/sql"));
@@ -198,18 +204,40 @@ public class XMLMapperBuilder extends BaseBuilder {
     }
   }
 
-  private void cacheElement(XNode context) {
+  private void cacheElement(XNode context, boolean tagged) {
     if (context != null) {
       String type = context.getStringAttribute("type", "PERPETUAL");
       Class<? extends Cache> typeClass = typeAliasRegistry.resolveAlias(type);
       String eviction = context.getStringAttribute("eviction", "LRU");
       Class<? extends Cache> evictionClass = typeAliasRegistry.resolveAlias(eviction);
       Long flushInterval = context.getLongAttribute("flushInterval");
+      boolean flushPerEntry = context.getBooleanAttribute("flushPerEntry", false);
+      Long flushJitter = context.getLongAttribute("flushJitter");
+      Long refreshAhead = context.getLongAttribute("refreshAhead");
       Integer size = context.getIntAttribute("size");
       boolean readWrite = !context.getBooleanAttribute("readOnly", false);
       boolean blocking = context.getBooleanAttribute("blocking", false);
       Properties props = context.getChildrenAsProperties();
-      builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props);
+      builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, flushPerEntry, flushJitter, refreshAhead,
+          size, readWrite, blocking, tagged, props);
+    }
+  }
+
+  /**
+   * Returns whether the statements of the namespace, in this file or in its mapper interface, declare cache tags.
+   */
+  private boolean usesCacheTags(XNode context, String namespace) {
+    for (XNode statement : context.evalNodes("select|insert|update|delete")) {
+      String cacheTags = statement.getStringAttribute("cacheTags");
+      if (cacheTags != null && cacheTags.trim().length() > 0) {
+        return true;
+      }
+    }
+    try {
+      return MapperAnnotationBuilder.usesCacheTags(Resources.classForName(namespace));
+    } catch (ClassNotFoundException e) {
+      //ignore, bound type is not required
+      return false;
     }
   }
 
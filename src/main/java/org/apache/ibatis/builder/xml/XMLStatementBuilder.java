@@ -61,6 +61,14 @@ public class XMLStatementBuilder extends BaseBuilder {
       return;
     }
 
+    if (configuration.isLazyStatementBuildingEnabled()) {
+      configuration.addLazyStatement(new LazyStatement(configuration, builderAssistant, context, requiredDatabaseId));
+    } else {
+      buildStatement(id, databaseId);
+    }
+  }
+
+  void buildStatement(String id, String databaseId) {
     String nodeName = context.getNode().getNodeName();
     SqlCommandType sqlCommandType = SqlCommandType.valueOf(nodeName.toUpperCase(Locale.ENGLISH));
     boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
@@ -106,11 +114,12 @@ public class XMLStatementBuilder extends BaseBuilder {
     String keyProperty = context.getStringAttribute("keyProperty");
     String keyColumn = context.getStringAttribute("keyColumn");
     String resultSets = context.getStringAttribute("resultSets");
+    String cacheTags = context.getStringAttribute("cacheTags");
 
     builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType,
         fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
         resultSetTypeEnum, flushCache, useCache, resultOrdered,
-        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets);
+        keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets, cacheTags);
   }
 
   private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
@@ -182,7 +191,12 @@ public class XMLStatementBuilder extends BaseBuilder {
       }
       // skip this statement if there is a previous one with a not null databaseId
       id = builderAssistant.applyCurrentNamespace(id, false);
-      if (this.configuration.hasStatement(id, false)) {
+      if (this.configuration.hasLazyStatement(id)) {
+        // do not build a lazily registered statement just to read its databaseId
+        if (this.configuration.getLazyStatement(id).getDatabaseId() != null) {
+          return false;
+        }
+      } else if (this.configuration.hasStatement(id, false)) {
         MappedStatement previous = this.configuration.getMappedStatement(id, false); // issue #2
         if (previous.getDatabaseId() != null) {
           return false;
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
@@ -58,6 +59,19 @@ public interface Cache {
    */
   Object getObject(Object key);
 
+  /**
+   * Puts all the given entries at once. Called on commit so that a cache that needs
+   * to lock can do it once for the whole transaction.
+   *
+   * @param entries keys and values to put, values can be null
+   * @since 3.5.2
+   */
+  default void putObjects(Map<Object, Object> entries) {
+    for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+      putObject(entry.getKey(), entry.getValue());
+    }
+  }
+
   /**
    * As of 3.3.0 this method is only called during a rollback
    * for any previous value that was missing in the cache.
@@ -0,0 +1,61 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A cache flush committed on one node.
+ */
+public class CacheInvalidation implements Serializable {
+
+  private static final long serialVersionUID = -1542416384237851307L;
+
+  private final String nodeId;
+  private final String cacheId;
+  private final List<String> tags;
+
+  public CacheInvalidation(String nodeId, String cacheId, Collection<String> tags) {
+    this.nodeId = nodeId;
+    this.cacheId = cacheId;
+    this.tags = tags == null ? null : Collections.unmodifiableList(new ArrayList<>(tags));
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public String getCacheId() {
+    return cacheId;
+  }
+
+  /**
+   * @return the invalidated tags or null if the whole cache must be cleared
+   */
+  public List<String> getTags() {
+    return tags;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheInvalidation [nodeId=" + nodeId + ", cacheId=" + cacheId + ", tags=" + tags + "]";
+  }
+
+}
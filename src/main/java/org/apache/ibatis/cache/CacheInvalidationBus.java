@@ -0,0 +1,80 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import org.apache.ibatis.cache.decorators.TaggedCache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Publishes the local cache flushes through a {@link CacheInvalidationTransport}
+ * and applies the flushes received from the other nodes to the local caches.
+ */
+public class CacheInvalidationBus implements CacheInvalidationPublisher, CacheInvalidationListener {
+
+  private static final Log log = LogFactory.getLog(CacheInvalidationBus.class);
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Configuration configuration;
+  private final CacheInvalidationTransport transport;
+
+  public CacheInvalidationBus(Configuration configuration, CacheInvalidationTransport transport) {
+    this.configuration = configuration;
+    this.transport = transport;
+    transport.subscribe(this);
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public CacheInvalidationTransport getTransport() {
+    return transport;
+  }
+
+  /**
+   * Stops applying the invalidations received from the other nodes.
+   */
+  public void close() {
+    transport.unsubscribe(this);
+  }
+
+  @Override
+  public void publish(String cacheId, Collection<String> tags) {
+    transport.send(new CacheInvalidation(nodeId, cacheId, tags));
+  }
+
+  @Override
+  public void onInvalidation(CacheInvalidation invalidation) {
+    if (nodeId.equals(invalidation.getNodeId()) || !configuration.hasCache(invalidation.getCacheId())) {
+      return;
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("Applying remote " + invalidation);
+    }
+    Cache cache = configuration.getCache(invalidation.getCacheId());
+    if (invalidation.getTags() != null && cache instanceof TaggedCache) {
+      ((TaggedCache) cache).invalidate(invalidation.getTags());
+    } else {
+      cache.clear();
+    }
+  }
+
+}
@@ -0,0 +1,32 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collection;
+
+/**
+ * Notified by the 2nd level cache transactional buffer each time a commit flushes a cache,
+ * so that the invalidation can be propagated to the caches of other nodes.
+ */
+public interface CacheInvalidationPublisher {
+
+  /**
+   * @param cacheId the id of the flushed cache
+   * @param tags the invalidated tags or null if the whole cache was cleared
+   */
+  void publish(String cacheId, Collection<String> tags);
+
+}
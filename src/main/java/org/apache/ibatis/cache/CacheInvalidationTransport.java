@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Carries cache invalidations between the nodes sharing a database.
+ * <p>
+ * Implementations must deliver every sent invalidation to the listeners subscribed on the other nodes.
+ * Delivering it back to the sender is allowed, invalidations coming from the local node are ignored.
+ */
+public interface CacheInvalidationTransport {
+
+  void send(CacheInvalidation invalidation);
+
+  void subscribe(CacheInvalidationListener listener);
+
+  /**
+   * Stops delivering the invalidations to a listener, e.g. once the configuration it belongs to uses another transport.
+   *
+   * @param listener a listener subscribed before
+   */
+  void unsubscribe(CacheInvalidationListener listener);
+
+}
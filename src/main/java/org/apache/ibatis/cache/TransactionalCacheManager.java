@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,11 +27,44 @@ import org.apache.ibatis.cache.decorators.TransactionalCache;
 public class TransactionalCacheManager {
 
   private final Map<Cache, TransactionalCache> transactionalCaches = new HashMap<>();
+  private final CacheInvalidationPublisher invalidationPublisher;
+  private final boolean eagerPublish;
+  private boolean dirty;
+
+  public TransactionalCacheManager() {
+    this(null);
+  }
+
+  public TransactionalCacheManager(CacheInvalidationPublisher invalidationPublisher) {
+    this(invalidationPublisher, false);
+  }
+
+  /**
+   * @param invalidationPublisher notified of the committed flushes, can be null
+   * @param eagerPublish whether entries read before the first write of a transaction are put into the
+   *     caches right away instead of on commit
+   */
+  public TransactionalCacheManager(CacheInvalidationPublisher invalidationPublisher, boolean eagerPublish) {
+    this.invalidationPublisher = invalidationPublisher;
+    this.eagerPublish = eagerPublish;
+  }
+
+  /**
+   * Marks the current transaction as having written to the database.
+   * Entries read from now on are kept until commit.
+   */
+  public void markDirty() {
+    dirty = true;
+  }
 
   public void clear(Cache cache) {
     getTransactionalCache(cache).clear();
   }
 
+  public void invalidate(Cache cache, Collection<String> tags) {
+    getTransactionalCache(cache).invalidate(tags);
+  }
+
   public Object getObject(Cache cache, CacheKey key) {
     return getTransactionalCache(cache).getObject(key);
   }
@@ -39,20 +73,30 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).putObject(key, value);
   }
 
+  public void putObject(Cache cache, CacheKey key, Object value, Collection<String> tags) {
+    if (eagerPublish && !dirty) {
+      getTransactionalCache(cache).publishObject(key, value, tags);
+    } else {
+      getTransactionalCache(cache).putObject(key, value, tags);
+    }
+  }
+
   public void commit() {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.commit();
     }
+    dirty = false;
   }
 
   public void rollback() {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.rollback();
     }
+    dirty = false;
   }
 
   private TransactionalCache getTransactionalCache(Cache cache) {
-    return transactionalCaches.computeIfAbsent(cache, TransactionalCache::new);
+    return transactionalCaches.computeIfAbsent(cache, c -> new TransactionalCache(c, invalidationPublisher));
   }
 
 }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2018 the original author or authors.
+ *    Copyright 2009-2019 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -64,6 +65,17 @@ public class BlockingCache implements Cache {
     }
   }
 
+  @Override
+  public void putObjects(Map<Object, Object> entries) {
+    try {
+      delegate.putObjects(entries);
+    } finally {
+      for (Object key : entries.keySet()) {
+        releaseLock(key);
+      }
+    }
+  }
+
   @Override
   public Object getObject(Object key) {
     acquireLock(key);
@@ -81,6 +93,17 @@ public class BlockingCache implements Cache {
     return null;
   }
 
+  /**
+   * Removes the entry from the underlying cache, unlike {@link #removeObject(Object)} which only releases the lock
+   * held on the key.
+   *
+   * @param key the cache key
+   * @return the removed value, if the underlying cache returns it
+   */
+  public Object evictObject(Object key) {
+    return delegate.removeObject(key);
+  }
+
   @Override
   public void clear() {
     delegate.clear();
@@ -113,7 +136,7 @@ public class BlockingCache implements Cache {
 
   private void releaseLock(Object key) {
     ReentrantLock lock = locks.get(key);
-    if (lock.isHeldByCurrentThread()) {
+    if (lock != null && lock.isHeldByCurrentThread()) {
       lock.unlock();
     }
   }
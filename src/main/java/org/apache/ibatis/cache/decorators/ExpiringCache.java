@@ -0,0 +1,146 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Expires each entry on its own once <code>flushInterval</code> has elapsed since it was put,
+ * instead of clearing the whole cache at once like {@link ScheduledCache}.
+ * <p>
+ * An optional random jitter is added to each entry's lifetime so that entries filled together
+ * do not expire together. With a refresh-ahead window, the first reader that finds an entry about
+ * to expire gets a miss and reloads it while the other readers keep getting the cached value.
+ */
+public class ExpiringCache implements Cache {
+
+  private final Cache delegate;
+  protected long flushInterval;
+  protected long flushJitter;
+  protected long refreshAhead;
+  private LongSupplier clock = System::currentTimeMillis;
+
+  public ExpiringCache(Cache delegate) {
+    this.delegate = delegate;
+    this.flushInterval = 60 * 60 * 1000; // 1 hour
+  }
+
+  public void setFlushInterval(long flushInterval) {
+    this.flushInterval = flushInterval;
+  }
+
+  public void setFlushJitter(long flushJitter) {
+    this.flushJitter = flushJitter;
+  }
+
+  public void setRefreshAhead(long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+  }
+
+  /**
+   * Sets the source of the current time in milliseconds, {@link System#currentTimeMillis()} by default.
+   *
+   * @param clock returns the current time in milliseconds
+   */
+  public void setClock(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object object) {
+    if (object == null) {
+      delegate.putObject(key, null);
+    } else {
+      long lifetime = flushInterval;
+      if (flushJitter > 0) {
+        lifetime += ThreadLocalRandom.current().nextLong(flushJitter + 1);
+      }
+      delegate.putObject(key, new ExpiringEntry(object, clock.getAsLong() + lifetime));
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object value = delegate.getObject(key);
+    if (!(value instanceof ExpiringEntry)) {
+      return value;
+    }
+    ExpiringEntry entry = (ExpiringEntry) value;
+    long now = clock.getAsLong();
+    if (now >= entry.expiresAt) {
+      delegate.removeObject(key);
+      return null;
+    }
+    if (refreshAhead > 0 && !entry.refreshing && now >= entry.expiresAt - refreshAhead) {
+      // this reader reloads the entry, the others keep the current value until it is replaced
+      entry.refreshing = true;
+      return null;
+    }
+    return entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Object value = delegate.removeObject(key);
+    return value instanceof ExpiringEntry ? ((ExpiringEntry) value).value : value;
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private static class ExpiringEntry {
+    private final Object value;
+    private final long expiresAt;
+    private volatile boolean refreshing;
+
+    ExpiringEntry(Object value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
@@ -0,0 +1,53 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed size ring of strong references to the most recently hit values, used by the
+ * reference caches to keep hot entries from being garbage collected.
+ * <p>
+ * Adding a value never blocks: each hit claims the next slot and overwrites the oldest link.
+ */
+final class HardLinkRing {
+
+  private final AtomicReferenceArray<Object> links;
+  private final AtomicInteger next = new AtomicInteger();
+
+  HardLinkRing(int size) {
+    this.links = new AtomicReferenceArray<>(Math.max(size, 0));
+  }
+
+  int size() {
+    return links.length();
+  }
+
+  void add(Object value) {
+    int length = links.length();
+    if (length > 0) {
+      links.lazySet((next.getAndIncrement() & Integer.MAX_VALUE) % length, value);
+    }
+  }
+
+  void clear() {
+    for (int i = 0; i < links.length(); i++) {
+      links.set(i, null);
+    }
+  }
+
+}
@@ -17,8 +17,7 @@ package org.apache.ibatis.cache.decorators;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
@@ -30,15 +29,16 @@ import org.apache.ibatis.cache.Cache;
  * @author Clinton Begin
  */
 public class SoftCache implements Cache {
-  private final Deque<Object> hardLinksToAvoidGarbageCollection;
+  private static final int PUTS_BETWEEN_CLEANUPS = 64;
+
+  private volatile HardLinkRing hardLinksToAvoidGarbageCollection;
   private final ReferenceQueue<Object> queueOfGarbageCollectedEntries;
+  private final AtomicInteger putsSinceCleanup = new AtomicInteger();
   private final Cache delegate;
-  private int numberOfHardLinks;
 
   public SoftCache(Cache delegate) {
     this.delegate = delegate;
-    this.numberOfHardLinks = 256;
-    this.hardLinksToAvoidGarbageCollection = new LinkedList<>();
+    this.hardLinksToAvoidGarbageCollection = new HardLinkRing(256);
     this.queueOfGarbageCollectedEntries = new ReferenceQueue<>();
   }
 
@@ -55,12 +55,16 @@ public class SoftCache implements Cache {
 
 
   public void setSize(int size) {
-    this.numberOfHardLinks = size;
+    this.hardLinksToAvoidGarbageCollection = new HardLinkRing(size);
   }
 
   @Override
   public void putObject(Object key, Object value) {
-    removeGarbageCollectedItems();
+    // the queue is drained in batches rather than on every put
+    if (putsSinceCleanup.incrementAndGet() >= PUTS_BETWEEN_CLEANUPS) {
+      putsSinceCleanup.set(0);
+      removeGarbageCollectedItems();
+    }
     delegate.putObject(key, new SoftEntry(key, value, queueOfGarbageCollectedEntries));
   }
 
@@ -74,13 +78,8 @@ public class SoftCache implements Cache {
       if (result == null) {
         delegate.removeObject(key);
       } else {
-        // See #586 (and #335) modifications need more than a read lock
-        synchronized (hardLinksToAvoidGarbageCollection) {
-          hardLinksToAvoidGarbageCollection.addFirst(result);
-          if (hardLinksToAvoidGarbageCollection.size() > numberOfHardLinks) {
-            hardLinksToAvoidGarbageCollection.removeLast();
-          }
-        }
+        // See #586 (and #335), the ring takes no lock so concurrent hits do not serialize here
+        hardLinksToAvoidGarbageCollection.add(result);
       }
     }
     return result;
@@ -94,9 +93,7 @@ public class SoftCache implements Cache {
 
   @Override
   public void clear() {
-    synchronized (hardLinksToAvoidGarbageCollection) {
-      hardLinksToAvoidGarbageCollection.clear();
-    }
+    hardLinksToAvoidGarbageCollection.clear();
     removeGarbageCollectedItems();
     delegate.clear();
   }
@@ -109,7 +106,10 @@ public class SoftCache implements Cache {
   private void removeGarbageCollectedItems() {
     SoftEntry sv;
     while ((sv = (SoftEntry) queueOfGarbageCollectedEntries.poll()) != null) {
-      delegate.removeObject(sv.key);
+      // the key may have been put again since this value was collected
+      if (delegate.getObject(sv.key) == sv) {
+        delegate.removeObject(sv.key);
+      }
     }
   }
 
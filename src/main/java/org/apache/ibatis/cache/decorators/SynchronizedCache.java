@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
@@ -45,6 +46,11 @@ public class SynchronizedCache implements Cache {
     delegate.putObject(key, object);
   }
 
+  @Override
+  public synchronized void putObjects(Map<Object, Object> entries) {
+    delegate.putObjects(entries);
+  }
+
   @Override
   public synchronized Object getObject(Object key) {
     return delegate.getObject(key);
@@ -0,0 +1,302 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Keeps an index from cache tags to the keys that were stored with them, so that
+ * a write can evict only the entries that read the modified tables instead of
+ * clearing the whole namespace.
+ * <p>
+ * A tag is either a table name (<code>user</code>) or a table name qualified with
+ * a key property and its value (<code>user:id:42</code>). Invalidating a table tag
+ * evicts every entry tagged with that table, qualified or not. Invalidating a
+ * qualified tag evicts the entries with the same qualified tag, the entries that
+ * read the whole table and the entries keyed by another property of the table,
+ * which may have read the same rows. Only the entries keyed by the same property
+ * with another value are kept. Entries stored without tags are evicted by any
+ * invalidation.
+ * <p>
+ * Entries evicted by an inner decorator (e.g. LRU) leave their key in the index until
+ * one of their tags is invalidated. Once the index holds more than
+ * <code>maxIndexedKeys</code> keys it stops growing and the next invalidation
+ * clears the whole cache.
+ */
+public class TaggedCache implements Cache {
+
+  public static final char KEY_SEPARATOR = ':';
+
+  private final Cache delegate;
+  private final Map<String, Set<Object>> keysByTag = new HashMap<>();
+  private final Map<String, Set<String>> tagsByTable = new HashMap<>();
+  private final Set<Object> untaggedKeys = new HashSet<>();
+  private int maxIndexedKeys = 16384;
+  private int indexedKeys;
+  private volatile boolean tagged;
+  private volatile boolean untracked;
+
+  public TaggedCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  public void setMaxIndexedKeys(int maxIndexedKeys) {
+    this.maxIndexedKeys = maxIndexedKeys;
+  }
+
+  @Override
+  public void putObject(Object key, Object object) {
+    putObject(key, object, null);
+  }
+
+  public void putObject(Object key, Object object, Collection<String> tags) {
+    if (tagged || (tags != null && !tags.isEmpty())) {
+      synchronized (keysByTag) {
+        index(key, object, tags);
+      }
+    } else {
+      untracked = true;
+    }
+    delegate.putObject(key, object);
+  }
+
+  @Override
+  public void putObjects(Map<Object, Object> entries) {
+    putObjects(entries, Collections.emptyMap());
+  }
+
+  /**
+   * Puts all the given entries at once along with their tags.
+   *
+   * @param entries keys and values to put
+   * @param tags the tags of each key, keys without tags are indexed as untagged
+   */
+  public void putObjects(Map<Object, Object> entries, Map<Object, Collection<String>> tags) {
+    if (tagged || !tags.isEmpty()) {
+      synchronized (keysByTag) {
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+          index(entry.getKey(), entry.getValue(), tags.get(entry.getKey()));
+        }
+      }
+    } else {
+      untracked = true;
+    }
+    delegate.putObjects(entries);
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    synchronized (keysByTag) {
+      resetIndex();
+    }
+    delegate.clear();
+  }
+
+  /**
+   * Evicts all the entries affected by the given tags.
+   *
+   * @param tags table or qualified tags written by a statement
+   */
+  public void invalidate(Collection<String> tags) {
+    Set<Object> keys = new HashSet<>();
+    synchronized (keysByTag) {
+      if (untracked) {
+        resetIndex();
+        delegate.clear();
+        return;
+      }
+      for (String tag : tags) {
+        Set<String> tableTags = tagsByTable.get(tableOf(tag));
+        if (tableTags != null) {
+          for (String tableTag : new ArrayList<>(tableTags)) {
+            if (affects(tag, tableTag)) {
+              removeKeys(tableTag, keys);
+            }
+          }
+        }
+      }
+      keys.addAll(untaggedKeys);
+      indexedKeys -= untaggedKeys.size();
+      untaggedKeys.clear();
+    }
+    for (Object key : keys) {
+      evict(key);
+    }
+  }
+
+  /**
+   * Returns whether the given key may have been stored with a tag affected by one of the given tags.
+   *
+   * @param key the cache key
+   * @param tags table or qualified tags written by a statement
+   * @return true if an invalidation of <code>tags</code> could evict <code>key</code>
+   */
+  public boolean isAffected(Object key, Collection<String> tags) {
+    synchronized (keysByTag) {
+      if (untracked || untaggedKeys.contains(key)) {
+        return true;
+      }
+      for (String tag : tags) {
+        Set<String> tableTags = tagsByTable.get(tableOf(tag));
+        if (tableTags != null) {
+          for (String tableTag : tableTags) {
+            if (affects(tag, tableTag) && containsKey(tableTag, key)) {
+              return true;
+            }
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  public static String tableOf(String tag) {
+    int separator = tag.indexOf(KEY_SEPARATOR);
+    return separator < 0 ? tag : tag.substring(0, separator);
+  }
+
+  /**
+   * Returns whether a write declaring a tag affects the entries stored with another tag.
+   *
+   * @param writtenTag the table or qualified tag of the write
+   * @param storedTag the table or qualified tag of the entries
+   * @return true if the entries may have read the rows of the write
+   */
+  public static boolean affects(String writtenTag, String storedTag) {
+    if (!tableOf(writtenTag).equals(tableOf(storedTag))) {
+      return false;
+    }
+    if (writtenTag.indexOf(KEY_SEPARATOR) < 0 || storedTag.indexOf(KEY_SEPARATOR) < 0 || writtenTag.equals(storedTag)) {
+      return true;
+    }
+    // rows keyed by another property cannot be told apart
+    return !propertyOf(writtenTag).equals(propertyOf(storedTag));
+  }
+
+  private static String propertyOf(String tag) {
+    int start = tag.indexOf(KEY_SEPARATOR) + 1;
+    int end = tag.indexOf(KEY_SEPARATOR, start);
+    return end < 0 ? "" : tag.substring(start, end);
+  }
+
+  private void index(Object key, Object object, Collection<String> tags) {
+    if (tags == null || tags.isEmpty()) {
+      if (object != null && !untracked) {
+        if (indexedKeys < maxIndexedKeys) {
+          if (untaggedKeys.add(key)) {
+            indexedKeys++;
+          }
+        } else {
+          untracked = true;
+        }
+      }
+      return;
+    }
+    tagged = true;
+    if (!untracked) {
+      if (indexedKeys + tags.size() <= maxIndexedKeys) {
+        for (String tag : tags) {
+          if (keysByTag.computeIfAbsent(tag, k -> new HashSet<>()).add(key)) {
+            indexedKeys++;
+          }
+          tagsByTable.computeIfAbsent(tableOf(tag), k -> new HashSet<>()).add(tag);
+        }
+      } else {
+        untracked = true;
+      }
+    }
+  }
+
+  private void evict(Object key) {
+    if (delegate instanceof BlockingCache) {
+      // removeObject() only releases locks on a BlockingCache
+      ((BlockingCache) delegate).evictObject(key);
+    } else {
+      delegate.removeObject(key);
+    }
+  }
+
+  private boolean containsKey(String tag, Object key) {
+    Set<Object> keys = keysByTag.get(tag);
+    return keys != null && keys.contains(key);
+  }
+
+  private void removeKeys(String tag, Set<Object> removed) {
+    String table = tableOf(tag);
+    Set<String> tableTags = tagsByTable.get(table);
+    if (tableTags != null && tableTags.remove(tag) && tableTags.isEmpty()) {
+      tagsByTable.remove(table);
+    }
+    Set<Object> keys = keysByTag.remove(tag);
+    if (keys != null) {
+      indexedKeys -= keys.size();
+      removed.addAll(keys);
+    }
+  }
+
+  private void resetIndex() {
+    keysByTag.clear();
+    tagsByTable.clear();
+    untaggedKeys.clear();
+    indexedKeys = 0;
+    untracked = false;
+  }
+
+}
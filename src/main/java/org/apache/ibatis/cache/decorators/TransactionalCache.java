@@ -15,13 +15,17 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheInvalidationPublisher;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -32,6 +36,11 @@ import org.apache.ibatis.logging.LogFactory;
  * Entries are sent to the cache when commit is called or discarded if the Session is rolled back.
  * Blocking cache support has been added. Therefore any get() that returns a cache miss
  * will be followed by a put() so any lock associated with the key can be released.
+ * <p>
+ * When the delegate is a {@link TaggedCache}, tagged writes only evict the entries
+ * affected by their tags on commit instead of clearing the whole cache.
+ * Committed flushes are reported to the {@link CacheInvalidationPublisher}, if any.
+ * Pending entries are sent to the delegate with a single {@link Cache#putObjects(Map)} call.
  *
  * @author Clinton Begin
  * @author Eduardo Macarron
@@ -41,14 +50,26 @@ public class TransactionalCache implements Cache {
   private static final Log log = LogFactory.getLog(TransactionalCache.class);
 
   private final Cache delegate;
+  private final TaggedCache taggedDelegate;
+  private final CacheInvalidationPublisher invalidationPublisher;
   private boolean clearOnCommit;
   private final Map<Object, Object> entriesToAddOnCommit;
+  private final Map<Object, Collection<String>> tagsToAddOnCommit;
+  private final Set<String> tagsToInvalidateOnCommit;
   private final Set<Object> entriesMissedInCache;
 
   public TransactionalCache(Cache delegate) {
+    this(delegate, null);
+  }
+
+  public TransactionalCache(Cache delegate, CacheInvalidationPublisher invalidationPublisher) {
     this.delegate = delegate;
+    this.invalidationPublisher = invalidationPublisher;
+    this.taggedDelegate = delegate instanceof TaggedCache ? (TaggedCache) delegate : null;
     this.clearOnCommit = false;
     this.entriesToAddOnCommit = new HashMap<>();
+    this.tagsToAddOnCommit = new HashMap<>();
+    this.tagsToInvalidateOnCommit = new HashSet<>();
     this.entriesMissedInCache = new HashSet<>();
   }
 
@@ -72,6 +93,8 @@ public class TransactionalCache implements Cache {
     // issue #146
     if (clearOnCommit) {
       return null;
+    } else if (!tagsToInvalidateOnCommit.isEmpty() && taggedDelegate.isAffected(key, tagsToInvalidateOnCommit)) {
+      return null;
     } else {
       return object;
     }
@@ -85,6 +108,40 @@ public class TransactionalCache implements Cache {
   @Override
   public void putObject(Object key, Object object) {
     entriesToAddOnCommit.put(key, object);
+    tagsToAddOnCommit.remove(key);
+  }
+
+  /**
+   * Puts the entry straight into the delegate when nothing was flushed by this transaction yet,
+   * otherwise buffers it until commit like {@link #putObject(Object, Object, Collection)}.
+   * Only safe if the transaction has not written anything the entry could have read.
+   *
+   * @param key the cache key
+   * @param object the value read
+   * @param tags the tags of the statement that read the value, can be null
+   */
+  public void publishObject(Object key, Object object, Collection<String> tags) {
+    if (clearOnCommit || !tagsToInvalidateOnCommit.isEmpty()) {
+      putObject(key, object, tags);
+      return;
+    }
+    entriesToAddOnCommit.remove(key);
+    tagsToAddOnCommit.remove(key);
+    entriesMissedInCache.remove(key);
+    if (taggedDelegate != null) {
+      taggedDelegate.putObject(key, object, tags);
+    } else {
+      delegate.putObject(key, object);
+    }
+  }
+
+  public void putObject(Object key, Object object, Collection<String> tags) {
+    entriesToAddOnCommit.put(key, object);
+    if (taggedDelegate != null && tags != null && !tags.isEmpty()) {
+      tagsToAddOnCommit.put(key, tags);
+    } else {
+      tagsToAddOnCommit.remove(key);
+    }
   }
 
   @Override
@@ -96,11 +153,43 @@ public class TransactionalCache implements Cache {
   public void clear() {
     clearOnCommit = true;
     entriesToAddOnCommit.clear();
+    tagsToAddOnCommit.clear();
+    tagsToInvalidateOnCommit.clear();
+  }
+
+  /**
+   * Evicts on commit only the entries affected by the given tags.
+   * Falls back to {@link #clear()} when the delegate does not keep track of tags.
+   *
+   * @param tags table or qualified tags written by a statement
+   */
+  public void invalidate(Collection<String> tags) {
+    if (taggedDelegate == null || tags == null || tags.isEmpty()) {
+      clear();
+      return;
+    }
+    if (clearOnCommit) {
+      return;
+    }
+    tagsToInvalidateOnCommit.addAll(tags);
+    Iterator<Map.Entry<Object, Object>> pending = entriesToAddOnCommit.entrySet().iterator();
+    while (pending.hasNext()) {
+      Object key = pending.next().getKey();
+      Collection<String> entryTags = tagsToAddOnCommit.get(key);
+      if (entryTags == null || isAffected(entryTags, tags)) {
+        pending.remove();
+        tagsToAddOnCommit.remove(key);
+      }
+    }
   }
 
   public void commit() {
     if (clearOnCommit) {
       delegate.clear();
+      publishInvalidation(null);
+    } else if (!tagsToInvalidateOnCommit.isEmpty()) {
+      taggedDelegate.invalidate(tagsToInvalidateOnCommit);
+      publishInvalidation(new ArrayList<>(tagsToInvalidateOnCommit));
     }
     flushPendingEntries();
     reset();
@@ -114,16 +203,45 @@ public class TransactionalCache implements Cache {
   private void reset() {
     clearOnCommit = false;
     entriesToAddOnCommit.clear();
+    tagsToAddOnCommit.clear();
+    tagsToInvalidateOnCommit.clear();
     entriesMissedInCache.clear();
   }
 
   private void flushPendingEntries() {
-    for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-      delegate.putObject(entry.getKey(), entry.getValue());
-    }
     for (Object entry : entriesMissedInCache) {
       if (!entriesToAddOnCommit.containsKey(entry)) {
-        delegate.putObject(entry, null);
+        entriesToAddOnCommit.put(entry, null);
+      }
+    }
+    if (entriesToAddOnCommit.isEmpty()) {
+      return;
+    }
+    if (taggedDelegate != null) {
+      taggedDelegate.putObjects(entriesToAddOnCommit, tagsToAddOnCommit);
+    } else {
+      delegate.putObjects(entriesToAddOnCommit);
+    }
+  }
+
+  private static boolean isAffected(Collection<String> entryTags, Collection<String> invalidatedTags) {
+    for (String invalidatedTag : invalidatedTags) {
+      for (String entryTag : entryTags) {
+        if (TaggedCache.affects(invalidatedTag, entryTag)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private void publishInvalidation(Collection<String> tags) {
+    if (invalidationPublisher != null) {
+      try {
+        invalidationPublisher.publish(getId(), tags);
+      } catch (Exception e) {
+        log.warn("Unexpected exception while publishing the invalidation of cache " + getId()
+            + ". Other nodes may serve stale entries until they expire.  Cause: " + e);
       }
     }
   }
@@ -17,8 +17,7 @@ package org.apache.ibatis.cache.decorators;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
@@ -30,15 +29,16 @@ import org.apache.ibatis.cache.Cache;
  * @author Clinton Begin
  */
 public class WeakCache implements Cache {
-  private final Deque<Object> hardLinksToAvoidGarbageCollection;
+  private static final int PUTS_BETWEEN_CLEANUPS = 64;
+
+  private volatile HardLinkRing hardLinksToAvoidGarbageCollection;
   private final ReferenceQueue<Object> queueOfGarbageCollectedEntries;
+  private final AtomicInteger putsSinceCleanup = new AtomicInteger();
   private final Cache delegate;
-  private int numberOfHardLinks;
 
   public WeakCache(Cache delegate) {
     this.delegate = delegate;
-    this.numberOfHardLinks = 256;
-    this.hardLinksToAvoidGarbageCollection = new LinkedList<>();
+    this.hardLinksToAvoidGarbageCollection = new HardLinkRing(256);
     this.queueOfGarbageCollectedEntries = new ReferenceQueue<>();
   }
 
@@ -54,12 +54,16 @@ public class WeakCache implements Cache {
   }
 
   public void setSize(int size) {
-    this.numberOfHardLinks = size;
+    this.hardLinksToAvoidGarbageCollection = new HardLinkRing(size);
   }
 
   @Override
   public void putObject(Object key, Object value) {
-    removeGarbageCollectedItems();
+    // the queue is drained in batches rather than on every put
+    if (putsSinceCleanup.incrementAndGet() >= PUTS_BETWEEN_CLEANUPS) {
+      putsSinceCleanup.set(0);
+      removeGarbageCollectedItems();
+    }
     delegate.putObject(key, new WeakEntry(key, value, queueOfGarbageCollectedEntries));
   }
 
@@ -73,10 +77,8 @@ public class WeakCache implements Cache {
       if (result == null) {
         delegate.removeObject(key);
       } else {
-        hardLinksToAvoidGarbageCollection.addFirst(result);
-        if (hardLinksToAvoidGarbageCollection.size() > numberOfHardLinks) {
-          hardLinksToAvoidGarbageCollection.removeLast();
-        }
+        // the ring takes no lock so concurrent hits do not serialize here
+        hardLinksToAvoidGarbageCollection.add(result);
       }
     }
     return result;
@@ -103,7 +105,10 @@ public class WeakCache implements Cache {
   private void removeGarbageCollectedItems() {
     WeakEntry sv;
     while ((sv = (WeakEntry) queueOfGarbageCollectedEntries.poll()) != null) {
-      delegate.removeObject(sv.key);
+      // the key may have been put again since this value was collected
+      if (delegate.getObject(sv.key) == sv) {
+        delegate.removeObject(sv.key);
+      }
     }
   }
 
@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.ibatis.cache.CacheInvalidation;
+import org.apache.ibatis.cache.CacheInvalidationListener;
+import org.apache.ibatis.cache.CacheInvalidationTransport;
+
+/**
+ * In-process transport that synchronously delivers every invalidation to all its listeners.
+ * <p>
+ * Sharing one instance between several configurations simulates a cluster within a single JVM.
+ */
+public class LoopbackCacheInvalidationTransport implements CacheInvalidationTransport {
+
+  private final List<CacheInvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void send(CacheInvalidation invalidation) {
+    for (CacheInvalidationListener listener : listeners) {
+      listener.onInvalidation(invalidation);
+    }
+  }
+
+  @Override
+  public void subscribe(CacheInvalidationListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void unsubscribe(CacheInvalidationListener listener) {
+    listeners.remove(listener);
+  }
+
+}
@@ -0,0 +1,41 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+/**
+ * Streams the results of a select statement to a subscriber as it requests them.
+ * <p>
+ * The methods of this interface and of {@link CursorSubscriber} and {@link CursorSubscription}
+ * have the same signatures and contracts as their Reactive Streams counterparts, so a publisher
+ * can be adapted to any Reactive Streams library with a method reference per signal.
+ * <p>
+ * The statement is executed when the first rows are requested, and the rows are read from the
+ * database and mapped on the thread calling {@link CursorSubscription#request(long)}. Like a
+ * {@link Cursor}, a publisher can be subscribed only once and needs its session to stay open
+ * until it completes or its subscription is cancelled.
+ *
+ * @param <T> the type of the mapped rows
+ */
+public interface CursorPublisher<T> {
+
+  /**
+   * Subscribes to the results of the statement.
+   *
+   * @param subscriber the subscriber to receive the mapped rows
+   */
+  void subscribe(CursorSubscriber<? super T> subscriber);
+
+}
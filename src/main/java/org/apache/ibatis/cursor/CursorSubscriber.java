@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+/**
+ * Receives the rows of a {@link CursorPublisher}.
+ *
+ * @param <T> the type of the mapped rows
+ */
+public interface CursorSubscriber<T> {
+
+  /**
+   * Called once before any other signal. No rows are fetched until the subscription is requested some.
+   *
+   * @param subscription the subscription used to request rows or cancel
+   */
+  void onSubscribe(CursorSubscription subscription);
+
+  /**
+   * Called for each requested row.
+   *
+   * @param row the mapped row
+   */
+  void onNext(T row);
+
+  /**
+   * Called once if the statement or the mapping of a row fails. The cursor is already closed.
+   *
+   * @param throwable the failure
+   */
+  void onError(Throwable throwable);
+
+  /**
+   * Called once after the last row. The cursor is already closed.
+   */
+  void onComplete();
+
+}
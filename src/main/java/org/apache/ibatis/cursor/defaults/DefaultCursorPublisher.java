@@ -0,0 +1,193 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.cursor.CursorSubscriber;
+import org.apache.ibatis.cursor.CursorSubscription;
+
+/**
+ * This is the default implementation of a MyBatis CursorPublisher.
+ * <p>
+ * The cursor is opened by the first request. Requests made from several threads or from
+ * <code>onNext()</code> are serialized: the thread that finds the subscription idle fetches rows
+ * until the demand is met while the others only add to it.
+ */
+public class DefaultCursorPublisher<T> implements CursorPublisher<T> {
+
+  private final Supplier<Cursor<T>> cursorSupplier;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  /**
+   * @param cursorSupplier executes the statement, called at most once by the thread of the first request
+   */
+  public DefaultCursorPublisher(Supplier<Cursor<T>> cursorSupplier) {
+    this.cursorSupplier = cursorSupplier;
+  }
+
+  @Override
+  public void subscribe(CursorSubscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("The subscriber cannot be null");
+    }
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new CursorSubscription() {
+        @Override
+        public void request(long n) {
+          // nothing to send
+        }
+
+        @Override
+        public void cancel() {
+          // nothing to close
+        }
+      });
+      subscriber.onError(new IllegalStateException("Cannot subscribe more than once to a CursorPublisher"));
+      return;
+    }
+    subscriber.onSubscribe(new Subscription(subscriber));
+  }
+
+  private class Subscription implements CursorSubscription {
+
+    private final CursorSubscriber<? super T> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+
+    // only accessed by the thread running drain()
+    private Cursor<T> cursor;
+    private Iterator<T> iterator;
+    private boolean done;
+
+    Subscription(CursorSubscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("The number of requested rows must be positive but was " + n);
+      } else {
+        requested.accumulateAndGet(n, (current, added) -> {
+          long sum = current + added;
+          return sum < 0 ? Long.MAX_VALUE : sum;
+        });
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      drain();
+    }
+
+    private void drain() {
+      if (pending.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        emit();
+        missed = pending.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void emit() {
+      if (done) {
+        return;
+      }
+      if (cancelled) {
+        finish();
+        return;
+      }
+      if (invalidRequest != null) {
+        finish();
+        subscriber.onError(invalidRequest);
+        return;
+      }
+      long demand = requested.get();
+      if (demand == 0) {
+        return;
+      }
+      long emitted = 0;
+      while (emitted != demand) {
+        T row;
+        try {
+          if (iterator == null) {
+            cursor = cursorSupplier.get();
+            iterator = cursor.iterator();
+          }
+          if (!iterator.hasNext()) {
+            complete();
+            return;
+          }
+          row = iterator.next();
+        } catch (RuntimeException e) {
+          finish();
+          subscriber.onError(e);
+          return;
+        }
+        try {
+          subscriber.onNext(row);
+        } catch (RuntimeException | Error e) {
+          cancelled = true;
+          finish();
+          throw e;
+        }
+        emitted++;
+        if (cancelled) {
+          finish();
+          return;
+        }
+      }
+      if (demand != Long.MAX_VALUE) {
+        requested.addAndGet(-emitted);
+      }
+    }
+
+    private void complete() {
+      boolean consumed = cursor.isConsumed();
+      finish();
+      if (consumed) {
+        subscriber.onComplete();
+      } else {
+        subscriber.onError(new IllegalStateException("The cursor was closed before all the rows were read"));
+      }
+    }
+
+    private void finish() {
+      done = true;
+      if (cursor != null) {
+        try {
+          cursor.close();
+        } catch (Exception e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+}
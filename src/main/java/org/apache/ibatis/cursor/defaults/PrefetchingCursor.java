@@ -0,0 +1,274 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * A cursor that reads and maps the rows of another cursor ahead on a thread of an executor.
+ * <p>
+ * The rows are handed over through a queue holding at most <code>prefetchSize</code> rows, so the
+ * producer task waits for the consumer once it is that far ahead. The fetching starts on the first
+ * call to <code>hasNext()</code> or <code>next()</code>. If no thread of the executor has picked the
+ * task up when the consumer needs a row, the consumer reads the rows itself and nothing is prefetched,
+ * so a busy executor never blocks a cursor. Closing the cursor stops the producer task after the row
+ * it is reading, waits for it to return its thread, and closes the underlying cursor.
+ * <p>
+ * The connection of the session is used by the producer thread while the cursor is open, so the
+ * session must not run other statements until the cursor is consumed or closed.
+ * This implementation is not thread safe.
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+  private static final Object END = new Object();
+  private static final long POLL_MILLIS = 100;
+
+  private final Cursor<T> delegate;
+  private final BlockingQueue<Object> queue;
+  private final Executor executor;
+  // taken by whichever of the producer task and the consumer reads the rows of the delegate
+  private final AtomicBoolean taken = new AtomicBoolean();
+  private final CountDownLatch producerDone = new CountDownLatch(1);
+  private final int initialIndex;
+  private final PrefetchingIterator cursorIterator = new PrefetchingIterator();
+  private boolean iteratorRetrieved;
+
+  private boolean started;
+  private Iterator<T> directRows;
+  private volatile boolean closed;
+  private boolean consumed;
+  private int returnedCount;
+
+  public PrefetchingCursor(Cursor<T> delegate, int prefetchSize, Executor executor) {
+    if (prefetchSize < 1) {
+      throw new IllegalArgumentException("The prefetch size must be greater than zero but was " + prefetchSize);
+    }
+    this.delegate = delegate;
+    this.queue = new ArrayBlockingQueue<>(prefetchSize);
+    this.executor = executor;
+    this.initialIndex = delegate.getCurrentIndex();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return started && !closed && !consumed;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return consumed;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return initialIndex + returnedCount;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    if (closed || consumed) {
+      throw new IllegalStateException("A Cursor is already closed.");
+    }
+    iteratorRetrieved = true;
+    return cursorIterator;
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    queue.clear();
+    if (!taken.compareAndSet(false, true) && directRows == null) {
+      // the producer task is running: it stops once it sees the flag
+      boolean interrupted = false;
+      while (producerDone.getCount() > 0) {
+        try {
+          producerDone.await();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      queue.clear();
+    }
+    try {
+      delegate.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  private void startProducer() {
+    started = true;
+    try {
+      executor.execute(() -> {
+        if (taken.compareAndSet(false, true)) {
+          try {
+            produce();
+          } finally {
+            producerDone.countDown();
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // the consumer reads the rows itself
+    }
+  }
+
+  private void produce() {
+    try {
+      for (T row : delegate) {
+        if (!hand(row)) {
+          return;
+        }
+      }
+      hand(END);
+    } catch (Throwable t) {
+      hand(new Failure(t));
+    }
+  }
+
+  private boolean hand(Object element) {
+    try {
+      while (!closed) {
+        if (queue.offer(element, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T fetchNext() {
+    if (closed || consumed) {
+      return null;
+    }
+    if (!started) {
+      startProducer();
+    }
+    if (directRows != null) {
+      return nextDirectRow();
+    }
+    Object element = null;
+    try {
+      while (element == null && !closed) {
+        element = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (element == null && taken.compareAndSet(false, true)) {
+          // no thread of the executor is free, so read the rows on this thread
+          directRows = delegate.iterator();
+          return nextDirectRow();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      close();
+      throw new IllegalStateException("Interrupted while waiting for the next row of a Cursor", e);
+    }
+    if (element == null) {
+      return null;
+    }
+    if (element == END) {
+      consumed = true;
+      return null;
+    }
+    if (element instanceof Failure) {
+      close();
+      Throwable cause = ((Failure) element).cause;
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+    return (T) element;
+  }
+
+  private T nextDirectRow() {
+    if (directRows.hasNext()) {
+      return directRows.next();
+    }
+    consumed = true;
+    return null;
+  }
+
+  private static class Failure {
+
+    private final Throwable cause;
+
+    Failure(Throwable cause) {
+      this.cause = cause;
+    }
+  }
+
+  private class PrefetchingIterator implements Iterator<T> {
+
+    /**
+     * Holder for the next object to be returned.
+     */
+    T object;
+
+    @Override
+    public boolean hasNext() {
+      if (object == null) {
+        object = fetchNext();
+      }
+      return object != null;
+    }
+
+    @Override
+    public T next() {
+      T next = object;
+
+      if (next == null) {
+        next = fetchNext();
+      }
+
+      if (next != null) {
+        object = null;
+        returnedCount++;
+        return next;
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the thread pools that run the background work of MyBatis, e.g. parsing mapper files in parallel or
+ * prefetching cursor rows.
+ * <p>
+ * The tasks run with the context class loader of the thread that submitted them, so that resources and classes
+ * only visible to the application class loader can still be loaded when MyBatis sits in a parent class loader.
+ */
+public final class BackgroundExecutors {
+
+  private BackgroundExecutors() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * Creates a pool of at most <code>threads</code> daemon threads that stop after one minute without work.
+   * Tasks submitted while all the threads are busy wait in an unbounded queue.
+   *
+   * @param name the prefix of the thread names
+   * @param threads the maximum number of threads
+   * @return the pool, which propagates the context class loader of the submitting thread
+   */
+  public static ExecutorService newBoundedExecutor(String name, int threads) {
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+        runnable -> {
+          Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }) {
+      @Override
+      public void execute(Runnable command) {
+        super.execute(withContextClassLoader(command));
+      }
+    };
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Returns an executor that runs the tasks of the given executor with the context class loader of the submitting thread.
+   *
+   * @param executor the executor to decorate
+   * @return the decorated executor
+   */
+  public static Executor withContextClassLoader(Executor executor) {
+    return command -> executor.execute(withContextClassLoader(command));
+  }
+
+  private static Runnable withContextClassLoader(Runnable command) {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    return () -> {
+      Thread thread = Thread.currentThread();
+      ClassLoader previous = thread.getContextClassLoader();
+      thread.setContextClassLoader(classLoader);
+      try {
+        command.run();
+      } finally {
+        thread.setContextClassLoader(previous);
+      }
+    };
+  }
+
+  /**
+   * Returns the number of threads to use for CPU bound background work.
+   *
+   * @return the number of available processors
+   */
+  public static int defaultParallelism() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+}
@@ -29,18 +29,22 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
-import org.apache.ibatis.logging.jdbc.ConnectionLogger;
+import org.apache.ibatis.logging.jdbc.LoggingConnection;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.tracing.TraceContext;
+import org.apache.ibatis.tracing.TraceListener;
+import org.apache.ibatis.tracing.TracePhase;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -114,7 +118,25 @@ public abstract class BaseExecutor implements Executor {
       throw new ExecutorException("Executor was closed.");
     }
     clearLocalCache();
-    return doUpdate(ms, parameter);
+    TraceContext traceContext = enterTrace(ms, null);
+    MetricsCollector metricsCollector = configuration.getMetricsCollector();
+    long start = metricsCollector == null ? 0 : System.nanoTime();
+    boolean failed = true;
+    try {
+      int updates = doUpdate(ms, parameter);
+      if (traceContext != null && updates > 0) {
+        traceContext.addRows(updates);
+      }
+      failed = false;
+      return updates;
+    } finally {
+      if (metricsCollector != null) {
+        metricsCollector.recordExecution(ms, System.nanoTime() - start, failed);
+      }
+      if (traceContext != null) {
+        traceContext.end();
+      }
+    }
   }
 
   @Override
@@ -131,9 +153,20 @@ public abstract class BaseExecutor implements Executor {
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
-    BoundSql boundSql = ms.getBoundSql(parameter);
-    CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
-    return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    TraceListener traceListener = configuration.getActiveTraceListener();
+    if (traceListener == null) {
+      BoundSql boundSql = ms.getBoundSql(parameter);
+      CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
+      return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    }
+    TraceContext traceContext = TraceContext.begin(traceListener, ms, TracePhase.EXECUTION);
+    try {
+      BoundSql boundSql = traceContext.buildBoundSql(parameter);
+      CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
+      return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    } finally {
+      traceContext.end();
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -147,9 +180,13 @@ public abstract class BaseExecutor implements Executor {
       clearLocalCache();
     }
     List<E> list;
+    TraceContext traceContext = enterTrace(ms, boundSql);
     try {
       queryStack++;
       list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+      if (resultHandler == null && configuration.getMetricsCollector() != null) {
+        configuration.getMetricsCollector().recordLocalCacheAccess(ms, list != null);
+      }
       if (list != null) {
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
       } else {
@@ -157,6 +194,9 @@ public abstract class BaseExecutor implements Executor {
       }
     } finally {
       queryStack--;
+      if (traceContext != null) {
+        traceContext.end();
+      }
     }
     if (queryStack == 0) {
       for (DeferredLoad deferredLoad : deferredLoads) {
@@ -174,8 +214,17 @@ public abstract class BaseExecutor implements Executor {
 
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
-    BoundSql boundSql = ms.getBoundSql(parameter);
-    return doQueryCursor(ms, parameter, rowBounds, boundSql);
+    TraceContext traceContext = enterTrace(ms, null);
+    if (traceContext == null) {
+      BoundSql boundSql = ms.getBoundSql(parameter);
+      return doQueryCursor(ms, parameter, rowBounds, boundSql);
+    }
+    try {
+      BoundSql boundSql = traceContext.buildBoundSql(parameter);
+      return doQueryCursor(ms, parameter, rowBounds, boundSql);
+    } finally {
+      traceContext.end();
+    }
   }
 
   @Override
@@ -320,10 +369,17 @@ public abstract class BaseExecutor implements Executor {
   private <E> List<E> queryFromDatabase(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
     List<E> list;
     localCache.putObject(key, EXECUTION_PLACEHOLDER);
+    MetricsCollector metricsCollector = configuration.getMetricsCollector();
+    long start = metricsCollector == null ? 0 : System.nanoTime();
+    boolean failed = true;
     try {
       list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+      failed = false;
     } finally {
       localCache.removeObject(key);
+      if (metricsCollector != null) {
+        metricsCollector.recordExecution(ms, System.nanoTime() - start, failed);
+      }
     }
     localCache.putObject(key, list);
     if (ms.getStatementType() == StatementType.CALLABLE) {
@@ -333,14 +389,27 @@ public abstract class BaseExecutor implements Executor {
   }
 
   protected Connection getConnection(Log statementLog) throws SQLException {
+    TraceContext traceContext = configuration.getActiveTraceListener() == null ? null : TraceContext.current();
+    if (traceContext != null) {
+      traceContext.startPhase(TracePhase.CONNECTION);
+    }
     Connection connection = transaction.getConnection();
+    if (traceContext != null) {
+      traceContext.endPhase(TracePhase.CONNECTION);
+      traceContext.setConnection(connection);
+    }
     if (statementLog.isDebugEnabled()) {
-      return ConnectionLogger.newInstance(connection, statementLog, queryStack);
+      return new LoggingConnection(connection, statementLog, queryStack, configuration.getStatementLogSampling());
     } else {
       return connection;
     }
   }
 
+  private TraceContext enterTrace(MappedStatement ms, BoundSql boundSql) {
+    TraceListener traceListener = configuration.getActiveTraceListener();
+    return traceListener == null ? null : TraceContext.enter(traceListener, ms, boundSql);
+  }
+
   @Override
   public void setExecutorWrapper(Executor wrapper) {
     this.wrapper = wrapper;
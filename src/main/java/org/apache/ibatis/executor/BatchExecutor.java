@@ -30,9 +30,13 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.tracing.TraceContext;
+import org.apache.ibatis.tracing.TraceListener;
+import org.apache.ibatis.tracing.TracePhase;
 import org.apache.ibatis.transaction.Transaction;
 
 /**
@@ -118,10 +122,29 @@ public class BatchExecutor extends BaseExecutor {
         Statement stmt = statementList.get(i);
         applyTransactionTimeout(stmt);
         BatchResult batchResult = batchResultList.get(i);
+        MappedStatement ms = batchResult.getMappedStatement();
+        TraceListener traceListener = configuration.getActiveTraceListener();
+        TraceContext traceContext = traceListener == null ? null : TraceContext.begin(traceListener, ms, TracePhase.EXECUTION);
         try {
+          MetricsCollector metricsCollector = configuration.getMetricsCollector();
+          long start = metricsCollector == null ? 0 : System.nanoTime();
+          if (traceContext != null) {
+            traceContext.startPhase(TracePhase.EXECUTE);
+          }
           batchResult.setUpdateCounts(stmt.executeBatch());
-          MappedStatement ms = batchResult.getMappedStatement();
+          if (traceContext != null) {
+            traceContext.endPhase(TracePhase.EXECUTE);
+            for (int updateCount : batchResult.getUpdateCounts()) {
+              if (updateCount > 0) {
+                traceContext.addRows(updateCount);
+              }
+            }
+          }
           List<Object> parameterObjects = batchResult.getParameterObjects();
+          if (metricsCollector != null) {
+            metricsCollector.recordJdbcExecution(ms, System.nanoTime() - start);
+            metricsCollector.recordBatch(ms, parameterObjects.size());
+          }
           KeyGenerator keyGenerator = ms.getKeyGenerator();
           if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
             Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
@@ -146,6 +169,10 @@ public class BatchExecutor extends BaseExecutor {
                 .append(" prior sub executor(s) completed successfully, but will be rolled back.");
           }
           throw new BatchExecutorException(message.toString(), e, results, batchResult);
+        } finally {
+          if (traceContext != null) {
+            traceContext.end();
+          }
         }
         results.add(batchResult);
       }
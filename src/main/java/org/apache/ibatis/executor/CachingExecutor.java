@@ -16,20 +16,27 @@
 package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheInvalidationPublisher;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.TaggedCache;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.tracing.TraceContext;
+import org.apache.ibatis.tracing.TraceListener;
+import org.apache.ibatis.tracing.TracePhase;
 import org.apache.ibatis.transaction.Transaction;
 
 /**
@@ -39,10 +46,19 @@ import org.apache.ibatis.transaction.Transaction;
 public class CachingExecutor implements Executor {
 
   private final Executor delegate;
-  private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final TransactionalCacheManager tcm;
 
   public CachingExecutor(Executor delegate) {
+    this(delegate, null);
+  }
+
+  public CachingExecutor(Executor delegate, CacheInvalidationPublisher invalidationPublisher) {
+    this(delegate, invalidationPublisher, false);
+  }
+
+  public CachingExecutor(Executor delegate, CacheInvalidationPublisher invalidationPublisher, boolean eagerCachePublish) {
     this.delegate = delegate;
+    this.tcm = new TransactionalCacheManager(invalidationPublisher, eagerCachePublish);
     delegate.setExecutorWrapper(this);
   }
 
@@ -72,20 +88,32 @@ public class CachingExecutor implements Executor {
 
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-    flushCacheIfRequired(ms);
+    flushCacheIfRequired(ms, parameterObject);
+    tcm.markDirty();
     return delegate.update(ms, parameterObject);
   }
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
-    BoundSql boundSql = ms.getBoundSql(parameterObject);
-    CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
-    return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+    TraceListener traceListener = ms.getConfiguration().getActiveTraceListener();
+    if (traceListener == null) {
+      BoundSql boundSql = ms.getBoundSql(parameterObject);
+      CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
+      return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+    }
+    TraceContext traceContext = TraceContext.begin(traceListener, ms, TracePhase.EXECUTION);
+    try {
+      BoundSql boundSql = traceContext.buildBoundSql(parameterObject);
+      CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
+      return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+    } finally {
+      traceContext.end();
+    }
   }
 
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
-    flushCacheIfRequired(ms);
+    flushCacheIfRequired(ms, parameter);
     return delegate.queryCursor(ms, parameter, rowBounds);
   }
 
@@ -94,14 +122,18 @@ public class CachingExecutor implements Executor {
       throws SQLException {
     Cache cache = ms.getCache();
     if (cache != null) {
-      flushCacheIfRequired(ms);
+      flushCacheIfRequired(ms, parameterObject);
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, boundSql);
         @SuppressWarnings("unchecked")
         List<E> list = (List<E>) tcm.getObject(cache, key);
+        MetricsCollector metricsCollector = ms.getConfiguration().getMetricsCollector();
+        if (metricsCollector != null) {
+          metricsCollector.recordSecondLevelCacheAccess(ms, list != null);
+        }
         if (list == null) {
           list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
-          tcm.putObject(cache, key, list); // issue #578 and #116
+          tcm.putObject(cache, key, list, resolveCacheTags(ms, parameterObject)); // issue #578 and #116
         }
         return list;
       }
@@ -161,11 +193,48 @@ public class CachingExecutor implements Executor {
     delegate.clearLocalCache();
   }
 
-  private void flushCacheIfRequired(MappedStatement ms) {
+  private void flushCacheIfRequired(MappedStatement ms, Object parameterObject) {
     Cache cache = ms.getCache();
     if (cache != null && ms.isFlushCacheRequired()) {
-      tcm.clear(cache);
+      List<String> tags = resolveCacheTags(ms, parameterObject);
+      if (tags == null) {
+        tcm.clear(cache);
+      } else {
+        tcm.invalidate(cache, tags);
+      }
+    }
+  }
+
+  private List<String> resolveCacheTags(MappedStatement ms, Object parameterObject) {
+    String[] cacheTags = ms.getCacheTags();
+    if (cacheTags == null) {
+      return null;
+    }
+    List<String> tags = new ArrayList<>(cacheTags.length);
+    MetaObject metaObject = null;
+    for (String cacheTag : cacheTags) {
+      String tag = cacheTag.trim();
+      String table = TaggedCache.tableOf(tag);
+      if (table.equals(tag)) {
+        tags.add(tag);
+        continue;
+      }
+      String property = tag.substring(table.length() + 1);
+      Object value = null;
+      if (parameterObject != null) {
+        if (ms.getConfiguration().getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+          value = parameterObject;
+        } else {
+          if (metaObject == null) {
+            metaObject = ms.getConfiguration().newMetaObject(parameterObject);
+          }
+          value = metaObject.hasGetter(property) ? metaObject.getValue(property) : null;
+        }
+      }
+      // an unknown key affects the whole table
+      tags.add(value == null ? table : tag + TaggedCache.KEY_SEPARATOR + value);
     }
+    return tags;
   }
 
   @Override
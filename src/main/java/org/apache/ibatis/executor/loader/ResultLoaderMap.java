@@ -40,6 +40,9 @@ import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.tracing.TraceContext;
+import org.apache.ibatis.tracing.TraceListener;
+import org.apache.ibatis.tracing.TracePhase;
 
 /**
  * @author Clinton Begin
@@ -216,7 +219,18 @@ public class ResultLoaderMap {
                 old.parameterObject, old.targetType, old.cacheKey, old.boundSql);
       }
 
-      this.metaResultObject.setValue(property, this.resultLoader.loadResult());
+      final TraceListener traceListener = this.resultLoader.configuration.getActiveTraceListener();
+      if (traceListener == null) {
+        this.metaResultObject.setValue(property, this.resultLoader.loadResult());
+        return;
+      }
+      final TraceContext traceContext = TraceContext.begin(traceListener, this.resultLoader.mappedStatement, TracePhase.LAZY_LOAD);
+      try {
+        traceContext.setBoundSql(this.resultLoader.boundSql);
+        this.metaResultObject.setValue(property, this.resultLoader.loadResult());
+      } finally {
+        traceContext.end();
+      }
     }
 
     private Configuration getConfiguration() {
@@ -0,0 +1,183 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only row of a <code>resultType="map"</code> query, created instead of a <code>HashMap</code> when the
+ * <code>compactMapRowsEnabled</code> setting is on. The column names are shared by all the rows of a result set
+ * and each row only keeps an array of values. Keys are looked up ignoring case.
+ * <p>
+ * As with a <code>HashMap</code> row, the columns holding <code>null</code> are left out unless
+ * <code>callSettersOnNulls</code> is enabled.
+ *
+ * @since 3.5.2
+ */
+public final class CompactRow extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Columns columns;
+  private final Object[] values;
+  private final int size;
+  private transient Set<Map.Entry<String, Object>> entrySet;
+
+  CompactRow(Columns columns, Object[] values) {
+    this.columns = columns;
+    this.values = values;
+    int size = 0;
+    for (Object value : values) {
+      if (columns.isPresent(value)) {
+        size++;
+      }
+    }
+    this.size = size;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int index = columns.indexOf(key);
+    return index >= 0 && columns.isPresent(values[index]);
+  }
+
+  @Override
+  public Object get(Object key) {
+    int index = columns.indexOf(key);
+    return index < 0 ? null : values[index];
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+          return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+    return entrySet;
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+    private int next = advance(0);
+
+    private int advance(int index) {
+      while (index < values.length && !columns.isPresent(values[index])) {
+        index++;
+      }
+      return index;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < values.length;
+    }
+
+    @Override
+    public Map.Entry<String, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<String, Object> entry = new SimpleImmutableEntry<>(columns.names[next], values[next]);
+      next = advance(next + 1);
+      return entry;
+    }
+  }
+
+  /**
+   * The column names shared by the rows of a result set.
+   */
+  static final class Columns implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] names;
+    private final int[] slots;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final Map<String, Integer> upperCaseIndexes = new HashMap<>();
+    private final boolean includeNulls;
+
+    /**
+     * @param properties the key of each mapped column, a key repeated by several columns is kept once
+     * @param includeNulls true to keep the columns holding <code>null</code>
+     */
+    Columns(String[] properties, boolean includeNulls) {
+      this.slots = new int[properties.length];
+      this.includeNulls = includeNulls;
+      for (int i = 0; i < properties.length; i++) {
+        Integer slot = indexes.get(properties[i]);
+        if (slot == null) {
+          slot = indexes.size();
+          indexes.put(properties[i], slot);
+          upperCaseIndexes.putIfAbsent(properties[i].toUpperCase(Locale.ENGLISH), slot);
+        }
+        slots[i] = slot;
+      }
+      this.names = new String[indexes.size()];
+      for (Map.Entry<String, Integer> entry : indexes.entrySet()) {
+        names[entry.getValue()] = entry.getKey();
+      }
+    }
+
+    int size() {
+      return names.length;
+    }
+
+    int slot(int column) {
+      return slots[column];
+    }
+
+    boolean isIncludeNulls() {
+      return includeNulls;
+    }
+
+    private boolean isPresent(Object value) {
+      return value != null || includeNulls;
+    }
+
+    private int indexOf(Object key) {
+      if (!(key instanceof String)) {
+        return -1;
+      }
+      Integer index = indexes.get(key);
+      if (index == null) {
+        index = upperCaseIndexes.get(((String) key).toUpperCase(Locale.ENGLISH));
+      }
+      return index == null ? -1 : index;
+    }
+  }
+
+}
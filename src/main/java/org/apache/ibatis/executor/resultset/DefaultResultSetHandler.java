@@ -27,12 +27,15 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.apache.ibatis.annotations.AutomapConstructor;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
@@ -49,18 +52,25 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.tracing.TraceContext;
+import org.apache.ibatis.tracing.TracePhase;
+import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
 
 /**
  * @author Clinton Begin
@@ -71,6 +81,7 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static final Object DEFERRED = new Object();
+  private static final int PARALLEL_MAPPING_BATCH_SIZE = 1024;
 
   private final Executor executor;
   private final Configuration configuration;
@@ -94,10 +105,24 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
+  private ResultSetWrapper autoMappingsResultSet;
+
+  // Automappings and shared column names of the compact map rows
+  private ResultSetWrapper compactRowResultSet;
+  private ResultMap compactRowResultMap;
+  private List<UnMappedColumnAutoMapping> compactRowMappings;
+  private CompactRow.Columns compactRowColumns;
 
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
+  // rows read by handleResultSets() for the metrics
+  private int fetchedRows;
+
+  // execution traced by handleResultSets() and the time it spent in ResultSet.next()
+  private TraceContext traceContext;
+  private long fetchNanos;
+
   private static class PendingRelation {
     public MetaObject metaObject;
     public ResultMapping propertyMapping;
@@ -105,18 +130,44 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static class UnMappedColumnAutoMapping {
     private final String column;
+    private final int columnIndex;
     private final String property;
     private final TypeHandler<?> typeHandler;
     private final boolean primitive;
 
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
+    public UnMappedColumnAutoMapping(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive) {
       this.column = column;
+      this.columnIndex = columnIndex;
       this.property = property;
       this.typeHandler = typeHandler;
       this.primitive = primitive;
     }
   }
 
+  private static class RowBufferMapping {
+    private final List<String> columns = new ArrayList<>();
+    private final List<Integer> columnIndexes = new ArrayList<>();
+    private final List<String> properties = new ArrayList<>();
+    private final List<TypeHandler<?>> typeHandlers = new ArrayList<>();
+    private final List<Boolean> settersOnNulls = new ArrayList<>();
+
+    void add(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean setterOnNull) {
+      columns.add(column);
+      columnIndexes.add(columnIndex);
+      properties.add(property);
+      typeHandlers.add(typeHandler);
+      settersOnNulls.add(setterOnNull);
+    }
+
+    Object[] read(ResultSetWrapper rsw) throws SQLException {
+      Object[] values = new Object[columns.size()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = getColumnValue(rsw, typeHandlers.get(i), columnIndexes.get(i), columns.get(i));
+      }
+      return values;
+    }
+  }
+
   public DefaultResultSetHandler(Executor executor, MappedStatement mappedStatement, ParameterHandler parameterHandler, ResultHandler<?> resultHandler, BoundSql boundSql,
                                  RowBounds rowBounds) {
     this.executor = executor;
@@ -181,6 +232,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   public List<Object> handleResultSets(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
 
+    final MetricsCollector metricsCollector = configuration.getMetricsCollector();
+    final long start = metricsCollector == null ? 0 : System.nanoTime();
+    fetchedRows = 0;
+    traceContext = configuration.getActiveTraceListener() == null ? null : TraceContext.current();
+    fetchNanos = 0;
+    if (traceContext != null) {
+      traceContext.startPhase(TracePhase.MAPPING);
+    }
+
     final List<Object> multipleResults = new ArrayList<>();
 
     int resultSetCount = 0;
@@ -212,6 +272,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    if (metricsCollector != null) {
+      metricsCollector.recordMapping(mappedStatement, fetchedRows, System.nanoTime() - start);
+    }
+    if (traceContext != null) {
+      traceContext.addRows(fetchedRows);
+      traceContext.recordPhase(TracePhase.FETCH, fetchNanos);
+      traceContext.endPhase(TracePhase.MAPPING, fetchNanos);
+      traceContext = null;
+    }
     return collapseSingleResultList(multipleResults);
   }
 
@@ -230,7 +299,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
-    return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Cursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Integer prefetchSize = configuration.getCursorPrefetchSize();
+    if (prefetchSize != null && prefetchSize > 0) {
+      cursor = new PrefetchingCursor<>(cursor, prefetchSize, configuration.getCursorPrefetchExecutor());
+    }
+    return cursor;
   }
 
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -346,11 +420,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private void handleRowValuesForSimpleResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping)
       throws SQLException {
+    if (!shouldCreateCompactRows(rsw, resultMap) && canMapRowsInParallel(rsw, resultMap, resultHandler, parentMapping)) {
+      handleRowValuesInParallel(rsw, resultMap, resultHandler, rowBounds);
+      return;
+    }
     DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
-    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
-      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
+    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && nextRow(resultSet)) {
+      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
     }
@@ -370,6 +448,21 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ((ResultHandler<Object>) resultHandler).handleResult(resultContext);
   }
 
+  private boolean nextRow(ResultSet resultSet) throws SQLException {
+    final boolean hasRow;
+    if (traceContext == null) {
+      hasRow = resultSet.next();
+    } else {
+      final long start = System.nanoTime();
+      hasRow = resultSet.next();
+      fetchNanos += System.nanoTime() - start;
+    }
+    if (hasRow) {
+      fetchedRows++;
+    }
+    return hasRow;
+  }
+
   private boolean shouldProcessMoreRows(ResultContext<?> context, RowBounds rowBounds) {
     return !context.isStopped() && context.getResultCount() < rowBounds.getLimit();
   }
@@ -388,11 +481,128 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  //
+  // HANDLE ROWS FOR SIMPLE RESULTMAP IN PARALLEL
+  //
+
+  private boolean canMapRowsInParallel(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, ResultMapping parentMapping) {
+    if (!configuration.isParallelResultMappingEnabled() || parentMapping != null || !(resultHandler instanceof DefaultResultHandler)
+        || resultMap.getDiscriminator() != null || !resultMap.getConstructorResultMappings().isEmpty()
+        || hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
+      return false;
+    }
+    // the result objects are created and populated on other threads, so only by the default factories
+    if (objectFactory.getClass() != DefaultObjectFactory.class
+        || configuration.getObjectWrapperFactory().getClass() != DefaultObjectWrapperFactory.class) {
+      return false;
+    }
+    final Class<?> resultType = resultMap.getType();
+    if (!resultType.isInterface() && !MetaClass.forClass(resultType, reflectorFactory).hasDefaultConstructor()) {
+      return false;
+    }
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.getNestedQueryId() != null || propertyMapping.getNestedResultMapId() != null
+          || propertyMapping.getResultSet() != null || propertyMapping.isCompositeResult()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void handleRowValuesInParallel(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds)
+      throws SQLException {
+    final RowBufferMapping mapping = createRowBufferMapping(rsw, resultMap);
+    final List<CompletableFuture<Object[]>> mappedBatches = new ArrayList<>();
+    final java.util.concurrent.Executor mappingExecutor = configuration.getResultMappingExecutor();
+    final ResultSet resultSet = rsw.getResultSet();
+    Object[][] batch = new Object[PARALLEL_MAPPING_BATCH_SIZE][];
+    int batchRows = 0;
+    int rows = 0;
+    skipRows(resultSet, rowBounds);
+    while (rows < rowBounds.getLimit() && !resultSet.isClosed() && nextRow(resultSet)) {
+      batch[batchRows++] = mapping.read(rsw);
+      rows++;
+      if (batchRows == PARALLEL_MAPPING_BATCH_SIZE) {
+        final Object[][] fullBatch = batch;
+        mappedBatches.add(CompletableFuture.supplyAsync(
+            () -> mapRowBuffers(mapping, resultMap, fullBatch, fullBatch.length), mappingExecutor));
+        batch = new Object[PARALLEL_MAPPING_BATCH_SIZE][];
+        batchRows = 0;
+      }
+    }
+    final Object[] lastRowValues = mapRowBuffers(mapping, resultMap, batch, batchRows);
+    final DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
+    for (CompletableFuture<Object[]> mappedBatch : mappedBatches) {
+      final Object[] rowValues;
+      try {
+        rowValues = mappedBatch.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+      for (Object rowValue : rowValues) {
+        callResultHandler(resultHandler, resultContext, rowValue);
+      }
+    }
+    for (Object rowValue : lastRowValues) {
+      callResultHandler(resultHandler, resultContext, rowValue);
+    }
+  }
+
+  private RowBufferMapping createRowBufferMapping(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final RowBufferMapping mapping = new RowBufferMapping();
+    final MetaObject metaObject = configuration.newMetaObject(objectFactory.create(resultMap.getType()));
+    final boolean callSettersOnNulls = configuration.isCallSettersOnNulls();
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      for (UnMappedColumnAutoMapping autoMapping : createAutomaticMappings(rsw, resultMap, metaObject, null)) {
+        mapping.add(autoMapping.column, autoMapping.columnIndex, autoMapping.property, autoMapping.typeHandler,
+            callSettersOnNulls && !autoMapping.primitive);
+      }
+    }
+    final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+    final int[] columnIndexes = rsw.getPropertyColumnIndexes(resultMap, null);
+    for (int i = 0; i < propertyMappings.size(); i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
+      final String property = propertyMapping.getProperty();
+      if (property != null && columnIndexes[i] > 0) {
+        mapping.add(propertyMapping.getColumn(), columnIndexes[i], property, propertyMapping.getTypeHandler(),
+            callSettersOnNulls && !metaObject.getSetterType(property).isPrimitive());
+      }
+    }
+    return mapping;
+  }
+
+  private Object[] mapRowBuffers(RowBufferMapping mapping, ResultMap resultMap, Object[][] rows, int rowCount) {
+    final Object[] rowValues = new Object[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      final Object[] values = rows[i];
+      final Object rowValue = objectFactory.create(resultMap.getType());
+      final MetaObject metaObject = configuration.newMetaObject(rowValue);
+      boolean foundValues = false;
+      for (int j = 0; j < values.length; j++) {
+        final Object value = values[j];
+        if (value != null) {
+          foundValues = true;
+        }
+        if (value != null || mapping.settersOnNulls.get(j)) {
+          metaObject.setValue(mapping.properties.get(j), value);
+        }
+      }
+      rowValues[i] = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
+    }
+    return rowValues;
+  }
+
   //
   // GET VALUE FROM ROW FOR SIMPLE RESULT MAP
   //
 
   private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
+    if (columnPrefix == null && shouldCreateCompactRows(rsw, resultMap)) {
+      return getCompactRowValue(rsw, resultMap);
+    }
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
@@ -408,6 +618,41 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return rowValue;
   }
 
+  private boolean shouldCreateCompactRows(ResultSetWrapper rsw, ResultMap resultMap) {
+    if (compactRowResultSet == rsw && compactRowResultMap == resultMap) {
+      return true;
+    }
+    return configuration.isCompactMapRowsEnabled() && resultMap.getType() == Map.class
+        && resultMap.getResultMappings().isEmpty() && resultMap.getDiscriminator() == null
+        && shouldApplyAutomaticMappings(resultMap, false) && !hasTypeHandlerForResultObject(rsw, Map.class);
+  }
+
+  private Object getCompactRowValue(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    if (compactRowResultSet != rsw || compactRowResultMap != resultMap) {
+      compactRowMappings = createAutomaticMappings(rsw, resultMap, configuration.newMetaObject(new HashMap<String, Object>()), null);
+      final String[] properties = new String[compactRowMappings.size()];
+      for (int i = 0; i < properties.length; i++) {
+        properties[i] = compactRowMappings.get(i).property;
+      }
+      compactRowColumns = new CompactRow.Columns(properties, configuration.isCallSettersOnNulls());
+      compactRowResultSet = rsw;
+      compactRowResultMap = resultMap;
+    }
+    final Object[] values = new Object[compactRowColumns.size()];
+    boolean foundValues = false;
+    for (int i = 0; i < compactRowMappings.size(); i++) {
+      final UnMappedColumnAutoMapping mapping = compactRowMappings.get(i);
+      final Object value = getColumnValue(rsw, mapping.typeHandler, mapping.columnIndex, mapping.column);
+      if (value != null) {
+        foundValues = true;
+      }
+      if (value != null || compactRowColumns.isIncludeNulls()) {
+        values[compactRowColumns.slot(i)] = value;
+      }
+    }
+    return foundValues || configuration.isReturnInstanceForEmptyRow() ? new CompactRow(compactRowColumns, values) : null;
+  }
+
   private boolean shouldApplyAutomaticMappings(ResultMap resultMap, boolean isNested) {
     if (resultMap.getAutoMapping() != null) {
       return resultMap.getAutoMapping();
@@ -426,19 +671,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
-    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    final int[] columnIndexes = rsw.getPropertyColumnIndexes(resultMap, columnPrefix);
     boolean foundValues = false;
     final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
-      String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      if (propertyMapping.getNestedResultMapId() != null) {
-        // the user added a column attribute to a nested result map, ignore it
-        column = null;
-      }
+    for (int i = 0; i < propertyMappings.size(); i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
+      // the position is 0 if the column is not in the result set, or for a nested result map with a column attribute
       if (propertyMapping.isCompositeResult()
-          || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
+          || columnIndexes[i] > 0
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw, metaObject, propertyMapping, columnIndexes[i], lazyLoader, columnPrefix);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -459,21 +701,42 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
-      throws SQLException {
+  private Object getPropertyMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, int columnIndex,
+      ResultLoaderMap lazyLoader, String columnPrefix) throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
-      return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
+      return getNestedQueryMappingValue(rsw, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
-      addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
+      addPendingChildRelation(rsw.getResultSet(), metaResultObject, propertyMapping);   // TODO is that OK?
       return DEFERRED;
     } else {
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return getColumnValue(rsw, typeHandler, columnIndex, column);
     }
   }
 
+  private Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String column) throws SQLException {
+    return getColumnValue(rsw, typeHandler, rsw.getColumnIndex(column), column);
+  }
+
+  private static Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, int columnIndex, String column) throws SQLException {
+    // the handlers that do not extend BaseTypeHandler may only implement the read by name
+    if (columnIndex > 0 && typeHandler instanceof BaseTypeHandler) {
+      if (typeHandler.getClass() == UnknownTypeHandler.class) {
+        // it would look the column type up in the metadata on every row
+        return rsw.getColumnTypeHandler(columnIndex).getResult(rsw.getResultSet(), columnIndex);
+      }
+      return typeHandler.getResult(rsw.getResultSet(), columnIndex);
+    }
+    return typeHandler.getResult(rsw.getResultSet(), column);
+  }
+
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
+    if (autoMappingsResultSet != rsw) {
+      // the column positions of the mappings are only valid for the result set they were created for
+      autoMappingsCache.clear();
+      autoMappingsResultSet = rsw;
+    }
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
     if (autoMapping == null) {
@@ -498,7 +761,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final Class<?> propertyType = metaObject.getSetterType(property);
           if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
             final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+            autoMapping.add(new UnMappedColumnAutoMapping(columnName, rsw.getColumnIndex(columnName), property, typeHandler, propertyType.isPrimitive()));
           } else {
             configuration.getAutoMappingUnknownColumnBehavior()
                 .doAction(mappedStatement, columnName, property, propertyType);
@@ -518,7 +781,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        final Object value = getColumnValue(rsw, mapping.typeHandler, mapping.columnIndex, mapping.column);
         if (value != null) {
           foundValues = true;
         }
@@ -629,13 +892,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       final Object value;
       try {
         if (constructorMapping.getNestedQueryId() != null) {
-          value = getNestedQueryConstructorValue(rsw.getResultSet(), constructorMapping, columnPrefix);
+          value = getNestedQueryConstructorValue(rsw, constructorMapping, columnPrefix);
         } else if (constructorMapping.getNestedResultMapId() != null) {
           final ResultMap resultMap = configuration.getResultMap(constructorMapping.getNestedResultMapId());
           value = getRowValue(rsw, resultMap, getColumnPrefix(columnPrefix, constructorMapping));
         } else {
           final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          value = getColumnValue(rsw, typeHandler, prependPrefix(column, columnPrefix));
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -668,7 +931,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       Class<?> parameterType = constructor.getParameterTypes()[i];
       String columnName = rsw.getColumnNames().get(i);
       TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-      Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
+      Object value = getColumnValue(rsw, typeHandler, columnName);
       constructorArgTypes.add(parameterType);
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
@@ -713,18 +976,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       columnName = rsw.getColumnNames().get(0);
     }
     final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
-    return typeHandler.getResult(rsw.getResultSet(), columnName);
+    return getColumnValue(rsw, typeHandler, columnName);
   }
 
   //
   // NESTED QUERY
   //
 
-  private Object getNestedQueryConstructorValue(ResultSet rs, ResultMapping constructorMapping, String columnPrefix) throws SQLException {
+  private Object getNestedQueryConstructorValue(ResultSetWrapper rsw, ResultMapping constructorMapping, String columnPrefix) throws SQLException {
     final String nestedQueryId = constructorMapping.getNestedQueryId();
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
-    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, constructorMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rsw, constructorMapping, nestedQueryParameterType, columnPrefix);
     Object value = null;
     if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
@@ -736,13 +999,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
-  private Object getNestedQueryMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  private Object getNestedQueryMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
     final String nestedQueryId = propertyMapping.getNestedQueryId();
     final String property = propertyMapping.getProperty();
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
-    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rsw, propertyMapping, nestedQueryParameterType, columnPrefix);
     Object value = null;
     if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
@@ -764,32 +1027,32 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
-  private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
+  private Object prepareParameterForNestedQuery(ResultSetWrapper rsw, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
-      return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
+      return prepareCompositeKeyParameter(rsw, resultMapping, parameterType, columnPrefix);
     } else {
-      return prepareSimpleKeyParameter(rs, resultMapping, parameterType, columnPrefix);
+      return prepareSimpleKeyParameter(rsw, resultMapping, parameterType, columnPrefix);
     }
   }
 
-  private Object prepareSimpleKeyParameter(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
+  private Object prepareSimpleKeyParameter(ResultSetWrapper rsw, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     final TypeHandler<?> typeHandler;
     if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
       typeHandler = typeHandlerRegistry.getTypeHandler(parameterType);
     } else {
       typeHandler = typeHandlerRegistry.getUnknownTypeHandler();
     }
-    return typeHandler.getResult(rs, prependPrefix(resultMapping.getColumn(), columnPrefix));
+    return getColumnValue(rsw, typeHandler, prependPrefix(resultMapping.getColumn(), columnPrefix));
   }
 
-  private Object prepareCompositeKeyParameter(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
+  private Object prepareCompositeKeyParameter(ResultSetWrapper rsw, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     final Object parameterObject = instantiateParameterObject(parameterType);
     final MetaObject metaObject = configuration.newMetaObject(parameterObject);
     boolean foundValues = false;
     for (ResultMapping innerResultMapping : resultMapping.getComposites()) {
       final Class<?> propType = metaObject.getSetterType(innerResultMapping.getProperty());
       final TypeHandler<?> typeHandler = typeHandlerRegistry.getTypeHandler(propType);
-      final Object propValue = typeHandler.getResult(rs, prependPrefix(innerResultMapping.getColumn(), columnPrefix));
+      final Object propValue = getColumnValue(rsw, typeHandler, prependPrefix(innerResultMapping.getColumn(), columnPrefix));
       // issue #353 & #560 do not execute nested query if key is null
       if (propValue != null) {
         metaObject.setValue(innerResultMapping.getProperty(), propValue);
@@ -814,10 +1077,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public ResultMap resolveDiscriminatedResultMap(ResultSet rs, ResultMap resultMap, String columnPrefix) throws SQLException {
+    return resolveDiscriminatedResultMap(new ResultSetWrapper(rs, configuration), resultMap, columnPrefix);
+  }
+
+  public ResultMap resolveDiscriminatedResultMap(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
     Set<String> pastDiscriminators = new HashSet<>();
     Discriminator discriminator = resultMap.getDiscriminator();
     while (discriminator != null) {
-      final Object value = getDiscriminatorValue(rs, discriminator, columnPrefix);
+      final Object value = getDiscriminatorValue(rsw, discriminator, columnPrefix);
       final String discriminatedMapId = discriminator.getMapIdFor(String.valueOf(value));
       if (configuration.hasResultMap(discriminatedMapId)) {
         resultMap = configuration.getResultMap(discriminatedMapId);
@@ -833,10 +1100,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMap;
   }
 
-  private Object getDiscriminatorValue(ResultSet rs, Discriminator discriminator, String columnPrefix) throws SQLException {
+  private Object getDiscriminatorValue(ResultSetWrapper rsw, Discriminator discriminator, String columnPrefix) throws SQLException {
     final ResultMapping resultMapping = discriminator.getResultMapping();
     final TypeHandler<?> typeHandler = resultMapping.getTypeHandler();
-    return typeHandler.getResult(rs, prependPrefix(resultMapping.getColumn(), columnPrefix));
+    return getColumnValue(rsw, typeHandler, prependPrefix(resultMapping.getColumn(), columnPrefix));
   }
 
   private String prependPrefix(String columnName, String prefix) {
@@ -855,8 +1122,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
-    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
-      final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
+    while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && nextRow(resultSet)) {
+      final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw, resultMap, null);
       final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
@@ -931,7 +1198,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (nestedResultMapId != null && resultMapping.getResultSet() == null) {
         try {
           final String columnPrefix = getColumnPrefix(parentPrefix, resultMapping);
-          final ResultMap nestedResultMap = getNestedResultMap(rsw.getResultSet(), nestedResultMapId, columnPrefix);
+          final ResultMap nestedResultMap = getNestedResultMap(rsw, nestedResultMapId, columnPrefix);
           if (resultMapping.getColumnPrefix() == null) {
             // try to fill circular reference only when columnPrefix
             // is not specified for the nested result map (issue #215)
@@ -996,9 +1263,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return true;
   }
 
-  private ResultMap getNestedResultMap(ResultSet rs, String nestedResultMapId, String columnPrefix) throws SQLException {
+  private ResultMap getNestedResultMap(ResultSetWrapper rsw, String nestedResultMapId, String columnPrefix) throws SQLException {
     ResultMap nestedResultMap = configuration.getResultMap(nestedResultMapId);
-    return resolveDiscriminatedResultMap(rs, nestedResultMap, columnPrefix);
+    return resolveDiscriminatedResultMap(rsw, nestedResultMap, columnPrefix);
   }
 
   //
@@ -1056,10 +1323,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       } else if (resultMapping.getNestedQueryId() == null) {
         final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
         final TypeHandler<?> th = resultMapping.getTypeHandler();
-        List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+        final int columnIndex = column == null ? 0 : rsw.getColumnIndex(column);
         // Issue #114
-        if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
+        if (columnIndex > 0) {
+          final Object value = getColumnValue(rsw, th, columnIndex, column);
           if (value != null || configuration.isReturnInstanceForEmptyRow()) {
             cacheKey.update(column);
             cacheKey.update(value);
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.ObjectTypeHandler;
@@ -48,6 +49,10 @@ public class ResultSetWrapper {
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private final Map<String, Integer> upperColumnIndexes = new HashMap<>();
+  private final Map<String, Integer> columnIndexes = new HashMap<>();
+  private final Map<String, int[]> propertyColumnIndexesMap = new HashMap<>();
+  private final TypeHandler<?>[] columnTypeHandlers;
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
@@ -55,11 +60,19 @@ public class ResultSetWrapper {
     this.resultSet = rs;
     final ResultSetMetaData metaData = rs.getMetaData();
     final int columnCount = metaData.getColumnCount();
+    this.columnTypeHandlers = new TypeHandler<?>[columnCount];
     for (int i = 1; i <= columnCount; i++) {
       columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
       jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
       classNames.add(metaData.getColumnClassName(i));
     }
+    for (int i = columnCount; i >= 1; i--) {
+      // like ResultSet#findColumn(), a name matches the first column with that name
+      final String columnName = columnNames.get(i - 1);
+      if (columnName != null) {
+        upperColumnIndexes.put(columnName.toUpperCase(Locale.ENGLISH), i);
+      }
+    }
   }
 
   public ResultSet getResultSet() {
@@ -87,6 +100,52 @@ public class ResultSetWrapper {
     return null;
   }
 
+  /**
+   * Returns the position of the first column with the given name, ignoring case.
+   *
+   * @param columnName the column name or label
+   * @return the 1-based position of the column, or 0 if the result set has no such column
+   */
+  public int getColumnIndex(String columnName) {
+    if (columnName == null) {
+      return 0;
+    }
+    Integer index = columnIndexes.get(columnName);
+    if (index == null) {
+      index = upperColumnIndexes.getOrDefault(columnName.toUpperCase(Locale.ENGLISH), 0);
+      columnIndexes.put(columnName, index);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the positions of the columns read by the property mappings of a result map, in the order of
+   * {@link ResultMap#getPropertyResultMappings()}. The position is 0 for the mappings whose column is not in the
+   * result set and for the mappings of nested result maps.
+   *
+   * @param resultMap the result map
+   * @param columnPrefix the prefix of its columns, if any
+   * @return the 1-based positions of the columns
+   */
+  public int[] getPropertyColumnIndexes(ResultMap resultMap, String columnPrefix) {
+    final String mapKey = getMapKey(resultMap, columnPrefix);
+    int[] indexes = propertyColumnIndexesMap.get(mapKey);
+    if (indexes == null) {
+      final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+      indexes = new int[propertyMappings.size()];
+      for (int i = 0; i < indexes.length; i++) {
+        final ResultMapping propertyMapping = propertyMappings.get(i);
+        final String column = propertyMapping.getColumn();
+        // the user may have added a column attribute to a nested result map, it is ignored
+        if (column != null && propertyMapping.getNestedResultMapId() == null) {
+          indexes[i] = getColumnIndex(columnPrefix == null ? column : columnPrefix + column);
+        }
+      }
+      propertyColumnIndexesMap.put(mapKey, indexes);
+    }
+    return indexes;
+  }
+
   /**
    * Gets the type handler to use when reading the result set.
    * Tries to get from the TypeHandlerRegistry by searching for the property type.
@@ -112,14 +171,7 @@ public class ResultSetWrapper {
       // See issue #59 comment 10
       if (handler == null || handler instanceof UnknownTypeHandler) {
         final int index = columnNames.indexOf(columnName);
-        final Class<?> javaType = resolveClass(classNames.get(index));
-        if (javaType != null && jdbcType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
-        } else if (javaType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(javaType);
-        } else if (jdbcType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(jdbcType);
-        }
+        handler = resolveTypeHandler(classNames.get(index), jdbcType);
       }
       if (handler == null || handler instanceof UnknownTypeHandler) {
         handler = new ObjectTypeHandler();
@@ -129,6 +181,38 @@ public class ResultSetWrapper {
     return handler;
   }
 
+  /**
+   * Gets the type handler an {@link UnknownTypeHandler} would delegate to when reading the given column.
+   * It is resolved once from the column metadata instead of on every row.
+   *
+   * @param columnIndex the 1-based position of the column
+   * @return the type handler for the class and JDBC type of the column
+   */
+  public TypeHandler<?> getColumnTypeHandler(int columnIndex) {
+    TypeHandler<?> handler = columnTypeHandlers[columnIndex - 1];
+    if (handler == null) {
+      handler = resolveTypeHandler(classNames.get(columnIndex - 1), jdbcTypes.get(columnIndex - 1));
+      if (handler == null || handler instanceof UnknownTypeHandler) {
+        handler = new ObjectTypeHandler();
+      }
+      columnTypeHandlers[columnIndex - 1] = handler;
+    }
+    return handler;
+  }
+
+  private TypeHandler<?> resolveTypeHandler(String className, JdbcType jdbcType) {
+    final Class<?> javaType = resolveClass(className);
+    TypeHandler<?> handler = null;
+    if (javaType != null && jdbcType != null) {
+      handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
+    } else if (javaType != null) {
+      handler = typeHandlerRegistry.getTypeHandler(javaType);
+    } else if (jdbcType != null) {
+      handler = typeHandlerRegistry.getTypeHandler(jdbcType);
+    }
+    return handler;
+  }
+
   private Class<?> resolveClass(String className) {
     try {
       // #699 className could be null
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2019 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -27,10 +27,13 @@ import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.tracing.TraceContext;
+import org.apache.ibatis.tracing.TracePhase;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
 /**
@@ -47,6 +50,8 @@ public abstract class BaseStatementHandler implements StatementHandler {
   protected final Executor executor;
   protected final MappedStatement mappedStatement;
   protected final RowBounds rowBounds;
+  protected final MetricsCollector metricsCollector;
+  protected final TraceContext traceContext;
 
   protected BoundSql boundSql;
 
@@ -55,13 +60,19 @@ public abstract class BaseStatementHandler implements StatementHandler {
     this.executor = executor;
     this.mappedStatement = mappedStatement;
     this.rowBounds = rowBounds;
+    this.metricsCollector = configuration.getMetricsCollector();
+    this.traceContext = configuration.getActiveTraceListener() == null ? null : TraceContext.current();
 
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.objectFactory = configuration.getObjectFactory();
 
     if (boundSql == null) { // issue #435, get the key before calculating the statement
       generateKeys(parameterObject);
-      boundSql = mappedStatement.getBoundSql(parameterObject);
+      if (traceContext == null) {
+        boundSql = mappedStatement.getBoundSql(parameterObject);
+      } else {
+        boundSql = traceContext.buildBoundSql(parameterObject);
+      }
     }
 
     this.boundSql = boundSql;
@@ -84,10 +95,16 @@ public abstract class BaseStatementHandler implements StatementHandler {
   public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
     ErrorContext.instance().sql(boundSql.getSql());
     Statement statement = null;
+    if (traceContext != null) {
+      traceContext.startPhase(TracePhase.PREPARE);
+    }
     try {
       statement = instantiateStatement(connection);
       setStatementTimeout(statement, transactionTimeout);
       setFetchSize(statement);
+      if (traceContext != null) {
+        traceContext.endPhase(TracePhase.PREPARE);
+      }
       return statement;
     } catch (SQLException e) {
       closeStatement(statement);
@@ -125,6 +142,22 @@ public abstract class BaseStatementHandler implements StatementHandler {
     }
   }
 
+  protected long startJdbcTimer() {
+    if (traceContext != null) {
+      traceContext.startPhase(TracePhase.EXECUTE);
+    }
+    return metricsCollector == null ? 0 : System.nanoTime();
+  }
+
+  protected void recordJdbcExecution(long start) {
+    if (metricsCollector != null) {
+      metricsCollector.recordJdbcExecution(mappedStatement, System.nanoTime() - start);
+    }
+    if (traceContext != null) {
+      traceContext.endPhase(TracePhase.EXECUTE);
+    }
+  }
+
   protected void closeStatement(Statement statement) {
     try {
       if (statement != null) {
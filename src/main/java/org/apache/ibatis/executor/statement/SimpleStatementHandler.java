@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2018 the original author or authors.
+ *    Copyright 2009-2019 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -48,15 +48,21 @@ public class SimpleStatementHandler extends BaseStatementHandler {
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     int rows;
     if (keyGenerator instanceof Jdbc3KeyGenerator) {
+      long start = startJdbcTimer();
       statement.execute(sql, Statement.RETURN_GENERATED_KEYS);
+      recordJdbcExecution(start);
       rows = statement.getUpdateCount();
       keyGenerator.processAfter(executor, mappedStatement, statement, parameterObject);
     } else if (keyGenerator instanceof SelectKeyGenerator) {
+      long start = startJdbcTimer();
       statement.execute(sql);
+      recordJdbcExecution(start);
       rows = statement.getUpdateCount();
       keyGenerator.processAfter(executor, mappedStatement, statement, parameterObject);
     } else {
+      long start = startJdbcTimer();
       statement.execute(sql);
+      recordJdbcExecution(start);
       rows = statement.getUpdateCount();
     }
     return rows;
@@ -71,14 +77,18 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     String sql = boundSql.getSql();
+    long start = startJdbcTimer();
     statement.execute(sql);
+    recordJdbcExecution(start);
     return resultSetHandler.handleResultSets(statement);
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
+    long start = startJdbcTimer();
     statement.execute(sql);
+    recordJdbcExecution(start);
     return resultSetHandler.handleCursorResultSets(statement);
   }
 
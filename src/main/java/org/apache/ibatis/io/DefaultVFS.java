@@ -23,12 +23,18 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
 
 import org.apache.ibatis.logging.Log;
@@ -45,6 +51,23 @@ public class DefaultVFS extends VFS {
   /** The magic header that indicates a JAR (ZIP) file. */
   private static final byte[] JAR_MAGIC = { 'P', 'K', 3, 4 };
 
+  /** The number of JAR listings kept by an instance. */
+  private static final int MAX_JAR_LISTINGS = 64;
+
+  /**
+   * The entries of the JAR files listed last, by path. Only JAR files on the file system are kept, as the
+   * others cannot be checked for changes.
+   */
+  private final Map<String, JarListing> jarListings = Collections.synchronizedMap(
+      new LinkedHashMap<String, JarListing>(16, .75F, true) {
+        private static final long serialVersionUID = 2918521707446474823L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JarListing> eldest) {
+          return size() > MAX_JAR_LISTINGS;
+        }
+      });
+
   @Override
   public boolean isValid() {
     return true;
@@ -60,16 +83,27 @@ public class DefaultVFS extends VFS {
       // file is found, then we'll list child resources by reading the JAR.
       URL jarUrl = findJarForResource(url);
       if (jarUrl != null) {
-        is = jarUrl.openStream();
         if (log.isDebugEnabled()) {
           log.debug("Listing " + url);
         }
-        resources = listResources(new JarInputStream(is), path);
+        resources = listResources(getJarEntries(jarUrl), path);
       }
       else {
         List<String> children = new ArrayList<>();
         try {
-          if (isJar(url)) {
+          File directory = toDirectory(url);
+          if (directory != null) {
+            // No need to open the directory as a stream and to check each line with the class loader
+            if (log.isDebugEnabled()) {
+              log.debug("Listing directory " + directory.getAbsolutePath());
+            }
+            String[] names = directory.list();
+            if (names != null) {
+              Arrays.sort(names);
+              children = Arrays.asList(names);
+            }
+          }
+          else if (isJar(url)) {
             // Some versions of JBoss VFS might give a JAR stream even if the resource
             // referenced by the URL isn't actually a JAR
             is = url.openStream();
@@ -85,7 +119,7 @@ public class DefaultVFS extends VFS {
               }
             }
           }
-          else {
+          else if (toFile(url) == null) {
             /*
              * Some servlet containers allow reading from directory resources like a
              * text file, listing the child resources one per line. However, there is no
@@ -176,6 +210,24 @@ public class DefaultVFS extends VFS {
    * @throws IOException If I/O errors occur
    */
   protected List<String> listResources(JarInputStream jar, String path) throws IOException {
+    List<String> names = new ArrayList<>();
+    for (JarEntry entry; (entry = jar.getNextJarEntry()) != null;) {
+      if (!entry.isDirectory()) {
+        names.add(entry.getName());
+      }
+    }
+    return listResources(names, path);
+  }
+
+  /**
+   * List the names of the given JAR entries that begin with the specified {@code path}.
+   * Entries will match with or without a leading slash.
+   *
+   * @param entries The names of the JAR entries, directories excluded
+   * @param path The leading path to match
+   * @return The names of all the matching entries
+   */
+  protected List<String> listResources(List<String> entries, String path) {
     // Include the leading and trailing slash when matching names
     if (!path.startsWith("/")) {
       path = "/" + path;
@@ -184,29 +236,104 @@ public class DefaultVFS extends VFS {
       path = path + "/";
     }
 
-    // Iterate over the entries and collect those that begin with the requested path
+    // Collect the entries that begin with the requested path
     List<String> resources = new ArrayList<>();
-    for (JarEntry entry; (entry = jar.getNextJarEntry()) != null;) {
-      if (!entry.isDirectory()) {
-        // Add leading slash if it's missing
-        StringBuilder name = new StringBuilder(entry.getName());
-        if (name.charAt(0) != '/') {
-          name.insert(0, '/');
-        }
+    for (String entry : entries) {
+      // Add leading slash if it's missing
+      StringBuilder name = new StringBuilder(entry);
+      if (name.charAt(0) != '/') {
+        name.insert(0, '/');
+      }
 
-        // Check file name
-        if (name.indexOf(path) == 0) {
-          if (log.isDebugEnabled()) {
-            log.debug("Found resource: " + name);
-          }
-          // Trim leading slash
-          resources.add(name.substring(1));
+      // Check file name
+      if (name.indexOf(path) == 0) {
+        if (log.isDebugEnabled()) {
+          log.debug("Found resource: " + name);
         }
+        // Trim leading slash
+        resources.add(name.substring(1));
       }
     }
     return resources;
   }
 
+  /**
+   * Returns the names of the entries of a JAR, directories excluded. JAR files on the file system are
+   * listed from their central directory, and the names are kept until the file changes, so scanning
+   * several packages of the same JAR does not read it again. Other JARs, e.g. the ones nested in another
+   * JAR, are read entry by entry each time.
+   *
+   * @param jarUrl The URL of the JAR
+   * @return The names of the entries
+   * @throws IOException If I/O errors occur
+   */
+  protected List<String> getJarEntries(URL jarUrl) throws IOException {
+    File file = toFile(jarUrl);
+    if (file == null || !file.isFile()) {
+      // e.g. a JAR nested in another one
+      return readJarEntries(jarUrl);
+    }
+    String path = file.getAbsolutePath();
+    long lastModified = file.lastModified();
+    long length = file.length();
+    JarListing listing = jarListings.get(path);
+    if (listing != null && listing.lastModified == lastModified && listing.length == length) {
+      return listing.entries;
+    }
+    List<String> entries = new ArrayList<>();
+    try (JarFile jar = new JarFile(file)) {
+      for (Enumeration<JarEntry> e = jar.entries(); e.hasMoreElements();) {
+        JarEntry entry = e.nextElement();
+        if (!entry.isDirectory()) {
+          entries.add(entry.getName());
+        }
+      }
+    }
+    entries = Collections.unmodifiableList(entries);
+    jarListings.put(path, new JarListing(lastModified, length, entries));
+    return entries;
+  }
+
+  private List<String> readJarEntries(URL jarUrl) throws IOException {
+    List<String> entries = new ArrayList<>();
+    try (JarInputStream jar = new JarInputStream(jarUrl.openStream())) {
+      for (JarEntry entry; (entry = jar.getNextJarEntry()) != null;) {
+        if (!entry.isDirectory()) {
+          entries.add(entry.getName());
+        }
+      }
+    }
+    return entries;
+  }
+
+  private static File toFile(URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return null;
+    }
+    try {
+      return new File(url.toURI());
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return new File(url.getFile());
+    }
+  }
+
+  private static File toDirectory(URL url) {
+    File file = toFile(url);
+    return file != null && file.isDirectory() ? file : null;
+  }
+
+  private static class JarListing {
+    private final long lastModified;
+    private final long length;
+    private final List<String> entries;
+
+    private JarListing(long lastModified, long length, List<String> entries) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.entries = entries;
+    }
+  }
+
   /**
    * Attempts to deconstruct the given URL to find a JAR file containing the resource referenced
    * by the URL. That is, assuming the URL references a JAR entry, this method will return a URL
@@ -33,7 +33,7 @@ import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.reflection.ArrayUtil;
 
 /**
- * Base class for proxies to do logging.
+ * Base class for proxies and wrappers to do logging.
  *
  * @author Clinton Begin
  * @author Eduardo Macarron
@@ -43,10 +43,11 @@ public abstract class BaseJdbcLogger {
   protected static final Set<String> SET_METHODS;
   protected static final Set<String> EXECUTE_METHODS = new HashSet<>();
 
-  private final Map<Object, Object> columnMap = new HashMap<>();
+  // created on first use, as the logging wrappers keep their parameters on their own
+  private Map<Object, Object> columnMap;
 
-  private final List<Object> columnNames = new ArrayList<>();
-  private final List<Object> columnValues = new ArrayList<>();
+  private List<Object> columnNames;
+  private List<Object> columnValues;
 
   protected final Log statementLog;
   protected final int queryStack;
@@ -77,16 +78,24 @@ public abstract class BaseJdbcLogger {
   }
 
   protected void setColumn(Object key, Object value) {
+    if (columnMap == null) {
+      columnMap = new HashMap<>();
+      columnNames = new ArrayList<>();
+      columnValues = new ArrayList<>();
+    }
     columnMap.put(key, value);
     columnNames.add(key);
     columnValues.add(value);
   }
 
   protected Object getColumn(Object key) {
-    return columnMap.get(key);
+    return columnMap == null ? null : columnMap.get(key);
   }
 
   protected String getParameterValueString() {
+    if (columnValues == null) {
+      return "";
+    }
     List<Object> typeList = new ArrayList<>(columnValues.size());
     for (Object value : columnValues) {
       if (value == null) {
@@ -111,13 +120,15 @@ public abstract class BaseJdbcLogger {
   }
 
   protected String getColumnString() {
-    return columnNames.toString();
+    return columnNames == null ? "[]" : columnNames.toString();
   }
 
   protected void clearColumnInfo() {
-    columnMap.clear();
-    columnNames.clear();
-    columnValues.clear();
+    if (columnMap != null) {
+      columnMap.clear();
+      columnNames.clear();
+      columnValues.clear();
+    }
   }
 
   protected String removeBreakingWhitespace(String original) {
@@ -0,0 +1,69 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses which statement executions the JDBC logging wrappers log.
+ * <p>
+ * By default every execution is logged as it happens. With a sampling rate of <code>n</code>, one execution out
+ * of <code>n</code> on average is. With a threshold, executions that took at least that long are logged once they
+ * ran. Both can be combined.
+ */
+public final class LogSampling {
+
+  public static final LogSampling ALL = new LogSampling(null, null);
+
+  private final int rate;
+  private final long thresholdNanos;
+
+  /**
+   * @param rate log one execution out of <code>rate</code>, or null
+   * @param thresholdMillis log the executions taking at least this many milliseconds, or null
+   */
+  public LogSampling(Integer rate, Integer thresholdMillis) {
+    this.rate = rate == null ? 0 : Math.max(rate, 1);
+    this.thresholdNanos = thresholdMillis == null ? -1 : TimeUnit.MILLISECONDS.toNanos(Math.max(thresholdMillis, 0));
+  }
+
+  /**
+   * Returns whether every execution is logged, so that the SQL can be logged as soon as it is prepared.
+   */
+  public boolean isEager() {
+    return rate == 0 && thresholdNanos < 0;
+  }
+
+  /**
+   * Decides whether an execution about to run is logged regardless of its duration.
+   */
+  public boolean sample() {
+    if (rate == 0) {
+      return thresholdNanos < 0;
+    }
+    return rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0;
+  }
+
+  public boolean hasThreshold() {
+    return thresholdNanos >= 0;
+  }
+
+  public boolean isSlow(long elapsedNanos) {
+    return thresholdNanos >= 0 && elapsedNanos >= thresholdNanos;
+  }
+
+}
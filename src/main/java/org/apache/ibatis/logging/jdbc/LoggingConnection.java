@@ -0,0 +1,351 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+import org.apache.ibatis.logging.Log;
+
+/**
+ * Connection wrapper to add logging, which hands out logging statements.
+ * <p>
+ * Unlike {@link ConnectionLogger} it delegates each method directly instead of going through reflection.
+ *
+ * @see LogSampling
+ */
+public class LoggingConnection extends BaseJdbcLogger implements Connection {
+
+  private final Connection connection;
+  private final LogSampling sampling;
+
+  public LoggingConnection(Connection connection, Log statementLog, int queryStack, LogSampling sampling) {
+    super(statementLog, queryStack);
+    this.connection = connection;
+    this.sampling = sampling;
+  }
+
+  /**
+   * Returns the wrapped connection.
+   *
+   * @return the connection
+   */
+  public Connection getConnection() {
+    return connection;
+  }
+
+  private void logPreparing(String sql) {
+    if (sampling.isEager() && isDebugEnabled()) {
+      debug(" Preparing: " + removeBreakingWhitespace(sql), true);
+    }
+  }
+
+  @Override
+  public Statement createStatement() throws SQLException {
+    return new LoggingStatement(connection.createStatement(), statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql) throws SQLException {
+    logPreparing(sql);
+    return new LoggingPreparedStatement(connection.prepareStatement(sql), sql, statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql) throws SQLException {
+    logPreparing(sql);
+    return new LoggingCallableStatement(connection.prepareCall(sql), sql, statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public String nativeSQL(String sql) throws SQLException {
+    return connection.nativeSQL(sql);
+  }
+
+  @Override
+  public void setAutoCommit(boolean autoCommit) throws SQLException {
+    connection.setAutoCommit(autoCommit);
+  }
+
+  @Override
+  public boolean getAutoCommit() throws SQLException {
+    return connection.getAutoCommit();
+  }
+
+  @Override
+  public void commit() throws SQLException {
+    connection.commit();
+  }
+
+  @Override
+  public void rollback() throws SQLException {
+    connection.rollback();
+  }
+
+  @Override
+  public void close() throws SQLException {
+    connection.close();
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return connection.isClosed();
+  }
+
+  @Override
+  public DatabaseMetaData getMetaData() throws SQLException {
+    return connection.getMetaData();
+  }
+
+  @Override
+  public void setReadOnly(boolean readOnly) throws SQLException {
+    connection.setReadOnly(readOnly);
+  }
+
+  @Override
+  public boolean isReadOnly() throws SQLException {
+    return connection.isReadOnly();
+  }
+
+  @Override
+  public void setCatalog(String catalog) throws SQLException {
+    connection.setCatalog(catalog);
+  }
+
+  @Override
+  public String getCatalog() throws SQLException {
+    return connection.getCatalog();
+  }
+
+  @Override
+  public void setTransactionIsolation(int level) throws SQLException {
+    connection.setTransactionIsolation(level);
+  }
+
+  @Override
+  public int getTransactionIsolation() throws SQLException {
+    return connection.getTransactionIsolation();
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    return connection.getWarnings();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    connection.clearWarnings();
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+    return new LoggingStatement(connection.createStatement(resultSetType, resultSetConcurrency), statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    logPreparing(sql);
+    return new LoggingPreparedStatement(connection.prepareStatement(sql, resultSetType, resultSetConcurrency), sql, statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    logPreparing(sql);
+    return new LoggingCallableStatement(connection.prepareCall(sql, resultSetType, resultSetConcurrency), sql, statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public Map<String, Class<?>> getTypeMap() throws SQLException {
+    return connection.getTypeMap();
+  }
+
+  @Override
+  public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+    connection.setTypeMap(map);
+  }
+
+  @Override
+  public void setHoldability(int holdability) throws SQLException {
+    connection.setHoldability(holdability);
+  }
+
+  @Override
+  public int getHoldability() throws SQLException {
+    return connection.getHoldability();
+  }
+
+  @Override
+  public Savepoint setSavepoint() throws SQLException {
+    return connection.setSavepoint();
+  }
+
+  @Override
+  public Savepoint setSavepoint(String name) throws SQLException {
+    return connection.setSavepoint(name);
+  }
+
+  @Override
+  public void rollback(Savepoint savepoint) throws SQLException {
+    connection.rollback(savepoint);
+  }
+
+  @Override
+  public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+    connection.releaseSavepoint(savepoint);
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    return new LoggingStatement(connection.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability), statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    logPreparing(sql);
+    return new LoggingPreparedStatement(connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql, statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    logPreparing(sql);
+    return new LoggingCallableStatement(connection.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql, statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+    logPreparing(sql);
+    return new LoggingPreparedStatement(connection.prepareStatement(sql, autoGeneratedKeys), sql, statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+    logPreparing(sql);
+    return new LoggingPreparedStatement(connection.prepareStatement(sql, columnIndexes), sql, statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+    logPreparing(sql);
+    return new LoggingPreparedStatement(connection.prepareStatement(sql, columnNames), sql, statementLog, queryStack, sampling);
+  }
+
+  @Override
+  public Clob createClob() throws SQLException {
+    return connection.createClob();
+  }
+
+  @Override
+  public Blob createBlob() throws SQLException {
+    return connection.createBlob();
+  }
+
+  @Override
+  public NClob createNClob() throws SQLException {
+    return connection.createNClob();
+  }
+
+  @Override
+  public SQLXML createSQLXML() throws SQLException {
+    return connection.createSQLXML();
+  }
+
+  @Override
+  public boolean isValid(int timeout) throws SQLException {
+    return connection.isValid(timeout);
+  }
+
+  @Override
+  public void setClientInfo(String name, String value) throws SQLClientInfoException {
+    connection.setClientInfo(name, value);
+  }
+
+  @Override
+  public void setClientInfo(Properties properties) throws SQLClientInfoException {
+    connection.setClientInfo(properties);
+  }
+
+  @Override
+  public String getClientInfo(String name) throws SQLException {
+    return connection.getClientInfo(name);
+  }
+
+  @Override
+  public Properties getClientInfo() throws SQLException {
+    return connection.getClientInfo();
+  }
+
+  @Override
+  public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+    return connection.createArrayOf(typeName, elements);
+  }
+
+  @Override
+  public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+    return connection.createStruct(typeName, attributes);
+  }
+
+  @Override
+  public void setSchema(String schema) throws SQLException {
+    connection.setSchema(schema);
+  }
+
+  @Override
+  public String getSchema() throws SQLException {
+    return connection.getSchema();
+  }
+
+  @Override
+  public void abort(Executor executor) throws SQLException {
+    connection.abort(executor);
+  }
+
+  @Override
+  public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+    connection.setNetworkTimeout(executor, milliseconds);
+  }
+
+  @Override
+  public int getNetworkTimeout() throws SQLException {
+    return connection.getNetworkTimeout();
+  }
+
+  @Override
+  public <T> T unwrap(java.lang.Class<T> iface) throws SQLException {
+    return connection.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(java.lang.Class<?> iface) throws SQLException {
+    return connection.isWrapperFor(iface);
+  }
+
+}
@@ -0,0 +1,538 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.StringJoiner;
+
+import org.apache.ibatis.logging.Log;
+
+/**
+ * PreparedStatement wrapper to add logging.
+ * <p>
+ * Unlike {@link PreparedStatementLogger} it delegates each method directly instead of going through reflection,
+ * and only keeps the parameter values, in an array, while the execution may be logged. They are formatted once
+ * it is.
+ */
+public class LoggingPreparedStatement extends LoggingStatement implements PreparedStatement {
+
+  private static final Object NULL = new Object();
+
+  private final PreparedStatement preparedStatement;
+  private final String sql;
+
+  // values of the parameters set since the last execution, by index
+  private Object[] parameters = new Object[0];
+
+  public LoggingPreparedStatement(PreparedStatement preparedStatement, String sql, Log statementLog, int queryStack, LogSampling sampling) {
+    super(preparedStatement, statementLog, queryStack, sampling);
+    this.preparedStatement = preparedStatement;
+    this.sql = sql;
+  }
+
+  /**
+   * Returns the wrapped prepared statement.
+   *
+   * @return the PreparedStatement
+   */
+  public PreparedStatement getPreparedStatement() {
+    return preparedStatement;
+  }
+
+  protected void setParameter(int parameterIndex, Object value) {
+    if (isCapturing()) {
+      keepParameter(parameterIndex, value);
+    }
+  }
+
+  // the overloads of primitive values check whether they are kept before boxing them
+
+  protected void setParameter(int parameterIndex, boolean value) {
+    if (isCapturing()) {
+      keepParameter(parameterIndex, value);
+    }
+  }
+
+  protected void setParameter(int parameterIndex, byte value) {
+    if (isCapturing()) {
+      keepParameter(parameterIndex, value);
+    }
+  }
+
+  protected void setParameter(int parameterIndex, short value) {
+    if (isCapturing()) {
+      keepParameter(parameterIndex, value);
+    }
+  }
+
+  protected void setParameter(int parameterIndex, int value) {
+    if (isCapturing()) {
+      keepParameter(parameterIndex, value);
+    }
+  }
+
+  protected void setParameter(int parameterIndex, long value) {
+    if (isCapturing()) {
+      keepParameter(parameterIndex, value);
+    }
+  }
+
+  protected void setParameter(int parameterIndex, float value) {
+    if (isCapturing()) {
+      keepParameter(parameterIndex, value);
+    }
+  }
+
+  protected void setParameter(int parameterIndex, double value) {
+    if (isCapturing()) {
+      keepParameter(parameterIndex, value);
+    }
+  }
+
+  private void keepParameter(int parameterIndex, Object value) {
+    if (parameterIndex < 1) {
+      return;
+    }
+    if (parameterIndex >= parameters.length) {
+      parameters = Arrays.copyOf(parameters, Math.max(parameterIndex + 1, parameters.length * 2));
+    }
+    parameters[parameterIndex] = value == null ? NULL : value;
+  }
+
+  @Override
+  protected void logExecution(String executedSql) {
+    if (isDebugEnabled()) {
+      if (!sampling.isEager()) {
+        debug(" Preparing: " + removeBreakingWhitespace(sql), true);
+      }
+      debug("Parameters: " + getParameterValueString(), true);
+    }
+  }
+
+  @Override
+  protected void clearExecution() {
+    Arrays.fill(parameters, null);
+  }
+
+  @Override
+  protected String getParameterValueString() {
+    StringJoiner values = new StringJoiner(", ");
+    for (Object value : parameters) {
+      if (value == NULL) {
+        values.add("null");
+      } else if (value != null) {
+        values.add(objectValueString(value) + "(" + value.getClass().getSimpleName() + ")");
+      }
+    }
+    return values.toString();
+  }
+
+  @Override
+  public int getUpdateCount() throws SQLException {
+    int updateCount = preparedStatement.getUpdateCount();
+    if (updateCount != -1 && isLogged()) {
+      debug("   Updates: " + updateCount, false);
+    }
+    return updateCount;
+  }
+
+  @Override
+  public ResultSet executeQuery() throws SQLException {
+    beforeExecution(sql);
+    ResultSet rs;
+    try {
+      rs = preparedStatement.executeQuery();
+    } finally {
+      afterExecution(sql);
+    }
+    return wrapResultSet(rs);
+  }
+
+  @Override
+  public int executeUpdate() throws SQLException {
+    beforeExecution(sql);
+    try {
+      return preparedStatement.executeUpdate();
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType) throws SQLException {
+    setParameter(parameterIndex, null);
+    preparedStatement.setNull(parameterIndex, sqlType);
+  }
+
+  @Override
+  public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setBoolean(parameterIndex, x);
+  }
+
+  @Override
+  public void setByte(int parameterIndex, byte x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setByte(parameterIndex, x);
+  }
+
+  @Override
+  public void setShort(int parameterIndex, short x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setShort(parameterIndex, x);
+  }
+
+  @Override
+  public void setInt(int parameterIndex, int x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setInt(parameterIndex, x);
+  }
+
+  @Override
+  public void setLong(int parameterIndex, long x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setLong(parameterIndex, x);
+  }
+
+  @Override
+  public void setFloat(int parameterIndex, float x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setFloat(parameterIndex, x);
+  }
+
+  @Override
+  public void setDouble(int parameterIndex, double x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setDouble(parameterIndex, x);
+  }
+
+  @Override
+  public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setBigDecimal(parameterIndex, x);
+  }
+
+  @Override
+  public void setString(int parameterIndex, String x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setString(parameterIndex, x);
+  }
+
+  @Override
+  public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setBytes(parameterIndex, x);
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setDate(parameterIndex, x);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setTime(parameterIndex, x);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setTimestamp(parameterIndex, x);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Override
+  @Deprecated
+  public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setUnicodeStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void clearParameters() throws SQLException {
+    clearExecution();
+    preparedStatement.clearParameters();
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setObject(parameterIndex, x, targetSqlType);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setObject(parameterIndex, x);
+  }
+
+  @Override
+  public boolean execute() throws SQLException {
+    beforeExecution(sql);
+    try {
+      return preparedStatement.execute();
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public void addBatch() throws SQLException {
+    addToBatch(sql);
+    preparedStatement.addBatch();
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+    setParameter(parameterIndex, reader);
+    preparedStatement.setCharacterStream(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setRef(int parameterIndex, Ref x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setRef(parameterIndex, x);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, Blob x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setBlob(parameterIndex, x);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Clob x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setClob(parameterIndex, x);
+  }
+
+  @Override
+  public void setArray(int parameterIndex, Array x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setArray(parameterIndex, x);
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    return preparedStatement.getMetaData();
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setDate(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setTime(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setTimestamp(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    setParameter(parameterIndex, null);
+    preparedStatement.setNull(parameterIndex, sqlType, typeName);
+  }
+
+  @Override
+  public void setURL(int parameterIndex, URL x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setURL(parameterIndex, x);
+  }
+
+  @Override
+  public ParameterMetaData getParameterMetaData() throws SQLException {
+    return preparedStatement.getParameterMetaData();
+  }
+
+  @Override
+  public void setRowId(int parameterIndex, RowId x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setRowId(parameterIndex, x);
+  }
+
+  @Override
+  public void setNString(int parameterIndex, String value) throws SQLException {
+    setParameter(parameterIndex, value);
+    preparedStatement.setNString(parameterIndex, value);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+    setParameter(parameterIndex, value);
+    preparedStatement.setNCharacterStream(parameterIndex, value, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, NClob value) throws SQLException {
+    setParameter(parameterIndex, value);
+    preparedStatement.setNClob(parameterIndex, value);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    setParameter(parameterIndex, reader);
+    preparedStatement.setClob(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+    setParameter(parameterIndex, inputStream);
+    preparedStatement.setBlob(parameterIndex, inputStream, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    setParameter(parameterIndex, reader);
+    preparedStatement.setNClob(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+    setParameter(parameterIndex, xmlObject);
+    preparedStatement.setSQLXML(parameterIndex, xmlObject);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+    setParameter(parameterIndex, reader);
+    preparedStatement.setCharacterStream(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setAsciiStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setBinaryStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+    setParameter(parameterIndex, reader);
+    preparedStatement.setCharacterStream(parameterIndex, reader);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+    setParameter(parameterIndex, value);
+    preparedStatement.setNCharacterStream(parameterIndex, value);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader) throws SQLException {
+    setParameter(parameterIndex, reader);
+    preparedStatement.setClob(parameterIndex, reader);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+    setParameter(parameterIndex, inputStream);
+    preparedStatement.setBlob(parameterIndex, inputStream);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+    setParameter(parameterIndex, reader);
+    preparedStatement.setNClob(parameterIndex, reader);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+    setParameter(parameterIndex, x);
+    preparedStatement.setObject(parameterIndex, x, targetSqlType);
+  }
+
+  @Override
+  public long executeLargeUpdate() throws SQLException {
+    beforeExecution(sql);
+    try {
+      return preparedStatement.executeLargeUpdate();
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+}
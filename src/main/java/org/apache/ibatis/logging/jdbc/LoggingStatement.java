@@ -0,0 +1,503 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.sql.Time;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.logging.Log;
+
+/**
+ * Statement wrapper to add logging.
+ * <p>
+ * Unlike {@link StatementLogger} it delegates each method directly instead of going through reflection.
+ * Depending on the {@link LogSampling}, an execution is logged before it runs, or after it ran if it was slow;
+ * the results of executions that are not logged are not wrapped.
+ */
+public class LoggingStatement extends BaseJdbcLogger implements Statement {
+
+  private final Statement statement;
+  protected final LogSampling sampling;
+
+  // whether the next execution is sampled, decided on its first call
+  private Boolean sampled;
+  private boolean logged;
+  private long executionStart;
+  // the first statement added to the batch since it was last executed and their number, kept for the threshold
+  private String batchSql;
+  private int batchSize;
+
+  public LoggingStatement(Statement statement, Log statementLog, int queryStack, LogSampling sampling) {
+    super(statementLog, queryStack);
+    this.statement = statement;
+    this.sampling = sampling;
+    this.logged = sampling.isEager();
+  }
+
+  /**
+   * Returns the wrapped statement.
+   *
+   * @return the statement
+   */
+  public Statement getStatement() {
+    return statement;
+  }
+
+  /**
+   * Returns whether the current execution is logged before it runs.
+   */
+  protected boolean isSampled() {
+    if (sampled == null) {
+      sampled = sampling.sample();
+    }
+    return sampled;
+  }
+
+  /**
+   * Returns whether the details of the current execution must be kept, as it may be logged.
+   */
+  protected boolean isCapturing() {
+    return isSampled() || sampling.hasThreshold();
+  }
+
+  protected void beforeExecution(String sql) {
+    logged = isSampled();
+    if (logged) {
+      logExecution(sql);
+    } else if (sampling.hasThreshold()) {
+      executionStart = System.nanoTime();
+    }
+  }
+
+  protected void afterExecution(String sql) {
+    if (!logged && sampling.hasThreshold()) {
+      long elapsed = System.nanoTime() - executionStart;
+      if (sampling.isSlow(elapsed)) {
+        logged = true;
+        logExecution(sql);
+        debug("      Time: " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms", false);
+      }
+    }
+    sampled = null;
+    clearExecution();
+  }
+
+  /**
+   * Called for each statement added to the batch. It is logged now if it is sampled, but it can only be timed
+   * along with the whole batch once it is executed.
+   */
+  protected void addToBatch(String sql) {
+    logged = isSampled();
+    if (logged) {
+      logExecution(sql);
+    }
+    if (sampling.hasThreshold()) {
+      if (batchSql == null) {
+        batchSql = sql;
+      }
+      batchSize++;
+    }
+    sampled = null;
+    clearExecution();
+  }
+
+  protected long beforeBatchExecution() {
+    return batchSql != null ? System.nanoTime() : 0;
+  }
+
+  protected void afterBatchExecution(long start) {
+    if (batchSql != null) {
+      long elapsed = System.nanoTime() - start;
+      if (sampling.isSlow(elapsed) && isDebugEnabled()) {
+        debug(" Executing: " + removeBreakingWhitespace(batchSql), true);
+        debug("     Batch: " + batchSize + " statements", false);
+        debug("      Time: " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms", false);
+      }
+    }
+    batchSql = null;
+    batchSize = 0;
+  }
+
+  protected void logExecution(String sql) {
+    if (isDebugEnabled()) {
+      debug(" Executing: " + removeBreakingWhitespace(sql), true);
+    }
+  }
+
+  /**
+   * Called once an execution ran to drop what was kept to log it.
+   */
+  protected void clearExecution() {
+    // nothing kept for plain statements
+  }
+
+  /**
+   * Returns whether the last execution was logged, and so are its results.
+   */
+  protected boolean isLogged() {
+    return logged;
+  }
+
+  protected ResultSet wrapResultSet(ResultSet rs) {
+    return rs == null || !logged ? rs : new LoggingResultSet(rs, statementLog, queryStack);
+  }
+
+  @Override
+  public ResultSet executeQuery(String sql) throws SQLException {
+    beforeExecution(sql);
+    ResultSet rs;
+    try {
+      rs = statement.executeQuery(sql);
+    } finally {
+      afterExecution(sql);
+    }
+    return wrapResultSet(rs);
+  }
+
+  @Override
+  public int executeUpdate(String sql) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.executeUpdate(sql);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public void close() throws SQLException {
+    statement.close();
+  }
+
+  @Override
+  public int getMaxFieldSize() throws SQLException {
+    return statement.getMaxFieldSize();
+  }
+
+  @Override
+  public void setMaxFieldSize(int max) throws SQLException {
+    statement.setMaxFieldSize(max);
+  }
+
+  @Override
+  public int getMaxRows() throws SQLException {
+    return statement.getMaxRows();
+  }
+
+  @Override
+  public void setMaxRows(int max) throws SQLException {
+    statement.setMaxRows(max);
+  }
+
+  @Override
+  public void setEscapeProcessing(boolean enable) throws SQLException {
+    statement.setEscapeProcessing(enable);
+  }
+
+  @Override
+  public int getQueryTimeout() throws SQLException {
+    return statement.getQueryTimeout();
+  }
+
+  @Override
+  public void setQueryTimeout(int seconds) throws SQLException {
+    statement.setQueryTimeout(seconds);
+  }
+
+  @Override
+  public void cancel() throws SQLException {
+    statement.cancel();
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    return statement.getWarnings();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    statement.clearWarnings();
+  }
+
+  @Override
+  public void setCursorName(String name) throws SQLException {
+    statement.setCursorName(name);
+  }
+
+  @Override
+  public boolean execute(String sql) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.execute(sql);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public ResultSet getResultSet() throws SQLException {
+    return wrapResultSet(statement.getResultSet());
+  }
+
+  @Override
+  public int getUpdateCount() throws SQLException {
+    return statement.getUpdateCount();
+  }
+
+  @Override
+  public boolean getMoreResults() throws SQLException {
+    return statement.getMoreResults();
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    statement.setFetchDirection(direction);
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    return statement.getFetchDirection();
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    statement.setFetchSize(rows);
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    return statement.getFetchSize();
+  }
+
+  @Override
+  public int getResultSetConcurrency() throws SQLException {
+    return statement.getResultSetConcurrency();
+  }
+
+  @Override
+  public int getResultSetType() throws SQLException {
+    return statement.getResultSetType();
+  }
+
+  @Override
+  public void addBatch(String sql) throws SQLException {
+    addToBatch(sql);
+    statement.addBatch(sql);
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    batchSql = null;
+    batchSize = 0;
+    statement.clearBatch();
+  }
+
+  @Override
+  public int[] executeBatch() throws SQLException {
+    long start = beforeBatchExecution();
+    try {
+      return statement.executeBatch();
+    } finally {
+      afterBatchExecution(start);
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return statement.getConnection();
+  }
+
+  @Override
+  public boolean getMoreResults(int current) throws SQLException {
+    return statement.getMoreResults(current);
+  }
+
+  @Override
+  public ResultSet getGeneratedKeys() throws SQLException {
+    return statement.getGeneratedKeys();
+  }
+
+  @Override
+  public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.executeUpdate(sql, autoGeneratedKeys);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.executeUpdate(sql, columnIndexes);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.executeUpdate(sql, columnNames);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.execute(sql, autoGeneratedKeys);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.execute(sql, columnIndexes);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public boolean execute(String sql, String[] columnNames) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.execute(sql, columnNames);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public int getResultSetHoldability() throws SQLException {
+    return statement.getResultSetHoldability();
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return statement.isClosed();
+  }
+
+  @Override
+  public void setPoolable(boolean poolable) throws SQLException {
+    statement.setPoolable(poolable);
+  }
+
+  @Override
+  public boolean isPoolable() throws SQLException {
+    return statement.isPoolable();
+  }
+
+  @Override
+  public void closeOnCompletion() throws SQLException {
+    statement.closeOnCompletion();
+  }
+
+  @Override
+  public boolean isCloseOnCompletion() throws SQLException {
+    return statement.isCloseOnCompletion();
+  }
+
+  @Override
+  public long getLargeUpdateCount() throws SQLException {
+    return statement.getLargeUpdateCount();
+  }
+
+  @Override
+  public void setLargeMaxRows(long max) throws SQLException {
+    statement.setLargeMaxRows(max);
+  }
+
+  @Override
+  public long getLargeMaxRows() throws SQLException {
+    return statement.getLargeMaxRows();
+  }
+
+  @Override
+  public long[] executeLargeBatch() throws SQLException {
+    long start = beforeBatchExecution();
+    try {
+      return statement.executeLargeBatch();
+    } finally {
+      afterBatchExecution(start);
+    }
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.executeLargeUpdate(sql);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.executeLargeUpdate(sql, autoGeneratedKeys);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.executeLargeUpdate(sql, columnIndexes);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+    beforeExecution(sql);
+    try {
+      return statement.executeLargeUpdate(sql, columnNames);
+    } finally {
+      afterExecution(sql);
+    }
+  }
+
+  @Override
+  public <T> T unwrap(java.lang.Class<T> iface) throws SQLException {
+    return statement.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(java.lang.Class<?> iface) throws SQLException {
+    return statement.isWrapperFor(iface);
+  }
+
+}
@@ -25,11 +25,13 @@ import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
 import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -43,9 +45,13 @@ public class CacheBuilder {
   private final List<Class<? extends Cache>> decorators;
   private Integer size;
   private Long clearInterval;
+  private boolean flushPerEntry;
+  private Long flushJitter;
+  private Long refreshAhead;
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private boolean tagged;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -74,6 +80,21 @@ public class CacheBuilder {
     return this;
   }
 
+  public CacheBuilder flushPerEntry(boolean flushPerEntry) {
+    this.flushPerEntry = flushPerEntry;
+    return this;
+  }
+
+  public CacheBuilder flushJitter(Long flushJitter) {
+    this.flushJitter = flushJitter;
+    return this;
+  }
+
+  public CacheBuilder refreshAhead(Long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+    return this;
+  }
+
   public CacheBuilder readWrite(boolean readWrite) {
     this.readWrite = readWrite;
     return this;
@@ -84,6 +105,18 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * Keeps track of the cache tags of the entries, so that the writes declaring tags only evict the entries they affect.
+   *
+   * @param tagged whether statements of the namespace declare cache tags
+   * @return this builder
+   * @since 3.5.2
+   */
+  public CacheBuilder tagged(boolean tagged) {
+    this.tagged = tagged;
+    return this;
+  }
+
   public CacheBuilder properties(Properties properties) {
     this.properties = properties;
     return this;
@@ -122,8 +155,20 @@ public class CacheBuilder {
         metaCache.setValue("size", size);
       }
       if (clearInterval != null) {
-        cache = new ScheduledCache(cache);
-        ((ScheduledCache) cache).setClearInterval(clearInterval);
+        if (flushPerEntry) {
+          ExpiringCache expiringCache = new ExpiringCache(cache);
+          expiringCache.setFlushInterval(clearInterval);
+          if (flushJitter != null) {
+            expiringCache.setFlushJitter(flushJitter);
+          }
+          if (refreshAhead != null) {
+            expiringCache.setRefreshAhead(refreshAhead);
+          }
+          cache = expiringCache;
+        } else {
+          cache = new ScheduledCache(cache);
+          ((ScheduledCache) cache).setClearInterval(clearInterval);
+        }
       }
       if (readWrite) {
         cache = new SerializedCache(cache);
@@ -133,6 +178,9 @@ public class CacheBuilder {
       if (blocking) {
         cache = new BlockingCache(cache);
       }
+      if (tagged) {
+        cache = new TaggedCache(cache);
+      }
       return cache;
     } catch (Exception e) {
       throw new CacheException("Error building standard cache decorators.  Cause: " + e, e);
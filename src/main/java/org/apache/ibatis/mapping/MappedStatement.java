@@ -56,6 +56,7 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private String[] cacheTags;
 
   MappedStatement() {
     // constructor disabled
@@ -174,6 +175,11 @@ public final class MappedStatement {
       return this;
     }
 
+    public Builder cacheTags(String cacheTags) {
+      mappedStatement.cacheTags = delimitedStringToArray(cacheTags);
+      return this;
+    }
+
     /**
      * @deprecated Use {@link #resultSets}
      */
@@ -285,6 +291,16 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * Returns the tables (optionally qualified with a key property, e.g. <code>user:id</code>)
+   * this statement reads or writes, used for fine-grained second level cache invalidation.
+   *
+   * @return the cache tags or null if none were declared
+   */
+  public String[] getCacheTags() {
+    return cacheTags;
+  }
+
   /**
    * @deprecated Use {@link #getResultSets()}
    */
@@ -0,0 +1,181 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Registers an MXBean for each statement of a {@link MetricsRegistry}, named
+ * <code>&lt;domain&gt;:type=StatementMetrics,name="&lt;statement id&gt;"</code>.
+ * The statements are registered when they first run.
+ */
+public class JmxMetricsExporter {
+
+  private static final Log log = LogFactory.getLog(JmxMetricsExporter.class);
+
+  private final MetricsRegistry registry;
+  private final MBeanServer server;
+  private final String domain;
+  private final List<ObjectName> registeredNames = new CopyOnWriteArrayList<>();
+  private final Consumer<StatementMetrics> listener = this::register;
+
+  public JmxMetricsExporter(MetricsRegistry registry) {
+    this(registry, ManagementFactory.getPlatformMBeanServer(), "org.mybatis");
+  }
+
+  public JmxMetricsExporter(MetricsRegistry registry, MBeanServer server, String domain) {
+    this.registry = registry;
+    this.server = server;
+    this.domain = domain;
+  }
+
+  public void start() {
+    registry.addStatementListener(listener);
+    for (StatementMetrics metrics : registry.getStatementMetrics()) {
+      register(metrics);
+    }
+  }
+
+  public void stop() {
+    registry.removeStatementListener(listener);
+    for (ObjectName name : registeredNames) {
+      try {
+        server.unregisterMBean(name);
+      } catch (JMException e) {
+        // already unregistered
+      }
+    }
+    registeredNames.clear();
+  }
+
+  public ObjectName getObjectName(String statementId) throws JMException {
+    return new ObjectName(domain + ":type=StatementMetrics,name=" + ObjectName.quote(statementId));
+  }
+
+  private void register(StatementMetrics metrics) {
+    try {
+      ObjectName name = getObjectName(metrics.getId());
+      if (!server.isRegistered(name)) {
+        server.registerMBean(new StatementMetricsBean(metrics), name);
+        registeredNames.add(name);
+      }
+    } catch (JMException e) {
+      log.warn("Could not register the metrics of statement " + metrics.getId() + ". Cause: " + e);
+    }
+  }
+
+  private static class StatementMetricsBean implements StatementMetricsMXBean {
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private final StatementMetrics metrics;
+
+    StatementMetricsBean(StatementMetrics metrics) {
+      this.metrics = metrics;
+    }
+
+    @Override
+    public String getStatementId() {
+      return metrics.getId();
+    }
+
+    @Override
+    public long getExecutions() {
+      return metrics.snapshot().getExecutions();
+    }
+
+    @Override
+    public long getFailures() {
+      return metrics.snapshot().getFailures();
+    }
+
+    @Override
+    public double getMeanExecutionTime() {
+      return metrics.snapshot().getExecutionTimes().getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50ExecutionTime() {
+      return metrics.snapshot().getExecutionTimes().getValueAtQuantile(0.5) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP95ExecutionTime() {
+      return metrics.snapshot().getExecutionTimes().getValueAtQuantile(0.95) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99ExecutionTime() {
+      return metrics.snapshot().getExecutionTimes().getValueAtQuantile(0.99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxExecutionTime() {
+      return metrics.snapshot().getExecutionTimes().getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getJdbcTime() {
+      return metrics.snapshot().getJdbcTime() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMappingTime() {
+      return metrics.snapshot().getMappingTime() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getRows() {
+      return metrics.snapshot().getRows();
+    }
+
+    @Override
+    public long getBatches() {
+      return metrics.snapshot().getBatches();
+    }
+
+    @Override
+    public long getBatchedStatements() {
+      return metrics.snapshot().getBatchedStatements();
+    }
+
+    @Override
+    public double getLocalCacheHitRatio() {
+      return metrics.snapshot().getLocalCacheHitRatio();
+    }
+
+    @Override
+    public double getSecondLevelCacheHitRatio() {
+      return metrics.snapshot().getSecondLevelCacheHitRatio();
+    }
+
+    @Override
+    public void reset() {
+      metrics.reset();
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Receives the measurements taken while statements are executed.
+ * <p>
+ * Implementations are called by every session, from the threads running the statements,
+ * so they must be thread safe and should not block.
+ *
+ * @see MetricsRegistry
+ */
+public interface MetricsCollector {
+
+  /**
+   * Called once an executor ran a query against the database or an update.
+   * Queries answered by the local or 2nd level cache are only reported as cache hits.
+   *
+   * @param ms the statement
+   * @param elapsedNanos the time spent in the executor, including the fetching and mapping of the results
+   * @param failed true if the execution threw an exception
+   */
+  void recordExecution(MappedStatement ms, long elapsedNanos, boolean failed);
+
+  /**
+   * Called once the driver executed a statement, before its results are read.
+   *
+   * @param ms the statement
+   * @param elapsedNanos the time spent in <code>Statement.execute()</code> or <code>executeBatch()</code>
+   */
+  void recordJdbcExecution(MappedStatement ms, long elapsedNanos);
+
+  /**
+   * Called once the result sets of a query are read and mapped.
+   *
+   * @param ms the statement
+   * @param rows the number of rows read
+   * @param elapsedNanos the time spent fetching the rows and mapping them
+   */
+  void recordMapping(MappedStatement ms, int rows, long elapsedNanos);
+
+  /**
+   * Called when a batch of statements is sent to the database.
+   *
+   * @param ms the statement
+   * @param batchSize the number of parameter sets in the batch
+   */
+  void recordBatch(MappedStatement ms, int batchSize);
+
+  /**
+   * Called when a query looks up the local (session) cache.
+   *
+   * @param ms the statement
+   * @param hit true if the results were found
+   */
+  void recordLocalCacheAccess(MappedStatement ms, boolean hit);
+
+  /**
+   * Called when a query looks up the 2nd level cache.
+   *
+   * @param ms the statement
+   * @param hit true if the results were found
+   */
+  void recordSecondLevelCacheAccess(MappedStatement ms, boolean hit);
+
+}
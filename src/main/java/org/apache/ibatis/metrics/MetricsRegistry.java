@@ -0,0 +1,134 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Keeps the measurements of each statement in memory, keyed by the statement id.
+ *
+ * @see JmxMetricsExporter
+ */
+public class MetricsRegistry implements MetricsCollector {
+
+  private final ConcurrentMap<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+  private final List<Consumer<StatementMetrics>> statementListeners = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void recordExecution(MappedStatement ms, long elapsedNanos, boolean failed) {
+    getStatementMetrics(ms.getId()).recordExecution(elapsedNanos, failed);
+  }
+
+  @Override
+  public void recordJdbcExecution(MappedStatement ms, long elapsedNanos) {
+    getStatementMetrics(ms.getId()).recordJdbcExecution(elapsedNanos);
+  }
+
+  @Override
+  public void recordMapping(MappedStatement ms, int rows, long elapsedNanos) {
+    getStatementMetrics(ms.getId()).recordMapping(rows, elapsedNanos);
+  }
+
+  @Override
+  public void recordBatch(MappedStatement ms, int batchSize) {
+    getStatementMetrics(ms.getId()).recordBatch(batchSize);
+  }
+
+  @Override
+  public void recordLocalCacheAccess(MappedStatement ms, boolean hit) {
+    getStatementMetrics(ms.getId()).recordLocalCacheAccess(hit);
+  }
+
+  @Override
+  public void recordSecondLevelCacheAccess(MappedStatement ms, boolean hit) {
+    getStatementMetrics(ms.getId()).recordSecondLevelCacheAccess(hit);
+  }
+
+  /**
+   * Returns the live measurements of a statement, creating them if needed.
+   *
+   * @param id the statement id
+   * @return the measurements of the statement
+   */
+  public StatementMetrics getStatementMetrics(String id) {
+    StatementMetrics metrics = statements.get(id);
+    if (metrics == null) {
+      StatementMetrics created = new StatementMetrics(id);
+      metrics = statements.putIfAbsent(id, created);
+      if (metrics == null) {
+        metrics = created;
+        for (Consumer<StatementMetrics> listener : statementListeners) {
+          listener.accept(created);
+        }
+      }
+    }
+    return metrics;
+  }
+
+  public Collection<StatementMetrics> getStatementMetrics() {
+    return statements.values();
+  }
+
+  /**
+   * Returns the measurements of a statement.
+   *
+   * @param id the statement id
+   * @return the snapshot or null if the statement did not run
+   */
+  public StatementMetricsSnapshot getSnapshot(String id) {
+    StatementMetrics metrics = statements.get(id);
+    return metrics == null ? null : metrics.snapshot();
+  }
+
+  public List<StatementMetricsSnapshot> getSnapshots() {
+    List<StatementMetricsSnapshot> snapshots = new ArrayList<>();
+    for (StatementMetrics metrics : statements.values()) {
+      snapshots.add(metrics.snapshot());
+    }
+    return snapshots;
+  }
+
+  /**
+   * Resets the measurements of every statement.
+   */
+  public void reset() {
+    for (StatementMetrics metrics : statements.values()) {
+      metrics.reset();
+    }
+  }
+
+  /**
+   * Adds a listener called with the measurements of each statement the first time it runs.
+   *
+   * @param listener the listener
+   */
+  public void addStatementListener(Consumer<StatementMetrics> listener) {
+    statementListeners.add(listener);
+  }
+
+  public void removeStatementListener(Consumer<StatementMetrics> listener) {
+    statementListeners.remove(listener);
+  }
+
+}
@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The measurements of one statement, updated without locks.
+ */
+public class StatementMetrics {
+
+  private final String id;
+  private final LatencyHistogram executionTimes = new LatencyHistogram();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder jdbcTime = new LongAdder();
+  private final LongAdder jdbcExecutions = new LongAdder();
+  private final LongAdder mappingTime = new LongAdder();
+  private final LongAdder rows = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchedStatements = new LongAdder();
+  private final LongAdder localCacheHits = new LongAdder();
+  private final LongAdder localCacheMisses = new LongAdder();
+  private final LongAdder secondLevelCacheHits = new LongAdder();
+  private final LongAdder secondLevelCacheMisses = new LongAdder();
+
+  public StatementMetrics(String id) {
+    this.id = id;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void recordExecution(long elapsedNanos, boolean failed) {
+    executionTimes.record(elapsedNanos);
+    if (failed) {
+      failures.increment();
+    }
+  }
+
+  public void recordJdbcExecution(long elapsedNanos) {
+    jdbcExecutions.increment();
+    jdbcTime.add(elapsedNanos);
+  }
+
+  public void recordMapping(int rows, long elapsedNanos) {
+    this.rows.add(rows);
+    mappingTime.add(elapsedNanos);
+  }
+
+  public void recordBatch(int batchSize) {
+    batches.increment();
+    batchedStatements.add(batchSize);
+  }
+
+  public void recordLocalCacheAccess(boolean hit) {
+    (hit ? localCacheHits : localCacheMisses).increment();
+  }
+
+  public void recordSecondLevelCacheAccess(boolean hit) {
+    (hit ? secondLevelCacheHits : secondLevelCacheMisses).increment();
+  }
+
+  public StatementMetricsSnapshot snapshot() {
+    return new StatementMetricsSnapshot(id, executionTimes.snapshot(), failures.sum(), jdbcExecutions.sum(), jdbcTime.sum(),
+        rows.sum(), mappingTime.sum(), batches.sum(), batchedStatements.sum(), localCacheHits.sum(), localCacheMisses.sum(),
+        secondLevelCacheHits.sum(), secondLevelCacheMisses.sum());
+  }
+
+  public void reset() {
+    executionTimes.reset();
+    for (LongAdder adder : new LongAdder[] { failures, jdbcTime, jdbcExecutions, mappingTime, rows, batches,
+        batchedStatements, localCacheHits, localCacheMisses, secondLevelCacheHits, secondLevelCacheMisses }) {
+      adder.reset();
+    }
+  }
+
+}
@@ -0,0 +1,55 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * The measurements of one statement as exposed through JMX. Durations are in milliseconds.
+ */
+public interface StatementMetricsMXBean {
+
+  String getStatementId();
+
+  long getExecutions();
+
+  long getFailures();
+
+  double getMeanExecutionTime();
+
+  double getP50ExecutionTime();
+
+  double getP95ExecutionTime();
+
+  double getP99ExecutionTime();
+
+  double getMaxExecutionTime();
+
+  double getJdbcTime();
+
+  double getMappingTime();
+
+  long getRows();
+
+  long getBatches();
+
+  long getBatchedStatements();
+
+  double getLocalCacheHitRatio();
+
+  double getSecondLevelCacheHitRatio();
+
+  void reset();
+
+}
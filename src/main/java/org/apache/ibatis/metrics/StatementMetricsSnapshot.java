@@ -0,0 +1,123 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * The measurements of one statement at a point in time. Durations are in nanoseconds.
+ */
+public class StatementMetricsSnapshot {
+
+  private final String id;
+  private final LatencyHistogram.Snapshot executionTimes;
+  private final long failures;
+  private final long jdbcExecutions;
+  private final long jdbcTime;
+  private final long rows;
+  private final long mappingTime;
+  private final long batches;
+  private final long batchedStatements;
+  private final long localCacheHits;
+  private final long localCacheMisses;
+  private final long secondLevelCacheHits;
+  private final long secondLevelCacheMisses;
+
+  StatementMetricsSnapshot(String id, LatencyHistogram.Snapshot executionTimes, long failures, long jdbcExecutions, long jdbcTime,
+      long rows, long mappingTime, long batches, long batchedStatements, long localCacheHits, long localCacheMisses,
+      long secondLevelCacheHits, long secondLevelCacheMisses) {
+    this.id = id;
+    this.executionTimes = executionTimes;
+    this.failures = failures;
+    this.jdbcExecutions = jdbcExecutions;
+    this.jdbcTime = jdbcTime;
+    this.rows = rows;
+    this.mappingTime = mappingTime;
+    this.batches = batches;
+    this.batchedStatements = batchedStatements;
+    this.localCacheHits = localCacheHits;
+    this.localCacheMisses = localCacheMisses;
+    this.secondLevelCacheHits = secondLevelCacheHits;
+    this.secondLevelCacheMisses = secondLevelCacheMisses;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public long getExecutions() {
+    return executionTimes.getCount();
+  }
+
+  public long getFailures() {
+    return failures;
+  }
+
+  public LatencyHistogram.Snapshot getExecutionTimes() {
+    return executionTimes;
+  }
+
+  public long getJdbcExecutions() {
+    return jdbcExecutions;
+  }
+
+  public long getJdbcTime() {
+    return jdbcTime;
+  }
+
+  public long getRows() {
+    return rows;
+  }
+
+  public long getMappingTime() {
+    return mappingTime;
+  }
+
+  public long getBatches() {
+    return batches;
+  }
+
+  public long getBatchedStatements() {
+    return batchedStatements;
+  }
+
+  public long getLocalCacheHits() {
+    return localCacheHits;
+  }
+
+  public long getLocalCacheMisses() {
+    return localCacheMisses;
+  }
+
+  public double getLocalCacheHitRatio() {
+    return ratio(localCacheHits, localCacheMisses);
+  }
+
+  public long getSecondLevelCacheHits() {
+    return secondLevelCacheHits;
+  }
+
+  public long getSecondLevelCacheMisses() {
+    return secondLevelCacheMisses;
+  }
+
+  public double getSecondLevelCacheHitRatio() {
+    return ratio(secondLevelCacheHits, secondLevelCacheMisses);
+  }
+
+  private static double ratio(long hits, long misses) {
+    return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+  }
+
+}
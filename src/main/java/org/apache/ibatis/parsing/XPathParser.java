@@ -9,8 +9,11 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.regex.Pattern;
 
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
@@ -62,6 +65,9 @@ public class XPathParser {
     // 请先跳转 《Java XPath 解析器 - 解析 XML 文档》 中，进行简单学习，灰常简单。
     private XPath xpath;
 
+    private static final Pattern NAME_PATH = Pattern.compile("/?[A-Za-z_][\\w.-]*(/[A-Za-z_][\\w.-]*)*");
+    private static final Pattern NAME_UNION = Pattern.compile("[A-Za-z_][\\w.-]*(\\|[A-Za-z_][\\w.-]*)+");
+
     public XPathParser(String xml) {
         commonConstructor(false, null, null);
         this.document = createDocument(new InputSource(new StringReader(xml)));
@@ -222,6 +228,13 @@ public class XPathParser {
 
     public List<XNode> evalNodes(Object root, String expression) {  //返回值是node数组
         List<XNode> xnodes = new ArrayList<>();
+        List<Node> elements = findElements(root, expression);
+        if (elements != null) {
+            for (Node element : elements) {
+                xnodes.add(new XNode(this, element, variables));
+            }
+            return xnodes;
+        }
         //1 获取node数组
         NodeList nodes = (NodeList) evaluate(expression, root, XPathConstants.NODESET);
         for (int i = 0; i < nodes.getLength(); i++) {
@@ -237,7 +250,10 @@ public class XPathParser {
 
     public XNode evalNode(Object root, String expression) {   //返回值是node对象
         //1 获得Node对象
-        Node node = (Node) evaluate(expression, root, XPathConstants.NODE);
+        List<Node> elements = findElements(root, expression);
+        Node node = elements != null
+            ? (elements.isEmpty() ? null : elements.get(0))
+            : (Node) evaluate(expression, root, XPathConstants.NODE);
         if (node == null) {
             return null;
         }
@@ -257,6 +273,9 @@ public class XPathParser {
      * @return 值
      */
     private Object evaluate(String expression, Object root, QName returnType) {
+        if (xpath == null) {
+            xpath = XPathFactory.newInstance().newXPath();
+        }
         try {
             //调用 xpath 的 evaluate(String expression, Object root, QName returnType) 方法，获得指定元素或节点的值。
             return xpath.evaluate(expression, root, returnType);
@@ -302,8 +321,49 @@ public class XPathParser {
         this.validation = validation;
         this.entityResolver = entityResolver;
         this.variables = variables;
-        XPathFactory factory = XPathFactory.newInstance();
-        this.xpath = factory.newXPath();
+    }
+
+    /**
+     * Selects the elements of an expression made only of element names, such as <code>/mapper/resultMap</code>
+     * or <code>select|insert|update|delete</code>, by walking the DOM instead of running XPath.
+     *
+     * @return the elements in document order, or null if the expression needs XPath
+     */
+    private List<Node> findElements(Object root, String expression) {
+        if (!(root instanceof Node)) {
+            return null;
+        }
+        Node node = (Node) root;
+        if (NAME_UNION.matcher(expression).matches()) {
+            List<Node> elements = new ArrayList<>();
+            addChildElements(node, Arrays.asList(expression.split("\\|")), elements);
+            return elements;
+        }
+        if (!NAME_PATH.matcher(expression).matches()) {
+            return null;
+        }
+        String path = expression;
+        if (path.charAt(0) == '/') {
+            node = node.getNodeType() == Node.DOCUMENT_NODE ? node : node.getOwnerDocument();
+            path = path.substring(1);
+        }
+        List<Node> elements = Collections.singletonList(node);
+        for (String step : path.split("/")) {
+            List<Node> children = new ArrayList<>();
+            for (Node element : elements) {
+                addChildElements(element, Collections.singletonList(step), children);
+            }
+            elements = children;
+        }
+        return elements;
+    }
+
+    private static void addChildElements(Node parent, List<String> names, List<Node> elements) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE && names.contains(child.getNodeName())) {
+                elements.add(child);
+            }
+        }
     }
 
 }
@@ -0,0 +1,184 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * An {@link Executor} running the interceptors of a compiled {@link InterceptorChain}.
+ */
+final class InterceptedExecutor extends InterceptedTarget<Executor> implements Executor {
+
+  private static final int UPDATE = 0;
+  private static final int QUERY_6 = 1;
+  private static final int QUERY_4 = 2;
+  private static final int QUERY_CURSOR = 3;
+  private static final int FLUSH_STATEMENTS = 4;
+  private static final int COMMIT = 5;
+  private static final int ROLLBACK = 6;
+  private static final int CREATE_CACHE_KEY = 7;
+  private static final int IS_CACHED = 8;
+  private static final int CLEAR_LOCAL_CACHE = 9;
+  private static final int DEFER_LOAD = 10;
+  private static final int GET_TRANSACTION = 11;
+  private static final int CLOSE = 12;
+  private static final int IS_CLOSED = 13;
+  private static final int SET_EXECUTOR_WRAPPER = 14;
+
+  static final Method[] METHODS = {
+      method(Executor.class, "update", MappedStatement.class, Object.class),
+      method(Executor.class, "query", MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class),
+      method(Executor.class, "query", MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class),
+      method(Executor.class, "queryCursor", MappedStatement.class, Object.class, RowBounds.class),
+      method(Executor.class, "flushStatements"),
+      method(Executor.class, "commit", boolean.class),
+      method(Executor.class, "rollback", boolean.class),
+      method(Executor.class, "createCacheKey", MappedStatement.class, Object.class, RowBounds.class, BoundSql.class),
+      method(Executor.class, "isCached", MappedStatement.class, CacheKey.class),
+      method(Executor.class, "clearLocalCache"),
+      method(Executor.class, "deferLoad", MappedStatement.class, MetaObject.class, String.class, CacheKey.class, Class.class),
+      method(Executor.class, "getTransaction"),
+      method(Executor.class, "close", boolean.class),
+      method(Executor.class, "isClosed"),
+      method(Executor.class, "setExecutorWrapper", Executor.class)
+  };
+
+  InterceptedExecutor(Executor target, InterceptorDispatcher dispatcher, Object[] chain, int level) {
+    super(target, dispatcher, chain, level);
+  }
+
+  @Override
+  InterceptedExecutor newLevel(int level) {
+    return new InterceptedExecutor(target, dispatcher, chain, level);
+  }
+
+  @Override
+  public int update(MappedStatement ms, Object parameter) throws SQLException {
+    return isIntercepted(UPDATE) ? (Integer) intercept(UPDATE, ms, parameter) : target.update(ms, parameter);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey cacheKey, BoundSql boundSql) throws SQLException {
+    return isIntercepted(QUERY_6) ? (List<E>) intercept(QUERY_6, ms, parameter, rowBounds, resultHandler, cacheKey, boundSql) : target.query(ms, parameter, rowBounds, resultHandler, cacheKey, boundSql);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+    return isIntercepted(QUERY_4) ? (List<E>) intercept(QUERY_4, ms, parameter, rowBounds, resultHandler) : target.query(ms, parameter, rowBounds, resultHandler);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+    return isIntercepted(QUERY_CURSOR) ? (Cursor<E>) intercept(QUERY_CURSOR, ms, parameter, rowBounds) : target.queryCursor(ms, parameter, rowBounds);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<BatchResult> flushStatements() throws SQLException {
+    return isIntercepted(FLUSH_STATEMENTS) ? (List<BatchResult>) intercept(FLUSH_STATEMENTS) : target.flushStatements();
+  }
+
+  @Override
+  public void commit(boolean required) throws SQLException {
+    if (isIntercepted(COMMIT)) {
+      intercept(COMMIT, required);
+    } else {
+      target.commit(required);
+    }
+  }
+
+  @Override
+  public void rollback(boolean required) throws SQLException {
+    if (isIntercepted(ROLLBACK)) {
+      intercept(ROLLBACK, required);
+    } else {
+      target.rollback(required);
+    }
+  }
+
+  @Override
+  public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
+    return isIntercepted(CREATE_CACHE_KEY) ? (CacheKey) interceptUnchecked(CREATE_CACHE_KEY, ms, parameterObject, rowBounds, boundSql) : target.createCacheKey(ms, parameterObject, rowBounds, boundSql);
+  }
+
+  @Override
+  public boolean isCached(MappedStatement ms, CacheKey key) {
+    return isIntercepted(IS_CACHED) ? (Boolean) interceptUnchecked(IS_CACHED, ms, key) : target.isCached(ms, key);
+  }
+
+  @Override
+  public void clearLocalCache() {
+    if (isIntercepted(CLEAR_LOCAL_CACHE)) {
+      interceptUnchecked(CLEAR_LOCAL_CACHE);
+    } else {
+      target.clearLocalCache();
+    }
+  }
+
+  @Override
+  public void deferLoad(MappedStatement ms, MetaObject resultObject, String property, CacheKey key, Class<?> targetType) {
+    if (isIntercepted(DEFER_LOAD)) {
+      interceptUnchecked(DEFER_LOAD, ms, resultObject, property, key, targetType);
+    } else {
+      target.deferLoad(ms, resultObject, property, key, targetType);
+    }
+  }
+
+  @Override
+  public Transaction getTransaction() {
+    return isIntercepted(GET_TRANSACTION) ? (Transaction) interceptUnchecked(GET_TRANSACTION) : target.getTransaction();
+  }
+
+  @Override
+  public void close(boolean forceRollback) {
+    if (isIntercepted(CLOSE)) {
+      interceptUnchecked(CLOSE, forceRollback);
+    } else {
+      target.close(forceRollback);
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return isIntercepted(IS_CLOSED) ? (Boolean) interceptUnchecked(IS_CLOSED) : target.isClosed();
+  }
+
+  @Override
+  public void setExecutorWrapper(Executor executor) {
+    if (isIntercepted(SET_EXECUTOR_WRAPPER)) {
+      interceptUnchecked(SET_EXECUTOR_WRAPPER, executor);
+    } else {
+      target.setExecutorWrapper(executor);
+    }
+  }
+
+}
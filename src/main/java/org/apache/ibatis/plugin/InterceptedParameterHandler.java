@@ -0,0 +1,60 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+
+/**
+ * A {@link ParameterHandler} running the interceptors of a compiled {@link InterceptorChain}.
+ */
+final class InterceptedParameterHandler extends InterceptedTarget<ParameterHandler> implements ParameterHandler {
+
+  private static final int GET_PARAMETER_OBJECT = 0;
+  private static final int SET_PARAMETERS = 1;
+
+  static final Method[] METHODS = {
+      method(ParameterHandler.class, "getParameterObject"),
+      method(ParameterHandler.class, "setParameters", PreparedStatement.class)
+  };
+
+  InterceptedParameterHandler(ParameterHandler target, InterceptorDispatcher dispatcher, Object[] chain, int level) {
+    super(target, dispatcher, chain, level);
+  }
+
+  @Override
+  InterceptedParameterHandler newLevel(int level) {
+    return new InterceptedParameterHandler(target, dispatcher, chain, level);
+  }
+
+  @Override
+  public Object getParameterObject() {
+    return isIntercepted(GET_PARAMETER_OBJECT) ? interceptUnchecked(GET_PARAMETER_OBJECT) : target.getParameterObject();
+  }
+
+  @Override
+  public void setParameters(PreparedStatement ps) throws SQLException {
+    if (isIntercepted(SET_PARAMETERS)) {
+      intercept(SET_PARAMETERS, ps);
+    } else {
+      target.setParameters(ps);
+    }
+  }
+
+}
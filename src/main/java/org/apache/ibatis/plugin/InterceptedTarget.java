@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.SQLException;
+
+/**
+ * Base class of the objects a compiled {@link InterceptorChain} wraps a target in. Each method first looks up the
+ * next interceptor of the method in the dispatcher; the methods no interceptor declares are called on the target
+ * directly, without reflection.
+ * <p>
+ * A wrapper stands for one level of the chain, like one {@link Plugin} proxy would. The target of the
+ * {@link Invocation} given to an interceptor is the wrapper of the next level, or the target itself for the
+ * innermost interceptor, so that {@link Invocation#proceed()} runs the remaining interceptors.
+ *
+ * @param <T> the type of the target
+ */
+abstract class InterceptedTarget<T> {
+
+  protected final T target;
+  protected final InterceptorDispatcher dispatcher;
+  protected final Object[] chain;
+  private final int level;
+
+  InterceptedTarget(T target, InterceptorDispatcher dispatcher, Object[] chain, int level) {
+    this.target = target;
+    this.dispatcher = dispatcher;
+    this.chain = chain;
+    this.level = level;
+  }
+
+  /**
+   * Creates the wrapper of another level of the same chain.
+   *
+   * @param level the level
+   * @return the wrapper
+   */
+  abstract InterceptedTarget<T> newLevel(int level);
+
+  protected static Method method(Class<?> type, String name, Class<?>... parameterTypes) {
+    try {
+      return type.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new PluginException("Could not find method on " + type + " named " + name + ". Cause: " + e, e);
+    }
+  }
+
+  protected final boolean isIntercepted(int method) {
+    return dispatcher.next(level, method) >= 0;
+  }
+
+  protected final Object intercept(int method, Object... args) throws SQLException {
+    int index = dispatcher.next(level, method);
+    return dispatcher.intercept(index, method, levelTarget(index + 1), args);
+  }
+
+  protected final Object interceptUnchecked(int method, Object... args) {
+    try {
+      return intercept(method, args);
+    } catch (SQLException e) {
+      // the dispatcher only throws the checked exceptions the method declares
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+
+  private Object levelTarget(int targetLevel) {
+    Object levelTarget = chain[targetLevel];
+    if (levelTarget == null) {
+      levelTarget = newLevel(targetLevel);
+      chain[targetLevel] = levelTarget;
+    }
+    return levelTarget;
+  }
+
+  @Override
+  public int hashCode() {
+    return target.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return target.equals(obj);
+  }
+
+  @Override
+  public String toString() {
+    return target.toString();
+  }
+
+}
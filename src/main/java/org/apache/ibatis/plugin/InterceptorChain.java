@@ -15,9 +15,18 @@
  */
 package org.apache.ibatis.plugin;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
 
 /**
  * @author Clinton Begin
@@ -25,8 +34,16 @@ import java.util.List;
 public class InterceptorChain {
 
   private final List<Interceptor> interceptors = new ArrayList<>();
+  private final Map<Class<?>, Optional<InterceptorDispatcher>> dispatchers = new ConcurrentHashMap<>();
+  private boolean compiled;
 
   public Object pluginAll(Object target) {
+    if (compiled && !interceptors.isEmpty()) {
+      Object intercepted = compile(target);
+      if (intercepted != null) {
+        return intercepted;
+      }
+    }
     for (Interceptor interceptor : interceptors) {
       target = interceptor.plugin(target);
     }
@@ -35,10 +52,59 @@ public class InterceptorChain {
 
   public void addInterceptor(Interceptor interceptor) {
     interceptors.add(interceptor);
+    dispatchers.clear();
   }
 
   public List<Interceptor> getInterceptors() {
     return Collections.unmodifiableList(interceptors);
   }
 
+  public boolean isCompiled() {
+    return compiled;
+  }
+
+  /**
+   * Sets whether {@link #pluginAll(Object)} wraps executors, statement handlers, parameter handlers and result set
+   * handlers in a single object dispatching to the interceptors declared by their {@link Intercepts} annotations,
+   * instead of a {@link Plugin} proxy per interceptor. The methods no interceptor declares are then called
+   * without reflection.
+   * <p>
+   * The {@link Interceptor#plugin(Object)} method is not called on these targets, so a compiled chain can only be
+   * used when all the interceptors implement it as <code>Plugin.wrap(target, this)</code>. The target of an
+   * {@link Invocation} is then a wrapper of the chain rather than a {@link Plugin} proxy, so interceptors that
+   * unwrap the proxies through a {@link org.apache.ibatis.reflection.MetaObject} cannot be used either.
+   *
+   * @param compiled true to compile the chain
+   * @since 3.5.2
+   */
+  public void setCompiled(boolean compiled) {
+    this.compiled = compiled;
+  }
+
+  private Object compile(Object target) {
+    if (target instanceof Executor) {
+      InterceptorDispatcher dispatcher = getDispatcher(Executor.class, InterceptedExecutor.METHODS);
+      return dispatcher == null ? target
+          : new InterceptedExecutor((Executor) target, dispatcher, dispatcher.newChain(target), 0);
+    } else if (target instanceof StatementHandler) {
+      InterceptorDispatcher dispatcher = getDispatcher(StatementHandler.class, InterceptedStatementHandler.METHODS);
+      return dispatcher == null ? target
+          : new InterceptedStatementHandler((StatementHandler) target, dispatcher, dispatcher.newChain(target), 0);
+    } else if (target instanceof ParameterHandler) {
+      InterceptorDispatcher dispatcher = getDispatcher(ParameterHandler.class, InterceptedParameterHandler.METHODS);
+      return dispatcher == null ? target
+          : new InterceptedParameterHandler((ParameterHandler) target, dispatcher, dispatcher.newChain(target), 0);
+    } else if (target instanceof ResultSetHandler) {
+      InterceptorDispatcher dispatcher = getDispatcher(ResultSetHandler.class, InterceptedResultSetHandler.METHODS);
+      return dispatcher == null ? target
+          : new InterceptedResultSetHandler((ResultSetHandler) target, dispatcher, dispatcher.newChain(target), 0);
+    }
+    return null;
+  }
+
+  private InterceptorDispatcher getDispatcher(Class<?> type, Method[] methods) {
+    return dispatchers.computeIfAbsent(type,
+        k -> Optional.ofNullable(InterceptorDispatcher.create(type, methods, interceptors))).orElse(null);
+  }
+
 }
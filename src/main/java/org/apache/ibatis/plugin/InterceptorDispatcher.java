@@ -0,0 +1,120 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * The interceptors of a chain that apply to each method of a target type, computed once from their
+ * {@link Intercepts} annotations.
+ */
+final class InterceptorDispatcher {
+
+  private final Interceptor[] interceptors;
+  private final Method[] methods;
+  private final int[][] next;
+
+  private InterceptorDispatcher(Interceptor[] interceptors, Method[] methods, int[][] next) {
+    this.interceptors = interceptors;
+    this.methods = methods;
+    this.next = next;
+  }
+
+  /**
+   * Computes the interceptors of each method of a type.
+   *
+   * @param type the intercepted type
+   * @param methods the methods of the type, indexed as the wrappers of the type expect
+   * @param interceptors the interceptors in the order they were added, the last one being the outermost
+   * @return the dispatcher, or null if none of the interceptors applies to the type
+   */
+  static InterceptorDispatcher create(Class<?> type, Method[] methods, List<Interceptor> interceptors) {
+    int size = interceptors.size();
+    Interceptor[] outermostFirst = new Interceptor[size];
+    int[][] next = new int[size + 1][];
+    next[size] = new int[methods.length];
+    Arrays.fill(next[size], -1);
+    boolean intercepted = false;
+    for (int level = size - 1; level >= 0; level--) {
+      Interceptor interceptor = interceptors.get(size - 1 - level);
+      outermostFirst[level] = interceptor;
+      Set<Method> signatures = Plugin.getSignatureMap(interceptor).get(type);
+      next[level] = next[level + 1].clone();
+      for (int i = 0; i < methods.length; i++) {
+        if (signatures != null && signatures.contains(methods[i])) {
+          next[level][i] = level;
+          intercepted = true;
+        }
+      }
+    }
+    return intercepted ? new InterceptorDispatcher(outermostFirst, methods, next) : null;
+  }
+
+  Object[] newChain(Object target) {
+    Object[] chain = new Object[interceptors.length + 1];
+    chain[interceptors.length] = target;
+    return chain;
+  }
+
+  /**
+   * Returns the outermost interceptor of a method from a level of the chain on.
+   *
+   * @param level the level, 0 being the outermost
+   * @param method the index of the method
+   * @return the level of the interceptor, or -1 if none intercepts the method
+   */
+  int next(int level, int method) {
+    return next[level][method];
+  }
+
+  /**
+   * Runs an interceptor, throwing what a {@link Plugin} proxy would.
+   */
+  Object intercept(int index, int method, Object target, Object[] args) throws SQLException {
+    try {
+      return interceptors[index].intercept(new Invocation(target, methods[method], args));
+    } catch (Throwable t) {
+      Throwable cause = ExceptionUtil.unwrapThrowable(t);
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      if (cause instanceof SQLException && isDeclared(methods[method], cause)) {
+        throw (SQLException) cause;
+      }
+      throw new UndeclaredThrowableException(cause);
+    }
+  }
+
+  private static boolean isDeclared(Method method, Throwable exception) {
+    for (Class<?> exceptionType : method.getExceptionTypes()) {
+      if (exceptionType.isInstance(exception)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -66,7 +66,7 @@ public class Plugin implements InvocationHandler {
     }
   }
 
-  private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
+  static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
     Intercepts interceptsAnnotation = interceptor.getClass().getAnnotation(Intercepts.class);
     // issue #251
     if (interceptsAnnotation == null) {
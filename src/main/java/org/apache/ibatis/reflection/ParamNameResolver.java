@@ -21,6 +21,14 @@ public class ParamNameResolver {
 
   private final SortedMap<Integer, String> names;
 
+  /**
+   * 预先计算的参数布局：参数名、参数位置，以及通用参数名（param1、param2 ...，与参数名重复时为 null）
+   */
+  private final String[] paramNames;
+  private final int[] paramIndexes;
+  private final String[] genericParamNames;
+  private final int paramMapCapacity;
+
   /**
    * 是否有 {@link Param} 注解的参数
    */
@@ -64,6 +72,25 @@ public class ParamNameResolver {
 
     // 构建不可变集合
     names = Collections.unmodifiableSortedMap(map);
+
+    // 预先计算每次调用时放入 ParamMap 的键，避免每次拼接字符串和查找重名
+    paramNames = new String[map.size()];
+    paramIndexes = new int[map.size()];
+    genericParamNames = new String[map.size()];
+    int i = 0;
+    int entryCount = 0;
+    for (Map.Entry<Integer, String> entry : map.entrySet()) {
+      paramNames[i] = entry.getValue();
+      paramIndexes[i] = entry.getKey();
+      entryCount++;
+      final String genericParamName = GENERIC_NAME_PREFIX + (i + 1);
+      if (!map.containsValue(genericParamName)) {
+        genericParamNames[i] = genericParamName;
+        entryCount++;
+      }
+      i++;
+    }
+    paramMapCapacity = (int) (entryCount / 0.75f) + 1;
   }
 
   private String getActualParamName(Method method, int paramIndex) {
@@ -80,7 +107,7 @@ public class ParamNameResolver {
 
 // 获得参数名与值的映射
   public Object getNamedParams(Object[] args) {
-    final int paramCount = names.size();
+    final int paramCount = paramNames.length;
 
     // 无参数，则返回 null
     if (args == null || paramCount == 0) {
@@ -88,27 +115,19 @@ public class ParamNameResolver {
 
       // 只有一个非注解的参数，直接返回首元素
     } else if (!hasParamAnnotation && paramCount == 1) {
-      return args[names.firstKey()];
+      return args[paramIndexes[0]];
     } else {
 
       // 集合。
       // 组合 1 ：KEY：参数名，VALUE：参数值
       // 组合 2 ：KEY：GENERIC_NAME_PREFIX + 参数顺序，VALUE ：参数值
-      final Map<String, Object> param = new ParamMap<>();
-      int i = 0;
-
-      // 遍历 names 集合
-      for (Map.Entry<Integer, String> entry : names.entrySet()) {
-
-        // 组合 1 ：添加到 param 中
-        param.put(entry.getValue(), args[entry.getKey()]);
-        // 组合 2 ：添加到 param 中
-        final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
-
-        if (!names.containsValue(genericParamName)) {
-          param.put(genericParamName, args[entry.getKey()]);
+      final Map<String, Object> param = new ParamMap<>(paramMapCapacity);
+      for (int i = 0; i < paramCount; i++) {
+        final Object value = args[paramIndexes[i]];
+        param.put(paramNames[i], value);
+        if (genericParamNames[i] != null) {
+          param.put(genericParamNames[i], value);
         }
-        i++;
       }
       return param;
     }
@@ -15,8 +15,10 @@
  */
 package org.apache.ibatis.session;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,23 +27,33 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import org.apache.ibatis.binding.MapperRegistry;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
+import org.apache.ibatis.builder.xml.LazyStatement;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheInvalidationBus;
+import org.apache.ibatis.cache.CacheInvalidationPublisher;
+import org.apache.ibatis.cache.CacheInvalidationTransport;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.LoopbackCacheInvalidationTransport;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
+import org.apache.ibatis.executor.BackgroundExecutors;
 import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
@@ -60,6 +72,7 @@ import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.logging.commons.JakartaCommonsLoggingImpl;
+import org.apache.ibatis.logging.jdbc.LogSampling;
 import org.apache.ibatis.logging.jdk14.Jdk14LoggingImpl;
 import org.apache.ibatis.logging.log4j.Log4jImpl;
 import org.apache.ibatis.logging.log4j2.Log4j2Impl;
@@ -72,6 +85,8 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMap;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.apache.ibatis.metrics.MetricsCollector;
+import org.apache.ibatis.metrics.MetricsRegistry;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
@@ -81,11 +96,19 @@ import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.apache.ibatis.tracing.CompositeTraceListener;
+import org.apache.ibatis.tracing.ExplainStatementExplainer;
+import org.apache.ibatis.tracing.QueryPlanExplainer;
+import org.apache.ibatis.tracing.SlowQueryDetector;
+import org.apache.ibatis.tracing.TraceListener;
+import org.apache.ibatis.tracing.TraceRecorder;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
 import org.apache.ibatis.transaction.managed.ManagedTransactionFactory;
@@ -109,18 +132,32 @@ public class Configuration {
   protected boolean useGeneratedKeys;
   protected boolean useColumnLabel = true;
   protected boolean cacheEnabled = true;
+  protected boolean eagerCachePublishEnabled;
+  protected boolean parallelMapperParsingEnabled;
+  protected java.util.concurrent.Executor buildExecutor;
+  protected boolean lazyStatementBuildingEnabled;
+  protected boolean lazyStatementWarmUpEnabled;
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
+  protected Integer statementLogSamplingRate;
+  protected Integer statementLogThreshold;
+  protected LogSampling statementLogSampling = LogSampling.ALL;
   protected Class<? extends VFS> vfsImpl;
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected Integer cursorPrefetchSize;
+  protected java.util.concurrent.Executor cursorPrefetchExecutor;
+  protected boolean parallelResultMappingEnabled;
+  protected java.util.concurrent.Executor resultMappingExecutor;
+  protected boolean compactMapRowsEnabled;
+  protected boolean generatedMapperImplementationsEnabled;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
@@ -129,6 +166,22 @@ public class Configuration {
   protected ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
   protected ObjectFactory objectFactory = new DefaultObjectFactory();
   protected ObjectWrapperFactory objectWrapperFactory = new DefaultObjectWrapperFactory();
+  // the wrappers replacing BeanWrapper for the instances of exactly these classes, e.g. generated with the mappers
+  protected final Map<Class<?>, BiFunction<MetaObject, Object, ObjectWrapper>> objectWrappers = new ConcurrentHashMap<>();
+  private final ObjectWrapperFactory objectWrapperFactoryWithObjectWrappers = new ObjectWrapperFactory() {
+    @Override
+    public boolean hasWrapperFor(Object object) {
+      return objectWrapperFactory.hasWrapperFor(object) || objectWrappers.containsKey(object.getClass());
+    }
+
+    @Override
+    public ObjectWrapper getWrapperFor(MetaObject metaObject, Object object) {
+      if (objectWrapperFactory.hasWrapperFor(object)) {
+        return objectWrapperFactory.getWrapperFor(metaObject, object);
+      }
+      return objectWrappers.get(object.getClass()).apply(metaObject, object);
+    }
+  };
 
   protected boolean lazyLoadingEnabled = false;
   protected ProxyFactory proxyFactory = new JavassistProxyFactory(); // #224 Using internal Javassist instead of OGNL
@@ -142,6 +195,20 @@ public class Configuration {
    */
   protected Class<?> configurationFactory;
 
+  protected CacheInvalidationTransport cacheInvalidationTransport;
+  protected CacheInvalidationPublisher cacheInvalidationPublisher;
+
+  protected MetricsCollector metricsCollector;
+  protected TraceListener traceListener;
+  protected SlowQueryDetector slowQueryDetector;
+  protected QueryPlanExplainer slowQueryExplainer;
+  protected TraceListener activeTraceListener;
+
+  protected java.util.concurrent.Executor asyncMapperExecutor;
+  protected SqlSessionFactory asyncSqlSessionFactory;
+  private volatile java.util.concurrent.Executor defaultAsyncMapperExecutor;
+  private volatile SqlSessionFactory defaultAsyncSqlSessionFactory;
+
   protected final MapperRegistry mapperRegistry = new MapperRegistry(this);
   protected final InterceptorChain interceptorChain = new InterceptorChain();
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
@@ -151,6 +218,18 @@ public class Configuration {
   protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection")
       .conflictMessageProducer((savedValue, targetValue) ->
           ". please check " + savedValue.getResource() + " and " + targetValue.getResource());
+  /*
+   * The statements registered by lazyStatementBuildingEnabled are built after the configuration is
+   * published, so they and what they register are kept apart from the maps above, which are not thread-safe.
+   */
+  protected final Map<String, LazyStatement> lazyStatements = Collections.synchronizedMap(
+      new StrictMap<LazyStatement>("Mapped Statements collection")
+          .conflictMessageProducer((savedValue, targetValue) ->
+              ". please check " + savedValue.getResource() + " and " + targetValue.getResource()));
+  protected final ConcurrentStrictMap<MappedStatement> lazilyBuiltStatements = new ConcurrentStrictMap<>("Mapped Statements collection");
+  protected final ConcurrentStrictMap<KeyGenerator> lazilyBuiltKeyGenerators = new ConcurrentStrictMap<>("Key Generators collection");
+  private final Object lazyBuildLock = new Object();
+  private volatile boolean lazyStatementsValidated = true;
   protected final Map<String, Cache> caches = new StrictMap<>("Caches collection");
   protected final Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
   protected final Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
@@ -189,6 +268,11 @@ public class Configuration {
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("LOOPBACK", LoopbackCacheInvalidationTransport.class);
+
+    typeAliasRegistry.registerAlias("METRICS_REGISTRY", MetricsRegistry.class);
+    typeAliasRegistry.registerAlias("TRACE_RECORDER", TraceRecorder.class);
+    typeAliasRegistry.registerAlias("EXPLAIN", ExplainStatementExplainer.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -229,6 +313,42 @@ public class Configuration {
     }
   }
 
+  public Integer getStatementLogSamplingRate() {
+    return statementLogSamplingRate;
+  }
+
+  /**
+   * Sets how many statement executions are logged for one, when the statement logs are at debug level.
+   *
+   * @param statementLogSamplingRate log one execution out of this many, <code>null</code> to log them all
+   *     unless a threshold is set
+   * @since 3.5.2
+   */
+  public void setStatementLogSamplingRate(Integer statementLogSamplingRate) {
+    this.statementLogSamplingRate = statementLogSamplingRate;
+    this.statementLogSampling = new LogSampling(statementLogSamplingRate, statementLogThreshold);
+  }
+
+  public Integer getStatementLogThreshold() {
+    return statementLogThreshold;
+  }
+
+  /**
+   * Sets the duration from which statement executions are logged once they ran, when the statement logs are at
+   * debug level.
+   *
+   * @param statementLogThreshold the duration in milliseconds, <code>null</code> to log the executions regardless of it
+   * @since 3.5.2
+   */
+  public void setStatementLogThreshold(Integer statementLogThreshold) {
+    this.statementLogThreshold = statementLogThreshold;
+    this.statementLogSampling = new LogSampling(statementLogSamplingRate, statementLogThreshold);
+  }
+
+  public LogSampling getStatementLogSampling() {
+    return statementLogSampling;
+  }
+
   public Class<? extends VFS> getVfsImpl() {
     return this.vfsImpl;
   }
@@ -280,6 +400,196 @@ public class Configuration {
     this.configurationFactory = configurationFactory;
   }
 
+  public CacheInvalidationTransport getCacheInvalidationTransport() {
+    return cacheInvalidationTransport;
+  }
+
+  /**
+   * Sets the transport used to propagate the 2nd level cache flushes to the other nodes
+   * and to receive theirs.
+   *
+   * The configuration stops listening to the transport set before, if any.
+   *
+   * @param cacheInvalidationTransport the transport or null to keep invalidations local
+   */
+  public void setCacheInvalidationTransport(CacheInvalidationTransport cacheInvalidationTransport) {
+    if (cacheInvalidationTransport == this.cacheInvalidationTransport) {
+      return;
+    }
+    if (cacheInvalidationPublisher instanceof CacheInvalidationBus) {
+      ((CacheInvalidationBus) cacheInvalidationPublisher).close();
+    }
+    this.cacheInvalidationTransport = cacheInvalidationTransport;
+    this.cacheInvalidationPublisher = cacheInvalidationTransport == null ? null
+        : new CacheInvalidationBus(this, cacheInvalidationTransport);
+  }
+
+  public CacheInvalidationPublisher getCacheInvalidationPublisher() {
+    return cacheInvalidationPublisher;
+  }
+
+  public MetricsCollector getMetricsCollector() {
+    return metricsCollector;
+  }
+
+  /**
+   * Sets the collector receiving the execution time, rows, batch sizes and cache accesses of each statement.
+   *
+   * @param metricsCollector the collector or null to take no measurements
+   */
+  public void setMetricsCollector(MetricsCollector metricsCollector) {
+    this.metricsCollector = metricsCollector;
+  }
+
+  public TraceListener getTraceListener() {
+    return traceListener;
+  }
+
+  /**
+   * Sets the listener receiving the start and end of each phase of the statement executions.
+   *
+   * @param traceListener the listener or null to trace nothing
+   */
+  public void setTraceListener(TraceListener traceListener) {
+    this.traceListener = traceListener;
+    updateActiveTraceListener();
+  }
+
+  public SlowQueryDetector getSlowQueryDetector() {
+    return slowQueryDetector;
+  }
+
+  /**
+   * Sets the detector capturing the statement executions slower than its thresholds.
+   *
+   * @param slowQueryDetector the detector or null to capture nothing
+   * @since 3.5.2
+   */
+  public void setSlowQueryDetector(SlowQueryDetector slowQueryDetector) {
+    this.slowQueryDetector = slowQueryDetector;
+    updateActiveTraceListener();
+  }
+
+  /**
+   * Captures the statement executions slower than the given threshold, creating the slow query detector if none is set.
+   *
+   * @param slowQueryThreshold the global threshold in milliseconds, or null to remove the detector
+   * @since 3.5.2
+   */
+  public void setSlowQueryThreshold(Integer slowQueryThreshold) {
+    if (slowQueryThreshold == null) {
+      setSlowQueryDetector(null);
+    } else if (slowQueryDetector == null) {
+      SlowQueryDetector detector = new SlowQueryDetector(slowQueryThreshold);
+      detector.setExplainer(slowQueryExplainer);
+      setSlowQueryDetector(detector);
+    } else {
+      slowQueryDetector.setThresholdMillis(slowQueryThreshold);
+    }
+  }
+
+  public QueryPlanExplainer getSlowQueryExplainer() {
+    return slowQueryExplainer;
+  }
+
+  /**
+   * Sets the explainer requesting the execution plan of the slow selects, used by the detector created by
+   * {@link #setSlowQueryThreshold(Integer)}.
+   *
+   * @param slowQueryExplainer the explainer or null to capture no plan
+   * @since 3.5.2
+   */
+  public void setSlowQueryExplainer(QueryPlanExplainer slowQueryExplainer) {
+    this.slowQueryExplainer = slowQueryExplainer;
+    if (slowQueryDetector != null) {
+      slowQueryDetector.setExplainer(slowQueryExplainer);
+    }
+  }
+
+  /**
+   * Returns the listener the executors report the phases of the statement executions to: the trace listener,
+   * the slow query detector or both.
+   *
+   * @return the listener or null if nothing is traced
+   * @since 3.5.2
+   */
+  public TraceListener getActiveTraceListener() {
+    return activeTraceListener;
+  }
+
+  private void updateActiveTraceListener() {
+    if (slowQueryDetector == null) {
+      activeTraceListener = traceListener;
+    } else if (traceListener == null) {
+      activeTraceListener = slowQueryDetector;
+    } else {
+      activeTraceListener = new CompositeTraceListener(traceListener, slowQueryDetector);
+    }
+  }
+
+  /**
+   * Returns the executor running the mapper methods that return a <code>CompletableFuture</code>.
+   *
+   * @return the executor set or a pool of daemon threads, as many as the connections of the pooled data source
+   *         of the environment or else as the available processors
+   */
+  public java.util.concurrent.Executor getAsyncMapperExecutor() {
+    if (asyncMapperExecutor != null) {
+      return asyncMapperExecutor;
+    }
+    if (defaultAsyncMapperExecutor == null) {
+      synchronized (this) {
+        if (defaultAsyncMapperExecutor == null) {
+          int threads = environment != null && environment.getDataSource() instanceof PooledDataSource
+              ? ((PooledDataSource) environment.getDataSource()).getPoolMaximumActiveConnections()
+              : BackgroundExecutors.defaultParallelism();
+          defaultAsyncMapperExecutor = BackgroundExecutors.newBoundedExecutor("mybatis-async-mapper", threads);
+        }
+      }
+    }
+    return defaultAsyncMapperExecutor;
+  }
+
+  /**
+   * Sets the executor running the mapper methods that return a <code>CompletableFuture</code>
+   * or a <code>CompletionStage</code>. Each task holds a connection while it runs, so the
+   * executor should not run more tasks at once than the data source has connections.
+   *
+   * @param asyncMapperExecutor the executor, e.g. one starting a virtual thread per task with a limit, or null for the default pool
+   */
+  public void setAsyncMapperExecutor(java.util.concurrent.Executor asyncMapperExecutor) {
+    this.asyncMapperExecutor = asyncMapperExecutor;
+  }
+
+  /**
+   * Returns the factory opening a session for each mapper method that returns a <code>CompletableFuture</code>.
+   *
+   * @return the factory set or a factory of this configuration
+   */
+  public SqlSessionFactory getAsyncSqlSessionFactory() {
+    if (asyncSqlSessionFactory != null) {
+      return asyncSqlSessionFactory;
+    }
+    if (defaultAsyncSqlSessionFactory == null) {
+      synchronized (this) {
+        if (defaultAsyncSqlSessionFactory == null) {
+          defaultAsyncSqlSessionFactory = new DefaultSqlSessionFactory(this);
+        }
+      }
+    }
+    return defaultAsyncSqlSessionFactory;
+  }
+
+  /**
+   * Sets the factory opening a session for each mapper method that returns a <code>CompletableFuture</code>.
+   * The session is committed once the statement succeeds and closed by the task.
+   *
+   * @param asyncSqlSessionFactory the factory or null to open the sessions from this configuration
+   */
+  public void setAsyncSqlSessionFactory(SqlSessionFactory asyncSqlSessionFactory) {
+    this.asyncSqlSessionFactory = asyncSqlSessionFactory;
+  }
+
   public boolean isSafeResultHandlerEnabled() {
     return safeResultHandlerEnabled;
   }
@@ -409,6 +719,79 @@ public class Configuration {
     this.cacheEnabled = cacheEnabled;
   }
 
+  public boolean isEagerCachePublishEnabled() {
+    return eagerCachePublishEnabled;
+  }
+
+  /**
+   * Sets whether the 2nd level cache entries read by a transaction that has not executed any
+   * insert, update or delete yet are put into the cache right away instead of on commit.
+   *
+   * @param eagerCachePublishEnabled true to publish the entries read by read-only transactions right away
+   */
+  public void setEagerCachePublishEnabled(boolean eagerCachePublishEnabled) {
+    this.eagerCachePublishEnabled = eagerCachePublishEnabled;
+  }
+
+  public boolean isParallelMapperParsingEnabled() {
+    return parallelMapperParsingEnabled;
+  }
+
+  /**
+   * Sets whether the mapper XML files listed in the configuration, and those of the mapper interfaces found by
+   * package scanning, are parsed into DOM documents on the {@link #getBuildExecutor() build executor}. The documents are still
+   * registered one by one on the calling thread, in the order the mappers are declared or found. The annotations of
+   * mapper interfaces are always processed sequentially.
+   *
+   * @param parallelMapperParsingEnabled true to parse the mapper XML files in parallel
+   */
+  public void setParallelMapperParsingEnabled(boolean parallelMapperParsingEnabled) {
+    this.parallelMapperParsingEnabled = parallelMapperParsingEnabled;
+  }
+
+  public java.util.concurrent.Executor getBuildExecutor() {
+    return buildExecutor;
+  }
+
+  /**
+   * Sets the executor that runs the parallel and background work done while building the configuration, e.g. parsing
+   * mapper XML files or warming up lazily built statements.
+   * By default this work runs on temporary pools of daemon threads that are shut down once the work is done. The tasks run with the context class loader of the thread building the configuration.
+   *
+   * @param buildExecutor the executor or null to use a temporary pool
+   * @since 3.5.2
+   */
+  public void setBuildExecutor(java.util.concurrent.Executor buildExecutor) {
+    this.buildExecutor = buildExecutor;
+  }
+
+  public boolean isLazyStatementBuildingEnabled() {
+    return lazyStatementBuildingEnabled;
+  }
+
+  /**
+   * Sets whether the statements of mapper XML files are only registered while parsing and built
+   * the first time they are used.
+   *
+   * @param lazyStatementBuildingEnabled true to build the statements of mapper XML files on first use
+   */
+  public void setLazyStatementBuildingEnabled(boolean lazyStatementBuildingEnabled) {
+    this.lazyStatementBuildingEnabled = lazyStatementBuildingEnabled;
+  }
+
+  public boolean isLazyStatementWarmUpEnabled() {
+    return lazyStatementWarmUpEnabled;
+  }
+
+  /**
+   * Sets whether the statements registered lazily are built by a background thread once the configuration file is parsed.
+   *
+   * @param lazyStatementWarmUpEnabled true to build the lazily registered statements in the background
+   */
+  public void setLazyStatementWarmUpEnabled(boolean lazyStatementWarmUpEnabled) {
+    this.lazyStatementWarmUpEnabled = lazyStatementWarmUpEnabled;
+  }
+
   public Integer getDefaultStatementTimeout() {
     return defaultStatementTimeout;
   }
@@ -431,6 +814,131 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  public Integer getCursorPrefetchSize() {
+    return cursorPrefetchSize;
+  }
+
+  /**
+   * Sets how many rows a cursor reads and maps ahead on a background thread.
+   *
+   * @param cursorPrefetchSize the maximum number of rows fetched ahead, <code>null</code> to fetch rows as they are consumed
+   * @see org.apache.ibatis.cursor.defaults.PrefetchingCursor
+   */
+  public void setCursorPrefetchSize(Integer cursorPrefetchSize) {
+    this.cursorPrefetchSize = cursorPrefetchSize;
+  }
+
+  /**
+   * Returns the executor running the tasks that prefetch cursor rows.
+   *
+   * @return the executor set or a shared pool of daemon threads, as many as the available processors
+   * @since 3.5.2
+   */
+  public java.util.concurrent.Executor getCursorPrefetchExecutor() {
+    return cursorPrefetchExecutor != null ? cursorPrefetchExecutor : DefaultCursorPrefetchExecutor.INSTANCE;
+  }
+
+  /**
+   * Sets the executor running the tasks that prefetch cursor rows. A task keeps its thread until the cursor is
+   * consumed or closed. A cursor whose task has not started when its first row is needed reads its rows without
+   * prefetching.
+   *
+   * @param cursorPrefetchExecutor the executor or null for the shared pool
+   * @since 3.5.2
+   */
+  public void setCursorPrefetchExecutor(java.util.concurrent.Executor cursorPrefetchExecutor) {
+    this.cursorPrefetchExecutor = cursorPrefetchExecutor;
+  }
+
+  public boolean isParallelResultMappingEnabled() {
+    return parallelResultMappingEnabled;
+  }
+
+  /**
+   * Sets whether the rows of simple result maps are mapped to objects on the {@link #getResultMappingExecutor() result
+   * mapping executor}. The column values are still read by the thread running the statement, through the type handlers,
+   * and the results are handed to the result handler by that thread in their order. Result maps with constructor
+   * mappings, discriminators, nested selects or nested result maps and custom result handlers are always mapped by the
+   * thread running the statement, and so are all the results when a custom <code>ObjectFactory</code> or
+   * <code>ObjectWrapperFactory</code> is set, as they are not required to be thread-safe.
+   *
+   * @param parallelResultMappingEnabled true to map the rows of large results in parallel
+   */
+  public void setParallelResultMappingEnabled(boolean parallelResultMappingEnabled) {
+    this.parallelResultMappingEnabled = parallelResultMappingEnabled;
+  }
+
+  /**
+   * Returns the executor mapping the rows of large results in parallel.
+   *
+   * @return the executor set or a shared pool of daemon threads, as many as the available processors
+   * @since 3.5.2
+   */
+  public java.util.concurrent.Executor getResultMappingExecutor() {
+    return resultMappingExecutor != null ? resultMappingExecutor : DefaultResultMappingExecutor.INSTANCE;
+  }
+
+  /**
+   * Sets the executor mapping the rows of large results in parallel.
+   *
+   * @param resultMappingExecutor the executor or null for the shared pool
+   * @since 3.5.2
+   * @see #setParallelResultMappingEnabled(boolean)
+   */
+  public void setResultMappingExecutor(java.util.concurrent.Executor resultMappingExecutor) {
+    this.resultMappingExecutor = resultMappingExecutor;
+  }
+
+  public boolean isCompactMapRowsEnabled() {
+    return compactMapRowsEnabled;
+  }
+
+  /**
+   * Sets whether the rows of <code>resultType="map"</code> queries are returned as compact read-only maps sharing
+   * the column names of their result set instead of one <code>HashMap</code> per row.
+   * Only statements mapped to <code>java.util.Map</code> through automatic mappings are concerned.
+   *
+   * @param compactMapRowsEnabled true to return compact map rows
+   * @see org.apache.ibatis.executor.resultset.CompactRow
+   * @since 3.5.2
+   */
+  public void setCompactMapRowsEnabled(boolean compactMapRowsEnabled) {
+    this.compactMapRowsEnabled = compactMapRowsEnabled;
+  }
+
+  public boolean isGeneratedMapperImplementationsEnabled() {
+    return generatedMapperImplementationsEnabled;
+  }
+
+  /**
+   * Sets whether the mappers annotated with {@link org.apache.ibatis.annotations.Mapper} are implemented by the
+   * classes generated by {@link org.apache.ibatis.builder.annotation.MapperImplementationProcessor}, when they can be
+   * loaded, instead of proxies. The generated object wrappers are registered along with them.
+   * Must be set before the mappers are added.
+   *
+   * @param generatedMapperImplementationsEnabled true to use the generated mapper implementations
+   * @since 3.5.2
+   */
+  public void setGeneratedMapperImplementationsEnabled(boolean generatedMapperImplementationsEnabled) {
+    this.generatedMapperImplementationsEnabled = generatedMapperImplementationsEnabled;
+  }
+
+  public boolean isCompiledInterceptorChainEnabled() {
+    return interceptorChain.isCompiled();
+  }
+
+  /**
+   * Sets whether the plugins are applied through a single wrapper per intercepted object that dispatches each method
+   * to the interceptors declared for it, instead of a proxy per interceptor.
+   *
+   * @param compiledInterceptorChainEnabled true to compile the interceptor chain
+   * @see InterceptorChain#setCompiled(boolean)
+   * @since 3.5.2
+   */
+  public void setCompiledInterceptorChainEnabled(boolean compiledInterceptorChainEnabled) {
+    interceptorChain.setCompiled(compiledInterceptorChainEnabled);
+  }
+
   public boolean isUseColumnLabel() {
     return useColumnLabel;
   }
@@ -514,6 +1022,21 @@ public class Configuration {
     this.objectWrapperFactory = objectWrapperFactory;
   }
 
+  /**
+   * Wraps the instances of exactly the given class with the given wrapper instead of a
+   * {@link org.apache.ibatis.reflection.wrapper.BeanWrapper}, unless the object wrapper factory has a wrapper for them.
+   * The implementations generated by {@link org.apache.ibatis.builder.annotation.MapperImplementationProcessor} add
+   * wrappers reading and writing the properties of their parameters and results without reflection.
+   *
+   * @param type the class of the wrapped instances
+   * @param objectWrapper creates the wrapper of an instance
+   * @since 3.5.2
+   */
+  @SuppressWarnings("unchecked")
+  public <T> void addObjectWrapper(Class<T> type, BiFunction<MetaObject, ? super T, ? extends ObjectWrapper> objectWrapper) {
+    objectWrappers.put(type, (BiFunction<MetaObject, Object, ObjectWrapper>) objectWrapper);
+  }
+
   /**
    * @since 3.2.2
    */
@@ -556,7 +1079,8 @@ public class Configuration {
   }
 
   public MetaObject newMetaObject(Object object) {
-    return MetaObject.forObject(object, objectFactory, objectWrapperFactory, reflectorFactory);
+    return MetaObject.forObject(object, objectFactory,
+        objectWrappers.isEmpty() ? objectWrapperFactory : objectWrapperFactoryWithObjectWrappers, reflectorFactory);
   }
 
   public ParameterHandler newParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
@@ -594,30 +1118,45 @@ public class Configuration {
       executor = new SimpleExecutor(this, transaction);
     }
     if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
+      executor = new CachingExecutor(executor, cacheInvalidationPublisher, eagerCachePublishEnabled);
     }
     executor = (Executor) interceptorChain.pluginAll(executor);
     return executor;
   }
 
   public void addKeyGenerator(String id, KeyGenerator keyGenerator) {
-    keyGenerators.put(id, keyGenerator);
+    if (Thread.holdsLock(lazyBuildLock)) {
+      lazilyBuiltKeyGenerators.put(id, keyGenerator);
+    } else {
+      keyGenerators.put(id, keyGenerator);
+    }
   }
 
   public Collection<String> getKeyGeneratorNames() {
-    return keyGenerators.keySet();
+    if (lazilyBuiltKeyGenerators.isEmpty()) {
+      return keyGenerators.keySet();
+    }
+    Set<String> names = new HashSet<>(keyGenerators.keySet());
+    names.addAll(lazilyBuiltKeyGenerators.keySet());
+    return names;
   }
 
   public Collection<KeyGenerator> getKeyGenerators() {
-    return keyGenerators.values();
+    if (lazilyBuiltKeyGenerators.isEmpty()) {
+      return keyGenerators.values();
+    }
+    List<KeyGenerator> values = new ArrayList<>(keyGenerators.values());
+    values.addAll(lazilyBuiltKeyGenerators.values());
+    return values;
   }
 
   public KeyGenerator getKeyGenerator(String id) {
-    return keyGenerators.get(id);
+    KeyGenerator keyGenerator = lazilyBuiltKeyGenerators.get(id);
+    return keyGenerator != null ? keyGenerator : keyGenerators.get(id);
   }
 
   public boolean hasKeyGenerator(String id) {
-    return keyGenerators.containsKey(id);
+    return keyGenerators.containsKey(id) || lazilyBuiltKeyGenerators.containsKey(id);
   }
 
   public void addCache(Cache cache) {
@@ -683,17 +1222,127 @@ public class Configuration {
   }
 
   public void addMappedStatement(MappedStatement ms) {
+    if (Thread.holdsLock(lazyBuildLock)) {
+      // registered by a lazily built statement
+      lazilyBuiltStatements.put(ms.getId(), ms);
+      return;
+    }
+    if (lazyStatements.containsKey(ms.getId())) {
+      throw new IllegalArgumentException("Mapped Statements collection already contains value for " + ms.getId()
+          + ". please check " + lazyStatements.get(ms.getId()).getResource() + " and " + ms.getResource());
+    }
     mappedStatements.put(ms.getId(), ms);
   }
 
   public Collection<String> getMappedStatementNames() {
     buildAllStatements();
-    return mappedStatements.keySet();
+    if (lazyStatements.isEmpty()) {
+      return mappedStatements.keySet();
+    }
+    buildLazyStatements();
+    Set<String> names = new HashSet<>(mappedStatements.keySet());
+    names.addAll(lazilyBuiltStatements.keySet());
+    return names;
   }
 
   public Collection<MappedStatement> getMappedStatements() {
     buildAllStatements();
-    return mappedStatements.values();
+    if (lazyStatements.isEmpty()) {
+      return mappedStatements.values();
+    }
+    buildLazyStatements();
+    List<MappedStatement> statements = new ArrayList<>(mappedStatements.values());
+    statements.addAll(lazilyBuiltStatements.values());
+    return statements;
+  }
+
+  public void addLazyStatement(LazyStatement statement) {
+    if (mappedStatements.containsKey(statement.getId())) {
+      throw new IllegalArgumentException("Mapped Statements collection already contains value for " + statement.getId()
+          + ". please check " + mappedStatements.get(statement.getId()).getResource() + " and " + statement.getResource());
+    }
+    lazyStatements.put(statement.getId(), statement);
+    lazyStatementsValidated = false;
+  }
+
+  public boolean hasLazyStatement(String id) {
+    return lazyStatements.containsKey(id);
+  }
+
+  public LazyStatement getLazyStatement(String id) {
+    return lazyStatements.get(id);
+  }
+
+  /**
+   * Builds all the statements that were registered lazily and are not built yet.
+   */
+  public void buildLazyStatements() {
+    for (LazyStatement statement : getLazyStatements()) {
+      buildLazyStatement(statement);
+    }
+  }
+
+  /**
+   * Builds the statements registered lazily in the background, using the build executor if there is one
+   * or else a single daemon thread. Statements that fail to build are logged and fail again when they are used.
+   *
+   * @see #setBuildExecutor(java.util.concurrent.Executor)
+   */
+  public void warmUpLazyStatements() {
+    List<LazyStatement> statements = getLazyStatements();
+    Runnable warmUp = () -> {
+      for (LazyStatement statement : statements) {
+        try {
+          buildLazyStatement(statement);
+        } catch (RuntimeException e) {
+          LogFactory.getLog(Configuration.class).warn("Could not build the lazily registered statement '"
+              + statement.getId() + "'. Cause: " + e);
+        }
+      }
+    };
+    if (buildExecutor != null) {
+      BackgroundExecutors.withContextClassLoader(buildExecutor).execute(warmUp);
+    } else {
+      ExecutorService executor = BackgroundExecutors.newBoundedExecutor("mybatis-statement-warm-up", 1);
+      executor.execute(warmUp);
+      executor.shutdown();
+    }
+  }
+
+  private List<LazyStatement> getLazyStatements() {
+    List<LazyStatement> statements = new ArrayList<>();
+    synchronized (lazyStatements) {
+      // the values of short names are the same statements, or ambiguity markers
+      for (Map.Entry<String, ?> entry : ((Map<String, ?>) lazyStatements).entrySet()) {
+        if (entry.getValue() instanceof LazyStatement && entry.getKey().equals(((LazyStatement) entry.getValue()).getId())) {
+          statements.add((LazyStatement) entry.getValue());
+        }
+      }
+    }
+    return statements;
+  }
+
+  private void buildLazyStatement(LazyStatement statement) {
+    if (!statement.isBuilt()) {
+      // building registers statements and key generators, so build one statement at a time
+      synchronized (lazyBuildLock) {
+        statement.build();
+      }
+    }
+  }
+
+  private boolean hasLazyStatements() {
+    return lazyStatementBuildingEnabled && !lazyStatements.isEmpty();
+  }
+
+  private MappedStatement getLazyMappedStatement(String id) {
+    MappedStatement statement = lazilyBuiltStatements.get(id);
+    if (statement == null && lazyStatements.containsKey(id)) {
+      LazyStatement lazyStatement = lazyStatements.get(id);
+      buildLazyStatement(lazyStatement);
+      statement = lazilyBuiltStatements.get(lazyStatement.getId());
+    }
+    return statement;
   }
 
   public Collection<XMLStatementBuilder> getIncompleteStatements() {
@@ -736,7 +1385,11 @@ public class Configuration {
     if (validateIncompleteStatements) {
       buildAllStatements();
     }
-    return mappedStatements.get(id);
+    if (!hasLazyStatements() || mappedStatements.containsKey(id)) {
+      return mappedStatements.get(id);
+    }
+    MappedStatement statement = getLazyMappedStatement(id);
+    return statement != null ? statement : mappedStatements.get(id);
   }
 
   public Map<String, XNode> getSqlFragments() {
@@ -759,6 +1412,13 @@ public class Configuration {
     mapperRegistry.addMapper(type);
   }
 
+  /**
+   * @since 3.5.2
+   */
+  public <T> void addMapperImplementation(Class<T> type, Function<SqlSession, ? extends T> mapperImplementation) {
+    mapperRegistry.addMapperImplementation(type, mapperImplementation);
+  }
+
   public <T> T getMapper(Class<T> type, SqlSession sqlSession) {
     return mapperRegistry.getMapper(type, sqlSession);
   }
@@ -775,7 +1435,11 @@ public class Configuration {
     if (validateIncompleteStatements) {
       buildAllStatements();
     }
-    return mappedStatements.containsKey(statementName);
+    if (mappedStatements.containsKey(statementName)) {
+      return true;
+    }
+    return hasLazyStatements()
+        && (lazilyBuiltStatements.containsKey(statementName) || lazyStatements.containsKey(statementName));
   }
 
   public void addCacheRef(String namespace, String referencedNamespace) {
@@ -810,6 +1474,15 @@ public class Configuration {
         });
       }
     }
+    if (!lazyStatementsValidated) {
+      // a lazily registered statement that refers to missing elements fails here, as it would without lazy building
+      for (LazyStatement statement : getLazyStatements()) {
+        if (!statement.isBuilt() && statement.hasMissingReferences()) {
+          buildLazyStatement(statement);
+        }
+      }
+      lazyStatementsValidated = true;
+    }
   }
 
   private void parsePendingResultMaps() {
@@ -884,6 +1557,18 @@ public class Configuration {
     }
   }
 
+  private static class DefaultResultMappingExecutor {
+
+    static final ExecutorService INSTANCE = BackgroundExecutors.newBoundedExecutor("mybatis-result-mapping",
+        BackgroundExecutors.defaultParallelism());
+  }
+
+  private static class DefaultCursorPrefetchExecutor {
+
+    static final ExecutorService INSTANCE = BackgroundExecutors.newBoundedExecutor("mybatis-cursor-prefetch",
+        BackgroundExecutors.defaultParallelism());
+  }
+
   protected static class StrictMap<V> extends HashMap<String, V> {
 
     private static final long serialVersionUID = -4950446264854982944L;
@@ -970,4 +1655,61 @@ public class Configuration {
     }
   }
 
+  /**
+   * The rules of {@link StrictMap} for values that are added by one thread at a time and read by any thread.
+   * Ambiguous short names are kept in a separate set, as a concurrent map cannot hold markers of another type.
+   */
+  protected static class ConcurrentStrictMap<V> {
+
+    private final String name;
+    private final Map<String, V> values = new ConcurrentHashMap<>();
+    private final Set<String> ambiguousKeys = ConcurrentHashMap.newKeySet();
+
+    public ConcurrentStrictMap(String name) {
+      this.name = name;
+    }
+
+    public void put(String key, V value) {
+      if (values.putIfAbsent(key, value) != null) {
+        throw new IllegalArgumentException(name + " already contains value for " + key);
+      }
+      if (key.contains(".")) {
+        final String shortKey = key.substring(key.lastIndexOf('.') + 1);
+        if (!ambiguousKeys.contains(shortKey) && values.putIfAbsent(shortKey, value) != null) {
+          ambiguousKeys.add(shortKey);
+          values.remove(shortKey);
+        }
+      }
+    }
+
+    /**
+     * @return the value of the key, or null if there is none
+     */
+    public V get(String key) {
+      if (ambiguousKeys.contains(key)) {
+        throw new IllegalArgumentException(key + " is ambiguous in " + name
+            + " (try using the full name including the namespace, or rename one of the entries)");
+      }
+      return values.get(key);
+    }
+
+    public boolean containsKey(String key) {
+      return values.containsKey(key) || ambiguousKeys.contains(key);
+    }
+
+    public boolean isEmpty() {
+      return values.isEmpty();
+    }
+
+    public Set<String> keySet() {
+      Set<String> keys = new HashSet<>(values.keySet());
+      keys.addAll(ambiguousKeys);
+      return keys;
+    }
+
+    public Collection<V> values() {
+      return values.values();
+    }
+  }
+
 }
@@ -21,6 +21,8 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.cursor.defaults.DefaultCursorPublisher;
 import org.apache.ibatis.executor.BatchResult;
 
 /**
@@ -143,6 +145,39 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * A CursorPublisher offers the same results as a Cursor, except it fetches data as a subscriber requests it.
+   * @param <T> the returned publisher element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @return CursorPublisher of mapped objects
+   */
+  default <T> CursorPublisher<T> selectPublisher(String statement) {
+    return selectPublisher(statement, null);
+  }
+
+  /**
+   * A CursorPublisher offers the same results as a Cursor, except it fetches data as a subscriber requests it.
+   * @param <T> the returned publisher element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return CursorPublisher of mapped objects
+   */
+  default <T> CursorPublisher<T> selectPublisher(String statement, Object parameter) {
+    return selectPublisher(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  /**
+   * A CursorPublisher offers the same results as a Cursor, except it fetches data as a subscriber requests it.
+   * @param <T> the returned publisher element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @return CursorPublisher of mapped objects
+   */
+  default <T> CursorPublisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+    return new DefaultCursorPublisher<>(() -> selectCursor(statement, parameter, rowBounds));
+  }
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
@@ -20,6 +20,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.util.Properties;
 
+import org.apache.ibatis.builder.xml.MapperSnapshot;
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.executor.ErrorContext;
@@ -45,8 +46,12 @@ public class SqlSessionFactoryBuilder {
   }
 
   public SqlSessionFactory build(Reader reader, String environment, Properties properties) {
+    return build(reader, environment, properties, null);
+  }
+
+  public SqlSessionFactory build(Reader reader, String environment, Properties properties, MapperSnapshot mapperSnapshot) {
     try {
-      XMLConfigBuilder parser = new XMLConfigBuilder(reader, environment, properties);
+      XMLConfigBuilder parser = new XMLConfigBuilder(reader, environment, properties, mapperSnapshot);
       return build(parser.parse());
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error building SqlSession.", e);
@@ -72,9 +77,17 @@ public class SqlSessionFactoryBuilder {
     return build(inputStream, null, properties);
   }
 
+  public SqlSessionFactory build(InputStream inputStream, MapperSnapshot mapperSnapshot) {
+    return build(inputStream, null, null, mapperSnapshot);
+  }
+
   public SqlSessionFactory build(InputStream inputStream, String environment, Properties properties) {
+    return build(inputStream, environment, properties, null);
+  }
+
+  public SqlSessionFactory build(InputStream inputStream, String environment, Properties properties, MapperSnapshot mapperSnapshot) {
     try {
-      XMLConfigBuilder parser = new XMLConfigBuilder(inputStream, environment, properties);
+      XMLConfigBuilder parser = new XMLConfigBuilder(inputStream, environment, properties, mapperSnapshot);
       return build(parser.parse());
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error building SqlSession.", e);
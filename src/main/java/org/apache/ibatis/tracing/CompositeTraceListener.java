@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link TraceListener} forwarding every event to several listeners, in order.
+ */
+public class CompositeTraceListener implements TraceListener {
+
+  private final TraceListener[] listeners;
+
+  public CompositeTraceListener(TraceListener... listeners) {
+    this.listeners = listeners.clone();
+  }
+
+  public List<TraceListener> getListeners() {
+    return Arrays.asList(listeners.clone());
+  }
+
+  @Override
+  public void phaseStarted(TraceContext context, TracePhase phase) {
+    for (TraceListener listener : listeners) {
+      listener.phaseStarted(context, phase);
+    }
+  }
+
+  @Override
+  public void phaseEnded(TraceContext context, TracePhase phase, long elapsedNanos) {
+    for (TraceListener listener : listeners) {
+      listener.phaseEnded(context, phase, elapsedNanos);
+    }
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Runs the select prefixed with <code>EXPLAIN </code> (MySQL, MariaDB, PostgreSQL, H2) or another prefix,
+ * e.g. <code>EXPLAIN PLAN FOR </code> on HSQLDB, and returns the rows it returns, one per line.
+ * The parameters are bound by the type handlers of their mappings, as when the select ran.
+ */
+public class ExplainStatementExplainer implements QueryPlanExplainer {
+
+  private final String prefix;
+
+  public ExplainStatementExplainer() {
+    this("EXPLAIN ");
+  }
+
+  public ExplainStatementExplainer(String prefix) {
+    this.prefix = prefix;
+  }
+
+  @Override
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public String explain(Connection connection, MappedStatement ms, BoundSql boundSql, List<Object> parameters)
+      throws SQLException {
+    try (PreparedStatement ps = connection.prepareStatement(prefix + boundSql.getSql())) {
+      List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+      for (int i = 0; i < parameterMappings.size(); i++) {
+        ParameterMapping parameterMapping = parameterMappings.get(i);
+        if (parameterMapping.getMode() != ParameterMode.OUT) {
+          Object value = parameters.get(i);
+          TypeHandler typeHandler = parameterMapping.getTypeHandler();
+          JdbcType jdbcType = parameterMapping.getJdbcType();
+          if (value == null && jdbcType == null) {
+            jdbcType = ms.getConfiguration().getJdbcTypeForNull();
+          }
+          typeHandler.setParameter(ps, i + 1, value, jdbcType);
+        }
+      }
+      try (ResultSet rs = ps.executeQuery()) {
+        int columnCount = rs.getMetaData().getColumnCount();
+        StringBuilder plan = new StringBuilder();
+        while (rs.next()) {
+          if (plan.length() > 0) {
+            plan.append(System.lineSeparator());
+          }
+          for (int i = 1; i <= columnCount; i++) {
+            if (i > 1) {
+              plan.append('\t');
+            }
+            plan.append(rs.getString(i));
+          }
+        }
+        return plan.toString();
+      }
+    }
+  }
+
+}
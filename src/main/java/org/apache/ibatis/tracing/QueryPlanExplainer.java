@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Gets the execution plan of a slow select from the database, e.g. by running <code>EXPLAIN</code>.
+ * <p>
+ * The plan is requested in the background once the select ran, on a connection of its own taken from the data
+ * source of the environment, so the select, its thread and its transaction are not delayed by it.
+ *
+ * @see SlowQueryDetector#setExplainer(QueryPlanExplainer)
+ */
+public interface QueryPlanExplainer {
+
+  /**
+   * Returns the execution plan of a select.
+   *
+   * @param connection a connection of its own, which must not be closed
+   * @param ms the select
+   * @param boundSql the SQL of the select
+   * @param parameters the values bound to its parameters, one per parameter mapping of the SQL
+   * @return the plan, formatted for display
+   * @throws SQLException if the plan could not be read
+   */
+  String explain(Connection connection, MappedStatement ms, BoundSql boundSql, List<Object> parameters) throws SQLException;
+
+}
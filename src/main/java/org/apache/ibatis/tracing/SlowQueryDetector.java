@@ -0,0 +1,360 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.executor.BackgroundExecutors;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A {@link TraceListener} capturing the executions slower than a threshold with their SQL, the values bound to
+ * their parameters, the rows they read or updated and the time spent in each phase, so that slow statements can
+ * be found without logging all of them.
+ * <p>
+ * A global threshold applies to all the statements unless a threshold was set for the statement itself.
+ * The last captured executions are kept in a ring buffer, which can be read through {@link #getSlowQueries()}
+ * or through JMX by registering the detector as an MXBean. When an explainer is set, the execution plan of the
+ * slow selects is requested in the background, on a connection of its own, and set on the captured execution
+ * once read.
+ * <p>
+ * Nested selects are checked on their own as well as part of the statement that ran them.
+ */
+public class SlowQueryDetector implements TraceListener, SlowQueryDetectorMXBean {
+
+  private static final Log log = LogFactory.getLog(SlowQueryDetector.class);
+
+  private final AtomicReferenceArray<SlowQuery> slowQueries;
+  private final AtomicLong detected = new AtomicLong();
+  private final Map<String, Long> statementThresholds = new ConcurrentHashMap<>();
+  private volatile long thresholdNanos;
+  private final AtomicInteger pendingPlans = new AtomicInteger();
+  private volatile QueryPlanExplainer explainer;
+  private volatile Executor explainExecutor;
+
+  /**
+   * @param thresholdMillis the global threshold, negative to apply the statement thresholds only
+   */
+  public SlowQueryDetector(long thresholdMillis) {
+    this(thresholdMillis, 100);
+  }
+
+  /**
+   * @param thresholdMillis the global threshold, negative to apply the statement thresholds only
+   * @param capacity the number of slow executions kept
+   */
+  public SlowQueryDetector(long thresholdMillis, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity must be positive but was " + capacity);
+    }
+    this.slowQueries = new AtomicReferenceArray<>(capacity);
+    setThresholdMillis(thresholdMillis);
+  }
+
+  @Override
+  public long getThresholdMillis() {
+    return thresholdNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+  }
+
+  @Override
+  public void setThresholdMillis(long thresholdMillis) {
+    this.thresholdNanos = toNanos(thresholdMillis);
+  }
+
+  /**
+   * Sets the threshold of a statement, overriding the global one.
+   *
+   * @param statementId the fully qualified id of the statement
+   * @param thresholdMillis the threshold, negative to never capture the statement
+   */
+  public void setThresholdMillis(String statementId, long thresholdMillis) {
+    statementThresholds.put(statementId, toNanos(thresholdMillis));
+  }
+
+  /**
+   * Makes a statement use the global threshold again.
+   *
+   * @param statementId the fully qualified id of the statement
+   */
+  public void removeThreshold(String statementId) {
+    statementThresholds.remove(statementId);
+  }
+
+  public QueryPlanExplainer getExplainer() {
+    return explainer;
+  }
+
+  /**
+   * Sets the explainer requesting the execution plan of the slow selects.
+   *
+   * @param explainer the explainer or null to capture no plan
+   */
+  public void setExplainer(QueryPlanExplainer explainer) {
+    this.explainer = explainer;
+  }
+
+  public Executor getExplainExecutor() {
+    return explainExecutor;
+  }
+
+  /**
+   * Sets the executor requesting the execution plans. The plans waiting for a thread are limited to the capacity
+   * of the detector, the selects captured beyond it are not explained.
+   *
+   * @param explainExecutor the executor, or null to use a shared pool of one thread
+   */
+  public void setExplainExecutor(Executor explainExecutor) {
+    this.explainExecutor = explainExecutor;
+  }
+
+  @Override
+  public void phaseStarted(TraceContext context, TracePhase phase) {
+    // nothing to do until the execution ends
+  }
+
+  @Override
+  public void phaseEnded(TraceContext context, TracePhase phase, long elapsedNanos) {
+    if (phase != TracePhase.EXECUTION) {
+      return;
+    }
+    Long statementThreshold = statementThresholds.get(context.getStatementId());
+    long threshold = statementThreshold == null ? thresholdNanos : statementThreshold;
+    if (threshold >= 0 && elapsedNanos >= threshold) {
+      SlowQuery slowQuery = capture(context, elapsedNanos);
+      int index = (int) (detected.getAndIncrement() % slowQueries.length());
+      slowQueries.set(index, slowQuery);
+    }
+  }
+
+  /**
+   * Returns the slow executions kept.
+   *
+   * @return the executions, newest first
+   */
+  public List<SlowQuery> getSlowQueries() {
+    List<SlowQuery> list = new ArrayList<>();
+    long last = detected.get();
+    for (long i = last - 1; i >= 0 && i >= last - slowQueries.length(); i--) {
+      SlowQuery slowQuery = slowQueries.get((int) (i % slowQueries.length()));
+      if (slowQuery != null) {
+        list.add(slowQuery);
+      }
+    }
+    return list;
+  }
+
+  @Override
+  public long getDetectedCount() {
+    return detected.get();
+  }
+
+  @Override
+  public List<String> getRecentSlowQueries() {
+    List<String> list = new ArrayList<>();
+    for (SlowQuery slowQuery : getSlowQueries()) {
+      list.add(slowQuery.toString());
+    }
+    return list;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < slowQueries.length(); i++) {
+      slowQueries.set(i, null);
+    }
+    detected.set(0);
+  }
+
+  private SlowQuery capture(TraceContext context, long elapsedNanos) {
+    MappedStatement ms = context.getMappedStatement();
+    BoundSql boundSql = context.getBoundSql();
+    List<Object> parameters = Collections.emptyList();
+    if (boundSql != null) {
+      try {
+        parameters = parameterValues(ms.getConfiguration(), boundSql);
+      } catch (RuntimeException e) {
+        // the execution most likely failed setting the same parameters
+        log.debug("Could not read the parameters of statement " + ms.getId() + ". Cause: " + e);
+      }
+    }
+    SlowQuery slowQuery = new SlowQuery(context, elapsedNanos, parameters);
+    QueryPlanExplainer currentExplainer = explainer;
+    if (currentExplainer != null && boundSql != null && parameters.size() == boundSql.getParameterMappings().size()
+        && ms.getSqlCommandType() == SqlCommandType.SELECT && ms.getStatementType() != StatementType.CALLABLE
+        && ms.getConfiguration().getEnvironment() != null) {
+      explainLater(currentExplainer, ms, boundSql, slowQuery);
+    }
+    return slowQuery;
+  }
+
+  private void explainLater(QueryPlanExplainer currentExplainer, MappedStatement ms, BoundSql boundSql,
+      SlowQuery slowQuery) {
+    if (pendingPlans.incrementAndGet() > slowQueries.length()) {
+      pendingPlans.decrementAndGet();
+      log.debug("Too many plans are waiting, statement " + ms.getId() + " is not explained.");
+      return;
+    }
+    Executor executor = explainExecutor;
+    try {
+      (executor == null ? DefaultExplainExecutor.INSTANCE : executor).execute(() -> {
+        try {
+          slowQuery.plan = explain(currentExplainer, ms, boundSql, slowQuery.getParameters());
+        } finally {
+          pendingPlans.decrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      pendingPlans.decrementAndGet();
+      log.debug("Could not explain statement " + ms.getId() + ". Cause: " + e);
+    }
+  }
+
+  private static String explain(QueryPlanExplainer currentExplainer, MappedStatement ms, BoundSql boundSql,
+      List<Object> parameters) {
+    DataSource dataSource = ms.getConfiguration().getEnvironment().getDataSource();
+    try (Connection connection = dataSource.getConnection()) {
+      return currentExplainer.explain(connection, ms, boundSql, parameters);
+    } catch (SQLException | RuntimeException e) {
+      log.warn("Could not explain statement " + ms.getId() + ". Cause: " + e);
+      return null;
+    }
+  }
+
+  private static List<Object> parameterValues(Configuration configuration, BoundSql boundSql) {
+    List<Object> values = new ArrayList<>();
+    Object parameterObject = boundSql.getParameterObject();
+    MetaObject metaObject = null;
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        // keeps the positions of the parameters that follow
+        values.add(null);
+        continue;
+      }
+      String propertyName = parameterMapping.getProperty();
+      if (boundSql.hasAdditionalParameter(propertyName)) {
+        values.add(boundSql.getAdditionalParameter(propertyName));
+      } else if (parameterObject == null) {
+        values.add(null);
+      } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+        values.add(parameterObject);
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        values.add(metaObject.getValue(propertyName));
+      }
+    }
+    return values;
+  }
+
+  private static long toNanos(long millis) {
+    return millis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  private static class DefaultExplainExecutor {
+    static final ExecutorService INSTANCE = BackgroundExecutors.newBoundedExecutor("mybatis-slow-query-explainer", 1);
+  }
+
+  /**
+   * A captured slow execution.
+   */
+  public static class SlowQuery extends TraceRecorder.Execution {
+
+    private final List<Object> parameters;
+    private final long rows;
+    private final long timestamp;
+    private volatile String plan;
+
+    SlowQuery(TraceContext context, long elapsedNanos, List<Object> parameters) {
+      super(context, elapsedNanos);
+      this.parameters = Collections.unmodifiableList(parameters);
+      this.rows = context.getRows();
+      this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the values bound to the parameters of the statement, in order.
+     *
+     * @return the values, read once the statement ran, with null for the OUT parameters
+     */
+    public List<Object> getParameters() {
+      return parameters;
+    }
+
+    /**
+     * Returns the number of rows the statement read or updated.
+     *
+     * @return the rows, excluding those read by its nested selects
+     */
+    public long getRows() {
+      return rows;
+    }
+
+    /**
+     * Returns the execution plan of the statement.
+     *
+     * @return the plan, or null if no explainer is set, the statement is not a select or its plan was not read yet
+     */
+    public String getPlan() {
+      return plan;
+    }
+
+    /**
+     * Returns when the statement ended.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder(super.toString());
+      sb.append(" parameters=").append(parameters).append(" rows=").append(rows);
+      if (plan != null) {
+        sb.append(System.lineSeparator()).append(plan);
+      }
+      return sb.toString();
+    }
+
+  }
+
+}
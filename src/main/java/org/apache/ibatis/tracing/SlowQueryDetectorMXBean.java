@@ -0,0 +1,44 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+import java.util.List;
+
+/**
+ * The slow executions captured by a {@link SlowQueryDetector} as exposed through JMX.
+ */
+public interface SlowQueryDetectorMXBean {
+
+  /**
+   * @return the global threshold in milliseconds, negative if only statement thresholds apply
+   */
+  long getThresholdMillis();
+
+  void setThresholdMillis(long thresholdMillis);
+
+  /**
+   * @return the number of slow executions captured since the start or the last clear
+   */
+  long getDetectedCount();
+
+  /**
+   * @return the slow executions kept, newest first, one line each plus their plan if any
+   */
+  List<String> getRecentSlowQueries();
+
+  void clear();
+
+}
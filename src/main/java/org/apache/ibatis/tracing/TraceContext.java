@@ -0,0 +1,249 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+import java.sql.Connection;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * The trace of one statement execution, bound to the thread running it.
+ * <p>
+ * The code running a statement only looks the current context up once it checked that a {@link TraceListener}
+ * is configured, so tracing costs nothing when none is.
+ */
+public class TraceContext {
+
+  private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+  private static final TracePhase[] PHASES = TracePhase.values();
+
+  private final TraceListener listener;
+  private final TraceContext parent;
+  private final MappedStatement mappedStatement;
+  private final TracePhase rootPhase;
+  private final long startNanos;
+  private final long[] phaseStarts = new long[PHASES.length];
+  private final long[] phaseTimes = new long[PHASES.length];
+  private BoundSql boundSql;
+  private Connection connection;
+  private long rows;
+  private boolean entered;
+  private boolean ended;
+
+  private TraceContext(TraceListener listener, TraceContext parent, MappedStatement mappedStatement, TracePhase rootPhase) {
+    this.listener = listener;
+    this.parent = parent;
+    this.mappedStatement = mappedStatement;
+    this.rootPhase = rootPhase;
+    this.startNanos = System.nanoTime();
+  }
+
+  /**
+   * Returns the execution being traced on the current thread.
+   *
+   * @return the innermost context not ended yet, or null
+   */
+  public static TraceContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Opens a context for the given statement, nested in the current one if any, and starts its root phase.
+   *
+   * @param listener the listener to report to
+   * @param ms the statement about to be executed
+   * @param rootPhase {@link TracePhase#EXECUTION} or {@link TracePhase#LAZY_LOAD}
+   * @return the new context, which must be ended by the caller
+   */
+  public static TraceContext begin(TraceListener listener, MappedStatement ms, TracePhase rootPhase) {
+    TraceContext context = new TraceContext(listener, CURRENT.get(), ms, rootPhase);
+    CURRENT.set(context);
+    context.startPhase(rootPhase);
+    return context;
+  }
+
+  /**
+   * Called by executors when they start executing a statement. The first executor entered for a statement
+   * joins the context its caller opened (e.g. to trace the building of the SQL), the others open a nested one.
+   *
+   * @param listener the listener to report to
+   * @param ms the statement about to be executed
+   * @param boundSql the SQL of the statement, or null if not built yet
+   * @return the context to end once the statement ran, or null if the caller opened it
+   */
+  public static TraceContext enter(TraceListener listener, MappedStatement ms, BoundSql boundSql) {
+    TraceContext current = CURRENT.get();
+    if (current != null && !current.entered && current.mappedStatement == ms) {
+      current.entered = true;
+      if (current.boundSql == null) {
+        current.boundSql = boundSql;
+      }
+      return null;
+    }
+    TraceContext context = begin(listener, ms, TracePhase.EXECUTION);
+    context.entered = true;
+    context.boundSql = boundSql;
+    return context;
+  }
+
+  /**
+   * Ends the phases left open by an exception, then the root phase, and restores the parent context.
+   */
+  public void end() {
+    if (ended) {
+      return;
+    }
+    ended = true;
+    try {
+      for (int i = PHASES.length - 1; i >= 0; i--) {
+        if (phaseStarts[i] != 0 && PHASES[i] != rootPhase) {
+          endPhase(PHASES[i]);
+        }
+      }
+      endPhase(rootPhase);
+    } finally {
+      if (CURRENT.get() == this) {
+        if (parent == null) {
+          CURRENT.remove();
+        } else {
+          CURRENT.set(parent);
+        }
+      }
+    }
+  }
+
+  public void startPhase(TracePhase phase) {
+    phaseStarts[phase.ordinal()] = System.nanoTime();
+    listener.phaseStarted(this, phase);
+  }
+
+  public void endPhase(TracePhase phase) {
+    endPhase(phase, 0);
+  }
+
+  /**
+   * Ends a phase started by {@link #startPhase}.
+   *
+   * @param phase the phase
+   * @param excludedNanos time spent within the phase that belongs to another one, e.g. {@link TracePhase#FETCH}
+   */
+  public void endPhase(TracePhase phase, long excludedNanos) {
+    int index = phase.ordinal();
+    if (phaseStarts[index] == 0) {
+      return;
+    }
+    long elapsed = System.nanoTime() - phaseStarts[index] - excludedNanos;
+    phaseStarts[index] = 0;
+    phaseTimes[index] += elapsed;
+    listener.phaseEnded(this, phase, elapsed);
+  }
+
+  /**
+   * Builds the SQL of the statement within a {@link TracePhase#BOUND_SQL} phase.
+   *
+   * @param parameterObject the parameter of the statement
+   * @return the SQL
+   */
+  public BoundSql buildBoundSql(Object parameterObject) {
+    startPhase(TracePhase.BOUND_SQL);
+    boundSql = mappedStatement.getBoundSql(parameterObject);
+    endPhase(TracePhase.BOUND_SQL);
+    return boundSql;
+  }
+
+  /**
+   * Reports a phase whose duration was measured by the caller, e.g. summed over several calls.
+   *
+   * @param phase the phase
+   * @param elapsedNanos its duration
+   */
+  public void recordPhase(TracePhase phase, long elapsedNanos) {
+    listener.phaseStarted(this, phase);
+    phaseTimes[phase.ordinal()] += elapsedNanos;
+    listener.phaseEnded(this, phase, elapsedNanos);
+  }
+
+  public TraceContext getParent() {
+    return parent;
+  }
+
+  public MappedStatement getMappedStatement() {
+    return mappedStatement;
+  }
+
+  public String getStatementId() {
+    return mappedStatement.getId();
+  }
+
+  public TracePhase getRootPhase() {
+    return rootPhase;
+  }
+
+  public long getStartNanos() {
+    return startNanos;
+  }
+
+  /**
+   * Returns the total time spent in a phase so far.
+   *
+   * @param phase the phase
+   * @return the sum of the durations of the ended occurrences of the phase
+   */
+  public long getPhaseTime(TracePhase phase) {
+    return phaseTimes[phase.ordinal()];
+  }
+
+  /**
+   * Returns the SQL of the statement.
+   *
+   * @return the SQL, or null until it was built
+   */
+  public BoundSql getBoundSql() {
+    return boundSql;
+  }
+
+  public void setBoundSql(BoundSql boundSql) {
+    this.boundSql = boundSql;
+  }
+
+  /**
+   * Returns the connection the statement ran on, which stays open until the context ends.
+   *
+   * @return the connection, or null if the statement did not get one (e.g. results read from a cache)
+   */
+  public Connection getConnection() {
+    return connection;
+  }
+
+  public void setConnection(Connection connection) {
+    this.connection = connection;
+  }
+
+  /**
+   * Returns the number of rows the statement read or updated.
+   *
+   * @return the rows fetched from its result sets, or its update count
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  public void addRows(long rows) {
+    this.rows += rows;
+  }
+
+}
@@ -0,0 +1,49 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+/**
+ * Receives the start and the end of each phase of the statement executions.
+ * <p>
+ * Every execution opens a {@link TraceContext} whose root phase is either {@link TracePhase#EXECUTION}
+ * or {@link TracePhase#LAZY_LOAD}; the other phases are reported within it. Statements run while another one is
+ * being executed (nested selects, lazy loads) get a context of their own whose parent is the enclosing one.
+ * A phase interrupted by an exception is ended when its context ends.
+ * <p>
+ * Listeners are called from the threads running the statements, so they must be thread safe and should not block.
+ *
+ * @see TraceRecorder
+ */
+public interface TraceListener {
+
+  /**
+   * Called when a phase starts.
+   *
+   * @param context the execution the phase belongs to
+   * @param phase the phase
+   */
+  void phaseStarted(TraceContext context, TracePhase phase);
+
+  /**
+   * Called when a phase ends.
+   *
+   * @param context the execution the phase belongs to
+   * @param phase the phase
+   * @param elapsedNanos the duration of the phase
+   */
+  void phaseEnded(TraceContext context, TracePhase phase, long elapsedNanos);
+
+}
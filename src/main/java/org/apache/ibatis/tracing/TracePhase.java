@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+/**
+ * The phases of a statement execution reported to a {@link TraceListener}.
+ */
+public enum TracePhase {
+
+  /**
+   * The whole execution of a statement by an executor, opened and closed by {@link TraceContext#begin} and {@link TraceContext#end}.
+   */
+  EXECUTION,
+
+  /**
+   * The whole execution of a statement loaded lazily, opened and closed by {@link TraceContext#begin} and {@link TraceContext#end}.
+   */
+  LAZY_LOAD,
+
+  /**
+   * Building the SQL of the statement from its parameters, e.g. evaluating dynamic SQL.
+   */
+  BOUND_SQL,
+
+  /**
+   * Getting the connection from the transaction, which checks it out of the pool on first use.
+   */
+  CONNECTION,
+
+  /**
+   * Creating the JDBC statement and applying its timeout and fetch size.
+   */
+  PREPARE,
+
+  /**
+   * Running <code>Statement.execute()</code> or <code>executeBatch()</code>.
+   */
+  EXECUTE,
+
+  /**
+   * Calling <code>ResultSet.next()</code>. Rows are fetched while they are mapped, so this phase is reported once
+   * the results are handled, with the total time spent fetching, right before the end of {@link #MAPPING}.
+   */
+  FETCH,
+
+  /**
+   * Handling the result sets of a query, not counting the time spent in {@link #FETCH}.
+   */
+  MAPPING
+
+}
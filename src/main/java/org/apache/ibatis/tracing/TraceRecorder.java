@@ -0,0 +1,184 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link TraceListener} keeping the last executions in a ring buffer, so that the slowest ones can be dumped
+ * with the time spent in each phase.
+ * <p>
+ * Only top level executions are recorded; the time of the statements they ran while mapping their results
+ * (nested selects, eager lazy loads) is part of their {@link TracePhase#MAPPING} phase.
+ */
+public class TraceRecorder implements TraceListener {
+
+  private final AtomicReferenceArray<Execution> executions;
+  private final AtomicLong recorded = new AtomicLong();
+
+  public TraceRecorder() {
+    this(1024);
+  }
+
+  /**
+   * @param capacity the number of executions kept
+   */
+  public TraceRecorder(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity must be positive but was " + capacity);
+    }
+    this.executions = new AtomicReferenceArray<>(capacity);
+  }
+
+  @Override
+  public void phaseStarted(TraceContext context, TracePhase phase) {
+    // nothing to do until the execution ends
+  }
+
+  @Override
+  public void phaseEnded(TraceContext context, TracePhase phase, long elapsedNanos) {
+    if (phase == context.getRootPhase() && context.getParent() == null) {
+      int index = (int) (recorded.getAndIncrement() % executions.length());
+      executions.set(index, new Execution(context, elapsedNanos));
+    }
+  }
+
+  /**
+   * Returns the slowest of the executions kept.
+   *
+   * @param count the maximum number of executions to return
+   * @return the executions, slowest first
+   */
+  public List<Execution> getSlowest(int count) {
+    List<Execution> list = new ArrayList<>();
+    for (int i = 0; i < executions.length(); i++) {
+      Execution execution = executions.get(i);
+      if (execution != null) {
+        list.add(execution);
+      }
+    }
+    list.sort(Comparator.comparingLong(Execution::getElapsedNanos).reversed());
+    return list.size() > count ? new ArrayList<>(list.subList(0, count)) : list;
+  }
+
+  /**
+   * Formats the slowest of the executions kept, one per line.
+   *
+   * @param count the maximum number of executions to dump
+   * @return the dump
+   */
+  public String dump(int count) {
+    StringBuilder sb = new StringBuilder();
+    for (Execution execution : getSlowest(count)) {
+      sb.append(execution).append(System.lineSeparator());
+    }
+    return sb.toString();
+  }
+
+  public void clear() {
+    for (int i = 0; i < executions.length(); i++) {
+      executions.set(i, null);
+    }
+  }
+
+  /**
+   * A recorded execution.
+   */
+  public static class Execution {
+
+    private final String statementId;
+    private final String sql;
+    private final TracePhase rootPhase;
+    private final long elapsedNanos;
+    private final Map<TracePhase, Long> phaseTimes = new EnumMap<>(TracePhase.class);
+
+    Execution(TraceContext context, long elapsedNanos) {
+      this.statementId = context.getStatementId();
+      this.sql = context.getBoundSql() == null ? null : context.getBoundSql().getSql();
+      this.rootPhase = context.getRootPhase();
+      this.elapsedNanos = elapsedNanos;
+      for (TracePhase phase : TracePhase.values()) {
+        long time = context.getPhaseTime(phase);
+        if (phase != rootPhase && time > 0) {
+          phaseTimes.put(phase, time);
+        }
+      }
+    }
+
+    public String getStatementId() {
+      return statementId;
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    public TracePhase getRootPhase() {
+      return rootPhase;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Returns the time spent in each phase other than the root one.
+     *
+     * @return the phases reported during the execution and their total durations
+     */
+    public Map<TracePhase, Long> getPhaseTimes() {
+      return Collections.unmodifiableMap(phaseTimes);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(statementId).append(' ').append(toMillis(elapsedNanos)).append("ms");
+      if (rootPhase == TracePhase.LAZY_LOAD) {
+        sb.append(" (lazy load)");
+      }
+      sb.append(" [");
+      boolean first = true;
+      for (Map.Entry<TracePhase, Long> entry : phaseTimes.entrySet()) {
+        if (!first) {
+          sb.append(", ");
+        }
+        sb.append(entry.getKey().name().toLowerCase(Locale.ENGLISH)).append('=').append(toMillis(entry.getValue())).append("ms");
+        first = false;
+      }
+      sb.append(']');
+      if (sql != null) {
+        sb.append(' ').append(sql.replaceAll("\\s+", " ").trim());
+      }
+      return sb.toString();
+    }
+
+    private static String toMillis(long nanos) {
+      return String.format(Locale.ENGLISH, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+  }
+
+}
@@ -239,7 +239,11 @@ public final class TypeHandlerRegistry {
     if (NULL_TYPE_HANDLER_MAP.equals(jdbcHandlerMap)) {
       return null;
     }
-    if (jdbcHandlerMap == null && type instanceof Class) {
+    if (jdbcHandlerMap != null) {
+      // already resolved, avoid writing to the shared map on every lookup
+      return jdbcHandlerMap;
+    }
+    if (type instanceof Class) {
       Class<?> clazz = (Class<?>) type;
       if (Enum.class.isAssignableFrom(clazz)) {
         Class<?> enumClass = clazz.isAnonymousClass() ? clazz.getSuperclass() : clazz;
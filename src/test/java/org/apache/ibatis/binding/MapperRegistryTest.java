@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
+import org.apache.ibatis.submitted.permissions.PermissionsMapper;
+import org.apache.ibatis.submitted.permissions.Resource;
+import org.junit.jupiter.api.Test;
+
+class MapperRegistryTest {
+
+  @Test
+  void shouldAddMappersOfPackageInParallel() {
+    Configuration sequential = new Configuration();
+    sequential.getTypeAliasRegistry().registerAliases("org.apache.ibatis.submitted.permissions");
+    sequential.addMappers("org.apache.ibatis.submitted.permissions");
+    Configuration parallel = new Configuration();
+    parallel.setParallelMapperParsingEnabled(true);
+    parallel.getTypeAliasRegistry().registerAliases("org.apache.ibatis.submitted.permissions");
+    parallel.addMappers("org.apache.ibatis.submitted.permissions");
+
+    assertThat(parallel.hasMapper(PermissionsMapper.class)).isTrue();
+    assertThat(parallel.hasStatement(PermissionsMapper.class.getName() + ".getResources")).isTrue();
+    assertThat(parallel.getMappedStatementNames()).containsExactlyInAnyOrderElementsOf(sequential.getMappedStatementNames());
+    assertThat(parallel.getResultMapNames()).containsExactlyInAnyOrderElementsOf(sequential.getResultMapNames());
+  }
+
+  @Test
+  void shouldParseMappersOfPackageOnBuildExecutor() {
+    Configuration configuration = new Configuration();
+    configuration.setParallelMapperParsingEnabled(true);
+    AtomicInteger tasks = new AtomicInteger();
+    configuration.setBuildExecutor(task -> {
+      tasks.incrementAndGet();
+      task.run();
+    });
+    configuration.getTypeAliasRegistry().registerAliases("org.apache.ibatis.submitted.permissions");
+    configuration.addMappers("org.apache.ibatis.submitted.permissions");
+
+    assertThat(tasks.get()).isEqualTo(1);
+    assertThat(configuration.hasStatement(PermissionsMapper.class.getName() + ".getResources")).isTrue();
+  }
+
+  @Test
+  void shouldReturnRegisteredMapperImplementation() {
+    Configuration configuration = new Configuration();
+    configuration.getTypeAliasRegistry().registerAliases("org.apache.ibatis.submitted.permissions");
+    configuration.addMapper(PermissionsMapper.class);
+    SqlSession sqlSession = new DefaultSqlSession(configuration, null);
+    assertThat(Proxy.isProxyClass(configuration.getMapper(PermissionsMapper.class, sqlSession).getClass())).isTrue();
+
+    configuration.addMapperImplementation(PermissionsMapper.class, PermissionsMapperImpl::new);
+    PermissionsMapper mapper = configuration.getMapper(PermissionsMapper.class, sqlSession);
+    assertThat(mapper).isInstanceOf(PermissionsMapperImpl.class);
+    assertThat(((PermissionsMapperImpl) mapper).sqlSession).isSameAs(sqlSession);
+  }
+
+  @Test
+  void shouldRejectImplementationOfUnknownMapper() {
+    Configuration configuration = new Configuration();
+    assertThrows(BindingException.class,
+      () -> configuration.addMapperImplementation(PermissionsMapper.class, session -> null));
+  }
+
+  static class PermissionsMapperImpl implements PermissionsMapper {
+    private final SqlSession sqlSession;
+
+    PermissionsMapperImpl(SqlSession sqlSession) {
+      this.sqlSession = sqlSession;
+    }
+
+    @Override
+    public List<Resource> getResources() {
+      return sqlSession.selectList(PermissionsMapper.class.getName() + ".getResources");
+    }
+
+    @Override
+    public List<Resource> getResource(String permission) {
+      return sqlSession.selectList(PermissionsMapper.class.getName() + ".getResource", permission);
+    }
+  }
+
+}
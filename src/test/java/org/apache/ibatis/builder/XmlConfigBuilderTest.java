@@ -18,6 +18,10 @@ package org.apache.ibatis.builder;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.math.RoundingMode;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -41,6 +45,7 @@ import org.apache.ibatis.io.JBoss6VFS;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.metrics.MetricsRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.AutoMappingBehavior;
@@ -48,6 +53,8 @@ import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.tracing.ExplainStatementExplainer;
+import org.apache.ibatis.tracing.TraceRecorder;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.EnumOrdinalTypeHandler;
@@ -56,6 +63,7 @@ import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static com.googlecode.catchexception.apis.BDDCatchException.*;
 import static org.assertj.core.api.BDDAssertions.then;
@@ -86,6 +94,16 @@ class XmlConfigBuilderTest {
       assertThat(config.getDefaultExecutorType()).isEqualTo(ExecutorType.SIMPLE);
       assertNull(config.getDefaultStatementTimeout());
       assertNull(config.getDefaultFetchSize());
+      assertNull(config.getCursorPrefetchSize());
+      assertThat(config.isParallelResultMappingEnabled()).isFalse();
+      assertThat(config.isCompactMapRowsEnabled()).isFalse();
+      assertThat(config.isGeneratedMapperImplementationsEnabled()).isFalse();
+      assertThat(config.isCompiledInterceptorChainEnabled()).isFalse();
+      assertNull(config.getMetricsCollector());
+      assertNull(config.getTraceListener());
+      assertNull(config.getStatementLogSamplingRate());
+      assertNull(config.getStatementLogThreshold());
+      assertNull(config.getSlowQueryDetector());
       assertThat(config.isMapUnderscoreToCamelCase()).isFalse();
       assertThat(config.isSafeRowBoundsEnabled()).isFalse();
       assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.SESSION);
@@ -179,6 +197,17 @@ class XmlConfigBuilderTest {
       assertThat(config.getDefaultExecutorType()).isEqualTo(ExecutorType.BATCH);
       assertThat(config.getDefaultStatementTimeout()).isEqualTo(10);
       assertThat(config.getDefaultFetchSize()).isEqualTo(100);
+      assertThat(config.getCursorPrefetchSize()).isEqualTo(50);
+      assertThat(config.isParallelResultMappingEnabled()).isTrue();
+      assertThat(config.isCompactMapRowsEnabled()).isTrue();
+      assertThat(config.isGeneratedMapperImplementationsEnabled()).isTrue();
+      assertThat(config.isCompiledInterceptorChainEnabled()).isTrue();
+      assertThat(config.getMetricsCollector()).isInstanceOf(MetricsRegistry.class);
+      assertThat(config.getTraceListener()).isInstanceOf(TraceRecorder.class);
+      assertThat(config.getStatementLogSamplingRate()).isEqualTo(10);
+      assertThat(config.getStatementLogThreshold()).isEqualTo(500);
+      assertThat(config.getSlowQueryDetector().getThresholdMillis()).isEqualTo(1000);
+      assertThat(config.getSlowQueryDetector().getExplainer()).isInstanceOf(ExplainStatementExplainer.class);
       assertThat(config.isMapUnderscoreToCamelCase()).isTrue();
       assertThat(config.isSafeRowBoundsEnabled()).isTrue();
       assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.STATEMENT);
@@ -191,6 +220,7 @@ class XmlConfigBuilderTest {
       assertThat(config.getLogImpl().getName()).isEqualTo(Slf4jImpl.class.getName());
       assertThat(config.getVfsImpl().getName()).isEqualTo(JBoss6VFS.class.getName());
       assertThat(config.getConfigurationFactory().getName()).isEqualTo(String.class.getName());
+      assertThat(config.isParallelMapperParsingEnabled()).isTrue();
 
       assertThat(config.getTypeAliasRegistry().getTypeAliases().get("blogauthor")).isEqualTo(Author.class);
       assertThat(config.getTypeAliasRegistry().getTypeAliases().get("blog")).isEqualTo(Blog.class);
@@ -299,4 +329,64 @@ class XmlConfigBuilderTest {
       .hasMessageContaining("The properties element cannot specify both a URL and a resource based property file reference.  Please specify one or the other.");
   }
 
+  @Test
+  void shouldRegisterMappersInDeclarationOrderWhenParsingInParallel() {
+    Configuration serial = new XMLConfigBuilder(new StringReader(mapperConfig(false,
+        "org/apache/ibatis/builder/AuthorMapper.xml", "org/apache/ibatis/builder/BlogMapper.xml",
+        "org/apache/ibatis/builder/NestedBlogMapper.xml"))).parse();
+    Configuration parallel = new XMLConfigBuilder(new StringReader(mapperConfig(true,
+        "org/apache/ibatis/builder/AuthorMapper.xml", "org/apache/ibatis/builder/BlogMapper.xml",
+        "org/apache/ibatis/builder/NestedBlogMapper.xml"))).parse();
+
+    assertThat(parallel.getMappedStatementNames()).containsExactlyElementsOf(serial.getMappedStatementNames());
+    assertThat(parallel.getResultMapNames()).containsExactlyElementsOf(serial.getResultMapNames());
+    assertThat(parallel.getIncompleteStatements()).isEmpty();
+    assertThat(parallel.getIncompleteResultMaps()).isEmpty();
+  }
+
+  @Test
+  void shouldFailLikeSequentialParsingWhenParsingInParallel() {
+    String[] resources = {"org/apache/ibatis/builder/AuthorMapper.xml", "a/b/c/Missing.xml", "org/apache/ibatis/builder/BlogMapper.xml"};
+
+    when(new XMLConfigBuilder(new StringReader(mapperConfig(false, resources)))).parse();
+    String serialMessage = caughtException().getMessage();
+    when(new XMLConfigBuilder(new StringReader(mapperConfig(true, resources)))).parse();
+    then(caughtException()).isInstanceOf(BuilderException.class).hasMessage(serialMessage);
+  }
+
+  @Test
+  void shouldReadMappersWithContextClassLoaderWhenParsingInParallel(@TempDir Path tempDir) throws Exception {
+    Path mapper = tempDir.resolve("context_only/AuthorMapper.xml");
+    Files.createDirectories(mapper.getParent());
+    try (InputStream in = Resources.getResourceAsStream("org/apache/ibatis/builder/AuthorMapper.xml")) {
+      Files.copy(in, mapper);
+    }
+    Thread thread = Thread.currentThread();
+    ClassLoader previous = thread.getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { tempDir.toUri().toURL() }, previous)) {
+      thread.setContextClassLoader(classLoader);
+      Configuration parallel = new XMLConfigBuilder(new StringReader(mapperConfig(true, "context_only/AuthorMapper.xml"))).parse();
+      assertThat(parallel.hasStatement("org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAllAuthors")).isTrue();
+    } finally {
+      thread.setContextClassLoader(previous);
+    }
+  }
+
+  private static String mapperConfig(boolean parallel, String... resources) {
+    StringBuilder config = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n"
+        + "  <settings>\n"
+        + "    <setting name=\"parallelMapperParsingEnabled\" value=\"" + parallel + "\"/>\n"
+        + "  </settings>\n"
+        + "  <typeAliases>\n"
+        + "    <package name=\"org.apache.ibatis.domain.blog\"/>\n"
+        + "  </typeAliases>\n"
+        + "  <mappers>\n");
+    for (String resource : resources) {
+      config.append("    <mapper resource=\"").append(resource).append("\"/>\n");
+    }
+    return config.append("  </mappers>\n</configuration>\n").toString();
+  }
+
 }
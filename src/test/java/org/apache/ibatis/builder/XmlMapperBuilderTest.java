@@ -15,10 +15,13 @@
  */
 package org.apache.ibatis.builder;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.cache.decorators.TaggedCache;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
@@ -45,6 +48,23 @@ class XmlMapperBuilderTest {
     }
   }
 
+  @Test
+  void shouldKeepTrackOfCacheTagsOnlyForNamespacesDeclaringThem() throws Exception {
+    Configuration configuration = new Configuration();
+    parseMapper(configuration, "tagged", "<update id=\"update\" cacheTags=\"author:id\">update author set bio = null</update>");
+    parseMapper(configuration, "untagged", "<update id=\"update\">update author set bio = null</update>");
+    assertThat(configuration.getCache("tagged")).isInstanceOf(TaggedCache.class);
+    assertThat(configuration.getCache("untagged")).isNotInstanceOf(TaggedCache.class);
+  }
+
+  private static void parseMapper(Configuration configuration, String namespace, String statement) {
+    String mapper = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+        + "<mapper namespace=\"" + namespace + "\"><cache/>" + statement + "</mapper>";
+    new XMLMapperBuilder(new ByteArrayInputStream(mapper.getBytes(StandardCharsets.UTF_8)), configuration, namespace,
+        configuration.getSqlFragments()).parse();
+  }
+
   @Test
   void mappedStatementWithOptions() throws Exception {
     Configuration configuration = new Configuration();
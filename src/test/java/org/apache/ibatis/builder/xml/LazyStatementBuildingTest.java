@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.ibatis.builder.IncompleteElementException;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class LazyStatementBuildingTest {
+
+  private static final String SELECT_AUTHOR = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthorWithInlineParams";
+
+  @Test
+  void shouldBuildStatementOnFirstUse() {
+    Configuration configuration = new XMLConfigBuilder(new StringReader(mapperConfig(true))).parse();
+
+    assertThat(configuration.hasStatement(SELECT_AUTHOR)).isTrue();
+    assertThat(configuration.getLazyStatement(SELECT_AUTHOR).isBuilt()).isFalse();
+    MappedStatement statement = configuration.getMappedStatement(SELECT_AUTHOR);
+    assertThat(configuration.getLazyStatement(SELECT_AUTHOR).isBuilt()).isTrue();
+    assertThat(configuration.getMappedStatement("selectAuthorWithInlineParams")).isSameAs(statement);
+
+    Configuration eager = new XMLConfigBuilder(new StringReader(mapperConfig(false))).parse();
+    assertThat(statement.getBoundSql(1).getSql()).isEqualTo(eager.getMappedStatement(SELECT_AUTHOR).getBoundSql(1).getSql());
+    assertThat(configuration.getMappedStatementNames()).containsExactlyInAnyOrderElementsOf(eager.getMappedStatementNames());
+  }
+
+  @Test
+  void shouldBuildStatementOnceWhenUsedConcurrently() throws Exception {
+    Configuration configuration = new XMLConfigBuilder(new StringReader(mapperConfig(true))).parse();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<MappedStatement>> statements = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        statements.add(executor.submit(() -> configuration.getMappedStatement(SELECT_AUTHOR)));
+      }
+      MappedStatement statement = statements.get(0).get();
+      for (Future<MappedStatement> other : statements) {
+        assertThat(other.get()).isSameAs(statement);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldBuildAllLazyStatements() {
+    Configuration configuration = new XMLConfigBuilder(new StringReader(mapperConfig(true))).parse();
+    configuration.buildLazyStatements();
+    assertThat(configuration.getLazyStatement(SELECT_AUTHOR).isBuilt()).isTrue();
+    assertThat(configuration.getLazyStatement("org.apache.ibatis.domain.blog.mappers.BlogMapper.selectAllPosts").isBuilt()).isTrue();
+  }
+
+  @Test
+  void shouldReportMissingReferencesWhenValidating() {
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementBuildingEnabled(true);
+    addMapper(configuration, "lazy.xml", "<mapper namespace=\"lazy\">\n"
+        + "  <select id=\"selectWithResultMap\" resultMap=\"other.result\">select 1</select>\n"
+        + "  <select id=\"selectWithResultType\" resultType=\"int\">select 1</select>\n"
+        + "</mapper>\n");
+
+    assertThatThrownBy(() -> configuration.getMappedStatement("lazy.selectWithResultType"))
+        .isInstanceOf(IncompleteElementException.class);
+    assertThat(configuration.getMappedStatement("lazy.selectWithResultType", false)).isNotNull();
+
+    addMapper(configuration, "other.xml", "<mapper namespace=\"other\">\n"
+        + "  <resultMap id=\"result\" type=\"int\"/>\n"
+        + "</mapper>\n");
+    assertThat(configuration.getMappedStatement("lazy.selectWithResultMap").getResultMaps().get(0).getId())
+        .isEqualTo("other.result");
+  }
+
+  @Test
+  void shouldWarmUpOnBuildExecutor() {
+    Configuration configuration = new XMLConfigBuilder(new StringReader(mapperConfig(true))).parse();
+    List<Runnable> tasks = new ArrayList<>();
+    configuration.setBuildExecutor(tasks::add);
+
+    configuration.warmUpLazyStatements();
+    assertThat(tasks).hasSize(1);
+    assertThat(configuration.getLazyStatement(SELECT_AUTHOR).isBuilt()).isFalse();
+    tasks.get(0).run();
+    assertThat(configuration.getLazyStatement(SELECT_AUTHOR).isBuilt()).isTrue();
+  }
+
+  private static void addMapper(Configuration configuration, String resource, String mapper) {
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+        + mapper;
+    new XMLMapperBuilder(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), configuration,
+        resource, configuration.getSqlFragments()).parse();
+  }
+
+  private static String mapperConfig(boolean lazy) {
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n"
+        + "  <settings>\n"
+        + "    <setting name=\"lazyStatementBuildingEnabled\" value=\"" + lazy + "\"/>\n"
+        + "  </settings>\n"
+        + "  <typeAliases>\n"
+        + "    <package name=\"org.apache.ibatis.domain.blog\"/>\n"
+        + "  </typeAliases>\n"
+        + "  <mappers>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/AuthorMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/BlogMapper.xml\"/>\n"
+        + "  </mappers>\n"
+        + "</configuration>\n";
+  }
+
+}
@@ -0,0 +1,88 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the parsing of many synthetic mapper files, each with a result map and selects and inserts with
+ * <code>selectKey</code>.
+ */
+class MapperParsingBenchmarkTest {
+
+  private static final int MAPPERS = 1000;
+  private static final int STATEMENTS = 20;
+  private static final int WARM_UP_RUNS = 4;
+
+  @Disabled("It could be useful during development.")
+  @Test
+  void parseMappers() {
+    List<byte[]> mappers = new ArrayList<>();
+    for (int i = 0; i < MAPPERS; i++) {
+      mappers.add(mapper(i).getBytes(StandardCharsets.UTF_8));
+    }
+    System.out.printf("first run: %.1f ms for %d mappers%n", parse(mappers) / 1e6, MAPPERS);
+    for (int i = 0; i < WARM_UP_RUNS; i++) {
+      parse(mappers);
+    }
+    System.out.printf("after %d warm-up runs: %.1f ms for %d mappers%n", WARM_UP_RUNS, parse(mappers) / 1e6, MAPPERS);
+  }
+
+  private long parse(List<byte[]> mappers) {
+    Configuration configuration = new Configuration();
+    long start = System.nanoTime();
+    for (int i = 0; i < mappers.size(); i++) {
+      new XMLMapperBuilder(new ByteArrayInputStream(mappers.get(i)), configuration, "mapper" + i + ".xml",
+          configuration.getSqlFragments()).parse();
+    }
+    return System.nanoTime() - start;
+  }
+
+  private String mapper(int index) {
+    StringBuilder mapper = new StringBuilder();
+    mapper.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n")
+        .append("<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n")
+        .append("<mapper namespace=\"benchmark.Mapper").append(index).append("\">\n")
+        .append("  <resultMap id=\"row\" type=\"hashmap\">\n")
+        .append("    <id property=\"id\" column=\"id\"/>\n")
+        .append("    <result property=\"name\" column=\"name\"/>\n")
+        .append("    <result property=\"value\" column=\"value\"/>\n")
+        .append("  </resultMap>\n");
+    for (int i = 0; i < STATEMENTS; i++) {
+      mapper.append("  <select id=\"select").append(i).append("\" parameterType=\"map\" resultMap=\"row\">\n")
+          .append("    select id, name, value from table").append(i).append("\n")
+          .append("    <where>\n")
+          .append("      <if test=\"name != null\">name = #{name}</if>\n")
+          .append("      <if test=\"value != null\">and value = #{value}</if>\n")
+          .append("    </where>\n")
+          .append("  </select>\n")
+          .append("  <insert id=\"insert").append(i).append("\" parameterType=\"map\">\n")
+          .append("    <selectKey keyProperty=\"id\" resultType=\"int\" order=\"BEFORE\">select next value for seq").append(i)
+          .append("</selectKey>\n")
+          .append("    insert into table").append(i).append(" (id, name, value) values (#{id}, #{name}, #{value})\n")
+          .append("  </insert>\n");
+    }
+    return mapper.append("</mapper>\n").toString();
+  }
+
+}
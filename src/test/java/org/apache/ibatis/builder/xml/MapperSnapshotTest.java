@@ -0,0 +1,118 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Properties;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MapperSnapshotTest {
+
+  private static final String CONFIG = "org/apache/ibatis/builder/MapperConfig.xml";
+  private static final String AUTHOR_MAPPER = "org/apache/ibatis/builder/AuthorMapper.xml";
+
+  @Test
+  void shouldBuildSameConfigurationFromSnapshot() throws Exception {
+    MapperSnapshot snapshot = writeSnapshot();
+
+    Configuration parsed;
+    try (InputStream inputStream = Resources.getResourceAsStream(CONFIG)) {
+      parsed = new XMLConfigBuilder(inputStream).parse();
+    }
+    Configuration restored;
+    try (InputStream inputStream = Resources.getResourceAsStream(CONFIG)) {
+      restored = new XMLConfigBuilder(inputStream, null, null, snapshot).parse();
+    }
+
+    assertThat(restored.getMappedStatementNames()).containsExactlyInAnyOrderElementsOf(parsed.getMappedStatementNames());
+    assertThat(restored.getResultMapNames()).containsExactlyInAnyOrderElementsOf(parsed.getResultMapNames());
+    String id = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthorWithInlineParams";
+    BoundSql restoredSql = restored.getMappedStatement(id).getBoundSql(1);
+    BoundSql parsedSql = parsed.getMappedStatement(id).getBoundSql(1);
+    assertThat(restoredSql.getSql()).isEqualTo(parsedSql.getSql());
+    assertThat(restoredSql.getParameterMappings()).hasSameSizeAs(parsedSql.getParameterMappings());
+  }
+
+  @Test
+  void shouldParseMapperWhenSourceChanged(@TempDir Path tempDir) throws Exception {
+    Path mapperFile = tempDir.resolve("AuthorMapper.xml");
+    try (InputStream inputStream = Resources.getResourceAsStream(AUTHOR_MAPPER)) {
+      Files.copy(inputStream, mapperFile);
+    }
+    URL source = mapperFile.toUri().toURL();
+    MapperSnapshot snapshot = writeSnapshot("<mapper url=\"" + source + "\"/>", null);
+    assertThat(snapshot.isCurrent(source.toString(), source)).isTrue();
+
+    XNode mapper = snapshot.newParser(source.toString(), null).evalNode("/mapper");
+    assertThat(mapper.getStringAttribute("namespace")).isEqualTo("org.apache.ibatis.domain.blog.mappers.AuthorMapper");
+    // documents restored from the snapshot have no doctype
+    assertThat(mapper.getNode().getOwnerDocument().getDoctype()).isNull();
+
+    String changed = new String(Files.readAllBytes(mapperFile), StandardCharsets.UTF_8)
+        .replace("mappers.AuthorMapper\"", "mappers.ChangedAuthorMapper\"");
+    FileTime lastModified = Files.getLastModifiedTime(mapperFile);
+    Files.write(mapperFile, changed.getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(mapperFile, FileTime.fromMillis(lastModified.toMillis() + 2000));
+    assertThat(snapshot.isCurrent(source.toString(), source)).isFalse();
+  }
+
+  @Test
+  void shouldResolveMapperLocationsWithVariables() throws Exception {
+    Properties variables = new Properties();
+    variables.setProperty("dir", "org/apache/ibatis/builder");
+    URL source = Resources.getResourceURL(AUTHOR_MAPPER);
+
+    MapperSnapshot snapshot = writeSnapshot("<mapper resource=\"${dir}/AuthorMapper.xml\"/>", variables);
+    assertThat(snapshot.isCurrent(AUTHOR_MAPPER, source)).isTrue();
+
+    snapshot = writeSnapshot("<mapper resource=\"${dir}/AuthorMapper.xml\"/>", null);
+    assertThat(snapshot.isCurrent("${dir}/AuthorMapper.xml", source)).isFalse();
+    assertThat(snapshot.isCurrent(AUTHOR_MAPPER, source)).isFalse();
+  }
+
+  private static MapperSnapshot writeSnapshot(String mapper, Properties variables) throws Exception {
+    String config = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n  <mappers>\n    " + mapper + "\n  </mappers>\n</configuration>\n";
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    MapperSnapshot.write(new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8)), variables, outputStream);
+    return MapperSnapshot.read(new ByteArrayInputStream(outputStream.toByteArray()));
+  }
+
+  private static MapperSnapshot writeSnapshot() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (InputStream inputStream = Resources.getResourceAsStream(CONFIG)) {
+      MapperSnapshot.write(inputStream, outputStream);
+    }
+    return MapperSnapshot.read(new ByteArrayInputStream(outputStream.toByteArray()));
+  }
+
+}
@@ -0,0 +1,119 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.LoopbackCacheInvalidationTransport;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CacheInvalidationBusTest {
+
+  @Test
+  void shouldClearRemoteCacheOnCommit() {
+    LoopbackCacheInvalidationTransport transport = new LoopbackCacheInvalidationTransport();
+    Configuration nodeA = newNode(transport);
+    Configuration nodeB = newNode(transport);
+    nodeA.getCache("users").putObject("key", "a");
+    nodeB.getCache("users").putObject("key", "b");
+
+    TransactionalCache txCache = new TransactionalCache(nodeA.getCache("users"), nodeA.getCacheInvalidationPublisher());
+    txCache.clear();
+    assertEquals("b", nodeB.getCache("users").getObject("key"));
+    txCache.commit();
+    assertNull(nodeA.getCache("users").getObject("key"));
+    assertNull(nodeB.getCache("users").getObject("key"));
+  }
+
+  @Test
+  void shouldInvalidateRemoteTags() {
+    LoopbackCacheInvalidationTransport transport = new LoopbackCacheInvalidationTransport();
+    Configuration nodeA = newNode(transport);
+    Configuration nodeB = newNode(transport);
+    TransactionalCache remote = new TransactionalCache(nodeB.getCache("users"));
+    remote.putObject("user1", "u1", Collections.singletonList("user:id:1"));
+    remote.putObject("user2", "u2", Collections.singletonList("user:id:2"));
+    remote.commit();
+
+    TransactionalCache txCache = new TransactionalCache(nodeA.getCache("users"), nodeA.getCacheInvalidationPublisher());
+    txCache.invalidate(Collections.singletonList("user:id:1"));
+    txCache.commit();
+    assertNull(nodeB.getCache("users").getObject("user1"));
+    assertEquals("u2", nodeB.getCache("users").getObject("user2"));
+  }
+
+  @Test
+  void shouldStopListeningToReplacedTransport() {
+    LoopbackCacheInvalidationTransport transport = new LoopbackCacheInvalidationTransport();
+    Configuration nodeA = newNode(transport);
+    Configuration nodeB = newNode(transport);
+    CacheInvalidationPublisher publisher = nodeB.getCacheInvalidationPublisher();
+    nodeB.setCacheInvalidationTransport(transport);
+    assertSame(publisher, nodeB.getCacheInvalidationPublisher());
+    nodeB.setCacheInvalidationTransport(new LoopbackCacheInvalidationTransport());
+    nodeB.getCache("users").putObject("key", "b");
+
+    TransactionalCache txCache = new TransactionalCache(nodeA.getCache("users"), nodeA.getCacheInvalidationPublisher());
+    txCache.clear();
+    txCache.commit();
+    assertEquals("b", nodeB.getCache("users").getObject("key"));
+  }
+
+  @Test
+  void shouldNotPublishWhenNothingWasFlushed() {
+    List<CacheInvalidation> sent = new ArrayList<>();
+    Configuration node = new Configuration();
+    node.setCacheInvalidationTransport(new CacheInvalidationTransport() {
+      @Override
+      public void send(CacheInvalidation invalidation) {
+        sent.add(invalidation);
+      }
+
+      @Override
+      public void subscribe(CacheInvalidationListener listener) {
+      }
+
+      @Override
+      public void unsubscribe(CacheInvalidationListener listener) {
+      }
+    });
+    node.addCache(new CacheBuilder("users").build());
+    TransactionalCache txCache = new TransactionalCache(node.getCache("users"), node.getCacheInvalidationPublisher());
+    txCache.putObject("key", "value");
+    txCache.commit();
+    assertTrue(sent.isEmpty());
+    txCache.clear();
+    txCache.commit();
+    assertEquals(1, sent.size());
+    assertEquals("users", sent.get(0).getCacheId());
+    assertNull(sent.get(0).getTags());
+  }
+
+  private Configuration newNode(CacheInvalidationTransport transport) {
+    Configuration configuration = new Configuration();
+    configuration.setCacheInvalidationTransport(transport);
+    configuration.addCache(new CacheBuilder("users").tagged(true).build());
+    return configuration;
+  }
+
+}
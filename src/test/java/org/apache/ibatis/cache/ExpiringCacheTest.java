@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+  @Test
+  void shouldExpireEachEntryOnItsOwn() {
+    AtomicLong clock = new AtomicLong();
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    cache.setClock(clock::get);
+    cache.setFlushInterval(500);
+    cache.putObject(0, 0);
+    clock.addAndGet(300);
+    cache.putObject(1, 1);
+    clock.addAndGet(199);
+    assertEquals(0, cache.getObject(0));
+    clock.addAndGet(1);
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getObject(1));
+    clock.addAndGet(300);
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldElectOneReaderToRefreshAhead() {
+    AtomicLong clock = new AtomicLong();
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    cache.setClock(clock::get);
+    cache.setFlushInterval(300);
+    cache.setRefreshAhead(200);
+    cache.putObject(0, 0);
+    clock.addAndGet(99);
+    assertEquals(0, cache.getObject(0));
+    clock.addAndGet(1);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getObject(0));
+    cache.putObject(0, 1);
+    assertEquals(1, cache.getObject(0));
+  }
+
+  @Test
+  void shouldKeepEntriesWithinJitter() {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    cache.setFlushInterval(60000);
+    cache.setFlushJitter(1000);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, cache.getObject(i));
+    }
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("DefaultCache"));
+    cache.putObject(0, 0);
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+  }
+
+}
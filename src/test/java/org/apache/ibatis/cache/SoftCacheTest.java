@@ -15,6 +15,12 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
@@ -73,4 +79,29 @@ class SoftCacheTest {
     assertNull(cache.getObject(4));
   }
 
-}
\ No newline at end of file
+  @Test
+  void shouldServeConcurrentHits() throws Exception {
+    SoftCache cache = new SoftCache(new PerpetualCache("default"));
+    cache.setSize(16);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10000; i++) {
+            assertEquals(i % 100, cache.getObject(i % 100));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
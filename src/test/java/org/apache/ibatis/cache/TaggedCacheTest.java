@@ -0,0 +1,169 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class TaggedCacheTest {
+
+  @Test
+  void shouldEvictOnlyEntriesOfInvalidatedTable() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("users", "u", Collections.singletonList("user"));
+    cache.putObject("orders", "o", Collections.singletonList("order"));
+    cache.invalidate(Collections.singletonList("user"));
+    assertNull(cache.getObject("users"));
+    assertEquals("o", cache.getObject("orders"));
+  }
+
+  @Test
+  void shouldEvictByKeyAndTableWideEntries() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("user1", "u1", Collections.singletonList("user:id:1"));
+    cache.putObject("user2", "u2", Collections.singletonList("user:id:2"));
+    cache.putObject("users", "u", Collections.singletonList("user"));
+    cache.invalidate(Collections.singletonList("user:id:1"));
+    assertNull(cache.getObject("user1"));
+    assertNull(cache.getObject("users"));
+    assertEquals("u2", cache.getObject("user2"));
+    cache.invalidate(Collections.singletonList("user"));
+    assertNull(cache.getObject("user2"));
+  }
+
+  @Test
+  void shouldRemoveEvictedEntries() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("users", "u", Collections.singletonList("user"));
+    cache.putObject("orders", "o", Collections.singletonList("order"));
+    cache.invalidate(Collections.singletonList("user"));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveEvictedEntriesBelowBlockingCache() {
+    Cache perpetualCache = new PerpetualCache("default");
+    TaggedCache cache = new TaggedCache(new BlockingCache(perpetualCache));
+    cache.putObject("users", "u", Collections.singletonList("user"));
+    cache.putObject("orders", "o", Collections.singletonList("order"));
+    cache.invalidate(Collections.singletonList("user"));
+    assertEquals(1, perpetualCache.getSize());
+    assertNull(perpetualCache.getObject("users"));
+    assertEquals("o", cache.getObject("orders"));
+  }
+
+  @Test
+  void shouldClearWhenEntriesWereStoredBeforeTagging() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("plain", "p");
+    cache.putObject("orders", "o", Collections.singletonList("order"));
+    cache.invalidate(Collections.singletonList("user"));
+    assertNull(cache.getObject("plain"));
+    assertNull(cache.getObject("orders"));
+    cache.putObject("orders", "o", Collections.singletonList("order"));
+    cache.putObject("plain", "p");
+    cache.invalidate(Collections.singletonList("user"));
+    assertEquals("o", cache.getObject("orders"));
+    assertNull(cache.getObject("plain"));
+  }
+
+  @Test
+  void shouldClearWhenIndexIsFull() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.setMaxIndexedKeys(1);
+    cache.putObject("orders", "o", Collections.singletonList("order"));
+    cache.putObject("users", "u", Collections.singletonList("user"));
+    cache.invalidate(Collections.singletonList("user"));
+    assertNull(cache.getObject("orders"));
+    assertNull(cache.getObject("users"));
+  }
+
+  @Test
+  void shouldInvalidateOnCommitOnly() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("users", "u", Collections.singletonList("user"));
+    cache.putObject("orders", "o", Collections.singletonList("order"));
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.invalidate(Collections.singletonList("user"));
+    assertNull(txCache.getObject("users"));
+    assertEquals("o", txCache.getObject("orders"));
+    assertEquals("u", cache.getObject("users"));
+    txCache.commit();
+    assertNull(cache.getObject("users"));
+    assertEquals("o", cache.getObject("orders"));
+  }
+
+  @Test
+  void shouldDiscardPendingEntriesAffectedByInvalidation() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.putObject("user1", "u1", Collections.singletonList("user:id:1"));
+    txCache.putObject("user2", "u2", Collections.singletonList("user:id:2"));
+    txCache.putObject("mixed", "m", Arrays.asList("user:id:1", "order"));
+    txCache.invalidate(Collections.singletonList("user:id:1"));
+    txCache.commit();
+    assertNull(cache.getObject("user1"));
+    assertNull(cache.getObject("mixed"));
+    assertEquals("u2", cache.getObject("user2"));
+  }
+
+  @Test
+  void shouldFallBackToClearWithoutTaggedDelegate() {
+    Cache cache = new PerpetualCache("default");
+    cache.putObject("users", "u");
+    cache.putObject("orders", "o");
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.invalidate(Collections.singletonList("user"));
+    txCache.commit();
+    assertNull(cache.getObject("users"));
+    assertNull(cache.getObject("orders"));
+  }
+
+  @Test
+  void shouldEvictEntriesKeyedByAnotherProperty() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    cache.putObject("byId", "u", Collections.singletonList("user:id:5"));
+    cache.putObject("byName", "u", Collections.singletonList("user:name:5"));
+    cache.putObject("otherId", "u2", Collections.singletonList("user:id:6"));
+    cache.putObject("orderById", "o", Collections.singletonList("order:id:5"));
+    cache.invalidate(Collections.singletonList("user:id:5"));
+    assertNull(cache.getObject("byId"));
+    assertNull(cache.getObject("byName"));
+    assertEquals("u2", cache.getObject("otherId"));
+    assertEquals("o", cache.getObject("orderById"));
+  }
+
+  @Test
+  void shouldDiscardPendingEntriesKeyedByAnotherProperty() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.putObject("byName", "u", Collections.singletonList("user:name:bob"));
+    txCache.putObject("otherId", "u2", Collections.singletonList("user:id:6"));
+    txCache.invalidate(Collections.singletonList("user:id:5"));
+    txCache.commit();
+    assertNull(cache.getObject("byName"));
+    assertEquals("u2", cache.getObject("otherId"));
+  }
+
+}
@@ -0,0 +1,115 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class TransactionalCacheManagerTest {
+
+  @Test
+  void shouldPublishRightAwayUntilFirstWrite() {
+    Cache cache = new PerpetualCache("default");
+    TransactionalCacheManager tcm = new TransactionalCacheManager(null, true);
+    tcm.putObject(cache, key(1), "one", null);
+    assertEquals("one", cache.getObject(key(1)));
+    tcm.markDirty();
+    tcm.putObject(cache, key(2), "two", null);
+    assertNull(cache.getObject(key(2)));
+    tcm.commit();
+    assertEquals("two", cache.getObject(key(2)));
+    tcm.putObject(cache, key(3), "three", null);
+    assertEquals("three", cache.getObject(key(3)));
+  }
+
+  @Test
+  void shouldBufferUntilCommitByDefault() {
+    Cache cache = new PerpetualCache("default");
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    tcm.putObject(cache, key(1), "one", null);
+    assertNull(cache.getObject(key(1)));
+    tcm.commit();
+    assertEquals("one", cache.getObject(key(1)));
+  }
+
+  @Test
+  void shouldBufferAfterFlushEvenIfNotDirty() {
+    Cache cache = new PerpetualCache("default");
+    TransactionalCacheManager tcm = new TransactionalCacheManager(null, true);
+    tcm.clear(cache);
+    tcm.putObject(cache, key(1), "one", null);
+    assertNull(cache.getObject(key(1)));
+    tcm.commit();
+    assertEquals("one", cache.getObject(key(1)));
+  }
+
+  @Test
+  void shouldPutAllEntriesWithOneCallOnCommit() {
+    CountingCache counting = new CountingCache();
+    Cache cache = new TaggedCache(new SynchronizedCache(counting));
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    for (int i = 0; i < 10; i++) {
+      assertNull(tcm.getObject(cache, key(i)));
+      tcm.putObject(cache, key(i), i, i % 2 == 0 ? Collections.singletonList("user") : null);
+    }
+    assertNull(tcm.getObject(cache, key(10)));
+    tcm.commit();
+    assertEquals(1, counting.bulkPuts);
+    assertEquals(11, counting.getSize());
+    assertEquals(3, cache.getObject(key(3)));
+  }
+
+  @Test
+  void shouldReleaseBlockingLocksOnCommit() {
+    Cache cache = new TaggedCache(new BlockingCache(new PerpetualCache("default")));
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    assertNull(tcm.getObject(cache, key(1)));
+    tcm.putObject(cache, key(1), "one", Collections.singletonList("user"));
+    tcm.commit();
+    tcm.invalidate(cache, Collections.singletonList("user"));
+    tcm.commit();
+    assertNull(cache.getObject(key(1)));
+  }
+
+  private static CacheKey key(int id) {
+    CacheKey key = new CacheKey();
+    key.update(id);
+    return key;
+  }
+
+  private static class CountingCache extends PerpetualCache {
+    private int bulkPuts;
+
+    CountingCache() {
+      super("default");
+    }
+
+    @Override
+    public void putObjects(Map<Object, Object> entries) {
+      bulkPuts++;
+      super.putObjects(entries);
+    }
+  }
+
+}
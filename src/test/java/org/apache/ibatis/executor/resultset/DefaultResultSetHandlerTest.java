@@ -17,7 +17,11 @@ package org.apache.ibatis.executor.resultset;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
@@ -31,6 +35,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.executor.Executor;
@@ -87,7 +92,7 @@ class DefaultResultSetHandlerTest {
     when(rs.getMetaData()).thenReturn(rsmd);
     when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
     when(rs.next()).thenReturn(true).thenReturn(false);
-    when(rs.getInt("CoLuMn1")).thenReturn(100);
+    when(rs.getInt(1)).thenReturn(100);
     when(rsmd.getColumnCount()).thenReturn(1);
     when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
     when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
@@ -129,6 +134,89 @@ class DefaultResultSetHandlerTest {
     }
   }
 
+  @Test
+  void shouldReadColumnsByIndex() throws Exception {
+    final Configuration config = new Configuration();
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    final ResultMap resultMap = new ResultMap.Builder(config, "testMap", HashMap.class, Collections.singletonList(
+        new ResultMapping.Builder(config, "id", "ID", registry.getTypeHandler(Integer.class)).build())).build();
+    final MappedStatement ms = new MappedStatement.Builder(config, "testSelect",
+        new StaticSqlSource(config, "some select statement"), SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(resultMap)).build();
+    final DefaultResultSetHandler resultSetHandler = new DefaultResultSetHandler(null/*executor*/, ms,
+        null/*parameterHandler*/, null/*resultHandler*/, null/*boundSql*/, new RowBounds(0, 100));
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(false);
+    when(rs.getInt(1)).thenReturn(100);
+    when(rs.getString(2)).thenReturn("jim");
+    when(rsmd.getColumnCount()).thenReturn(2);
+    when(rsmd.getColumnLabel(1)).thenReturn("id");
+    when(rsmd.getColumnLabel(2)).thenReturn("name");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getName());
+    when(rsmd.getColumnClassName(2)).thenReturn(String.class.getName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final List<Object> results = resultSetHandler.handleResultSets(stmt);
+    assertEquals(1, results.size());
+    assertEquals(100, ((Map) results.get(0)).get("id"));
+    assertEquals("jim", ((Map) results.get(0)).get("name"));
+    verify(rs, never()).getInt(anyString());
+    verify(rs, never()).getString(anyString());
+  }
+
+  @Test
+  void shouldResolveUnknownTypeHandlerOncePerColumn() throws Exception {
+    final Configuration config = new Configuration();
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    final ResultMap resultMap = new ResultMap.Builder(config, "testMap", HashMap.class, Collections.singletonList(
+        new ResultMapping.Builder(config, "value", "VALUE", registry.getUnknownTypeHandler()).build())).build();
+    final MappedStatement ms = new MappedStatement.Builder(config, "testSelect",
+        new StaticSqlSource(config, "some select statement"), SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(resultMap)).build();
+    final DefaultResultSetHandler resultSetHandler = new DefaultResultSetHandler(null/*executor*/, ms,
+        null/*parameterHandler*/, null/*resultHandler*/, null/*boundSql*/, new RowBounds(0, 100));
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+    when(rs.getInt(1)).thenReturn(1).thenReturn(2);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("value");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final List<Object> results = resultSetHandler.handleResultSets(stmt);
+    assertEquals(2, results.size());
+    assertEquals(1, ((Map) results.get(0)).get("value"));
+    assertEquals(2, ((Map) results.get(1)).get("value"));
+    verify(rs, times(1)).getMetaData();
+  }
+
+  @Test
+  void shouldResolveFirstColumnWithNameIgnoringCase() throws Exception {
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rsmd.getColumnCount()).thenReturn(3);
+    when(rsmd.getColumnLabel(1)).thenReturn("ID");
+    when(rsmd.getColumnLabel(2)).thenReturn("name");
+    when(rsmd.getColumnLabel(3)).thenReturn("Id");
+
+    final ResultSetWrapper rsw = new ResultSetWrapper(rs, new Configuration());
+    assertEquals(1, rsw.getColumnIndex("id"));
+    assertEquals(2, rsw.getColumnIndex("NAME"));
+    assertEquals(0, rsw.getColumnIndex("missing"));
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the mapping of a wide table to maps, either automatically (<code>resultType="map"</code>) or with
+ * explicit mappings that read the columns through the UnknownTypeHandler.
+ */
+class MapResultBenchmarkTest {
+
+  private static final int COLUMNS = 80;
+  private static final int ROWS = 1000;
+  private static final int ITERATIONS = 200;
+
+  @Disabled("It could be useful during development.")
+  @Test
+  void mapWideRows() throws Exception {
+    UnpooledDataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:map_result_benchmark", "sa", "");
+    StringBuilder columns = new StringBuilder();
+    StringBuilder placeholders = new StringBuilder();
+    for (int i = 1; i <= COLUMNS; i++) {
+      columns.append(i == 1 ? "" : ", ").append("c").append(i).append(i % 2 == 0 ? " int" : " varchar(20)");
+      placeholders.append(i == 1 ? "?" : ", ?");
+    }
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("drop table wide if exists");
+      statement.execute("create table wide (" + columns + ")");
+      try (PreparedStatement insert = connection.prepareStatement("insert into wide values (" + placeholders + ")")) {
+        for (int row = 0; row < ROWS; row++) {
+          for (int i = 1; i <= COLUMNS; i++) {
+            insert.setObject(i, i % 2 == 0 ? (Object) row : "value " + row);
+          }
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      }
+    }
+
+    Configuration configuration = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+    List<ResultMapping> mappings = new ArrayList<>();
+    for (int i = 1; i <= COLUMNS; i++) {
+      mappings.add(new ResultMapping.Builder(configuration, "c" + i, "C" + i,
+          configuration.getTypeHandlerRegistry().getUnknownTypeHandler()).build());
+    }
+    addSelect(configuration, "selectAutoMapped", Collections.emptyList());
+    addSelect(configuration, "selectMapped", mappings);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+    for (String statement : new String[] { "selectAutoMapped", "selectMapped" }) {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        for (int i = 0; i < ITERATIONS; i++) {
+          sqlSession.selectList(statement);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+          sqlSession.selectList(statement);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s: %.3f ms per %d rows of %d columns%n", statement, elapsed / 1e6 / ITERATIONS, ROWS, COLUMNS);
+      }
+    }
+  }
+
+  private void addSelect(Configuration configuration, String id, List<ResultMapping> mappings) {
+    ResultMap resultMap = new ResultMap.Builder(configuration, id + "-Inline", HashMap.class, mappings).build();
+    configuration.addMappedStatement(new MappedStatement.Builder(configuration, id,
+        new StaticSqlSource(configuration, "select * from wide"), SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(resultMap)).useCache(false).flushCacheRequired(true).build());
+  }
+
+}
@@ -0,0 +1,82 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class DefaultVFSTest {
+
+  @Test
+  void shouldListJarEntriesOfPackage() throws Exception {
+    File jar = File.createTempFile("mybatis-vfs", ".jar");
+    try {
+      writeJar(jar, "org/example/A.class", "org/example/sub/B.class", "org/other/C.class");
+      URL url = new URL("jar:" + jar.toURI().toURL() + "!/org/example");
+      DefaultVFS vfs = new DefaultVFS();
+
+      assertThat(vfs.list(url, "org/example")).containsExactlyInAnyOrder("org/example/A.class", "org/example/sub/B.class");
+      assertThat(vfs.list(url, "org/other")).containsExactly("org/other/C.class");
+
+      writeJar(jar, "org/example/A.class", "org/example/D.class");
+      assertThat(jar.setLastModified(jar.lastModified() + 2000)).isTrue();
+      assertThat(vfs.list(url, "org/example")).containsExactlyInAnyOrder("org/example/A.class", "org/example/D.class");
+    } finally {
+      jar.delete();
+    }
+  }
+
+  @Test
+  void shouldListDirectoryRecursively() throws Exception {
+    Path root = Files.createTempDirectory("mybatis-vfs");
+    Path pkg = Files.createDirectories(root.resolve("org/example/sub"));
+    Files.createFile(root.resolve("org/example/A.class"));
+    Files.createFile(pkg.resolve("B.class"));
+    try {
+      DefaultVFS vfs = new DefaultVFS();
+      assertThat(vfs.list(root.resolve("org/example").toUri().toURL(), "org/example"))
+          .containsExactly("org/example/A.class", "org/example/sub", "org/example/sub/B.class");
+    } finally {
+      Files.delete(pkg.resolve("B.class"));
+      Files.delete(root.resolve("org/example/A.class"));
+      Files.delete(pkg);
+      Files.delete(root.resolve("org/example"));
+      Files.delete(root.resolve("org"));
+      Files.delete(root);
+    }
+  }
+
+  private static void writeJar(File file, String... entries) throws IOException {
+    try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file))) {
+      for (String entry : entries) {
+        jar.putNextEntry(new JarEntry(entry));
+        jar.write(new byte[] { 1, 2, 3 });
+        jar.closeEntry();
+      }
+    }
+  }
+
+}
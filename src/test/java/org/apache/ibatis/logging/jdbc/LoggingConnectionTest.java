@@ -0,0 +1,87 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.apache.ibatis.logging.Log;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class LoggingConnectionTest {
+
+  @Mock
+  Connection connection;
+
+  @Mock
+  PreparedStatement preparedStatement;
+
+  @Mock
+  CallableStatement callableStatement;
+
+  @Mock
+  Log log;
+
+  @Test
+  void shouldPrintPrepareStatement() throws SQLException {
+    when(log.isDebugEnabled()).thenReturn(true);
+    when(connection.prepareStatement("select 1")).thenReturn(preparedStatement);
+    Connection conn = new LoggingConnection(connection, log, 1, LogSampling.ALL);
+    PreparedStatement ps = conn.prepareStatement("select 1");
+    verify(log).debug(contains("Preparing: select 1"));
+    Assertions.assertTrue(ps instanceof LoggingPreparedStatement);
+  }
+
+  @Test
+  void shouldPrintPrepareCall() throws SQLException {
+    when(log.isDebugEnabled()).thenReturn(true);
+    when(connection.prepareCall("{ call test() }")).thenReturn(callableStatement);
+    Connection conn = new LoggingConnection(connection, log, 1, LogSampling.ALL);
+    CallableStatement cs = conn.prepareCall("{ call test() }");
+    verify(log).debug(contains("Preparing: { call test() }"));
+    Assertions.assertSame(callableStatement, ((LoggingCallableStatement) cs).getCallableStatement());
+  }
+
+  @Test
+  void shouldNotPrintCreateStatement() throws SQLException {
+    Connection conn = new LoggingConnection(connection, log, 1, LogSampling.ALL);
+    conn.createStatement();
+    conn.close();
+    verify(log, times(0)).debug(anyString());
+    verify(connection).close();
+  }
+
+  @Test
+  void shouldDeferPrepareStatementWhenSampling() throws SQLException {
+    Connection conn = new LoggingConnection(connection, log, 1, new LogSampling(10, null));
+    conn.prepareStatement("select 1");
+    verify(log, times(0)).debug(anyString());
+  }
+
+}
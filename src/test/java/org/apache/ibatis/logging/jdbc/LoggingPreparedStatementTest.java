@@ -0,0 +1,184 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class LoggingPreparedStatementTest {
+
+  private static final String SQL = "select * from test where id = ?";
+
+  @Mock
+  Log log;
+
+  @Mock
+  PreparedStatement preparedStatement;
+
+  @Mock
+  ResultSet resultSet;
+
+  private PreparedStatement newStatement(LogSampling sampling) {
+    return new LoggingPreparedStatement(preparedStatement, SQL, log, 1, sampling);
+  }
+
+  @Test
+  void shouldPrintParameters() throws SQLException {
+    when(log.isDebugEnabled()).thenReturn(true);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+    PreparedStatement ps = newStatement(LogSampling.ALL);
+    ps.setInt(1, 10);
+    ps.setString(2, "a");
+    ResultSet rs = ps.executeQuery();
+
+    verify(log).debug(contains("Parameters: 10(Integer), a(String)"));
+    verify(log, times(0)).debug(contains("Preparing"));
+    Assertions.assertTrue(rs instanceof LoggingResultSet);
+  }
+
+  @Test
+  void shouldPrintNullParameters() throws SQLException {
+    when(log.isDebugEnabled()).thenReturn(true);
+    when(preparedStatement.execute(anyString())).thenReturn(true);
+
+    PreparedStatement ps = newStatement(LogSampling.ALL);
+    ps.setNull(1, JdbcType.VARCHAR.TYPE_CODE);
+    boolean result = ps.execute("update name = ? from test");
+
+    verify(log).debug(contains("Parameters: null"));
+    Assertions.assertTrue(result);
+  }
+
+  @Test
+  void shouldClearParametersAfterExecution() throws SQLException {
+    when(log.isDebugEnabled()).thenReturn(true);
+
+    PreparedStatement ps = newStatement(LogSampling.ALL);
+    ps.setInt(1, 10);
+    ps.execute();
+    ps.setInt(2, 20);
+    ps.execute();
+
+    verify(log).debug(contains("Parameters: 10(Integer)"));
+    verify(log).debug(contains("Parameters: 20(Integer)"));
+  }
+
+  @Test
+  void shouldPrintUpdateCount() throws SQLException {
+    when(log.isDebugEnabled()).thenReturn(true);
+    when(preparedStatement.getUpdateCount()).thenReturn(1);
+
+    newStatement(LogSampling.ALL).getUpdateCount();
+
+    verify(log).debug(contains("Updates: 1"));
+  }
+
+  @Test
+  void shouldNotLogExecutionsLeftOutOfTheSample() throws SQLException {
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+    when(preparedStatement.getUpdateCount()).thenReturn(1);
+
+    PreparedStatement ps = newStatement(new LogSampling(Integer.MAX_VALUE, null));
+    ps.setInt(1, 10);
+    ResultSet rs = ps.executeQuery();
+    ps.getUpdateCount();
+
+    verify(log, times(0)).debug(anyString());
+    Assertions.assertSame(resultSet, rs);
+  }
+
+  @Test
+  void shouldLogSampledExecutionsWithTheirSql() throws SQLException {
+    when(log.isDebugEnabled()).thenReturn(true);
+
+    PreparedStatement ps = newStatement(new LogSampling(1, null));
+    ps.setInt(1, 10);
+    ps.execute();
+
+    verify(log).debug(contains("Preparing: " + SQL));
+    verify(log).debug(contains("Parameters: 10(Integer)"));
+  }
+
+  @Test
+  void shouldLogSlowExecutionsOnceTheyRan() throws SQLException {
+    when(log.isDebugEnabled()).thenReturn(true);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+    PreparedStatement ps = newStatement(new LogSampling(null, 0));
+    ps.setLong(1, 10L);
+    ResultSet rs = ps.executeQuery();
+
+    verify(log).debug(contains("Preparing: " + SQL));
+    verify(log).debug(contains("Parameters: 10(Long)"));
+    verify(log).debug(contains("Time: "));
+    Assertions.assertTrue(rs instanceof LoggingResultSet);
+  }
+
+  @Test
+  void shouldNotLogFastExecutions() throws SQLException {
+    PreparedStatement ps = newStatement(new LogSampling(null, 60000));
+    ps.setLong(1, 10L);
+    ps.executeUpdate();
+
+    verify(log, times(0)).debug(anyString());
+  }
+
+  @Test
+  void shouldLogSlowBatchesOnceTheyRan() throws SQLException {
+    when(log.isDebugEnabled()).thenReturn(true);
+
+    PreparedStatement ps = newStatement(new LogSampling(null, 0));
+    ps.setLong(1, 10L);
+    ps.addBatch();
+    ps.setLong(1, 20L);
+    ps.addBatch();
+    verify(log, times(0)).debug(anyString());
+
+    ps.executeBatch();
+
+    verify(log).debug(contains("Executing: " + SQL));
+    verify(log).debug(contains("Batch: 2 statements"));
+    verify(log).debug(contains("Time: "));
+  }
+
+  @Test
+  void shouldNotLogFastBatches() throws SQLException {
+    PreparedStatement ps = newStatement(new LogSampling(null, 60000));
+    ps.setLong(1, 10L);
+    ps.addBatch();
+    ps.executeBatch();
+
+    verify(log, times(0)).debug(anyString());
+  }
+
+}
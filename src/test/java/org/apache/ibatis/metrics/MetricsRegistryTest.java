@@ -0,0 +1,149 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class MetricsRegistryTest {
+
+  private static final String SELECT_AUTHORS = AuthorMapper.class.getName() + ".selectAuthors";
+  private static final String UPDATE_BIO = AuthorMapper.class.getName() + ".updateBio";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    DataSource dataSource = BaseDataTest.createBlogDataSource();
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(AuthorMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  void shouldComputeQuantilesWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(1000, snapshot.getCount());
+    assertEquals(1000000L, snapshot.getMax());
+    assertEquals(500500.0, snapshot.getMean(), 0.001);
+    assertEquals(500000.0, snapshot.getValueAtQuantile(0.5), 500000.0 / 16);
+    assertEquals(990000.0, snapshot.getValueAtQuantile(0.99), 990000.0 / 16);
+    histogram.reset();
+    assertEquals(0, histogram.snapshot().getCount());
+  }
+
+  @Test
+  void shouldRecordExecutionsRowsAndLocalCacheAccesses() {
+    MetricsRegistry registry = new MetricsRegistry();
+    sqlSessionFactory.getConfiguration().setMetricsCollector(registry);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      assertEquals(2, mapper.selectAuthors().size());
+      assertEquals(2, mapper.selectAuthors().size());
+    } finally {
+      sqlSessionFactory.getConfiguration().setMetricsCollector(null);
+    }
+    StatementMetricsSnapshot snapshot = registry.getSnapshot(SELECT_AUTHORS);
+    assertEquals(1, snapshot.getExecutions());
+    assertEquals(0, snapshot.getFailures());
+    assertEquals(1, snapshot.getJdbcExecutions());
+    assertEquals(2, snapshot.getRows());
+    assertEquals(1, snapshot.getLocalCacheHits());
+    assertEquals(1, snapshot.getLocalCacheMisses());
+    assertEquals(0.5, snapshot.getLocalCacheHitRatio(), 0.001);
+    assertEquals(1, snapshot.getExecutionTimes().getCount());
+    assertTrue(snapshot.getExecutionTimes().getMax() >= snapshot.getJdbcTime());
+  }
+
+  @Test
+  void shouldRecordBatches() {
+    MetricsRegistry registry = new MetricsRegistry();
+    sqlSessionFactory.getConfiguration().setMetricsCollector(registry);
+    try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      mapper.updateBio(101, "one");
+      mapper.updateBio(102, "two");
+      mapper.updateBio(101, "three");
+      session.flushStatements();
+      session.rollback();
+    } finally {
+      sqlSessionFactory.getConfiguration().setMetricsCollector(null);
+    }
+    StatementMetricsSnapshot snapshot = registry.getSnapshot(UPDATE_BIO);
+    assertEquals(3, snapshot.getExecutions());
+    assertEquals(1, snapshot.getBatches());
+    assertEquals(3, snapshot.getBatchedStatements());
+    assertEquals(1, snapshot.getJdbcExecutions());
+  }
+
+  @Test
+  void shouldExportStatementsToJmx() throws Exception {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.getStatementMetrics(SELECT_AUTHORS).recordExecution(2000000L, false);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    JmxMetricsExporter exporter = new JmxMetricsExporter(registry, server, "org.mybatis.test");
+    exporter.start();
+    try {
+      ObjectName existing = exporter.getObjectName(SELECT_AUTHORS);
+      assertEquals(1L, server.getAttribute(existing, "Executions"));
+      registry.getStatementMetrics(UPDATE_BIO);
+      assertTrue(server.isRegistered(exporter.getObjectName(UPDATE_BIO)));
+      server.invoke(existing, "reset", null, null);
+      assertEquals(0L, server.getAttribute(existing, "Executions"));
+    } finally {
+      exporter.stop();
+    }
+    assertFalse(server.isRegistered(exporter.getObjectName(SELECT_AUTHORS)));
+    List<StatementMetricsSnapshot> snapshots = registry.getSnapshots();
+    assertEquals(2, snapshots.size());
+  }
+
+  interface AuthorMapper {
+
+    @Select("select id, username from author order by id")
+    List<Map<String, Object>> selectAuthors();
+
+    @Update("update author set bio = #{bio} where id = #{id}")
+    int updateBio(@Param("id") int id, @Param("bio") String bio);
+
+  }
+
+}
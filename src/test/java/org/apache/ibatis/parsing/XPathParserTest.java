@@ -16,8 +16,13 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.ibatis.io.Resources;
 import org.junit.jupiter.api.Test;
@@ -44,4 +49,23 @@ class XPathParserTest {
     }
   }
 
+  @Test
+  void shouldSelectElementsByNameWithoutXPath() throws Exception {
+    String resource = "resources/nodelet_test.xml";
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      XPathParser parser = new XPathParser(inputStream, false, null, null);
+      XNode employee = parser.evalNode("/employee");
+      assertEquals("employee", employee.getName());
+      assertEquals(3, employee.evalNodes("birth_date/*").size());
+      assertEquals(3, parser.evalNodes("/employee/birth_date/*").size());
+      assertEquals("1970", employee.evalNode("birth_date/year").getStringBody());
+      assertEquals("6", employee.evalNode("/employee/birth_date/month").getStringBody());
+      List<XNode> names = employee.evalNodes("last_name|first_name|height");
+      assertEquals(Arrays.asList("first_name", "last_name", "height"),
+          names.stream().map(XNode::getName).collect(Collectors.toList()));
+      assertNull(employee.evalNode("missing"));
+      assertTrue(employee.evalNodes("birth_date/missing").isEmpty());
+    }
+  }
+
 }
@@ -0,0 +1,241 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+class InterceptorChainTest {
+
+  @Test
+  void shouldRunInterceptorsInTheOrderOfPluginProxies() throws SQLException {
+    for (boolean compiled : new boolean[] { false, true }) {
+      List<String> calls = new ArrayList<>();
+      InterceptorChain chain = newChain(compiled, new RecordingInterceptor("first", calls),
+          new RecordingInterceptor("second", calls));
+      Executor target = mock(Executor.class);
+      when(target.update(null, "parameter")).thenAnswer(invocation -> {
+        calls.add("target");
+        return 1;
+      });
+      Executor executor = (Executor) chain.pluginAll(target);
+      assertEquals(compiled, !Proxy.isProxyClass(executor.getClass()));
+      assertEquals(1, executor.update(null, "parameter"));
+      assertEquals(Arrays.asList("second", "first", "target"), calls);
+    }
+  }
+
+  @Test
+  void shouldApplyCompiledInterceptorsToSessions() throws Exception {
+    List<String> calls = new ArrayList<>();
+    Configuration configuration = new Configuration(
+        new Environment("test", new JdbcTransactionFactory(), BaseDataTest.createBlogDataSource()));
+    configuration.setCompiledInterceptorChainEnabled(true);
+    configuration.addInterceptor(new RecordingInterceptor("executor", calls));
+    configuration.addInterceptor(new PrepareInterceptor(calls));
+    configuration.addMapper(AuthorMapper.class);
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      assertEquals("jim", mapper.selectUsername(101));
+      assertEquals(1, mapper.updateBio(101, "bio"));
+      session.rollback(true);
+    }
+    assertEquals(Arrays.asList("prepare", "executor", "prepare"), calls);
+  }
+
+  @Test
+  void shouldCallUninterceptedMethodsOnTheTarget() {
+    List<String> calls = new ArrayList<>();
+    InterceptorChain chain = newChain(true, new RecordingInterceptor("first", calls));
+    Executor target = mock(Executor.class);
+    when(target.isClosed()).thenReturn(true);
+    Executor executor = (Executor) chain.pluginAll(target);
+    assertTrue(executor.isClosed());
+    assertTrue(calls.isEmpty());
+    assertEquals(target.toString(), executor.toString());
+  }
+
+  @Test
+  void shouldNotWrapTargetsNoInterceptorApplies() {
+    InterceptorChain chain = newChain(true, new RecordingInterceptor("first", new ArrayList<>()));
+    StatementHandler target = mock(StatementHandler.class);
+    assertSame(target, chain.pluginAll(target));
+  }
+
+  @Test
+  void shouldThrowWhatPluginProxiesThrow() {
+    for (boolean compiled : new boolean[] { false, true }) {
+      Executor executor = (Executor) newChain(compiled, new FailingInterceptor()).pluginAll(mock(Executor.class));
+      assertThrows(SQLException.class, () -> executor.update(null, null));
+      UndeclaredThrowableException e = assertThrows(UndeclaredThrowableException.class,
+          () -> executor.createCacheKey(null, null, null, null));
+      assertTrue(e.getUndeclaredThrowable() instanceof SQLException);
+      assertThrows(IllegalStateException.class, () -> executor.clearLocalCache());
+    }
+  }
+
+  @Test
+  void shouldFailWithoutInterceptsAnnotation() {
+    InterceptorChain chain = newChain(true, new Interceptor() {
+      @Override
+      public Object intercept(Invocation invocation) throws Throwable {
+        return invocation.proceed();
+      }
+
+      @Override
+      public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+      }
+
+      @Override
+      public void setProperties(Properties properties) {
+      }
+    });
+    assertThrows(PluginException.class, () -> chain.pluginAll(mock(Executor.class)));
+  }
+
+  interface AuthorMapper {
+
+    @Select("select username from author where id = #{id}")
+    String selectUsername(int id);
+
+    @Update("update author set bio = #{bio} where id = #{id}")
+    int updateBio(@Param("id") int id, @Param("bio") String bio);
+
+  }
+
+  private static InterceptorChain newChain(boolean compiled, Interceptor... interceptors) {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setCompiled(compiled);
+    for (Interceptor interceptor : interceptors) {
+      chain.addInterceptor(interceptor);
+    }
+    return chain;
+  }
+
+  @Intercepts({
+      @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }) })
+  private static class RecordingInterceptor implements Interceptor {
+
+    private final String name;
+    private final List<String> calls;
+
+    RecordingInterceptor(String name, List<String> calls) {
+      this.name = name;
+      this.calls = calls;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.add(name);
+      assertTrue(invocation.getTarget() instanceof Executor);
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+  @Intercepts({
+      @Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }) })
+  private static class PrepareInterceptor implements Interceptor {
+
+    private final List<String> calls;
+
+    PrepareInterceptor(List<String> calls) {
+      this.calls = calls;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      calls.add("prepare");
+      StatementHandler statementHandler = (StatementHandler) invocation.getTarget();
+      assertNotNull(statementHandler.getBoundSql());
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+  @Intercepts({
+      @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+      @Signature(type = Executor.class, method = "createCacheKey", args = { MappedStatement.class,
+          Object.class, RowBounds.class, BoundSql.class }),
+      @Signature(type = Executor.class, method = "clearLocalCache", args = {}) })
+  private static class FailingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      if (invocation.getMethod().getName().equals("clearLocalCache")) {
+        throw new IllegalStateException();
+      }
+      throw new SQLException();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+}
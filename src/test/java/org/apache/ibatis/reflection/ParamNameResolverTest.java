@@ -0,0 +1,71 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+class ParamNameResolverTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldPutNamesAndGenericNames() throws Exception {
+    ParamNameResolver resolver = resolver("select", Integer.class, RowBounds.class, String.class);
+    Object params = resolver.getNamedParams(new Object[] { 1, RowBounds.DEFAULT, "a" });
+    assertThat(params).isInstanceOf(ParamMap.class);
+    assertThat((Map<String, Object>) params).hasSize(4)
+      .containsEntry("id", 1).containsEntry("param1", 1)
+      .containsEntry("name", "a").containsEntry("param2", "a");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldNotOverrideParamNamedLikeGenericName() throws Exception {
+    ParamNameResolver resolver = resolver("selectGeneric", String.class, String.class);
+    Map<String, Object> params = (Map<String, Object>) resolver.getNamedParams(new Object[] { "a", "b" });
+    assertThat(params).hasSize(3)
+      .containsEntry("param2", "a").containsEntry("param1", "a").containsEntry("name", "b");
+  }
+
+  @Test
+  void shouldReturnSingleUnannotatedParam() throws Exception {
+    ParamNameResolver resolver = resolver("selectOne", RowBounds.class, Integer.class);
+    assertThat(resolver.getNamedParams(new Object[] { RowBounds.DEFAULT, 1 })).isEqualTo(1);
+    assertThat(resolver.getNamedParams(null)).isNull();
+  }
+
+  private ParamNameResolver resolver(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+    Method method = Mapper.class.getMethod(name, parameterTypes);
+    return new ParamNameResolver(new Configuration(), method);
+  }
+
+  interface Mapper {
+    void select(@Param("id") Integer id, RowBounds rowBounds, @Param("name") String name);
+
+    void selectGeneric(@Param("param2") String first, @Param("name") String second);
+
+    void selectOne(RowBounds rowBounds, Integer id);
+  }
+
+}
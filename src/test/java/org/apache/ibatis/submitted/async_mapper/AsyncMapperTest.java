@@ -0,0 +1,128 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncMapperTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_mapper/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/async_mapper/CreateDB.sql");
+  }
+
+  @Test
+  void shouldMapTheTypeTheFutureCompletesWith() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("User1", mapper.getUser(1).get().getName());
+      assertTrue(mapper.findUser(2).get().isPresent());
+      assertFalse(mapper.findUser(3).get().isPresent());
+      List<User> users = mapper.getUsers().toCompletableFuture().get();
+      assertThat(users).extracting(User::getName).containsExactly("User1", "User2");
+    }
+  }
+
+  @Test
+  void shouldRunOnTheConfiguredExecutorAndCommit() throws Exception {
+    AtomicInteger tasks = new AtomicInteger();
+    Executor executor = command -> {
+      tasks.incrementAndGet();
+      new Thread(command).start();
+    };
+    sqlSessionFactory.getConfiguration().setAsyncMapperExecutor(executor);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = new User();
+      user.setId(3);
+      user.setName("User3");
+      assertEquals(1, mapper.insertUser(user).get().intValue());
+      assertEquals(1, tasks.get());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("User3", sqlSession.getMapper(Mapper.class).getUser(3).get().getName());
+    }
+  }
+
+  @Test
+  void shouldBoundTheDefaultExecutorByThePoolSize() {
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(),
+        new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:async_mapper", "sa", "")));
+    ((PooledDataSource) configuration.getEnvironment().getDataSource()).setPoolMaximumActiveConnections(3);
+
+    Executor executor = configuration.getAsyncMapperExecutor();
+    assertTrue(executor instanceof ThreadPoolExecutor);
+    assertEquals(3, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+    assertSame(executor, configuration.getAsyncMapperExecutor());
+  }
+
+  @Test
+  void shouldCreateTheDefaultSessionFactoryOnce() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    assertSame(configuration.getAsyncSqlSessionFactory(), configuration.getAsyncSqlSessionFactory());
+  }
+
+  @Test
+  void shouldCompleteExceptionallyWhenTheStatementFails() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      ExecutionException e = assertThrows(ExecutionException.class, () -> mapper.getFromMissingTable().get());
+      assertTrue(e.getCause() instanceof PersistenceException);
+    }
+  }
+
+  @Test
+  void shouldRejectCursorsInFutures() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThrows(BindingException.class, mapper::getUsersCursor);
+    }
+  }
+
+}
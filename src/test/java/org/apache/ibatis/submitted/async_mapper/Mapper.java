@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_mapper;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+
+public interface Mapper {
+
+  @Select("select * from users where id = #{id}")
+  CompletableFuture<User> getUser(Integer id);
+
+  @Select("select * from users where id = #{id}")
+  CompletableFuture<Optional<User>> findUser(Integer id);
+
+  @Select("select * from users order by id")
+  CompletionStage<List<User>> getUsers();
+
+  @Insert("insert into users values (#{id}, #{name})")
+  CompletableFuture<Integer> insertUser(User user);
+
+  @Select("select * from missing_table")
+  CompletableFuture<List<User>> getFromMissingTable();
+
+  @Select("select * from users")
+  CompletableFuture<Cursor<User>> getUsersCursor();
+
+}
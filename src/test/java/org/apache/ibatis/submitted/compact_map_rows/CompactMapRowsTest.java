@@ -0,0 +1,143 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compact_map_rows;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.resultset.CompactRow;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CompactMapRowsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    // create an SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compact_map_rows/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/compact_map_rows/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReturnCompactRows() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Map<String, Object>> users = mapper.getUsers();
+      assertThat(users).hasSize(3).allMatch(CompactRow.class::isInstance);
+      Map<String, Object> user = users.get(0);
+      assertThat(user.get("ID")).isEqualTo(1);
+      assertThat(user.get("id")).isEqualTo(1);
+      assertThat(user.get("Name")).isEqualTo("User1");
+      assertThat(user.containsKey("nickName")).isTrue();
+      assertThat(user.get("unknown")).isNull();
+      assertThat(user.keySet()).containsExactly("ID", "NAME", "NICKNAME");
+
+      Map<String, Object> expected = new HashMap<>();
+      expected.put("ID", 1);
+      expected.put("NAME", "User1");
+      expected.put("NICKNAME", "one");
+      assertThat(user).isEqualTo(expected);
+      assertThat(user.hashCode()).isEqualTo(expected.hashCode());
+      assertThrows(UnsupportedOperationException.class, () -> user.put("NAME", "User4"));
+      assertThrows(UnsupportedOperationException.class, () -> user.remove("NAME"));
+    }
+  }
+
+  @Test
+  void shouldLeaveNullColumnsOut() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Map<String, Object> user = mapper.getUser(2);
+      assertThat(user).hasSize(2).containsOnlyKeys("ID", "NAME");
+      assertThat(user.containsKey("nickname")).isFalse();
+      assertThat(mapper.getNickname(2)).isNull();
+    }
+  }
+
+  @Test
+  void shouldKeepNullColumnsWhenCallingSettersOnNulls() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setCallSettersOnNulls(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Map<String, Object> user = mapper.getUser(2);
+      assertThat(user).hasSize(3).containsEntry("NICKNAME", null);
+      assertThat(user.containsKey("nickname")).isTrue();
+    } finally {
+      configuration.setCallSettersOnNulls(false);
+    }
+  }
+
+  @Test
+  void shouldKeyMapByColumn() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Map<Integer, Map<String, Object>> users = mapper.getUserMap();
+      assertThat(users).containsOnlyKeys(1, 2, 3);
+      assertThat(users.get(3)).containsEntry("NAME", "User3");
+    }
+  }
+
+  @Test
+  void shouldCreateOtherMapTypes() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<HashMap<String, Object>> users = mapper.getHashMaps();
+      assertThat(users).hasSize(3).allMatch(user -> user.getClass() == HashMap.class);
+    }
+  }
+
+  @Test
+  void shouldSerializeRows() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<Map<String, Object>> users = mapper.getUsers();
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+        out.writeObject(users);
+      }
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> copy = (List<Map<String, Object>>) in.readObject();
+        assertThat(copy).isEqualTo(users);
+        assertThat(copy.get(1).get("name")).isEqualTo("User2");
+      }
+    }
+  }
+
+}
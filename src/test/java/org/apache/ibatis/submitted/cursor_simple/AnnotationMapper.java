@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2019 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -17,10 +17,14 @@ package org.apache.ibatis.submitted.cursor_simple;
 
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorPublisher;
 
 public interface AnnotationMapper {
 
   @Select("select * from users order by id")
   Cursor<User> getAllUsers();
 
+  @Select("select * from users order by id")
+  CursorPublisher<User> publishAllUsers();
+
 }
@@ -0,0 +1,157 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.CursorPublisher;
+import org.apache.ibatis.cursor.CursorSubscriber;
+import org.apache.ibatis.cursor.CursorSubscription;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CursorPublisherTest {
+
+  private static final String GET_ALL_USERS = "org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsers";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addMapper(AnnotationMapper.class);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  void shouldFetchRowsOnDemand() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CursorPublisher<User> publisher = sqlSession.getMapper(AnnotationMapper.class).publishAllUsers();
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      publisher.subscribe(subscriber);
+      assertTrue(subscriber.names.isEmpty());
+
+      subscriber.subscription.request(2);
+      assertEquals("[User1, User2]", subscriber.names.toString());
+      assertFalse(subscriber.completed);
+
+      subscriber.subscription.request(10);
+      assertEquals("[User1, User2, User3, User4, User5]", subscriber.names.toString());
+      assertTrue(subscriber.completed);
+      assertNull(subscriber.error);
+    }
+  }
+
+  @Test
+  void shouldAllowRequestsFromOnNext() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      RecordingSubscriber subscriber = new RecordingSubscriber() {
+        @Override
+        public void onNext(User row) {
+          super.onNext(row);
+          subscription.request(1);
+        }
+      };
+      sqlSession.<User>selectPublisher(GET_ALL_USERS, null, new RowBounds(1, 3)).subscribe(subscriber);
+      subscriber.subscription.request(1);
+      assertEquals("[User2, User3, User4]", subscriber.names.toString());
+      assertTrue(subscriber.completed);
+    }
+  }
+
+  @Test
+  void shouldStopWhenCancelled() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      RecordingSubscriber subscriber = new RecordingSubscriber() {
+        @Override
+        public void onNext(User row) {
+          super.onNext(row);
+          subscription.cancel();
+        }
+      };
+      sqlSession.<User>selectPublisher(GET_ALL_USERS).subscribe(subscriber);
+      subscriber.subscription.request(Long.MAX_VALUE);
+      subscriber.subscription.request(1);
+      assertEquals("[User1]", subscriber.names.toString());
+      assertFalse(subscriber.completed);
+      assertNull(subscriber.error);
+
+      // the cursor is closed so the session can run other statements
+      assertEquals(5, sqlSession.selectList(GET_ALL_USERS).size());
+    }
+  }
+
+  @Test
+  void shouldSignalInvalidRequestsAndSecondSubscriptions() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CursorPublisher<User> publisher = sqlSession.selectPublisher(GET_ALL_USERS);
+      RecordingSubscriber first = new RecordingSubscriber();
+      publisher.subscribe(first);
+      first.subscription.request(0);
+      assertTrue(first.error instanceof IllegalArgumentException);
+
+      RecordingSubscriber second = new RecordingSubscriber();
+      publisher.subscribe(second);
+      assertTrue(second.error instanceof IllegalStateException);
+    }
+  }
+
+  private static class RecordingSubscriber implements CursorSubscriber<User> {
+
+    CursorSubscription subscription;
+    final List<String> names = new ArrayList<>();
+    boolean completed;
+    Throwable error;
+
+    @Override
+    public void onSubscribe(CursorSubscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(User row) {
+      names.add(row.getName());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+}
@@ -0,0 +1,161 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class PrefetchingCursorTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().setCursorPrefetchSize(2);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  void shouldReturnAllRowsInOrder() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      assertTrue(usersCursor instanceof PrefetchingCursor);
+      assertFalse(usersCursor.isOpen());
+      assertEquals(-1, usersCursor.getCurrentIndex());
+
+      List<String> names = new ArrayList<>();
+      Iterator<User> iterator = usersCursor.iterator();
+      assertTrue(iterator.hasNext());
+      assertTrue(usersCursor.isOpen());
+      while (iterator.hasNext()) {
+        names.add(iterator.next().getName());
+        assertEquals(names.size() - 1, usersCursor.getCurrentIndex());
+      }
+
+      assertEquals("[User1, User2, User3, User4, User5]", names.toString());
+      assertFalse(usersCursor.isOpen());
+      assertTrue(usersCursor.isConsumed());
+      assertThrows(NoSuchElementException.class, iterator::next);
+    }
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.selectCursor("getAllUsers", null, new RowBounds(1, 3));
+      Iterator<User> iterator = usersCursor.iterator();
+      assertEquals("User2", iterator.next().getName());
+      assertEquals(1, usersCursor.getCurrentIndex());
+      assertEquals("User3", iterator.next().getName());
+      assertEquals("User4", iterator.next().getName());
+      assertEquals(3, usersCursor.getCurrentIndex());
+      assertFalse(iterator.hasNext());
+      assertTrue(usersCursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldStopFetchingWhenClosed() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      Iterator<User> iterator = usersCursor.iterator();
+      assertEquals("User1", iterator.next().getName());
+
+      usersCursor.close();
+      assertFalse(usersCursor.isOpen());
+      assertFalse(usersCursor.isConsumed());
+      assertFalse(iterator.hasNext());
+
+      // the session can be used again once the cursor is closed
+      List<User> users = sqlSession.selectList("getAllUsers");
+      assertEquals(5, users.size());
+    }
+  }
+
+  @Test
+  void shouldBeClosedWithTheSession() {
+    Cursor<User> usersCursor;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      assertEquals("User1", usersCursor.iterator().next().getName());
+    }
+    assertFalse(usersCursor.isOpen());
+    assertFalse(usersCursor.isConsumed());
+  }
+
+  @Test
+  void shouldReadRowsOnConsumerWhenExecutorIsBusy() {
+    List<Runnable> pending = new ArrayList<>();
+    sqlSessionFactory.getConfiguration().setCursorPrefetchExecutor(pending::add);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      List<String> names = new ArrayList<>();
+      usersCursor.forEach(user -> names.add(user.getName()));
+
+      assertEquals("[User1, User2, User3, User4, User5]", names.toString());
+      assertTrue(usersCursor.isConsumed());
+      // the task does nothing once the consumer has read the rows
+      pending.forEach(Runnable::run);
+      assertEquals(1, pending.size());
+    } finally {
+      sqlSessionFactory.getConfiguration().setCursorPrefetchExecutor(null);
+    }
+  }
+
+  @Test
+  void shouldReturnThreadToExecutorWhenClosed() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    sqlSessionFactory.getConfiguration().setCursorPrefetchExecutor(executor);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      assertEquals("User1", usersCursor.iterator().next().getName());
+      usersCursor.close();
+
+      assertEquals("done", executor.submit(() -> "done").get(10, TimeUnit.SECONDS));
+    } finally {
+      sqlSessionFactory.getConfiguration().setCursorPrefetchExecutor(null);
+      executor.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,77 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.mapper_implementation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.MapKey;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+@org.apache.ibatis.annotations.Mapper
+public interface Mapper {
+
+  @Select("select * from users where id = #{id}")
+  User getUser(Integer id);
+
+  @Select("select * from users where id = #{id}")
+  Optional<User> findUser(int id);
+
+  @Select("select * from users where id = #{id} and name = #{name}")
+  User getUserByIdAndName(@Param("id") Integer id, @Param("name") String name);
+
+  @Select("select * from users where id > #{param1} order by id")
+  List<User> getUsersAfter(@Param("id") Integer id, RowBounds rowBounds);
+
+  @Select("select * from users order by id")
+  Set<User> getUserSet();
+
+  @Select("select * from users order by id")
+  User[] getUserArray();
+
+  @MapKey("id")
+  @Select("select * from users")
+  Map<Integer, User> getUserMap();
+
+  @Select("select count(*) from users")
+  int countUsers();
+
+  @Select("select max(id) from users where id > #{id}")
+  int getMaxIdAfter(@Param("id") Integer id);
+
+  @ResultType(User.class)
+  @Select("select * from users order by id")
+  void getUsers(ResultHandler<User> handler);
+
+  @Insert("insert into users (id, name) values (#{id}, #{name})")
+  int insertUser(User user);
+
+  @Update("update users set name = #{name} where id = #{id}")
+  boolean renameUser(@Param("id") Integer id, @Param("name") String name);
+
+  @Delete("delete from users where id = #{id}")
+  void deleteUser(Integer id);
+
+}
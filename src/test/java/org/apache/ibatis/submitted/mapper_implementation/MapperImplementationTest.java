@@ -0,0 +1,206 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.mapper_implementation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.Reader;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.builder.annotation.MapperImplementationProcessor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MapperImplementationTest {
+
+  private static Path classes;
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp(@TempDir Path output) throws Exception {
+    classes = output;
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assumeTrue(compiler != null, "requires a JDK");
+
+    // generate and compile the implementation of the mapper
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options(output),
+        Collections.singletonList(Mapper.class.getName()), null);
+    task.setProcessors(Collections.singletonList(new MapperImplementationProcessor()));
+    assertThat(task.call()).as(diagnostics.getDiagnostics().toString()).isTrue();
+
+    // create an SqlSessionFactory, which finds the implementation when adding the mapper
+    ClassLoader contextClassLoader = useGeneratedClasses();
+    try (Reader reader = Resources.getResourceAsReader(
+        "org/apache/ibatis/submitted/mapper_implementation/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  private static ClassLoader useGeneratedClasses() throws Exception {
+    Thread thread = Thread.currentThread();
+    ClassLoader contextClassLoader = thread.getContextClassLoader();
+    thread.setContextClassLoader(new URLClassLoader(new URL[] { classes.toUri().toURL() },
+        MapperImplementationTest.class.getClassLoader()));
+    return contextClassLoader;
+  }
+
+  @BeforeEach
+  void populateDatabase() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/mapper_implementation/CreateDB.sql");
+  }
+
+  @Test
+  void shouldSelectThroughGeneratedImplementation() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(mapper.getClass().getName()).isEqualTo(Mapper.class.getName() + "Impl");
+      assertThat(mapper.getUser(1).getName()).isEqualTo("User1");
+      assertThat(mapper.findUser(2).map(User::getName)).hasValue("User2");
+      assertThat(mapper.findUser(4)).isEmpty();
+      assertThat(mapper.getUserByIdAndName(3, "User3").getId()).isEqualTo(3);
+      assertThat(mapper.getUsersAfter(1, new RowBounds(1, 1))).extracting(User::getName).containsExactly("User3");
+      assertThat(mapper.getUserSet()).hasSize(3);
+      assertThat(mapper.getUserArray()).extracting(User::getName).containsExactly("User1", "User2", "User3");
+      Map<Integer, User> users = mapper.getUserMap();
+      assertThat(users).containsOnlyKeys(1, 2, 3);
+      assertThat(mapper.countUsers()).isEqualTo(3);
+      List<String> names = new ArrayList<>();
+      mapper.getUsers(context -> names.add(context.getResultObject().getName()));
+      assertThat(names).containsExactly("User1", "User2", "User3");
+    }
+  }
+
+  @Test
+  void shouldNotReturnNullFromPrimitiveMethod() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertThat(mapper.getMaxIdAfter(1)).isEqualTo(3);
+      assertThrows(BindingException.class, () -> mapper.getMaxIdAfter(3));
+    }
+  }
+
+  @Test
+  void shouldUpdateThroughGeneratedImplementation() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = new User();
+      user.setId(4);
+      user.setName("User4");
+      assertThat(mapper.insertUser(user)).isEqualTo(1);
+      assertThat(mapper.renameUser(4, "Renamed")).isTrue();
+      assertThat(mapper.renameUser(5, "Missing")).isFalse();
+      assertThat(mapper.getUser(4).getName()).isEqualTo("Renamed");
+      mapper.deleteUser(4);
+      assertThat(mapper.getUser(4)).isNull();
+    }
+  }
+
+  @Test
+  void shouldReadAndWritePropertiesThroughGeneratedWrapper() {
+    MetaObject metaObject = sqlSessionFactory.getConfiguration().newMetaObject(new User());
+    assertThat(metaObject.getObjectWrapper().getClass().getName()).isEqualTo(Mapper.class.getName() + "Impl$UserWrapper");
+    metaObject.setValue("id", 1);
+    metaObject.setValue("name", "User1");
+    assertThat(metaObject.getValue("id")).isEqualTo(1);
+    assertThat(metaObject.getValue("name")).isEqualTo("User1");
+    // values of another type fail as they would on the reflective path
+    assertThrows(ReflectionException.class, () -> metaObject.setValue("id", "one"));
+    assertThrows(ReflectionException.class, () -> metaObject.getValue("missing"));
+  }
+
+  @Test
+  void shouldUseProxyUnlessGeneratedImplementationsAreEnabled() throws Exception {
+    Configuration configuration = new Configuration();
+    ClassLoader contextClassLoader = useGeneratedClasses();
+    try {
+      configuration.addMapper(Mapper.class);
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+    assertThat(configuration.getMapper(Mapper.class, null).getClass().getName())
+        .isNotEqualTo(Mapper.class.getName() + "Impl");
+    assertThat(configuration.newMetaObject(new User()).getObjectWrapper()).isInstanceOf(BeanWrapper.class);
+  }
+
+  @Test
+  void shouldSkipMapperWithUnnamedParameters(@TempDir Path output) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    String source = "package org.apache.ibatis.submitted.mapper_implementation;\n"
+        + "@org.apache.ibatis.annotations.Mapper\n"
+        + "public interface UnsupportedMapper {\n"
+        + "  @org.apache.ibatis.annotations.Select(\"select * from users where id = #{arg0} and name = #{arg1}\")\n"
+        + "  User getUser(Integer id, String name);\n"
+        + "}\n";
+    JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///UnsupportedMapper.java"),
+        JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options(output), null,
+        Collections.singletonList(file));
+    task.setProcessors(Collections.singletonList(new MapperImplementationProcessor()));
+    assertThat(task.call()).isTrue();
+    assertThat(diagnostics.getDiagnostics()).anySatisfy(diagnostic -> {
+      assertThat(diagnostic.getKind()).isEqualTo(Diagnostic.Kind.NOTE);
+      assertThat(diagnostic.getMessage(null)).contains("getUser() has parameters without @Param");
+    });
+    assertThat(output.resolve("org/apache/ibatis/submitted/mapper_implementation/UnsupportedMapperImpl.java"))
+        .doesNotExist();
+  }
+
+  private static List<String> options(Path output) {
+    return Arrays.asList("-d", output.toString(), "-s", output.toString(), "-classpath",
+        System.getProperty("java.class.path"));
+  }
+
+}
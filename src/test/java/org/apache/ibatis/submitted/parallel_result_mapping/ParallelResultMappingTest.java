@@ -0,0 +1,127 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_result_mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelResultMappingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_result_mapping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/parallel_result_mapping/CreateDB.sql");
+  }
+
+  @Test
+  void shouldMapObjectsInOrder() {
+    List<Item> items = select(Mapper::getItems);
+    assertEquals(2501, items.size());
+    assertEquals("1:Item1:1.50", items.get(0).toString());
+    assertEquals("2500:Item2500:3750.00", items.get(2499).toString());
+    assertNull(items.get(2500));
+    assertEquals(selectSequentially(Mapper::getItems).toString(), items.toString());
+  }
+
+  @Test
+  void shouldMapMapsInOrder() {
+    List<Map<String, Object>> items = select(Mapper::getItemMaps);
+    assertEquals(2501, items.size());
+    assertEquals(selectSequentially(Mapper::getItemMaps).toString(), items.toString());
+  }
+
+  @Test
+  void shouldApplyRowBounds() {
+    List<Item> items = select(mapper -> mapper.getItems(new RowBounds(1000, 1500)));
+    assertEquals(1500, items.size());
+    assertEquals(1001, items.get(0).getId().intValue());
+    assertEquals(2500, items.get(1499).getId().intValue());
+  }
+
+  @Test
+  void shouldMapOnTheConfiguredExecutor() {
+    AtomicInteger batches = new AtomicInteger();
+    sqlSessionFactory.getConfiguration().setResultMappingExecutor(task -> {
+      batches.incrementAndGet();
+      task.run();
+    });
+    try {
+      assertEquals(2501, select(Mapper::getItems).size());
+      assertEquals(2, batches.get());
+    } finally {
+      sqlSessionFactory.getConfiguration().setResultMappingExecutor(null);
+    }
+  }
+
+  @Test
+  void shouldMapOnTheCallingThreadWithCustomObjectFactory() {
+    AtomicInteger batches = new AtomicInteger();
+    ObjectFactory objectFactory = sqlSessionFactory.getConfiguration().getObjectFactory();
+    sqlSessionFactory.getConfiguration().setObjectFactory(new DefaultObjectFactory() {
+      private static final long serialVersionUID = 1L;
+    });
+    sqlSessionFactory.getConfiguration().setResultMappingExecutor(task -> {
+      batches.incrementAndGet();
+      task.run();
+    });
+    try {
+      assertEquals(selectSequentially(Mapper::getItems).toString(), select(Mapper::getItems).toString());
+      assertEquals(0, batches.get());
+    } finally {
+      sqlSessionFactory.getConfiguration().setObjectFactory(objectFactory);
+      sqlSessionFactory.getConfiguration().setResultMappingExecutor(null);
+    }
+  }
+
+  private <T> T select(Function<Mapper, T> query) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return query.apply(sqlSession.getMapper(Mapper.class));
+    }
+  }
+
+  private <T> T selectSequentially(Function<Mapper, T> query) {
+    sqlSessionFactory.getConfiguration().setParallelResultMappingEnabled(false);
+    try {
+      return select(query);
+    } finally {
+      sqlSessionFactory.getConfiguration().setParallelResultMappingEnabled(true);
+    }
+  }
+
+}
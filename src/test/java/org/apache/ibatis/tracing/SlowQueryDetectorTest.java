@@ -0,0 +1,259 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SlowQueryDetectorTest {
+
+  private static final String SELECT_AUTHOR = AuthorMapper.class.getName() + ".selectAuthor";
+  private static final String SELECT_AUTHORS = AuthorMapper.class.getName() + ".selectAuthors";
+  private static final String UPDATE_BIO = AuthorMapper.class.getName() + ".updateBio";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    Configuration configuration = new Configuration(
+        new Environment("test", new JdbcTransactionFactory(), BaseDataTest.createBlogDataSource()));
+    configuration.addMapper(AuthorMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @AfterEach
+  void removeDetector() {
+    sqlSessionFactory.getConfiguration().setSlowQueryDetector(null);
+    sqlSessionFactory.getConfiguration().setTraceListener(null);
+  }
+
+  @Test
+  void shouldCaptureParametersRowsAndPhases() {
+    SlowQueryDetector detector = new SlowQueryDetector(0);
+    sqlSessionFactory.getConfiguration().setSlowQueryDetector(detector);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(AuthorMapper.class).selectAuthors(101, "sally");
+    }
+    List<SlowQueryDetector.SlowQuery> slowQueries = detector.getSlowQueries();
+    assertEquals(1, slowQueries.size());
+    SlowQueryDetector.SlowQuery slowQuery = slowQueries.get(0);
+    assertEquals(SELECT_AUTHORS, slowQuery.getStatementId());
+    assertEquals(Arrays.asList(101, "sally"), slowQuery.getParameters());
+    assertEquals(2, slowQuery.getRows());
+    assertTrue(slowQuery.getPhaseTimes().containsKey(TracePhase.EXECUTE));
+    assertTrue(slowQuery.getPhaseTimes().containsKey(TracePhase.MAPPING));
+    assertNull(slowQuery.getPlan());
+    assertTrue(slowQuery.toString().contains("parameters=[101, sally] rows=2"));
+  }
+
+  @Test
+  void shouldApplyStatementThresholds() {
+    SlowQueryDetector detector = new SlowQueryDetector(60000);
+    detector.setThresholdMillis(SELECT_AUTHOR, 0);
+    sqlSessionFactory.getConfiguration().setSlowQueryDetector(detector);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      mapper.selectAuthor(101);
+      mapper.selectAuthors(101, "sally");
+    }
+    assertEquals(1, detector.getDetectedCount());
+    assertEquals(SELECT_AUTHOR, detector.getSlowQueries().get(0).getStatementId());
+    detector.removeThreshold(SELECT_AUTHOR);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(AuthorMapper.class).selectAuthor(101);
+    }
+    assertEquals(1, detector.getDetectedCount());
+  }
+
+  @Test
+  void shouldCaptureUpdateCounts() {
+    SlowQueryDetector detector = new SlowQueryDetector(0);
+    detector.setExplainer((connection, ms, boundSql, parameters) -> fail("Only selects should be explained"));
+    detector.setExplainExecutor(Runnable::run);
+    sqlSessionFactory.getConfiguration().setSlowQueryDetector(detector);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(AuthorMapper.class).updateBio(101, "new bio");
+      session.rollback(true);
+    }
+    SlowQueryDetector.SlowQuery slowQuery = detector.getSlowQueries().get(0);
+    assertEquals(UPDATE_BIO, slowQuery.getStatementId());
+    assertEquals(Arrays.asList("new bio", 101), slowQuery.getParameters());
+    assertEquals(1, slowQuery.getRows());
+  }
+
+  @Test
+  void shouldCaptureExecutionsFailingToBindTheirParameters() {
+    SlowQueryDetector detector = new SlowQueryDetector(0);
+    sqlSessionFactory.getConfiguration().setSlowQueryDetector(detector);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      assertThrows(PersistenceException.class, () -> mapper.selectAuthorByMissingParam(101));
+    }
+    assertNull(TraceContext.current());
+    assertTrue(detector.getSlowQueries().get(0).getParameters().isEmpty());
+  }
+
+  @Test
+  void shouldExplainInTheBackgroundOnAConnectionOfItsOwn() throws Exception {
+    Thread requestThread = Thread.currentThread();
+    List<Connection> connections = new CopyOnWriteArrayList<>();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    SlowQueryDetector detector = new SlowQueryDetector(0);
+    detector.setExplainExecutor(executor);
+    detector.setExplainer((connection, ms, boundSql, parameters) -> {
+      assertFalse(connection.isClosed());
+      assertNotSame(requestThread, Thread.currentThread());
+      connections.add(connection);
+      return "plan of " + boundSql.getSql() + " with " + parameters;
+    });
+    sqlSessionFactory.getConfiguration().setSlowQueryDetector(detector);
+    SlowQueryDetector.SlowQuery slowQuery;
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(AuthorMapper.class).selectAuthor(101);
+      slowQuery = detector.getSlowQueries().get(0);
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+      assertNotSame(session.getConnection(), connections.get(0));
+    }
+    assertTrue(slowQuery.getPlan().startsWith("plan of select id"));
+    assertTrue(slowQuery.getPlan().endsWith(" with [101]"));
+  }
+
+  @Test
+  void shouldBindTheParametersThroughTheirTypeHandlers() throws Exception {
+    SlowQueryDetector detector = new SlowQueryDetector(0);
+    // Derby has no EXPLAIN statement, running the select itself shows how its parameters were bound
+    detector.setExplainer(new ExplainStatementExplainer(""));
+    detector.setExplainExecutor(Runnable::run);
+    sqlSessionFactory.getConfiguration().setSlowQueryDetector(detector);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(AuthorMapper.class).selectAuthorsByNullableName(null, 101);
+    }
+    SlowQueryDetector.SlowQuery slowQuery = detector.getSlowQueries().get(0);
+    assertEquals(Arrays.asList(null, 101), slowQuery.getParameters());
+    assertTrue(slowQuery.getPlan().startsWith("101\tjim\t"));
+  }
+
+  @Test
+  void shouldKeepTheLastSlowQueriesAlongWithTheTraceListener() {
+    SlowQueryDetector detector = new SlowQueryDetector(0, 2);
+    TraceRecorder recorder = new TraceRecorder();
+    sqlSessionFactory.getConfiguration().setSlowQueryDetector(detector);
+    sqlSessionFactory.getConfiguration().setTraceListener(recorder);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AuthorMapper mapper = session.getMapper(AuthorMapper.class);
+      mapper.selectAuthor(101);
+      mapper.selectAuthors(101, "sally");
+      mapper.selectAuthor(102);
+    }
+    assertEquals(3, detector.getDetectedCount());
+    List<SlowQueryDetector.SlowQuery> slowQueries = detector.getSlowQueries();
+    assertEquals(2, slowQueries.size());
+    assertEquals(Collections.singletonList(102), slowQueries.get(0).getParameters());
+    assertEquals(SELECT_AUTHORS, slowQueries.get(1).getStatementId());
+    assertEquals(3, recorder.getSlowest(10).size());
+    detector.clear();
+    assertTrue(detector.getSlowQueries().isEmpty());
+  }
+
+  @Test
+  void shouldExposeSlowQueriesThroughJmx() throws Exception {
+    SlowQueryDetector detector = new SlowQueryDetector(-1);
+    detector.setThresholdMillis(SELECT_AUTHOR, 0);
+    sqlSessionFactory.getConfiguration().setSlowQueryDetector(detector);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(AuthorMapper.class).selectAuthor(101);
+    }
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    ObjectName name = new ObjectName("org.mybatis:type=SlowQueryDetector");
+    server.registerMBean(detector, name);
+    assertEquals(-1L, server.getAttribute(name, "ThresholdMillis"));
+    assertEquals(1L, server.getAttribute(name, "DetectedCount"));
+    String[] slowQueries = (String[]) server.getAttribute(name, "RecentSlowQueries");
+    assertTrue(slowQueries[0].startsWith(SELECT_AUTHOR + " "));
+    server.invoke(name, "clear", new Object[0], new String[0]);
+    assertEquals(0L, server.getAttribute(name, "DetectedCount"));
+  }
+
+  @Test
+  void shouldRunExplainStatements() throws Exception {
+    try (Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:explain", "sa", "");
+         Statement statement = connection.createStatement()) {
+      statement.execute("create table item (id int primary key, name varchar(20))");
+      Configuration configuration = new Configuration();
+      StaticSqlSource sqlSource = new StaticSqlSource(configuration, "select name from item where id = 1");
+      MappedStatement ms = new MappedStatement.Builder(configuration, "selectItem", sqlSource, SqlCommandType.SELECT)
+          .build();
+      String plan = new ExplainStatementExplainer("EXPLAIN PLAN FOR ").explain(connection, ms,
+          ms.getBoundSql(null), Collections.emptyList());
+      assertTrue(plan.contains("ITEM"));
+      statement.execute("drop table item");
+    }
+  }
+
+  interface AuthorMapper {
+
+    @Select("select id, username, password, email, bio from author where id = #{id}")
+    Author selectAuthor(int id);
+
+    @Select("select id, username, password, email, bio from author where id = #{id} or username = #{username} order by id")
+    List<Author> selectAuthors(@Param("id") int id, @Param("username") String username);
+
+    @Select("select id, username, password, email, bio from author where id = #{id} and username = #{missing}")
+    Author selectAuthorByMissingParam(@Param("id") int id);
+
+    @Select("select id, username, password, email, bio from author where username = #{username,jdbcType=VARCHAR} or id = #{id}")
+    List<Author> selectAuthorsByNullableName(@Param("username") String username, @Param("id") int id);
+
+    @Update("update author set bio = #{bio} where id = #{id}")
+    int updateBio(@Param("id") int id, @Param("bio") String bio);
+
+  }
+
+}
@@ -0,0 +1,180 @@
+/**
+ *    Copyright 2009-2019 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.One;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.FetchType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class TraceRecorderTest {
+
+  private static final String SELECT_AUTHOR = BlogMapper.class.getName() + ".selectAuthor";
+  private static final String SELECT_BLOG = BlogMapper.class.getName() + ".selectBlog";
+  private static final String SELECT_BLOG_LAZILY = BlogMapper.class.getName() + ".selectBlogLazily";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    Configuration configuration = new Configuration(
+        new Environment("test", new JdbcTransactionFactory(), BaseDataTest.createBlogDataSource()));
+    configuration.addMapper(BlogMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @AfterEach
+  void removeListener() {
+    sqlSessionFactory.getConfiguration().setTraceListener(null);
+  }
+
+  @Test
+  void shouldReportEachPhaseOfAQuery() {
+    EventListener listener = new EventListener();
+    sqlSessionFactory.getConfiguration().setTraceListener(listener);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(BlogMapper.class).selectAuthor(101);
+    }
+    assertEquals(Arrays.asList(
+        "start selectAuthor EXECUTION",
+        "start selectAuthor BOUND_SQL", "end selectAuthor BOUND_SQL",
+        "start selectAuthor CONNECTION", "end selectAuthor CONNECTION",
+        "start selectAuthor PREPARE", "end selectAuthor PREPARE",
+        "start selectAuthor EXECUTE", "end selectAuthor EXECUTE",
+        "start selectAuthor MAPPING",
+        "start selectAuthor FETCH", "end selectAuthor FETCH",
+        "end selectAuthor MAPPING",
+        "end selectAuthor EXECUTION"), listener.events);
+    assertNull(TraceContext.current());
+  }
+
+  @Test
+  void shouldNestTheContextsOfNestedSelects() {
+    EventListener listener = new EventListener();
+    sqlSessionFactory.getConfiguration().setTraceListener(listener);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      session.getMapper(BlogMapper.class).selectBlog(1);
+    }
+    assertTrue(listener.events.contains("start selectBlog<selectAuthor EXECUTION"));
+    assertTrue(listener.events.contains("end selectBlog<selectAuthor EXECUTE"));
+    int nestedEnd = listener.events.indexOf("end selectBlog<selectAuthor EXECUTION");
+    assertTrue(nestedEnd < listener.events.indexOf("end selectBlog MAPPING"));
+  }
+
+  @Test
+  void shouldRecordLazyLoads() {
+    TraceRecorder recorder = new TraceRecorder();
+    sqlSessionFactory.getConfiguration().setTraceListener(recorder);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Blog blog = session.getMapper(BlogMapper.class).selectBlogLazily(1);
+      assertEquals("jim", blog.getAuthor().getUsername());
+    }
+    List<TraceRecorder.Execution> executions = recorder.getSlowest(10);
+    assertEquals(2, executions.size());
+    TraceRecorder.Execution lazyLoad = executions.stream()
+        .filter(e -> e.getRootPhase() == TracePhase.LAZY_LOAD).findFirst().get();
+    assertEquals(SELECT_AUTHOR, lazyLoad.getStatementId());
+    assertTrue(lazyLoad.getPhaseTimes().containsKey(TracePhase.EXECUTE));
+    assertTrue(executions.stream().anyMatch(e -> e.getStatementId().equals(SELECT_BLOG_LAZILY)));
+  }
+
+  @Test
+  void shouldDumpTheSlowestExecutions() {
+    TraceRecorder recorder = new TraceRecorder(2);
+    sqlSessionFactory.getConfiguration().setTraceListener(recorder);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      BlogMapper mapper = session.getMapper(BlogMapper.class);
+      mapper.selectAuthor(101);
+      mapper.selectBlog(1);
+      mapper.selectAuthor(102);
+    }
+    List<TraceRecorder.Execution> slowest = recorder.getSlowest(5);
+    assertEquals(2, slowest.size());
+    assertTrue(slowest.get(0).getElapsedNanos() >= slowest.get(1).getElapsedNanos());
+    assertTrue(slowest.stream().anyMatch(e -> e.getStatementId().equals(SELECT_BLOG)));
+    String dump = recorder.dump(1);
+    assertTrue(dump.startsWith(slowest.get(0).getStatementId() + " "));
+    assertTrue(dump.contains("execute="));
+    assertTrue(dump.contains("select id"));
+    recorder.clear();
+    assertTrue(recorder.getSlowest(5).isEmpty());
+  }
+
+  private static class EventListener implements TraceListener {
+
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public void phaseStarted(TraceContext context, TracePhase phase) {
+      events.add("start " + path(context) + " " + phase);
+    }
+
+    @Override
+    public void phaseEnded(TraceContext context, TracePhase phase, long elapsedNanos) {
+      assertTrue(elapsedNanos >= 0);
+      events.add("end " + path(context) + " " + phase);
+    }
+
+    private String path(TraceContext context) {
+      String name = context.getMappedStatement().getId().substring(BlogMapper.class.getName().length() + 1);
+      return context.getParent() == null ? name : path(context.getParent()) + "<" + name;
+    }
+
+  }
+
+  interface BlogMapper {
+
+    @Select("select id, username, password, email, bio from author where id = #{id}")
+    Author selectAuthor(int id);
+
+    @Select("select id, author_id, title from blog where id = #{id}")
+    @Results({
+        @Result(property = "id", column = "id", id = true),
+        @Result(property = "title", column = "title"),
+        @Result(property = "author", column = "author_id", one = @One(select = "selectAuthor", fetchType = FetchType.EAGER))
+    })
+    Blog selectBlog(int id);
+
+    @Select("select id, author_id, title from blog where id = #{id}")
+    @Results({
+        @Result(property = "id", column = "id", id = true),
+        @Result(property = "title", column = "title"),
+        @Result(property = "author", column = "author_id", one = @One(select = "selectAuthor", fetchType = FetchType.LAZY))
+    })
+    Blog selectBlogLazily(int id);
+
+  }
+
+}